@@ -0,0 +1,63 @@
+package de.htwberlin.webtech.calendar.benchmark;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.service.EventService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht das Anlegen von Events einzeln (eine Transaktion und ein INSERT-Roundtrip pro Event)
+ * mit dem gebündelten Anlegen über {@link EventService#createEvents(List)}.
+ * Angegeben wird die Zeit pro angelegtem Event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BatchInsertBenchmark {
+
+    private static final int EVENTS_PER_INVOCATION = 500;
+
+    private ConfigurableApplicationContext context;
+    private EventService eventService;
+    private List<Event> template;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startContext();
+        eventService = context.getBean(EventService.class);
+        template = BenchmarkSupport.randomEvents(EVENTS_PER_INVOCATION, 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_INVOCATION)
+    public void singleInserts() {
+        for (Event event : freshEvents()) {
+            eventService.createEvent(Event.DEFAULT_CALENDAR, event);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_INVOCATION)
+    public List<Event> batchInsert() {
+        return eventService.createEvents(Event.DEFAULT_CALENDAR, freshEvents());
+    }
+
+    // Neue, noch nicht gespeicherte Instanzen, da save() die übergebenen Events mit IDs versieht
+    private List<Event> freshEvents() {
+        List<Event> events = new ArrayList<>(template.size());
+        for (Event event : template) {
+            events.add(new Event(null, event.getTitle(), event.getDescription(),
+                    event.getStartDateTime(), event.getEndDateTime(), event.getIsCompleted()));
+        }
+        return events;
+    }
+}
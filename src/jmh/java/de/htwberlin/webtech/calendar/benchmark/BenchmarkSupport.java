@@ -0,0 +1,95 @@
+package de.htwberlin.webtech.calendar.benchmark;
+
+import de.htwberlin.webtech.calendar.CalendarApplication;
+import de.htwberlin.webtech.calendar.model.Event;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Gemeinsame Hilfsmethoden für die Benchmarks: Spring-Kontext gegen eine frische H2-Datenbank starten
+ * und reproduzierbare Testdaten erzeugen.
+ */
+public final class BenchmarkSupport {
+
+    // Zeitraum, über den die Testdaten verteilt werden (ca. fünf Jahre)
+    public static final LocalDateTime DATA_START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    public static final int DATA_DAYS = 5 * 365;
+
+    private static final String[] WORDS = {
+            "Meeting", "Review", "Standup", "Workshop", "Deadline", "Lunch", "Call", "Planning",
+            "Retro", "Demo", "Interview", "Training", "Sprint", "Release", "Doctor", "Gym"
+    };
+    private static final int INSERT_BATCH_SIZE = 5_000;
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Startet die Anwendung ohne Webserver gegen eine eigene In-Memory-H2-Datenbank.
+     * @param properties Zusätzliche Properties im Format "key=value".
+     * @return Der gestartete Spring-Kontext.
+     */
+    public static ConfigurableApplicationContext startContext(String... properties) {
+        // Als Kommandozeilenargumente übergeben: properties() setzt nur Defaults, die application.properties überschreibt
+        Stream<String> defaults = Stream.of(
+                "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "spring.jpa.show-sql=false",
+                "spring.h2.console.enabled=false",
+                "logging.level.root=WARN");
+        return new SpringApplicationBuilder(CalendarApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(Stream.concat(defaults, Arrays.stream(properties)).map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    /**
+     * Erzeugt reproduzierbare Events, verteilt über {@link #DATA_DAYS} Tage ab {@link #DATA_START}.
+     * @param count Anzahl der Events.
+     * @param seed Startwert des Zufallsgenerators.
+     * @return Die erzeugten Events ohne ID.
+     */
+    public static List<Event> randomEvents(int count, long seed) {
+        Random random = new Random(seed);
+        List<Event> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = DATA_START.plusMinutes(random.nextInt(DATA_DAYS * 24 * 60));
+            // Meist kurze Termine, gelegentlich mehrtägige Events
+            int durationMinutes = random.nextInt(10) == 0 ? 60 * 24 * (1 + random.nextInt(3)) : 30 + random.nextInt(150);
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+            events.add(new Event(null, title, "Description of " + title.toLowerCase() + " #" + i,
+                    start, start.plusMinutes(durationMinutes), random.nextInt(4) == 0));
+        }
+        return events;
+    }
+
+    /**
+     * Schreibt die Events per JDBC-Batch direkt in die Tabelle, schneller als über JPA.
+     * @param jdbcTemplate JdbcTemplate des gestarteten Kontexts.
+     * @param events Die einzufügenden Events.
+     */
+    public static void insert(JdbcTemplate jdbcTemplate, List<Event> events) {
+        for (int from = 0; from < events.size(); from += INSERT_BATCH_SIZE) {
+            List<Event> batch = events.subList(from, Math.min(from + INSERT_BATCH_SIZE, events.size()));
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO event (id, title, description, start_date_time, end_date_time, is_completed, version) " +
+                            "VALUES (NEXT VALUE FOR event_seq, ?, ?, ?, ?, ?, 0)",
+                    batch, batch.size(), (statement, event) -> {
+                        statement.setString(1, event.getTitle());
+                        statement.setString(2, event.getDescription());
+                        statement.setTimestamp(3, Timestamp.valueOf(event.getStartDateTime()));
+                        statement.setTimestamp(4, Timestamp.valueOf(event.getEndDateTime()));
+                        statement.setBoolean(5, event.getIsCompleted());
+                    });
+        }
+    }
+}
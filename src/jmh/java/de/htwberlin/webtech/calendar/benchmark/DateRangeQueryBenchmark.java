@@ -0,0 +1,70 @@
+package de.htwberlin.webtech.calendar.benchmark;
+
+import de.htwberlin.webtech.calendar.index.EventIntervalIndex;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.RangeMode;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import de.htwberlin.webtech.calendar.repository.EventSpecifications;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht die Datumsfilterung über die Specification (Datenbank) mit dem In-Memory-Intervall-Index.
+ * Abgefragt wird jeweils ein Monatsfenster in der Mitte des Datenbestands.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DateRangeQueryBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int eventCount;
+
+    private ConfigurableApplicationContext context;
+    private EventRepository eventRepository;
+    private EventIntervalIndex eventIntervalIndex;
+    private LocalDate windowStart;
+    private LocalDate windowEnd;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startContext("calendar.index.enabled=true");
+        BenchmarkSupport.insert(context.getBean(JdbcTemplate.class), BenchmarkSupport.randomEvents(eventCount, 42));
+        eventRepository = context.getBean(EventRepository.class);
+        eventIntervalIndex = context.getBean(EventIntervalIndex.class);
+        // Der Index wurde beim Start leer geladen; nach dem Einfügen erneut befüllen
+        eventIntervalIndex.load();
+
+        windowStart = BenchmarkSupport.DATA_START.toLocalDate().plusDays(BenchmarkSupport.DATA_DAYS / 2);
+        windowEnd = windowStart.plusMonths(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Event> specificationContained() {
+        return eventRepository.findAll(EventSpecifications.filter(Event.DEFAULT_CALENDAR,
+                windowStart, windowEnd, null, null, null, RangeMode.CONTAINED));
+    }
+
+    @Benchmark
+    public List<Event> indexContained() {
+        return eventIntervalIndex.findContained(Event.DEFAULT_CALENDAR,
+                windowStart.atStartOfDay(), windowEnd.atTime(LocalTime.MAX));
+    }
+
+    @Benchmark
+    public List<Event> indexOverlapping() {
+        return eventIntervalIndex.findOverlapping(Event.DEFAULT_CALENDAR,
+                windowStart.atStartOfDay(), windowEnd.plusDays(1).atStartOfDay());
+    }
+}
@@ -0,0 +1,77 @@
+package de.htwberlin.webtech.calendar.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.htwberlin.webtech.calendar.codec.EventColumnarCodec;
+import de.htwberlin.webtech.calendar.model.Event;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht Größe und Serialisierungszeit einer GET /events-Antwort mit 100.000 Events
+ * als JSON (wie von Spring MVC geschrieben) und im Spaltenformat von {@link EventColumnarCodec}.
+ * Die Größe in Bytes wird beim Setup ausgegeben, die Zeit pro Serialisierung misst JMH.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EventEncodingBenchmark {
+
+    @Param({"json", "columnar"})
+    public String format;
+
+    private List<Event> events;
+    // Mit denselben Einstellungen wie der ObjectMapper von Spring Boot (ISO-Datumsstrings)
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        events = BenchmarkSupport.randomEvents(100_000, 42);
+        Instant modified = Instant.parse("2025-01-01T00:00:00Z");
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            event.setId((long) i + 1);
+            event.setVersion(0L);
+            event.setLastModified(modified.plusMillis(i * 1_000L));
+        }
+        CountingOutputStream out = new CountingOutputStream();
+        encode(out);
+        System.out.printf("%n%s: %,d bytes for %,d events (%.1f bytes per event)%n",
+                format, out.count, events.size(), (double) out.count / events.size());
+    }
+
+    @Benchmark
+    public long encode() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        encode(out);
+        return out.count;
+    }
+
+    private void encode(OutputStream out) throws IOException {
+        if ("json".equals(format)) {
+            objectMapper.writeValue(out, events);
+        } else {
+            EventColumnarCodec.write(events, out);
+        }
+    }
+
+    // Verwirft die Daten, damit nur die Serialisierung gemessen wird und nicht das Kopieren in einen Puffer
+    private static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package de.htwberlin.webtech.calendar.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.Recurrence;
+import de.htwberlin.webtech.calendar.model.RecurrenceFrequency;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialisiert und deserialisiert {@link Event}-Listen als JSON, so wie Spring MVC Antworten schreibt und
+ * Request-Bodies (z.B. POST /events/batch) liest. Ein Event entspricht POST /events, 100 einer Wochen- oder Monatsansicht,
+ * 10.000 einem großen Export. Jedes zwanzigste Event ist eine Serie, damit auch die eingebettete Regel vorkommt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventJsonBenchmark {
+
+    private static final TypeReference<List<Event>> EVENT_LIST = new TypeReference<>() {
+    };
+
+    @Param({"1", "100", "10000"})
+    public int eventCount;
+
+    private List<Event> events;
+    private byte[] json;
+    // Mit denselben Einstellungen wie der ObjectMapper von Spring Boot (ISO-Datumsstrings)
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        events = BenchmarkSupport.randomEvents(eventCount, 42);
+        Instant modified = Instant.parse("2025-01-01T00:00:00Z");
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            event.setId((long) i + 1);
+            event.setVersion(0L);
+            event.setLastModified(modified.plusMillis(i * 1_000L));
+            if (i % 20 == 19) {
+                event.setRecurrence(new Recurrence(RecurrenceFrequency.WEEKLY, 1, null, 10, null));
+            }
+        }
+        json = objectMapper.writeValueAsBytes(events);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(events);
+    }
+
+    @Benchmark
+    public List<Event> deserialize() throws IOException {
+        return objectMapper.readValue(json, EVENT_LIST);
+    }
+}
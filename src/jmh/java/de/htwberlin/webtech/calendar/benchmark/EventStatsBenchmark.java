@@ -0,0 +1,63 @@
+package de.htwberlin.webtech.calendar.benchmark;
+
+import de.htwberlin.webtech.calendar.index.EventStatsRollup;
+import de.htwberlin.webtech.calendar.model.DailyEventStats;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventStats;
+import de.htwberlin.webtech.calendar.model.StatsBucket;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import de.htwberlin.webtech.calendar.service.EventStatsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht die Statistik eines Jahres (wöchentliche Abschnitte) aus den vorab aggregierten Tagessummen
+ * mit dem GROUP BY in der Datenbank. Beim Rollup hängt die Zeit von der Anzahl der Tage ab, nicht der Events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventStatsBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int eventCount;
+
+    private ConfigurableApplicationContext context;
+    private EventRepository eventRepository;
+    private EventStatsService statsService;
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startContext("calendar.stats.rollup.enabled=true");
+        BenchmarkSupport.insert(context.getBean(JdbcTemplate.class), BenchmarkSupport.randomEvents(eventCount, 42));
+        eventRepository = context.getBean(EventRepository.class);
+        statsService = context.getBean(EventStatsService.class);
+        // Der Rollup wurde beim Start leer geladen; nach dem Einfügen erneut befüllen
+        context.getBean(EventStatsRollup.class).load();
+
+        from = BenchmarkSupport.DATA_START.toLocalDate().plusYears(2);
+        to = from.plusYears(1).minusDays(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<EventStats> rollupWeekly() {
+        return statsService.getStats(Event.DEFAULT_CALENDAR, from, to, StatsBucket.WEEK);
+    }
+
+    @Benchmark
+    public List<DailyEventStats> databaseGroupBy() {
+        return eventRepository.sumByDay(Event.DEFAULT_CALENDAR, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+}
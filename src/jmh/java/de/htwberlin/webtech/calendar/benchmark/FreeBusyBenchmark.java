@@ -0,0 +1,65 @@
+package de.htwberlin.webtech.calendar.benchmark;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.service.FreeBusyService;
+import de.htwberlin.webtech.calendar.service.IntervalSweep;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst Frei/Belegt-Berechnung und Konfliktsuche von {@link IntervalSweep} über 100.000 Events in einem Bereich,
+ * einmal unsortiert (wie aus der Datenbank) und einmal nach Beginn sortiert (wie aus dem Intervall-Index).
+ * Die Datenbankabfrage selbst misst {@link DateRangeQueryBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FreeBusyBenchmark {
+
+    @Param({"false", "true"})
+    public boolean sorted;
+
+    private List<Event> events;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        events = BenchmarkSupport.randomEvents(100_000, 42);
+        for (int i = 0; i < events.size(); i++) {
+            events.get(i).setId((long) i + 1);
+        }
+        if (sorted) {
+            events.sort((a, b) -> a.getStartDateTime().compareTo(b.getStartDateTime()));
+        } else {
+            Collections.shuffle(events, new java.util.Random(7));
+        }
+        from = BenchmarkSupport.DATA_START;
+        to = from.plusDays(BenchmarkSupport.DATA_DAYS + 3);
+    }
+
+    @Benchmark
+    public int busyBlocks() {
+        return IntervalSweep.mergeBusy(events, from, to, null).size();
+    }
+
+    @Benchmark
+    public int busyBlocksQuarterHour() {
+        return IntervalSweep.mergeBusy(events, from, to, Duration.ofMinutes(15)).size();
+    }
+
+    @Benchmark
+    public int conflicts() {
+        return IntervalSweep.findConflicts(events, from, to, FreeBusyService.MAX_CONFLICTS).size();
+    }
+
+    @Benchmark
+    public int allConflicts() {
+        return IntervalSweep.findConflicts(events, from, to, Integer.MAX_VALUE).size();
+    }
+}
@@ -0,0 +1,107 @@
+package de.htwberlin.webtech.calendar.benchmark;
+
+import de.htwberlin.webtech.calendar.config.RequestMetricsFilter;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.RangeMode;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import de.htwberlin.webtech.calendar.service.EventService;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst, was die Metriken auf dem heißen Pfad kosten: mit {@code calendar.metrics.enabled=true} läuft jede
+ * SQL-Anweisung durch die {@code QueryCountingDataSource} und jeder Request durch den {@link RequestMetricsFilter}.
+ * {@link #eventById} ist die billigste Abfrage und zeigt den Aufschlag pro Anweisung am deutlichsten,
+ * {@link #filteredEvents} ein Monatsfenster über die Datenbank (Cache und Index aus),
+ * {@link #requestFilter} nur die Erfassung pro Request ohne Controller dahinter. Der Request ist ein Proxy;
+ * dessen eigene Kosten fallen nur mit Filter an und sind im Ergebnis enthalten.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InstrumentationOverheadBenchmark {
+
+    @Param({"false", "true"})
+    public boolean metricsEnabled;
+
+    private ConfigurableApplicationContext context;
+    private EventRepository eventRepository;
+    private EventService eventService;
+    private RequestMetricsFilter requestMetricsFilter; // null ohne Metriken
+    private Long eventId;
+    private LocalDate windowStart;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+    private final FilterChain chain = (request, response) -> {
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startContext("calendar.metrics.enabled=" + metricsEnabled,
+                "calendar.cache.enabled=false", "calendar.index.enabled=false", "calendar.search.enabled=false");
+        BenchmarkSupport.insert(context.getBean(JdbcTemplate.class), BenchmarkSupport.randomEvents(10_000, 42));
+        eventRepository = context.getBean(EventRepository.class);
+        eventService = context.getBean(EventService.class);
+        requestMetricsFilter = context.getBeanProvider(RequestMetricsFilter.class).getIfAvailable();
+        eventId = context.getBean(JdbcTemplate.class).queryForObject("SELECT MIN(id) FROM event", Long.class);
+        windowStart = BenchmarkSupport.DATA_START.toLocalDate().plusDays(BenchmarkSupport.DATA_DAYS / 2);
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/events/{id}");
+        request = (HttpServletRequest) Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getAttribute" -> attributes.get((String) args[0]);
+                    case "setAttribute" -> attributes.put((String) args[0], args[1]);
+                    case "removeAttribute" -> attributes.remove((String) args[0]);
+                    case "getMethod" -> "GET";
+                    case "getRequestURI" -> "/events/1";
+                    case "getContextPath" -> "";
+                    case "getDispatcherType" -> DispatcherType.REQUEST;
+                    case "isAsyncStarted" -> false;
+                    default -> null;
+                });
+        response = (HttpServletResponse) Proxy.newProxyInstance(HttpServletResponse.class.getClassLoader(),
+                new Class<?>[]{HttpServletResponse.class}, (proxy, method, args) -> null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Event> eventById() {
+        return eventRepository.findById(eventId);
+    }
+
+    @Benchmark
+    public List<Event> filteredEvents() {
+        return eventService.getFilteredEvents(Event.DEFAULT_CALENDAR, windowStart, windowStart.plusMonths(1),
+                null, null, null, RangeMode.CONTAINED);
+    }
+
+    @Benchmark
+    public void requestFilter() throws ServletException, IOException {
+        if (requestMetricsFilter != null) {
+            requestMetricsFilter.doFilter(request, response, chain);
+        } else {
+            chain.doFilter(request, response);
+        }
+    }
+}
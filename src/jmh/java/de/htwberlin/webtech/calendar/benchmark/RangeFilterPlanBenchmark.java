@@ -0,0 +1,72 @@
+package de.htwberlin.webtech.calendar.benchmark;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.RangeMode;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import de.htwberlin.webtech.calendar.repository.EventSpecifications;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zeigt die Wirkung der Indizes aus {@code @Table(indexes = ...)} auf die Datumsfilter.
+ * Mit {@code indexed=false} werden die Indizes nach dem Start wieder entfernt, sodass H2 auf einen Full Table Scan zurückfällt.
+ * Der Ausführungsplan (EXPLAIN) beider Varianten wird beim Setup ausgegeben.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RangeFilterPlanBenchmark {
+
+    @Param({"100000"})
+    public int eventCount;
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    private ConfigurableApplicationContext context;
+    private EventRepository eventRepository;
+    private LocalDate windowStart;
+    private LocalDate windowEnd;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startContext();
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkSupport.insert(jdbcTemplate, BenchmarkSupport.randomEvents(eventCount, 42));
+        if (!indexed) {
+            jdbcTemplate.execute("DROP INDEX idx_event_start_end");
+            jdbcTemplate.execute("DROP INDEX idx_event_is_completed");
+        }
+        jdbcTemplate.execute("ANALYZE");
+        eventRepository = context.getBean(EventRepository.class);
+
+        windowStart = BenchmarkSupport.DATA_START.toLocalDate().plusDays(BenchmarkSupport.DATA_DAYS / 2);
+        windowEnd = windowStart.plusMonths(1);
+
+        String overlapSql = "EXPLAIN SELECT * FROM event WHERE start_date_time < TIMESTAMP '" + windowEnd.plusDays(1).atStartOfDay()
+                + "' AND end_date_time > TIMESTAMP '" + windowStart.atStartOfDay() + "'";
+        System.out.println("\nindexed=" + indexed + " plan:\n" + jdbcTemplate.queryForObject(overlapSql, String.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Event> overlaps() {
+        return eventRepository.findAll(EventSpecifications.filter(Event.DEFAULT_CALENDAR,
+                windowStart, windowEnd, null, null, null, RangeMode.OVERLAPS));
+    }
+
+    @Benchmark
+    public List<Event> contained() {
+        return eventRepository.findAll(EventSpecifications.filter(Event.DEFAULT_CALENDAR,
+                windowStart, windowEnd, null, null, null, RangeMode.CONTAINED));
+    }
+}
@@ -0,0 +1,82 @@
+package de.htwberlin.webtech.calendar.benchmark;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.RangeMode;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import de.htwberlin.webtech.calendar.repository.EventSpecifications;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typische Lesezugriffe des Frontends direkt über das {@link EventRepository}, also ohne Cache und Index:
+ * ein Event nach ID, eine Wochenansicht, eine Monatsansicht mit Titelfilter und die erste Seite der Pagination.
+ * Die IDs und Wochen wechseln reihum, damit nicht immer dieselben Zeilen gelesen werden.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RepositoryReadBenchmark {
+
+    private static final int WEEKS = 52;
+
+    @Param({"10000", "100000", "1000000"})
+    public int eventCount;
+
+    private ConfigurableApplicationContext context;
+    private EventRepository eventRepository;
+    private long[] ids;
+    private LocalDate[] weeks;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startContext();
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkSupport.insert(jdbcTemplate, BenchmarkSupport.randomEvents(eventCount, 42));
+        eventRepository = context.getBean(EventRepository.class);
+        // Die Sequenz vergibt IDs in Schritten, deshalb eine Stichprobe der tatsächlichen IDs abfragen
+        ids = jdbcTemplate.queryForList("SELECT id FROM event ORDER BY RAND(42) LIMIT 1024", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+        LocalDate middle = BenchmarkSupport.DATA_START.toLocalDate().plusDays(BenchmarkSupport.DATA_DAYS / 2);
+        weeks = new LocalDate[WEEKS];
+        for (int i = 0; i < WEEKS; i++) {
+            weeks[i] = middle.plusWeeks(i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Event> findById() {
+        return eventRepository.findByIdAndCalendarId(ids[next++ & (ids.length - 1)], Event.DEFAULT_CALENDAR);
+    }
+
+    @Benchmark
+    public List<Event> weekView() {
+        LocalDate week = weeks[next++ % WEEKS];
+        return eventRepository.findAll(EventSpecifications.filter(Event.DEFAULT_CALENDAR,
+                week, week.plusDays(6), null, null, null, RangeMode.OVERLAPS));
+    }
+
+    @Benchmark
+    public List<Event> monthViewWithTitle() {
+        LocalDate month = weeks[next++ % WEEKS];
+        return eventRepository.findAll(EventSpecifications.filter(Event.DEFAULT_CALENDAR,
+                month, month.plusMonths(1), "review", null, null, RangeMode.OVERLAPS));
+    }
+
+    @Benchmark
+    public List<Event> firstPage() {
+        return eventRepository.findFirstPage(Event.DEFAULT_CALENDAR, Limit.of(50));
+    }
+}
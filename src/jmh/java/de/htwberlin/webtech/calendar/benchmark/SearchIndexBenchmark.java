@@ -0,0 +1,44 @@
+package de.htwberlin.webtech.calendar.benchmark;
+
+import de.htwberlin.webtech.calendar.index.EventSearchIndex;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.service.EventChange;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst die Latenz des Volltext-Index für exakte, Präfix- und Tippfehler-Suchen.
+ * Der Index wird direkt befüllt, damit nur die Suche selbst gemessen wird (ohne Datenbank).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchIndexBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int eventCount;
+
+    @Param({"review", "rev", "reveiw", "sprint demo"})
+    public String query;
+
+    private EventSearchIndex searchIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Repository und TransactionManager werden nur für das initiale Laden gebraucht
+        searchIndex = new EventSearchIndex(null, null, true);
+        List<Event> events = BenchmarkSupport.randomEvents(eventCount, 42);
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            event.setId((long) i + 1);
+            searchIndex.onEventChange(EventChange.created(event));
+        }
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        return searchIndex.search(Event.DEFAULT_CALENDAR, query, 20);
+    }
+}
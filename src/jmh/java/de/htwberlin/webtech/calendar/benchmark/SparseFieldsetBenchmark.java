@@ -0,0 +1,72 @@
+package de.htwberlin.webtech.calendar.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.SparseEvent;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import de.htwberlin.webtech.calendar.repository.EventSpecifications;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht ein Monatsfenster als vollständige Entitäten mit derselben Abfrage als Sparse Fieldset
+ * ({@code fields=title,startDateTime,endDateTime}), jeweils einschließlich JSON-Serialisierung.
+ * Aussagekräftig ist vor allem die Allokation pro Aufruf: mit {@code -prof gc} ausführen und
+ * {@code gc.alloc.rate.norm} vergleichen. Die Beschreibungen werden dafür auf {@link #descriptionLength} Zeichen
+ * gebracht (255 ist die Spaltenbreite).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SparseFieldsetBenchmark {
+
+    @Param({"100000"})
+    public int eventCount;
+
+    @Param({"32", "255"})
+    public int descriptionLength;
+
+    private ConfigurableApplicationContext context;
+    private EventRepository eventRepository;
+    private ObjectMapper objectMapper;
+    private Specification<Event> monthWindow;
+    private List<String> fields;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startContext();
+        List<Event> events = BenchmarkSupport.randomEvents(eventCount, 42);
+        String padding = "x".repeat(descriptionLength);
+        events.forEach(event -> event.setDescription((event.getDescription() + padding).substring(0, descriptionLength)));
+        BenchmarkSupport.insert(context.getBean(JdbcTemplate.class), events);
+        eventRepository = context.getBean(EventRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        LocalDate windowStart = BenchmarkSupport.DATA_START.toLocalDate().plusDays(BenchmarkSupport.DATA_DAYS / 2);
+        monthWindow = EventSpecifications.filter(Event.DEFAULT_CALENDAR,
+                windowStart, windowStart.plusDays(30), null, null, null, null);
+        fields = SparseEvent.parseFields("title,startDateTime,endDateTime");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] fullEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(eventRepository.findAll(monthWindow));
+    }
+
+    @Benchmark
+    public byte[] sparseFieldset() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(eventRepository.findFields(monthWindow, fields));
+    }
+}
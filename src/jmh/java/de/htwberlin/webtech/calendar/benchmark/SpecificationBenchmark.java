@@ -0,0 +1,79 @@
+package de.htwberlin.webtech.calendar.benchmark;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.RangeMode;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import de.htwberlin.webtech.calendar.repository.EventSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst den Aufwand, den die Datenbankabfrage von {@code getFilteredEvents} vor und neben der eigentlichen
+ * Datenbankarbeit verursacht: das Zusammensetzen der Specification, das Übersetzen in eine Criteria-Abfrage
+ * und den vollständigen Weg über das Repository gegen eine leere Tabelle (Criteria → SQM → SQL → JDBC).
+ * Criteria-Abfragen landen nicht im Query-Plan-Cache von Hibernate und werden bei jedem Aufruf neu übersetzt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpecificationBenchmark {
+
+    // dateRange: Monatsansicht; allFilters: zusätzlich Titel, Beschreibung und Status
+    @Param({"dateRange", "allFilters"})
+    public String filters;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private EventRepository eventRepository;
+    private LocalDate windowStart;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startContext();
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        eventRepository = context.getBean(EventRepository.class);
+        windowStart = BenchmarkSupport.DATA_START.toLocalDate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public Specification<Event> buildSpecification() {
+        return specification();
+    }
+
+    @Benchmark
+    public CriteriaQuery<Event> toCriteriaQuery() {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Event> query = criteriaBuilder.createQuery(Event.class);
+        Root<Event> root = query.from(Event.class);
+        return query.where(specification().toPredicate(root, query, criteriaBuilder));
+    }
+
+    @Benchmark
+    public List<Event> findAllOnEmptyTable() {
+        return eventRepository.findAll(specification());
+    }
+
+    private Specification<Event> specification() {
+        return "allFilters".equals(filters)
+                ? EventSpecifications.filter(Event.DEFAULT_CALENDAR, windowStart, windowStart.plusMonths(1),
+                        "review", "meeting", false, RangeMode.OVERLAPS)
+                : EventSpecifications.filter(Event.DEFAULT_CALENDAR, windowStart, windowStart.plusMonths(1),
+                        null, null, null, RangeMode.OVERLAPS);
+    }
+}
@@ -0,0 +1,345 @@
+package de.htwberlin.webtech.calendar.loadtest;
+
+import de.htwberlin.webtech.calendar.CalendarApplication;
+import de.htwberlin.webtech.calendar.controller.EventController;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Reproduzierbarer Lasttest mit dem Zugriffsmuster eines Kalender-Frontends gegen die lokal gestartete Anwendung
+ * (frische H2-Datenbank, zufälliger Port). Jeder Client ist ein Nutzer mit eigenem Kalender, der zwischen Monats-,
+ * Wochen- und Tagesansicht blättert, einzelne Events öffnet, sucht, freie Zeiten abfragt und gelegentlich Events
+ * anlegt oder abhakt (Gewichte in {@link Operation}). Testdaten und Request-Folge hängen nur von {@code seed} ab.
+ * <p>
+ * Ohne {@code rate} arbeitet jeder Client seine Requests nacheinander ab (geschlossenes Modell). Mit {@code rate}
+ * werden die Requests im festen Takt gestartet und die Latenz ab dem geplanten Startzeitpunkt gemessen,
+ * so dass Rückstau in die Perzentile eingeht statt den Takt zu verlangsamen (Coordinated Omission).
+ * <p>
+ * Ausgegeben werden Durchsatz, Fehler und p50/p99/p99.9 je Operation. Mit {@code report} werden die Zahlen als CSV
+ * geschrieben, mit {@code baseline} einer früheren CSV gegenübergestellt.
+ * Optionen im Format --name=wert: clients, duration-s, warmup-s, calendars, events-per-calendar, seed, rate,
+ * report, baseline. Optionen, die mit {@code spring.} oder {@code calendar.} beginnen, gehen an die Anwendung.
+ */
+public final class CalendarViewLoadTest {
+
+    private static final LocalDate DATA_START = LocalDate.of(2025, 1, 1);
+    private static final int DATA_DAYS = 2 * 365;
+    private static final int SAMPLED_IDS = 256;
+    private static final String[] WORDS = {
+            "Meeting", "Review", "Standup", "Workshop", "Deadline", "Lunch", "Call", "Planning",
+            "Retro", "Demo", "Interview", "Training", "Sprint", "Release", "Doctor", "Gym"
+    };
+
+    /**
+     * Die Operationen mit ihrem Anteil an allen Requests in Prozent.
+     */
+    enum Operation {
+        MONTH_VIEW(35), WEEK_VIEW(25), DAY_VIEW(10), EVENT(12), SEARCH(5), FREE_BUSY(5), CREATE(4), COMPLETE(4);
+
+        private final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+
+        static Operation pick(Random random) {
+            int value = random.nextInt(100);
+            for (Operation operation : values()) {
+                value -= operation.weight;
+                if (value < 0) {
+                    return operation;
+                }
+            }
+            throw new IllegalStateException("Weights do not add up to 100");
+        }
+    }
+
+    private CalendarViewLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = ThreadModeLoadTest.parseOptions(args);
+        int clients = Integer.parseInt(options.getOrDefault("clients", "64"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration-s", "30")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup-s", "10")));
+        int calendars = Integer.parseInt(options.getOrDefault("calendars", "16"));
+        int eventsPerCalendar = Integer.parseInt(options.getOrDefault("events-per-calendar", "5000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        List<String> appProperties = options.entrySet().stream()
+                .filter(option -> option.getKey().startsWith("spring.") || option.getKey().startsWith("calendar."))
+                .map(option -> "--" + option.getKey() + "=" + option.getValue())
+                .sorted()
+                .toList();
+
+        System.out.printf("clients=%d duration=%ds warmup=%ds calendars=%d events-per-calendar=%d seed=%d rate=%s %s%n",
+                clients, duration.toSeconds(), warmup.toSeconds(), calendars, eventsPerCalendar, seed,
+                rate > 0 ? String.format(Locale.ROOT, "%.0f/s", rate) : "closed", appProperties);
+        Map<Operation, Stats> results = run(clients, warmup, duration, calendars, eventsPerCalendar, seed, rate, appProperties);
+
+        Map<String, String[]> baseline = options.containsKey("baseline") ? readReport(Path.of(options.get("baseline"))) : Map.of();
+        System.out.println();
+        System.out.printf("%-10s %9s %7s %9s %9s %9s %9s%s%n", "operation", "requests", "errors", "req/s",
+                "p50 ms", "p99 ms", "p999 ms", baseline.isEmpty() ? "" : String.format("%12s %12s", "vs req/s", "vs p99"));
+        List<String> csv = new ArrayList<>();
+        csv.add("operation,requests,errors,throughput,p50_ms,p99_ms,p999_ms");
+        results.forEach((operation, stats) -> {
+            double throughput = stats.count() / (double) duration.toSeconds();
+            String comparison = "";
+            String[] previous = baseline.get(operation.name());
+            if (previous != null) {
+                comparison = String.format("%12s %12s", change(throughput, Double.parseDouble(previous[3])),
+                        change(stats.percentile(0.99), Double.parseDouble(previous[5])));
+            }
+            System.out.printf(Locale.ROOT, "%-10s %9d %7d %9.1f %9.2f %9.2f %9.2f%s%n", operation, stats.count(), stats.errors,
+                    throughput, stats.percentile(0.50), stats.percentile(0.99), stats.percentile(0.999), comparison);
+            csv.add(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.3f,%.3f,%.3f", operation.name(), stats.count(), stats.errors,
+                    throughput, stats.percentile(0.50), stats.percentile(0.99), stats.percentile(0.999)));
+        });
+        if (options.containsKey("report")) {
+            Path report = Path.of(options.get("report"));
+            if (report.getParent() != null) {
+                Files.createDirectories(report.getParent());
+            }
+            Files.write(report, csv);
+            System.out.println("Report written to " + report.toAbsolutePath());
+        }
+    }
+
+    private static Map<Operation, Stats> run(int clients, Duration warmup, Duration duration, int calendars,
+                                             int eventsPerCalendar, long seed, double rate,
+                                             List<String> appProperties) throws Exception {
+        // Als Kommandozeilenargumente übergeben: properties() setzt nur Defaults, die application.properties überschreibt
+        String[] arguments = Stream.concat(Stream.of(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN"), appProperties.stream())
+                .toArray(String[]::new);
+        var context = new SpringApplicationBuilder(CalendarApplication.class).run(arguments);
+        try {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            insertEvents(jdbcTemplate, calendars, eventsPerCalendar, new Random(seed));
+            // Die Sequenz vergibt IDs in Schritten, deshalb je Kalender eine Stichprobe der tatsächlichen IDs abfragen
+            long[][] ids = new long[calendars][];
+            for (int calendar = 0; calendar < calendars; calendar++) {
+                ids[calendar] = jdbcTemplate.queryForList("SELECT id FROM event WHERE calendar_id = ? ORDER BY id LIMIT " + SAMPLED_IDS,
+                        Long.class, calendarId(calendar)).stream().mapToLong(Long::longValue).toArray();
+            }
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port + "/events";
+
+            try (ExecutorService httpThreads = Executors.newVirtualThreadPerTaskExecutor();
+                 ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient httpClient = HttpClient.newBuilder()
+                        .executor(httpThreads)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .build();
+                long start = System.nanoTime();
+                long measureFrom = start + warmup.toNanos();
+                long end = measureFrom + duration.toNanos();
+                // Im offenen Modell startet jeder Client alle intervalNanos einen Request
+                long intervalNanos = rate > 0 ? (long) (clients * 1e9 / rate) : 0;
+                List<Map<Operation, Stats>> perClient = new ArrayList<>();
+                for (int i = 0; i < clients; i++) {
+                    Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+                    perClient.add(stats);
+                    Client client = new Client(httpClient, baseUrl, calendarId(i % calendars), ids[i % calendars],
+                            new Random(seed * 31 + i), stats);
+                    long firstStart = start + (intervalNanos > 0 ? intervalNanos * i / clients : 0);
+                    clientThreads.submit(() -> client.run(firstStart, intervalNanos, measureFrom, end));
+                }
+                clientThreads.shutdown();
+                clientThreads.awaitTermination(duration.plus(warmup).plusMinutes(1).toMillis(), TimeUnit.MILLISECONDS);
+                Map<Operation, Stats> merged = new EnumMap<>(Operation.class);
+                for (Operation operation : Operation.values()) {
+                    merged.put(operation, Stats.merge(perClient.stream().map(stats -> stats.get(operation)).toList()));
+                }
+                return merged;
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * Ein Nutzer: blättert von einem zufälligen Tag aus durch seinen Kalender.
+     */
+    private record Client(HttpClient httpClient, String baseUrl, String calendarId, long[] ids, Random random,
+                          Map<Operation, Stats> stats) {
+
+        void run(long firstStart, long intervalNanos, long measureFrom, long end) {
+            LocalDate day = DATA_START.plusDays(random.nextInt(DATA_DAYS));
+            for (long scheduled = firstStart; ; scheduled += intervalNanos) {
+                if (intervalNanos > 0) {
+                    long wait = scheduled - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                } else {
+                    scheduled = System.nanoTime();
+                }
+                if (scheduled >= end) {
+                    return;
+                }
+                Operation operation = Operation.pick(random);
+                // Meist bleibt der Nutzer beim selben Zeitraum, manchmal blättert er vor oder zurück
+                day = switch (random.nextInt(10)) {
+                    case 0 -> day.minusWeeks(1);
+                    case 1, 2 -> day.plusWeeks(1);
+                    default -> day;
+                };
+                HttpRequest request = request(operation, day);
+                int status = send(request);
+                long finished = System.nanoTime();
+                if (scheduled >= measureFrom && finished <= end) {
+                    stats.computeIfAbsent(operation, key -> new Stats()).record(finished - scheduled, status);
+                }
+            }
+        }
+
+        private HttpRequest request(Operation operation, LocalDate day) {
+            LocalDate monthStart = day.withDayOfMonth(1);
+            LocalDate weekStart = day.minusDays(day.getDayOfWeek().getValue() - 1);
+            long id = ids[random.nextInt(ids.length)];
+            return switch (operation) {
+                case MONTH_VIEW -> get("?startDate=" + monthStart + "&endDate=" + monthStart.plusMonths(1).minusDays(1) + "&rangeMode=OVERLAPS");
+                case WEEK_VIEW -> get("?startDate=" + weekStart + "&endDate=" + weekStart.plusDays(6) + "&rangeMode=OVERLAPS");
+                case DAY_VIEW -> get("?startDate=" + day + "&endDate=" + day + "&rangeMode=OVERLAPS");
+                case EVENT -> get("/" + id);
+                case SEARCH -> get("/search?q=" + WORDS[random.nextInt(WORDS.length)].toLowerCase(Locale.ROOT));
+                case FREE_BUSY -> get("/freebusy?from=" + weekStart.atStartOfDay() + "&to=" + weekStart.plusDays(7).atStartOfDay());
+                case CREATE -> {
+                    LocalDateTime start = day.atTime(8 + random.nextInt(10), 0);
+                    String body = "{\"title\":\"" + WORDS[random.nextInt(WORDS.length)] + " (load test)\",\"startDateTime\":\""
+                            + start + "\",\"endDateTime\":\"" + start.plusMinutes(30 + random.nextInt(90)) + "\"}";
+                    yield builder("").header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+                }
+                case COMPLETE -> builder("/" + id + "/complete?isCompleted=" + random.nextBoolean())
+                        .method("PATCH", HttpRequest.BodyPublishers.noBody()).build();
+            };
+        }
+
+        private HttpRequest get(String path) {
+            return builder(path).GET().build();
+        }
+
+        private HttpRequest.Builder builder(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header(EventController.CALENDAR_HEADER, calendarId)
+                    .timeout(Duration.ofSeconds(30));
+        }
+
+        private int send(HttpRequest request) {
+            try {
+                return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                return -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return -1;
+            }
+        }
+    }
+
+    private static void insertEvents(JdbcTemplate jdbcTemplate, int calendars, int eventsPerCalendar, Random random) {
+        for (int calendar = 0; calendar < calendars; calendar++) {
+            List<Object[]> rows = new ArrayList<>(eventsPerCalendar);
+            for (int i = 0; i < eventsPerCalendar; i++) {
+                // Werktags tagsüber, gelegentlich mehrtägige Events
+                LocalDateTime start = DATA_START.plusDays(random.nextInt(DATA_DAYS)).atTime(7 + random.nextInt(12), 15 * random.nextInt(4));
+                LocalDateTime end = random.nextInt(20) == 0 ? start.plusDays(1 + random.nextInt(3)) : start.plusMinutes(30 + 15 * random.nextInt(8));
+                String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+                rows.add(new Object[]{calendarId(calendar), title, "Description of " + title.toLowerCase(Locale.ROOT),
+                        Timestamp.valueOf(start), Timestamp.valueOf(end), start.isBefore(LocalDateTime.of(2025, 6, 1, 0, 0))});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO event (id, calendar_id, title, description, start_date_time, end_date_time, is_completed, version) " +
+                    "VALUES (NEXT VALUE FOR event_seq, ?, ?, ?, ?, ?, ?, 0)", rows);
+        }
+    }
+
+    private static String calendarId(int calendar) {
+        return "loadtest-" + calendar;
+    }
+
+    private static Map<String, String[]> readReport(Path path) throws IOException {
+        Map<String, String[]> rows = new HashMap<>();
+        Files.readAllLines(path).stream().skip(1).map(line -> line.split(",")).forEach(row -> rows.put(row[0], row));
+        return rows;
+    }
+
+    private static String change(double current, double previous) {
+        return previous == 0 ? "n/a" : String.format(Locale.ROOT, "%+.1f%%", (current - previous) * 100 / previous);
+    }
+
+    /**
+     * Latenzen (in Nanosekunden) und Fehler einer Operation; je Client eine Instanz, erst am Ende zusammengeführt.
+     */
+    private static final class Stats {
+
+        private long[] latencies = new long[256];
+        private int count;
+        private long errors;
+
+        void record(long nanos, int status) {
+            if (status < 200 || status >= 300) {
+                errors++;
+                return;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        int count() {
+            return count;
+        }
+
+        double percentile(double quantile) {
+            if (count == 0) {
+                return Double.NaN;
+            }
+            return latencies[(int) Math.min(count - 1, Math.floor(quantile * count))] / 1_000_000.0;
+        }
+
+        static Stats merge(List<Stats> parts) {
+            Stats merged = new Stats();
+            merged.latencies = parts.stream().filter(part -> part != null)
+                    .flatMapToLong(part -> Arrays.stream(part.latencies, 0, part.count))
+                    .sorted()
+                    .toArray();
+            merged.count = merged.latencies.length;
+            merged.errors = parts.stream().filter(part -> part != null).mapToLong(part -> part.errors).sum();
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package de.htwberlin.webtech.calendar.loadtest;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Simuliert eine entfernte, langsame Datenbank (wie PostgreSQL auf Render) vor der lokalen H2-Datenbank:
+ * Jede ausgeliehene Verbindung kostet {@code loadtest.db-latency-ms} zusätzliche Millisekunden, während der die
+ * Verbindung belegt ist. Läuft vor dem Connection-Bulkhead, damit die Wartezeit wie echte Datenbankzeit zählt.
+ */
+public class SlowDatabaseSimulation implements BeanPostProcessor, PriorityOrdered, EnvironmentAware {
+
+    private long latencyMillis;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        latencyMillis = environment.getProperty("loadtest.db-latency-ms", Long.class, 0L);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || latencyMillis <= 0) {
+            return bean;
+        }
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection connection = super.getConnection();
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return connection;
+            }
+        };
+    }
+
+    @Override
+    public int getOrder() {
+        return HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,227 @@
+package de.htwberlin.webtech.calendar.loadtest;
+
+import de.htwberlin.webtech.calendar.CalendarApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lasttest, der dieselbe Last einmal mit Plattform-Threads (Tomcat-Pool) und einmal mit virtuellen Threads fährt.
+ * Jeder Client schickt in einer Schleife Requests, davon ein Anteil langsame Datenbankabfragen
+ * (GET /events mit Filter, Cache-Miss, simulierte Datenbanklatenz) und der Rest schnelle Abfragen aus dem Cache
+ * (GET /events/{id}). Gemessen werden Durchsatz, Fehler (z.B. 503 vom Connection-Bulkhead) und Latenzen je Abfrageart.
+ * Optionen im Format --name=wert: clients, duration-s, warmup-s, db-latency-ms, slow-share, events.
+ */
+public final class ThreadModeLoadTest {
+
+    private static final int HOT_EVENTS = 100;
+
+    private ThreadModeLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int clients = Integer.parseInt(options.getOrDefault("clients", "1000"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration-s", "15")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup-s", "3")));
+        long dbLatencyMillis = Long.parseLong(options.getOrDefault("db-latency-ms", "20"));
+        double slowShare = Double.parseDouble(options.getOrDefault("slow-share", "0.2"));
+        int events = Integer.parseInt(options.getOrDefault("events", "10000"));
+
+        System.out.printf("clients=%d duration=%ds db-latency=%dms slow-share=%.2f events=%d%n",
+                clients, duration.toSeconds(), dbLatencyMillis, slowShare, events);
+        List<String> report = new ArrayList<>();
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            Result result = run(virtualThreads, clients, warmup, duration, dbLatencyMillis, slowShare, events);
+            report.addAll(result.format(virtualThreads ? "virtual" : "platform", duration));
+        }
+        System.out.println();
+        System.out.printf("%-9s %-6s %10s %8s %10s %10s %10s%n", "threads", "kind", "requests", "errors", "p50 ms", "p99 ms", "req/s");
+        report.forEach(System.out::println);
+    }
+
+    private static Result run(boolean virtualThreads, int clients, Duration warmup, Duration duration,
+                              long dbLatencyMillis, double slowShare, int events) throws Exception {
+        // Als Kommandozeilenargumente übergeben: properties() setzt nur Defaults, die application.properties überschreibt
+        var context = new SpringApplicationBuilder(CalendarApplication.class, SlowDatabaseSimulation.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.jpa.show-sql=false",
+                        "--calendar.search.enabled=false",
+                        "--calendar.index.enabled=false",
+                        "--loadtest.db-latency-ms=" + dbLatencyMillis,
+                        "--logging.level.root=WARN");
+        try {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            insertEvents(jdbcTemplate, events);
+            // Die Sequenz vergibt IDs in Schritten, deshalb die tatsächlichen IDs abfragen
+            long[] hotIds = jdbcTemplate.queryForList("SELECT id FROM event ORDER BY id LIMIT " + HOT_EVENTS, Long.class)
+                    .stream().mapToLong(Long::longValue).toArray();
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port + "/events";
+
+            try (ExecutorService httpThreads = Executors.newVirtualThreadPerTaskExecutor();
+                 ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient httpClient = HttpClient.newBuilder()
+                        .executor(httpThreads)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .build();
+                // Die schnellen Abfragen sollen aus dem Cache kommen
+                for (long id : hotIds) {
+                    send(httpClient, baseUrl + "/" + id);
+                }
+
+                long start = System.nanoTime();
+                long measureFrom = start + warmup.toNanos();
+                long end = measureFrom + duration.toNanos();
+                Result result = new Result();
+                for (int i = 0; i < clients; i++) {
+                    clientThreads.submit(() -> runClient(httpClient, baseUrl, hotIds, slowShare, measureFrom, end, result));
+                }
+                clientThreads.shutdown();
+                clientThreads.awaitTermination(duration.plus(warmup).plusMinutes(1).toMillis(), TimeUnit.MILLISECONDS);
+                return result;
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void runClient(HttpClient httpClient, String baseUrl, long[] hotIds, double slowShare,
+                                  long measureFrom, long end, Result result) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] fast = new long[1024];
+        long[] slow = new long[1024];
+        int fastCount = 0;
+        int slowCount = 0;
+        long fastErrors = 0;
+        long slowErrors = 0;
+        while (System.nanoTime() < end) {
+            boolean slowRequest = random.nextDouble() < slowShare;
+            String url = slowRequest
+                    // Zufälliger Titel: jede Abfrage verfehlt den Cache und geht an die Datenbank
+                    ? baseUrl + "?title=" + Long.toHexString(random.nextLong())
+                    : baseUrl + "/" + hotIds[random.nextInt(hotIds.length)];
+            long requestStart = System.nanoTime();
+            int status = send(httpClient, url);
+            long requestEnd = System.nanoTime();
+            if (requestStart < measureFrom || requestEnd > end) {
+                continue;
+            }
+            if (status != 200) {
+                if (slowRequest) {
+                    slowErrors++;
+                } else {
+                    fastErrors++;
+                }
+            } else if (slowRequest) {
+                slow = append(slow, slowCount++, requestEnd - requestStart);
+            } else {
+                fast = append(fast, fastCount++, requestEnd - requestStart);
+            }
+        }
+        result.add(Arrays.copyOf(fast, fastCount), Arrays.copyOf(slow, slowCount), fastErrors, slowErrors);
+    }
+
+    private static int send(HttpClient httpClient, String url) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET().build();
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static long[] append(long[] values, int index, long value) {
+        if (index == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[index] = value;
+        return values;
+    }
+
+    private static void insertEvents(JdbcTemplate jdbcTemplate, int count) {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 8, 0);
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = base.plusHours(i);
+            rows.add(new Object[]{"Event " + i, "Load test event " + i,
+                    Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(1)), false});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO event (id, title, description, start_date_time, end_date_time, is_completed, version) " +
+                "VALUES (NEXT VALUE FOR event_seq, ?, ?, ?, ?, ?, 0)", rows);
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Gesammelte Latenzen aller Clients (in Nanosekunden) und die Anzahl fehlgeschlagener Requests.
+     */
+    private static final class Result {
+
+        private final List<long[]> fast = new ArrayList<>();
+        private final List<long[]> slow = new ArrayList<>();
+        private long fastErrors;
+        private long slowErrors;
+
+        synchronized void add(long[] fastLatencies, long[] slowLatencies, long failedFast, long failedSlow) {
+            fast.add(fastLatencies);
+            slow.add(slowLatencies);
+            fastErrors += failedFast;
+            slowErrors += failedSlow;
+        }
+
+        synchronized List<String> format(String threads, Duration duration) {
+            return List.of(
+                    line(threads, "cached", merge(fast), fastErrors, duration),
+                    line(threads, "db", merge(slow), slowErrors, duration));
+        }
+
+        private static String line(String threads, String kind, long[] latencies, long errors, Duration duration) {
+            Arrays.sort(latencies);
+            return String.format("%-9s %-6s %10d %8d %10.1f %10.1f %10.0f", threads, kind, latencies.length, errors,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99),
+                    latencies.length / (double) duration.toSeconds());
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return Double.NaN;
+            }
+            return sorted[(int) Math.min(sorted.length - 1, Math.floor(quantile * sorted.length))] / 1_000_000.0;
+        }
+
+        private static long[] merge(List<long[]> parts) {
+            return parts.stream().flatMapToLong(Arrays::stream).toArray();
+        }
+    }
+}
@@ -2,8 +2,10 @@ package de.htwberlin.webtech.calendar;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // Für regelmäßige Wartungsaufgaben wie das Löschen alter Grabsteine (EventSyncService)
 public class CalendarApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,175 @@
+package de.htwberlin.webtech.calendar.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventFilter;
+import de.htwberlin.webtech.calendar.service.EventChange;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Größenbeschränkter In-Process-Cache für Event-Lesezugriffe: einzelne Events nach ID und Ergebnisse von Filterabfragen.
+ * Caffeine verdrängt nach W-TinyLFU, so dass häufig abgefragte Monate im Cache bleiben, ohne dass er unbegrenzt wächst.
+ * Nach jeder Schreiboperation werden gezielt nur die Einträge entfernt, die das geänderte Event enthalten
+ * oder es nach der Änderung enthalten müssten. Hit-/Miss-/Eviction-Zahlen werden als Metriken
+ * {@code cache.*} mit den Tags {@code cache=events.byId} und {@code cache=events.filtered} veröffentlicht.
+ * Gleichzeitige Fehlschläge derselben Filterabfrage werden per {@link SingleFlight} zu einer Abfrage zusammengefasst.
+ * Deaktivierung über {@code calendar.cache.enabled=false}.
+ */
+@Component
+public class EventCache {
+
+    private final boolean enabled;
+    private final Cache<Long, Event> eventsById;
+    private final Cache<EventFilter, CachedResult> filteredEvents;
+
+    // Wird vor jeder Invalidierung erhöht. Ein Ergebnis, das während einer Schreiboperation geladen wurde,
+    // kann veraltet sein und darf dann nicht (oder nicht dauerhaft) im Cache landen.
+    private final AtomicLong generation = new AtomicLong();
+    private final SingleFlight<Flight, List<Event>> filteredLoads = new SingleFlight<>();
+
+    public EventCache(MeterRegistry meterRegistry,
+                      @Value("${calendar.cache.enabled:true}") boolean enabled,
+                      @Value("${calendar.cache.max-events:10000}") long maxEvents,
+                      @Value("${calendar.cache.max-result-events:200000}") long maxResultEvents,
+                      @Value("${calendar.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.enabled = enabled;
+        this.eventsById = Caffeine.newBuilder()
+                .maximumSize(maxEvents)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        // Gewichtet nach der Anzahl der Events, damit wenige große Ergebnislisten nicht den Speicher sprengen
+        this.filteredEvents = Caffeine.newBuilder()
+                .maximumWeight(maxResultEvents)
+                .<EventFilter, CachedResult>weigher((filter, result) -> result.events().size() + 1)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, eventsById, "events.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, filteredEvents, "events.filtered");
+        FunctionCounter.builder("calendar.cache.coalesced", filteredLoads, SingleFlight::coalescedCount)
+                .description("Cache misses that waited for an identical load already in progress")
+                .tag("cache", "events.filtered")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Liefert ein Event aus dem Cache oder lädt es über den Loader. Nicht gefundene Events werden nicht gecacht.
+     * @param id Die ID des Events.
+     * @param loader Lädt das Event aus der Datenbank.
+     * @return Das Event, oder ein leeres Optional, wenn es nicht existiert.
+     */
+    public Optional<Event> getById(Long id, Function<Long, Optional<Event>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        Event cached = eventsById.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long startGeneration = generation.get();
+        Optional<Event> loaded = loader.apply(id);
+        loaded.ifPresent(event -> putIfUnchanged(eventsById, id, event, startGeneration));
+        return loaded;
+    }
+
+    /**
+     * Liefert die Version eines Events, wenn es gerade im Cache liegt, ohne es sonst zu laden.
+     * Die Version kann veraltet sein und taugt deshalb nur als erwartete Version eines bedingten Updates.
+     * @param id Die ID des Events.
+     * @return Die gecachte Version, oder ein leeres Optional, wenn das Event nicht im Cache liegt.
+     */
+    public Optional<Long> getCachedVersion(Long id) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(eventsById.getIfPresent(id)).map(Event::getVersion);
+    }
+
+    /**
+     * Liefert das Ergebnis einer Filterabfrage aus dem Cache oder lädt es über den Loader.
+     * @param filter Die Filterkriterien.
+     * @param loader Führt die Abfrage in der Datenbank aus.
+     * @return Die passenden Events.
+     */
+    public List<Event> getFiltered(EventFilter filter, Supplier<List<Event>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        CachedResult cached = filteredEvents.getIfPresent(filter);
+        if (cached != null) {
+            return cached.events();
+        }
+        long startGeneration = generation.get();
+        // Gleichzeitige Fehlschläge mit demselben Filter laden nur einmal. Der Stand gehört zum Schlüssel, damit sich
+        // ein Request nach einer Schreiboperation nicht an eine Abfrage von davor anhängt.
+        return filteredLoads.execute(new Flight(filter, startGeneration), () -> {
+            List<Event> loaded = List.copyOf(loader.get());
+            putIfUnchanged(filteredEvents, filter, CachedResult.of(loaded), startGeneration);
+            return loaded;
+        });
+    }
+
+    /**
+     * Entfernt nach jeder erfolgreichen Schreiboperation des EventService die betroffenen Einträge.
+     * @param change Die Änderung, die der EventService veröffentlicht hat.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChange(EventChange change) {
+        if (!enabled) {
+            return;
+        }
+        generation.incrementAndGet();
+        Long id = change.eventId();
+        Event newState = change.event();
+        eventsById.invalidate(id);
+        // Betroffen sind Ergebnisse, die das Event bisher enthalten, und solche, zu denen es jetzt passt
+        filteredEvents.asMap().entrySet().removeIf(entry -> entry.getValue().contains(id)
+                || (newState != null && entry.getKey().matches(newState)));
+    }
+
+    // Speichert nur, wenn seit Beginn des Ladens keine Invalidierung stattgefunden hat. Eine Invalidierung,
+    // die zwischen Prüfung und put() läuft, wird durch die zweite Prüfung erkannt und der Eintrag wieder entfernt.
+    private <K, V> void putIfUnchanged(Cache<K, V> cache, K key, V value, long startGeneration) {
+        if (generation.get() != startGeneration) {
+            return;
+        }
+        cache.put(key, value);
+        if (generation.get() != startGeneration) {
+            cache.invalidate(key);
+        }
+    }
+
+    // Schlüssel eines Ladevorgangs: Filter und Stand des Caches bei dessen Beginn
+    private record Flight(EventFilter filter, long generation) {
+    }
+
+    /**
+     * Gecachtes Abfrageergebnis mit den sortierten IDs der enthaltenen Events für die Invalidierung per Binärsuche.
+     */
+    private record CachedResult(List<Event> events, long[] sortedIds) {
+
+        static CachedResult of(List<Event> events) {
+            long[] ids = events.stream().mapToLong(Event::getId).sorted().toArray();
+            return new CachedResult(events, ids);
+        }
+
+        boolean contains(Long id) {
+            return id != null && Arrays.binarySearch(sortedIds, id) >= 0;
+        }
+    }
+}
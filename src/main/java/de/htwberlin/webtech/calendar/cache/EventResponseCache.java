@@ -0,0 +1,165 @@
+package de.htwberlin.webtech.calendar.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventFilter;
+import de.htwberlin.webtech.calendar.service.EventChange;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache für fertig serialisierte Antworten gefilterter GET /events-Abfragen, z.B. für den aktuellen und den nächsten
+ * Monat. Ein Treffer wird als Byte-Array ausgeliefert, ohne Hibernate, ohne Jackson und, wenn der Client gzip
+ * akzeptiert, ohne erneutes Komprimieren. Anders als {@link EventCache} hält er keine Event-Objekte, sondern nur
+ * JSON und dessen gzip-Fassung; begrenzt wird er deshalb nach Bytes.
+ * Invalidiert wird wie bei {@link EventCache}: Einträge, die das geänderte Event enthalten oder zu deren Filter es
+ * nach der Änderung passt. Gleichzeitige Fehlschläge werden per {@link SingleFlight} zusammengefasst.
+ * Metriken unter {@code cache.*} mit dem Tag {@code cache=events.responses}.
+ * Deaktivierung über {@code calendar.response-cache.enabled=false}.
+ */
+@Component
+public class EventResponseCache {
+
+    /**
+     * Eine gecachte Antwort.
+     * @param json Der unkomprimierte JSON-Body.
+     * @param gzip Derselbe Body gzip-komprimiert, oder null, wenn er zu klein ist, als dass sich das lohnt.
+     */
+    public record Body(byte[] json, byte[] gzip) {
+    }
+
+    // Mindestgröße, ab der ein Body komprimiert wird (wie server.compression.min-response-size)
+    private static final int MIN_GZIP_SIZE = 2048;
+
+    private final boolean enabled;
+    private final ObjectWriter writer;
+    private final Cache<EventFilter, Entry> responses;
+    private final AtomicLong generation = new AtomicLong(); // Wie in EventCache: erkennt Invalidierungen während des Ladens
+    private final SingleFlight<Flight, Body> loads = new SingleFlight<>();
+
+    public EventResponseCache(ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${calendar.response-cache.enabled:true}") boolean enabled,
+                              @Value("${calendar.response-cache.max-size:64MB}") DataSize maxSize,
+                              @Value("${calendar.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.enabled = enabled;
+        // Derselbe ObjectMapper wie der JSON-Konverter von Spring MVC, damit das Format identisch bleibt
+        this.writer = objectMapper.writerFor(new TypeReference<List<Event>>() {
+        });
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<EventFilter, Entry>weigher((filter, entry) -> entry.weight())
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "events.responses");
+        FunctionCounter.builder("calendar.cache.coalesced", loads, SingleFlight::coalescedCount)
+                .description("Cache misses that waited for an identical load already in progress")
+                .tag("cache", "events.responses")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return false, wenn der Cache per Konfiguration abgeschaltet ist.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Liefert die serialisierte Antwort aus dem Cache oder lädt, serialisiert und komprimiert sie.
+     * @param filter Die normalisierten Filterkriterien als Schlüssel.
+     * @param loader Führt die Abfrage aus (z.B. über den EventService).
+     * @return Der Body der Antwort.
+     */
+    public Body get(EventFilter filter, Supplier<List<Event>> loader) {
+        Entry cached = responses.getIfPresent(filter);
+        if (cached != null) {
+            return cached.body();
+        }
+        long startGeneration = generation.get();
+        // Wie in EventCache: gleichzeitige Fehlschläge desselben Stands laden und serialisieren nur einmal
+        return loads.execute(new Flight(filter, startGeneration), () -> {
+            Entry loaded = Entry.of(loader.get(), writer);
+            if (enabled && generation.get() == startGeneration) {
+                responses.put(filter, loaded);
+                if (generation.get() != startGeneration) {
+                    responses.invalidate(filter);
+                }
+            }
+            return loaded.body();
+        });
+    }
+
+    /**
+     * Entfernt nach jeder erfolgreichen Schreiboperation des EventService die Antworten, die sich dadurch ändern.
+     * @param change Die Änderung, die der EventService veröffentlicht hat.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChange(EventChange change) {
+        if (!enabled) {
+            return;
+        }
+        generation.incrementAndGet();
+        Long id = change.eventId();
+        Event newState = change.event();
+        responses.asMap().entrySet().removeIf(entry -> entry.getValue().contains(id)
+                || (newState != null && entry.getKey().matches(newState)));
+    }
+
+    private record Flight(EventFilter filter, long generation) {
+    }
+
+    // Body plus sortierte IDs der enthaltenen Events für die Invalidierung per Binärsuche
+    private record Entry(Body body, long[] sortedIds) {
+
+        static Entry of(List<Event> events, ObjectWriter writer) {
+            byte[] json;
+            try {
+                json = writer.writeValueAsBytes(events);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            long[] ids = events.stream().mapToLong(Event::getId).sorted().toArray();
+            return new Entry(new Body(json, json.length >= MIN_GZIP_SIZE ? gzip(json) : null), ids);
+        }
+
+        boolean contains(Long id) {
+            return id != null && Arrays.binarySearch(sortedIds, id) >= 0;
+        }
+
+        int weight() {
+            long bytes = body.json().length + (body.gzip() != null ? body.gzip().length : 0) + sortedIds.length * 8L;
+            return (int) Math.min(Integer.MAX_VALUE, bytes);
+        }
+
+        private static byte[] gzip(byte[] data) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(data);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package de.htwberlin.webtech.calendar.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Fasst gleichzeitige Ladevorgänge für denselben Schlüssel zusammen (Single-Flight): Nur der erste Aufrufer führt
+ * den Loader aus, alle, die währenddessen mit demselben Schlüssel kommen, warten auf dessen Ergebnis bzw. Fehler.
+ * Anders als ein Cache hält er nichts über das Laden hinaus fest. Verpasst z.B. der Monatswechsel viele Clients
+ * gleichzeitig am Cache vorbei, erreicht so nur eine Abfrage die Datenbank.
+ * @param <K> Typ des Schlüssels.
+ * @param <V> Typ des Ergebnisses.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Führt den Loader aus oder schließt sich einem laufenden Ladevorgang mit demselben Schlüssel an.
+     * @param key Der Schlüssel; Aufrufer, die kein älteres Ergebnis sehen dürfen, nehmen ihren Stand mit hinein.
+     * @param loader Lädt das Ergebnis.
+     * @return Das Ergebnis des Loaders.
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            coalesced.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                // Den Fehler des Ladenden unverpackt weitergeben, als hätte dieser Aufrufer selbst geladen
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * @return Die Anzahl der Aufrufe, die sich einem laufenden Ladevorgang angeschlossen haben.
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+}
@@ -0,0 +1,199 @@
+package de.htwberlin.webtech.calendar.changes;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Verteilt die Einträge des {@link EventChangeLog} als Server-Sent Events an alle Abonnenten von GET /events/changes.
+ * Ein wartender Abonnent belegt keinen Thread, sondern nur seinen Lesezeiger im Protokoll und die offene
+ * (asynchrone) Servlet-Anfrage. Erst wenn es etwas zu senden gibt, schreibt ein kurzlebiger virtueller Thread alle
+ * fehlenden Einträge in seine Verbindung. Ein langsamer Client hält deshalb weder Schreiboperationen noch andere
+ * Abonnenten auf; fällt er weiter zurück, als der Puffer reicht, erhält er ein "reset"-Ereignis und muss neu laden.
+ * Jeder Abonnent erhält nur die Änderungen seines Kalenders; die Sequenznummern sind für alle Kalender gemeinsam.
+ */
+@Component
+public class EventChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(EventChangeFeed.class);
+
+    private final EventChangeLog changeLog;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("change-feed-heartbeat").daemon().factory());
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+
+    public EventChangeFeed(EventChangeLog changeLog,
+                           @Value("${calendar.changes.max-subscribers:40000}") int maxSubscribers,
+                           @Value("${calendar.changes.timeout:30m}") Duration timeout,
+                           @Value("${calendar.changes.heartbeat-interval:15s}") Duration heartbeatInterval) {
+        this.changeLog = changeLog;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+        // Der Schreibpfad stößt nur eine Verteilung an; das Benachrichtigen aller Abonnenten läuft außerhalb
+        changeLog.addAppendListener(this::scheduleDispatch);
+        // Kommentarzeilen halten Proxys offen und decken geschlossene Verbindungen auf
+        heartbeats.scheduleAtFixedRate(this::sendHeartbeats,
+                heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Meldet einen neuen Abonnenten für die Änderungen eines Kalenders an.
+     * @param calendarId Der Kalender.
+     * @param lastSequence Die zuletzt empfangene Sequenznummer (aus Last-Event-ID), oder null, um nur neue Änderungen
+     *                     zu erhalten. Liegt sie nicht mehr im Puffer, beginnt der Stream mit einem "reset"-Ereignis.
+     * @return Der Emitter, über den die Änderungen gesendet werden.
+     * @throws ResponseStatusException 503, wenn bereits die maximale Anzahl an Abonnenten verbunden ist.
+     */
+    public SseEmitter subscribe(String calendarId, Long lastSequence) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many change feed subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        long head = changeLog.head();
+        Subscriber subscriber = new Subscriber(emitter, calendarId, lastSequence != null ? lastSequence : head);
+        if (lastSequence != null && !changeLog.canResumeFrom(lastSequence)) {
+            subscriber.resetDue = true;
+            subscriber.cursor = head;
+        }
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        // Ein erster Kommentar sendet die Antwort-Header sofort, damit der Client die Verbindung als offen erkennt
+        subscriber.heartbeatDue = true;
+        signal(subscriber);
+        return emitter;
+    }
+
+    /**
+     * @return Die Anzahl der verbundenen Abonnenten.
+     */
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        senders.shutdownNow();
+    }
+
+    private void scheduleDispatch() {
+        if (dispatchScheduled.compareAndSet(false, true)) {
+            senders.execute(() -> {
+                dispatchScheduled.set(false);
+                subscribers.forEach(this::signal);
+            });
+        }
+    }
+
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            signal(subscriber);
+        }
+    }
+
+    // Höchstens ein Sendevorgang pro Abonnent gleichzeitig; weitere Signale werden vom laufenden Vorgang mit erledigt
+    private void signal(Subscriber subscriber) {
+        if (subscriber.sending.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RuntimeException e) {
+                subscriber.sending.set(false); // Executor beim Herunterfahren bereits beendet
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (subscriber.hasWork(changeLog.head())) {
+                sendPending(subscriber);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Verbindung geschlossen oder Emitter bereits beendet; der Container räumt die Anfrage selbst auf
+            log.debug("Dropping change feed subscriber: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            return;
+        } finally {
+            subscriber.sending.set(false);
+        }
+        // Ein Signal, das nach der letzten Prüfung, aber vor dem Freigeben kam, darf nicht verloren gehen
+        if (subscriber.hasWork(changeLog.head()) && subscribers.contains(subscriber)) {
+            signal(subscriber);
+        }
+    }
+
+    private void sendPending(Subscriber subscriber) throws IOException {
+        SseEmitter emitter = subscriber.emitter;
+        if (subscriber.heartbeatDue) {
+            subscriber.heartbeatDue = false;
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+        long head = changeLog.head();
+        for (long sequence = subscriber.cursor + 1; sequence <= head && !subscriber.resetDue; sequence++) {
+            EventChangeLog.Entry entry = changeLog.get(sequence);
+            if (entry == null) {
+                // Schon überschrieben: der Abonnent ist zu weit zurückgefallen
+                subscriber.resetDue = true;
+                subscriber.cursor = head;
+                break;
+            }
+            if (entry.calendarId().equals(subscriber.calendarId)) {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(sequence))
+                        .name(entry.eventName())
+                        .data(entry.json()));
+            }
+            subscriber.cursor = sequence;
+        }
+        if (subscriber.resetDue) {
+            subscriber.resetDue = false;
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(subscriber.cursor))
+                    .name("reset")
+                    .data("{\"sequence\":" + subscriber.cursor + "}"));
+        }
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final String calendarId;
+        final AtomicBoolean sending = new AtomicBoolean();
+        // Zuletzt gesendete Sequenznummer; wird nur vom jeweils sendenden Thread geändert
+        volatile long cursor;
+        volatile boolean resetDue;
+        volatile boolean heartbeatDue;
+
+        Subscriber(SseEmitter emitter, String calendarId, long cursor) {
+            this.emitter = emitter;
+            this.calendarId = calendarId;
+            this.cursor = cursor;
+        }
+
+        boolean hasWork(long head) {
+            return cursor < head || resetDue || heartbeatDue;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package de.htwberlin.webtech.calendar.changes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.service.EventChange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Änderungsprotokoll aller Schreiboperationen des EventService als Ringpuffer fester Größe.
+ * Jede Änderung erhält eine fortlaufende Sequenznummer und wird beim Eintragen einmal als JSON serialisiert,
+ * so dass beliebig viele Abonnenten denselben Text versenden können. Lesen ist ohne Sperre möglich:
+ * Ein Eintrag, der inzwischen überschrieben wurde, wird an seiner Sequenznummer erkannt.
+ * Wie {@link de.htwberlin.webtech.calendar.service.EventRevision} lebt das Protokoll im Speicher dieser Instanz;
+ * es beginnt bei der Startzeit in Millisekunden, so dass Sequenznummern nach einem Neustart nicht erneut vergeben werden.
+ */
+@Component
+public class EventChangeLog {
+
+    /**
+     * Ein protokollierter Eintrag.
+     * @param sequence Fortlaufende Sequenznummer.
+     * @param type Art der Änderung.
+     * @param eventId ID des geänderten Events.
+     * @param calendarId Kalender des geänderten Events.
+     * @param json Die Änderung als JSON-Objekt {@code {"sequence", "type", "eventId", "calendarId", "event"}}.
+     */
+    public record Entry(long sequence, EventChange.Type type, Long eventId, String calendarId, String json) {
+
+        /**
+         * @return Der Name des SSE-Ereignisses, z.B. "updated".
+         */
+        public String eventName() {
+            return type.name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    // Das JSON-Format eines Eintrags
+    private record ChangeMessage(long sequence, EventChange.Type type, Long eventId, String calendarId, Event event) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final AtomicReferenceArray<Entry> entries;
+    private final List<Runnable> appendListeners = new CopyOnWriteArrayList<>();
+    private final ReentrantLock writeLock = new ReentrantLock(); // Statt synchronized, um virtuelle Threads nicht zu pinnen
+    private volatile long head; // Sequenznummer des neuesten Eintrags
+
+    public EventChangeLog(ObjectMapper objectMapper,
+                          @Value("${calendar.changes.buffer-size:10000}") int capacity) {
+        this.objectMapper = objectMapper;
+        this.entries = new AtomicReferenceArray<>(capacity);
+        this.head = System.currentTimeMillis();
+    }
+
+    /**
+     * Trägt jede erfolgreiche Schreiboperation des EventService nach dem Commit ein.
+     * @param change Die Änderung, die der EventService veröffentlicht hat.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChange(EventChange change) {
+        append(change);
+    }
+
+    /**
+     * @return Die Sequenznummer des neuesten Eintrags (bzw. der Startwert, solange es noch keinen gibt).
+     */
+    public long head() {
+        return head;
+    }
+
+    /**
+     * Liefert einen Eintrag, solange er noch nicht überschrieben wurde.
+     * @param sequence Die Sequenznummer.
+     * @return Der Eintrag, oder null, wenn er nicht (mehr) im Puffer liegt.
+     */
+    public Entry get(long sequence) {
+        if (sequence > head || sequence <= 0) {
+            return null;
+        }
+        Entry entry = entries.get(slot(sequence));
+        return entry != null && entry.sequence() == sequence ? entry : null;
+    }
+
+    /**
+     * Prüft, ob ein Leser, der alles bis einschließlich der angegebenen Sequenznummer gesehen hat,
+     * lückenlos weiterlesen kann.
+     * @param sequence Die zuletzt gelesene Sequenznummer.
+     * @return true, wenn alle späteren Einträge noch im Puffer liegen.
+     */
+    public boolean canResumeFrom(long sequence) {
+        long currentHead = head;
+        return sequence == currentHead || (sequence < currentHead && get(sequence + 1) != null);
+    }
+
+    /**
+     * Registriert einen Callback, der nach jedem neuen Eintrag aufgerufen wird. Er muss schnell zurückkehren.
+     * @param listener Der Callback.
+     */
+    public void addAppendListener(Runnable listener) {
+        appendListeners.add(listener);
+    }
+
+    void append(EventChange change) {
+        write(change);
+        appendListeners.forEach(Runnable::run);
+    }
+
+    // Schreibzugriffe sind serialisiert; Leser sehen einen Eintrag erst, nachdem head ihn freigegeben hat
+    private void write(EventChange change) {
+        writeLock.lock();
+        try {
+            long sequence = head + 1;
+            String json;
+            try {
+                json = objectMapper.writeValueAsString(new ChangeMessage(sequence, change.type(), change.eventId(),
+                        change.calendarId(), change.event()));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize change of event " + change.eventId(), e);
+            }
+            entries.set(slot(sequence), new Entry(sequence, change.type(), change.eventId(), change.calendarId(), json));
+            head = sequence;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % entries.length());
+    }
+}
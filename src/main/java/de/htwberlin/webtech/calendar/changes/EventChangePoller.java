@@ -0,0 +1,198 @@
+package de.htwberlin.webtech.calendar.changes;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.htwberlin.webtech.calendar.model.ArchivedEvent;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventTombstone;
+import de.htwberlin.webtech.calendar.repository.ArchivedEventRepository;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import de.htwberlin.webtech.calendar.repository.EventTombstoneRepository;
+import de.htwberlin.webtech.calendar.service.EventChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Führt die Schreiboperationen anderer Instanzen nach, die dieselbe Datenbank beschreiben. Alle
+ * {@code calendar.changes.poll-interval} liest er die seither geänderten Events (Spalte lastModified), die Grabsteine
+ * gelöschter und die archivierten Events und veröffentlicht sie als {@link EventChange}, als kämen sie vom eigenen
+ * EventService. In-Memory-Indizes, Caches, die Revision der Listen-ETags und der Change-Feed folgen dadurch auch
+ * fremden Änderungen, spätestens nach einem Intervall.
+ * Was diese Instanz selbst veröffentlicht hat, wird nicht noch einmal gemeldet. Ebenso übersprungen wird ein Event,
+ * das diese Instanz geändert hat, während der gelesene Stand unterwegs war: Der lokale Stand ist mindestens so neu,
+ * und die Überlappung beim nächsten Lesen holt ein späteres fremdes Update nach.
+ * Deaktivierung über {@code calendar.changes.poll-enabled=false}, z.B. bei nur einer Instanz.
+ */
+@Component
+public class EventChangePoller {
+
+    private static final Logger log = LoggerFactory.getLogger(EventChangePoller.class);
+
+    private static final int PAGE_SIZE = 1000;
+    // Wie bei den Erinnerungen: lastModified und deletedAt werden vor dem Commit gesetzt, deshalb mit Überlappung lesen
+    private static final Duration OVERLAP = Duration.ofSeconds(5);
+
+    // Zuletzt veröffentlichter Stand eines Events; sequence ordnet ihn gegenüber dem Beginn eines Lesevorgangs ein
+    private record Seen(long sequence, boolean removed, Instant lastModified) {
+    }
+
+    private final EventRepository eventRepository;
+    private final EventTombstoneRepository tombstoneRepository;
+    private final ArchivedEventRepository archiveRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final AtomicLong sequence = new AtomicLong();
+    // Muss nur die Stände der letzten Überlappung kennen; ein verdrängter Eintrag führt höchstens zu einer Wiederholung
+    private final Cache<Long, Seen> seen = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    // Bis wann die drei Quellen gelesen sind; nur vom Scheduler-Thread verwendet
+    private Instant modifiedSince;
+    private Instant deletedSince;
+    private Instant archivedSince;
+
+    public EventChangePoller(EventRepository eventRepository,
+                             EventTombstoneRepository tombstoneRepository,
+                             ArchivedEventRepository archiveRepository,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${calendar.changes.poll-enabled:true}") boolean enabled) {
+        this.eventRepository = eventRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.archiveRepository = archiveRepository;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        // Was vor dem Start geschah, laden die Indizes selbst; Caches und Revision beginnen ohnehin leer
+        Instant now = Event.modificationTimestamp();
+        this.modifiedSince = now;
+        this.deletedSince = now;
+        this.archivedSince = now;
+    }
+
+    /**
+     * Liest die Änderungen seit dem letzten Durchlauf und veröffentlicht die noch unbekannten.
+     * Schlägt das Lesen fehl, bleiben die Positionen stehen und der nächste Durchlauf liest dasselbe noch einmal.
+     */
+    @Scheduled(fixedDelayString = "${calendar.changes.poll-interval:5s}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            pollModified();
+            pollDeleted();
+            pollArchived();
+        } catch (RuntimeException e) {
+            log.warn("Could not read changes of other instances, retrying with the next poll", e);
+        }
+    }
+
+    /**
+     * Merkt sich jede veröffentlichte Änderung, eigene wie nachgeführte, damit sie nicht erneut gemeldet wird.
+     * @param change Die Änderung.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChange(EventChange change) {
+        if (!enabled) {
+            return;
+        }
+        Event event = change.event();
+        seen.put(change.eventId(), new Seen(sequence.incrementAndGet(), event == null, event != null ? event.getLastModified() : null));
+    }
+
+    private void pollModified() {
+        long readStart = sequence.get();
+        Instant since = modifiedSince.minus(OVERLAP);
+        Long sinceId = Long.MIN_VALUE;
+        List<Event> page;
+        do {
+            page = eventRepository.findAllModifiedAfter(since, sinceId, Limit.of(PAGE_SIZE));
+            for (Event event : page) {
+                if (isUnseen(event.getId(), false, event.getLastModified(), readStart)) {
+                    // Ein Event, das nie geändert wurde, hat noch Version 0
+                    eventPublisher.publishEvent(Long.valueOf(0).equals(event.getVersion())
+                            ? EventChange.created(event) : EventChange.updated(event));
+                }
+            }
+            if (!page.isEmpty()) {
+                Event last = page.get(page.size() - 1);
+                since = last.getLastModified();
+                sinceId = last.getId();
+                if (since.isAfter(modifiedSince)) {
+                    modifiedSince = since;
+                }
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+
+    private void pollDeleted() {
+        long readStart = sequence.get();
+        Instant since = deletedSince.minus(OVERLAP);
+        Long sinceId = Long.MIN_VALUE;
+        List<EventTombstone> page;
+        do {
+            page = tombstoneRepository.findAllDeletedAfter(since, sinceId, Limit.of(PAGE_SIZE));
+            for (EventTombstone tombstone : page) {
+                if (isUnseen(tombstone.getEventId(), true, null, readStart)) {
+                    eventPublisher.publishEvent(EventChange.deleted(tombstone.getEventId(), tombstone.getCalendarId()));
+                }
+            }
+            if (!page.isEmpty()) {
+                EventTombstone last = page.get(page.size() - 1);
+                since = last.getDeletedAt();
+                sinceId = last.getEventId();
+                if (since.isAfter(deletedSince)) {
+                    deletedSince = since;
+                }
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+
+    private void pollArchived() {
+        long readStart = sequence.get();
+        Instant since = archivedSince.minus(OVERLAP);
+        Long sinceId = Long.MIN_VALUE;
+        List<ArchivedEvent> page;
+        do {
+            page = archiveRepository.findArchivedAfter(since, sinceId, Limit.of(PAGE_SIZE));
+            for (ArchivedEvent archived : page) {
+                if (isUnseen(archived.getId(), true, null, readStart)) {
+                    eventPublisher.publishEvent(EventChange.archived(archived.getId(), archived.getCalendarId()));
+                }
+            }
+            if (!page.isEmpty()) {
+                ArchivedEvent last = page.get(page.size() - 1);
+                since = last.getArchivedAt();
+                sinceId = last.getId();
+                if (since.isAfter(archivedSince)) {
+                    archivedSince = since;
+                }
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+
+    // Unbekannt ist ein Stand, der weder schon veröffentlicht wurde noch älter sein kann als ein lokal veröffentlichter
+    private boolean isUnseen(Long id, boolean removed, Instant lastModified, long readStart) {
+        Seen last = seen.getIfPresent(id);
+        if (last == null) {
+            return true;
+        }
+        if (last.sequence() > readStart) {
+            return false; // Während des Lesens hier geändert
+        }
+        return last.removed() != removed || !Objects.equals(last.lastModified(), lastModified);
+    }
+}
@@ -0,0 +1,385 @@
+package de.htwberlin.webtech.calendar.codec;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.Recurrence;
+import de.htwberlin.webtech.calendar.model.RecurrenceFrequency;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Kompaktes, spaltenorientiertes Binärformat für große Event-Listen (Content-Type {@value #MEDIA_TYPE}).
+ * Statt jedes Event als JSON-Objekt mit Feldnamen und ISO-Datumsstrings zu schreiben, wird jedes Feld als eigene
+ * Spalte über alle Events kodiert:
+ * <ul>
+ *     <li>IDs und Startzeitpunkte (Epochensekunden, UTC) als Differenz zum Vorgänger,</li>
+ *     <li>das Ende als Dauer ab dem Start,</li>
+ *     <li>Titel als Wörterbuch (jeder unterschiedliche String einmal) plus Index pro Event; Beschreibungen sind
+ *     meist einzigartig und werden deshalb direkt mit ihrer Länge geschrieben,</li>
+ *     <li>isCompleted als Bitmenge (null wird als false übertragen),</li>
+ *     <li>Wiederholungsregeln nur für die (wenigen) Serien, mit ihrer Zeilennummer.</li>
+ * </ul>
+ * Alle Ganzzahlen sind Varints (LEB128, vorzeichenbehaftete per ZigZag), so dass kleine Differenzen ein bis zwei Byte
+ * belegen. Aufbau: Magic "EVC1", Anzahl, Flags, dann die Spalten in der Reihenfolge von {@link #write}.
+ */
+public final class EventColumnarCodec {
+
+    public static final String MEDIA_TYPE = "application/x-calendar-events";
+
+    private static final byte[] MAGIC = {'E', 'V', 'C', '1'};
+    // Flag: Start- und Endzeitpunkte haben Sekundenbruchteile, die Nanosekunden folgen als eigene Spalte
+    private static final int FLAG_NANOS = 1;
+    private static final RecurrenceFrequency[] FREQUENCIES = RecurrenceFrequency.values();
+
+    private EventColumnarCodec() {
+    }
+
+    /**
+     * Kodiert die Events in den Stream. Der Stream wird nicht geschlossen.
+     * @param events Die Events; alle müssen eine ID und Start-/Endzeitpunkt haben.
+     * @param outputStream Ziel der kodierten Daten.
+     * @throws IOException wenn das Schreiben fehlschlägt.
+     */
+    public static void write(List<Event> events, OutputStream outputStream) throws IOException {
+        Sink out = new Sink(outputStream);
+        int count = events.size();
+        boolean nanos = events.stream().anyMatch(event ->
+                event.getStartDateTime().getNano() != 0 || event.getEndDateTime().getNano() != 0);
+        out.bytes(MAGIC);
+        out.varint(count);
+        out.varint(nanos ? FLAG_NANOS : 0);
+
+        long previous = 0;
+        for (Event event : events) {
+            out.signed(event.getId() - previous);
+            previous = event.getId();
+        }
+        previous = 0;
+        for (Event event : events) {
+            long start = epochSecond(event.getStartDateTime());
+            out.signed(start - previous);
+            previous = start;
+        }
+        for (Event event : events) {
+            out.signed(epochSecond(event.getEndDateTime()) - epochSecond(event.getStartDateTime()));
+        }
+        if (nanos) {
+            for (Event event : events) {
+                out.varint(event.getStartDateTime().getNano());
+                out.varint(event.getEndDateTime().getNano());
+            }
+        }
+        writeDictionary(out, events, Event::getTitle);
+        for (Event event : events) {
+            writeNullableString(out, event.getDescription());
+        }
+
+        byte[] completed = new byte[(count + 7) / 8];
+        byte[] modified = new byte[(count + 7) / 8];
+        for (int i = 0; i < count; i++) {
+            if (Boolean.TRUE.equals(events.get(i).getIsCompleted())) {
+                completed[i >> 3] |= (byte) (1 << (i & 7));
+            }
+            if (events.get(i).getLastModified() != null) {
+                modified[i >> 3] |= (byte) (1 << (i & 7));
+            }
+        }
+        out.bytes(completed);
+        for (Event event : events) {
+            out.varint(event.getVersion() != null ? event.getVersion() + 1 : 0);
+        }
+        out.bytes(modified);
+        previous = 0;
+        for (Event event : events) {
+            if (event.getLastModified() != null) {
+                long micros = ChronoUnit.MICROS.between(Instant.EPOCH, event.getLastModified());
+                out.signed(micros - previous);
+                previous = micros;
+            }
+        }
+
+        int seriesCount = (int) events.stream().filter(event -> event.getRecurrence() != null).count();
+        out.varint(seriesCount);
+        for (int i = 0; i < count && seriesCount > 0; i++) {
+            Event event = events.get(i);
+            Recurrence recurrence = event.getRecurrence();
+            if (recurrence == null) {
+                continue;
+            }
+            out.varint(i);
+            out.varint(recurrence.getFrequency().ordinal());
+            out.varint(recurrence.getInterval() != null ? recurrence.getInterval() : 0);
+            out.varint(recurrence.getUntil() != null ? zigZag(recurrence.getUntil().toEpochDay()) + 1 : 0);
+            out.varint(recurrence.getCount() != null ? recurrence.getCount() : 0);
+            List<LocalDate> exceptions = recurrence.getExceptions();
+            out.varint(exceptions.size());
+            long previousDay = 0;
+            for (LocalDate exception : exceptions) {
+                out.signed(exception.toEpochDay() - previousDay);
+                previousDay = exception.toEpochDay();
+            }
+            // Bei Vorkommen einer Serie weicht seriesEnd vom eigenen Start ab und wird deshalb mitgeschickt
+            out.varint(event.getSeriesEnd() != null ? zigZag(epochSecond(event.getSeriesEnd())) + 1 : 0);
+        }
+        out.flush();
+    }
+
+    /**
+     * Dekodiert Events, die mit {@link #write} kodiert wurden, z.B. für Java-Clients und Tests.
+     * @param inputStream Quelle der kodierten Daten.
+     * @return Die Events in der ursprünglichen Reihenfolge.
+     * @throws IOException wenn das Lesen fehlschlägt oder die Daten kein gültiges Format haben.
+     */
+    public static List<Event> read(InputStream inputStream) throws IOException {
+        Source in = new Source(inputStream);
+        if (!Arrays.equals(in.bytes(MAGIC.length), MAGIC)) {
+            throw new IOException("Not a columnar event stream");
+        }
+        int count = (int) in.varint();
+        boolean nanos = (in.varint() & FLAG_NANOS) != 0;
+
+        List<Event> events = new ArrayList<>(count);
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            Event event = new Event();
+            previous += in.signed();
+            event.setId(previous);
+            events.add(event);
+        }
+        previous = 0;
+        long[] starts = new long[count];
+        for (int i = 0; i < count; i++) {
+            previous += in.signed();
+            starts[i] = previous;
+        }
+        long[] ends = new long[count];
+        for (int i = 0; i < count; i++) {
+            ends[i] = starts[i] + in.signed();
+        }
+        for (int i = 0; i < count; i++) {
+            int startNano = nanos ? (int) in.varint() : 0;
+            int endNano = nanos ? (int) in.varint() : 0;
+            events.get(i).setStartDateTime(LocalDateTime.ofEpochSecond(starts[i], startNano, ZoneOffset.UTC));
+            events.get(i).setEndDateTime(LocalDateTime.ofEpochSecond(ends[i], endNano, ZoneOffset.UTC));
+        }
+        String[] titles = readDictionary(in, count);
+        String[] descriptions = new String[count];
+        for (int i = 0; i < count; i++) {
+            descriptions[i] = readNullableString(in);
+        }
+        byte[] completed = in.bytes((count + 7) / 8);
+        for (int i = 0; i < count; i++) {
+            Event event = events.get(i);
+            event.setTitle(titles[i]);
+            event.setDescription(descriptions[i]);
+            event.setIsCompleted((completed[i >> 3] & (1 << (i & 7))) != 0);
+        }
+        for (Event event : events) {
+            long version = in.varint();
+            event.setVersion(version == 0 ? null : version - 1);
+        }
+        byte[] modified = in.bytes((count + 7) / 8);
+        previous = 0;
+        for (int i = 0; i < count; i++) {
+            if ((modified[i >> 3] & (1 << (i & 7))) != 0) {
+                previous += in.signed();
+                events.get(i).setLastModified(Instant.EPOCH.plus(previous, ChronoUnit.MICROS));
+            }
+        }
+
+        long seriesCount = in.varint();
+        for (long s = 0; s < seriesCount; s++) {
+            Event event = events.get((int) in.varint());
+            RecurrenceFrequency frequency = FREQUENCIES[(int) in.varint()];
+            long interval = in.varint();
+            long until = in.varint();
+            long occurrences = in.varint();
+            int exceptionCount = (int) in.varint();
+            List<LocalDate> exceptions = new ArrayList<>(exceptionCount);
+            long previousDay = 0;
+            for (int e = 0; e < exceptionCount; e++) {
+                previousDay += in.signed();
+                exceptions.add(LocalDate.ofEpochDay(previousDay));
+            }
+            long seriesEnd = in.varint();
+            event.setRecurrence(new Recurrence(frequency,
+                    interval == 0 ? null : (int) interval,
+                    until == 0 ? null : LocalDate.ofEpochDay(unZigZag(until - 1)),
+                    occurrences == 0 ? null : (int) occurrences,
+                    exceptions));
+            event.setSeriesEnd(seriesEnd == 0 ? null
+                    : LocalDateTime.ofEpochSecond(unZigZag(seriesEnd - 1), 0, ZoneOffset.UTC));
+        }
+        return events;
+    }
+
+    // Jeder unterschiedliche String einmal, danach pro Event dessen Position (0 für null)
+    private static void writeDictionary(Sink out, List<Event> events,
+                                        Function<Event, String> column) throws IOException {
+        Map<String, Integer> positions = new HashMap<>();
+        int[] indexes = new int[events.size()];
+        List<String> dictionary = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            String value = column.apply(events.get(i));
+            if (value != null) {
+                indexes[i] = positions.computeIfAbsent(value, key -> {
+                    dictionary.add(key);
+                    return dictionary.size();
+                });
+            }
+        }
+        out.varint(dictionary.size());
+        for (String value : dictionary) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            out.varint(utf8.length);
+            out.bytes(utf8);
+        }
+        for (int index : indexes) {
+            out.varint(index);
+        }
+    }
+
+    // Länge + 1 und UTF-8-Bytes, 0 für null
+    private static void writeNullableString(Sink out, String value) throws IOException {
+        if (value == null) {
+            out.varint(0);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.varint(utf8.length + 1L);
+        out.bytes(utf8);
+    }
+
+    private static String readNullableString(Source in) throws IOException {
+        long length = in.varint();
+        return length == 0 ? null : new String(in.bytes((int) length - 1), StandardCharsets.UTF_8);
+    }
+
+    private static String[] readDictionary(Source in, int count) throws IOException {
+        String[] dictionary = new String[(int) in.varint() + 1];
+        for (int i = 1; i < dictionary.length; i++) {
+            dictionary[i] = new String(in.bytes((int) in.varint()), StandardCharsets.UTF_8);
+        }
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = dictionary[(int) in.varint()];
+        }
+        return values;
+    }
+
+    private static long epochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // Eigener Puffer statt BufferedOutputStream: Varints werden byteweise geschrieben, ohne synchronisierte Aufrufe
+    private static final class Sink {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[8192];
+        private int position;
+
+        Sink(OutputStream out) {
+            this.out = out;
+        }
+
+        void varint(long value) throws IOException {
+            if (position > buffer.length - 10) {
+                flush();
+            }
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void signed(long value) throws IOException {
+            varint(zigZag(value));
+        }
+
+        void bytes(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.length - position) {
+                flush();
+                if (bytes.length > buffer.length) {
+                    out.write(bytes);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void flush() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private static final class Source {
+        private final InputStream in;
+        private final byte[] buffer = new byte[8192];
+        private int position;
+        private int limit;
+
+        Source(InputStream in) {
+            this.in = in;
+        }
+
+        long varint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = next();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        long signed() throws IOException {
+            return unZigZag(varint());
+        }
+
+        byte[] bytes(int length) throws IOException {
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) next();
+            }
+            return bytes;
+        }
+
+        private int next() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    throw new EOFException("Unexpected end of columnar event stream");
+                }
+            }
+            return buffer[position++] & 0xFF;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package de.htwberlin.webtech.calendar.codec;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Schreibt {@code List<Event>}-Antworten im {@link EventColumnarCodec}-Format, wenn der Client es per
+ * {@code Accept: application/x-calendar-events} anfordert. Der Konverter steht hinter dem JSON-Konverter,
+ * so dass Anfragen ohne oder mit allgemeinem Accept-Header weiterhin JSON erhalten.
+ */
+public class EventColumnarHttpMessageConverter extends AbstractGenericHttpMessageConverter<List<Event>> {
+
+    public EventColumnarHttpMessageConverter() {
+        super(MediaType.parseMediaType(EventColumnarCodec.MEDIA_TYPE));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false; // Nur als Antwortformat gedacht
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    // Nur Listen von Events, nicht beliebige Listen (z.B. Batch-Ergebnisse). Ist der Elementtyp nicht deklariert
+    // (ResponseEntity<?> in GET /events), entscheidet der Inhalt der Liste.
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!supports(clazz) || !canWrite(mediaType)) {
+            return false;
+        }
+        Class<?> elementType = ResolvableType.forType(type != null ? type : clazz).asCollection().resolveGeneric(0);
+        return elementType == null || Event.class.equals(elementType);
+    }
+
+    @Override
+    protected void writeInternal(List<Event> events, Type type, HttpOutputMessage outputMessage) throws IOException {
+        for (Object element : (List<?>) events) {
+            if (!(element instanceof Event)) {
+                throw new HttpMessageNotWritableException("Columnar format only supports events, not " + element);
+            }
+        }
+        EventColumnarCodec.write(events, outputMessage.getBody());
+    }
+
+    @Override
+    public List<Event> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar event format is response-only", inputMessage);
+    }
+
+    @Override
+    protected List<Event> readInternal(Class<? extends List<Event>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar event format is response-only", inputMessage);
+    }
+}
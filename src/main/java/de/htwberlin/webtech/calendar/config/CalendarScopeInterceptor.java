@@ -0,0 +1,33 @@
+package de.htwberlin.webtech.calendar.config;
+
+import de.htwberlin.webtech.calendar.controller.EventController;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.regex.Pattern;
+
+/**
+ * Prüft den Kalender-Header {@value EventController#CALENDAR_HEADER} aller Event-Endpunkte, bevor eine Abfrage
+ * die Datenbank oder einen Index erreicht, und markiert die Antwort mit {@code Vary}, damit Caches Antworten
+ * verschiedener Kalender nicht vermischen.
+ */
+public class CalendarScopeInterceptor implements HandlerInterceptor {
+
+    // Passt zur Spalte calendar_id (höchstens 64 Zeichen) und ist in URLs, Cache-Schlüsseln und Logs unkritisch
+    private static final Pattern CALENDAR_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String calendarId = request.getHeader(EventController.CALENDAR_HEADER);
+        if (calendarId != null && !CALENDAR_ID.matcher(calendarId).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid " + EventController.CALENDAR_HEADER + ", expected 1-64 characters of [A-Za-z0-9_-]");
+        }
+        response.addHeader(HttpHeaders.VARY, EventController.CALENDAR_HEADER);
+        return true;
+    }
+}
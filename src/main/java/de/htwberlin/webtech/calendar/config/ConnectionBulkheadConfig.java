@@ -0,0 +1,74 @@
+package de.htwberlin.webtech.calendar.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Legt den {@link BoundedDataSource}-Bulkhead um die von Spring Boot konfigurierte DataSource (HikariCP).
+ * Mit Read-Replicas begrenzt er nur die primäre Datenbank; jede Replica hat einen eigenen (siehe {@link ReplicaRouter}).
+ * Die Anzahl der Permits entspricht standardmäßig der Poolgröße, so dass nie mehr Threads um Verbindungen
+ * konkurrieren, als der Pool bedienen kann – unabhängig davon, ob Requests auf Plattform- oder virtuellen Threads laufen.
+ * Die Zahl der wartenden Threads erscheint als Metrik {@code calendar.db.bulkhead.waiting}.
+ * Deaktivierung über {@code calendar.datasource.bulkhead.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "calendar.datasource.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class ConnectionBulkheadConfig {
+
+    // static, damit der BeanPostProcessor ohne die übrige Konfiguration früh erzeugt werden kann
+    @Bean
+    static BeanPostProcessor connectionBulkheadPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Die Read-Replica-Weiche legt den Bulkhead selbst um die primäre DataSource (ReadReplicaConfig)
+                if (!(bean instanceof DataSource dataSource) || isBounded(dataSource)) {
+                    return bean;
+                }
+                return bulkhead(dataSource, environment);
+            }
+        };
+    }
+
+    /**
+     * Legt den Bulkhead mit den konfigurierten Permits um die primäre DataSource.
+     */
+    static BoundedDataSource bulkhead(DataSource dataSource, Environment environment) {
+        int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        int permits = environment.getProperty("calendar.datasource.bulkhead.max-concurrent", Integer.class, poolSize);
+        return new BoundedDataSource(dataSource, permits, acquireTimeout(environment));
+    }
+
+    static boolean isEnabled(Environment environment) {
+        return environment.getProperty("calendar.datasource.bulkhead.enabled", Boolean.class, true);
+    }
+
+    static Duration acquireTimeout(Environment environment) {
+        return environment.getProperty("calendar.datasource.bulkhead.acquire-timeout", Duration.class, Duration.ofSeconds(5));
+    }
+
+    private static boolean isBounded(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(BoundedDataSource.class);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @Bean
+    MeterBinder connectionBulkheadMetrics(DataSource dataSource) throws SQLException {
+        BoundedDataSource bounded = dataSource.unwrap(BoundedDataSource.class);
+        return registry -> Gauge.builder("calendar.db.bulkhead.waiting", bounded, BoundedDataSource::getWaitingThreads)
+                .description("Threads waiting for a database connection permit")
+                .register(registry);
+    }
+}
@@ -0,0 +1,26 @@
+package de.htwberlin.webtech.calendar.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Registriert den {@link IdempotencyFilter}. Deaktivierung über {@code calendar.idempotency.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "calendar.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    @Bean
+    IdempotencyFilter idempotencyFilter(MeterRegistry meterRegistry,
+                                        @Value("${calendar.idempotency.max-size:16MB}") DataSize maxSize,
+                                        @Value("${calendar.idempotency.max-body-size:4MB}") DataSize maxBodySize,
+                                        @Value("${calendar.idempotency.ttl:24h}") Duration ttl) {
+        return new IdempotencyFilter(meterRegistry, maxSize, maxBodySize, ttl);
+    }
+}
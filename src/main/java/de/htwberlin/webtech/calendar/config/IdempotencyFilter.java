@@ -0,0 +1,258 @@
+package de.htwberlin.webtech.calendar.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.htwberlin.webtech.calendar.controller.EventController;
+import de.htwberlin.webtech.calendar.model.Event;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unterstützt den Header {@value #KEY_HEADER} für alle schreibenden Requests (POST, PUT, PATCH, DELETE).
+ * Wiederholt ein Client nach einem Netzwerkfehler einen Request mit demselben Schlüssel, bekommt er die gespeicherte
+ * Antwort des ersten Versuchs (mit {@value #REPLAYED_HEADER}: true), ohne dass der Request erneut ausgeführt wird –
+ * ein wiederholtes {@code POST /events} legt also kein zweites Event an.
+ * <ul>
+ *     <li>Schlüssel gelten pro Kalender (ohne Header {@code X-Calendar-Id} wie im Controller "default"), Methode
+ *     und URL.</li>
+ *     <li>Gespeichert werden nur erfolgreiche Antworten (2xx); nach einem Fehler darf der Client es erneut versuchen.</li>
+ *     <li>Läuft der erste Versuch noch, wird die Wiederholung mit 409 Conflict abgewiesen.</li>
+ *     <li>Derselbe Schlüssel mit anderem Body wird mit 422 Unprocessable Entity abgewiesen.</li>
+ *     <li>Der Body wird für den Fingerabdruck vorab in den Speicher gelesen; ist er größer als {@code maxBodySize},
+ *     wird der Request mit 413 Content Too Large abgewiesen.</li>
+ * </ul>
+ * Die Antworten liegen in einem nach Bytes begrenzten Caffeine-Cache und verfallen nach {@code ttl}. Der Speicher
+ * ist lokal: Bei mehreren Instanzen gilt der Schutz nur für Wiederholungen, die dieselbe Instanz erreichen.
+ * Metriken unter {@code cache.*} mit dem Tag {@code cache=idempotency} und {@code calendar.idempotency.replayed}.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Set<String> METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    /**
+     * Ein gespeicherter Request: solange {@code response} null ist, läuft der erste Versuch noch.
+     */
+    private record Entry(byte[] fingerprint, StoredResponse response) {
+
+        int weight() {
+            return response != null ? response.weight() : 64;
+        }
+    }
+
+    private record StoredResponse(int status, String contentType, Map<String, List<String>> headers, byte[] body) {
+
+        int weight() {
+            long bytes = body.length + 64L;
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                bytes += header.getKey().length() + header.getValue().stream().mapToInt(String::length).sum();
+            }
+            return (int) Math.min(Integer.MAX_VALUE, bytes);
+        }
+    }
+
+    private record Key(String calendarId, String method, String uri, String key) {
+    }
+
+    private final Cache<Key, Entry> entries;
+    private final Counter replayed;
+    private final int maxBodySize;
+
+    public IdempotencyFilter(MeterRegistry meterRegistry, DataSize maxSize, DataSize maxBodySize, Duration ttl) {
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<Key, Entry>weigher((key, entry) -> entry.weight())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotency");
+        this.replayed = Counter.builder("calendar.idempotency.replayed")
+                .description("Write requests answered with the stored response of an earlier attempt")
+                .register(meterRegistry);
+        this.maxBodySize = (int) Math.min(Integer.MAX_VALUE - 1, maxBodySize.toBytes());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(KEY_HEADER) == null || !METHODS.contains(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(KEY_HEADER).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(),
+                    KEY_HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        // Wie @RequestHeader mit defaultValue: fehlender oder leerer Header bedeutet den Standardkalender
+        String calendarId = request.getHeader(EventController.CALENDAR_HEADER);
+        if (calendarId == null || calendarId.isEmpty()) {
+            calendarId = Event.DEFAULT_CALENDAR;
+        }
+        String uri = request.getQueryString() != null ? request.getRequestURI() + "?" + request.getQueryString() : request.getRequestURI();
+        Key key = new Key(calendarId, request.getMethod(), uri, idempotencyKey);
+        // Der Body wird vorab gelesen, damit sein Fingerabdruck vor der Ausführung feststeht; ohne oder mit falschem
+        // Content-Length höchstens ein Byte über der Grenze
+        byte[] body = request.getContentLengthLong() <= maxBodySize
+                ? request.getInputStream().readNBytes(maxBodySize + 1)
+                : null;
+        if (body == null || body.length > maxBodySize) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(),
+                    "Requests with " + KEY_HEADER + " must not exceed " + maxBodySize + " bytes");
+            return;
+        }
+        BufferedBodyRequest bufferedRequest = new BufferedBodyRequest(request, body);
+        byte[] fingerprint = sha256(bufferedRequest.body);
+
+        Entry pending = new Entry(fingerprint, null);
+        Entry existing = entries.asMap().putIfAbsent(key, pending);
+        if (existing != null) {
+            if (!Arrays.equals(existing.fingerprint(), fingerprint)) {
+                response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                        KEY_HEADER + " was already used for a different request body");
+            } else if (existing.response() == null) {
+                response.sendError(HttpStatus.CONFLICT.value(),
+                        "A request with this " + KEY_HEADER + " is still being processed");
+            } else {
+                replayed.increment();
+                replay(existing.response(), response);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(bufferedRequest, cachingResponse);
+            int status = cachingResponse.getStatus();
+            if (status >= 200 && status < 300) {
+                entries.asMap().replace(key, pending, new Entry(fingerprint, store(cachingResponse)));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                entries.asMap().remove(key, pending); // Der nächste Versuch wird wieder ausgeführt
+            }
+        }
+        cachingResponse.copyBodyToResponse();
+    }
+
+    private static StoredResponse store(ContentCachingResponseWrapper response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            headers.put(name, new ArrayList<>(response.getHeaders(name)));
+        }
+        return new StoredResponse(response.getStatus(), response.getContentType(), headers, response.getContentAsByteArray());
+    }
+
+    private static void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        stored.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private static byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Jede JVM muss SHA-256 unterstützen
+        }
+    }
+
+    /**
+     * Request, dessen Body bereits vollständig gelesen ist und beliebig oft ausgeliefert werden kann.
+     */
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Der Body liegt vollständig im Speicher, der Listener kann ihn also sofort ohne Blockieren lesen
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
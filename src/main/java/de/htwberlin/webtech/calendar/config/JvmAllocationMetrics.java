@@ -0,0 +1,64 @@
+package de.htwberlin.webtech.calendar.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Veröffentlicht die Allokationen der JVM auf dem Heap: {@code calendar.jvm.allocated} zählt alle seit dem Start
+ * allokierten Bytes, {@code calendar.jvm.allocation.rate} ist die Rate in Bytes pro Sekunde über das letzte
+ * Messintervall ({@code calendar.metrics.allocation.sample-interval}). Anders als {@code jvm.gc.memory.allocated}
+ * steigen die Werte laufend und nicht erst bei der nächsten Garbage Collection.
+ * Ohne Unterstützung der JVM (HotSpot-Erweiterung von {@code ThreadMXBean}) werden keine Metriken registriert.
+ */
+@Component
+public class JvmAllocationMetrics implements MeterBinder {
+
+    private final com.sun.management.ThreadMXBean threadBean; // null, wenn nicht unterstützt
+    private long lastSampleBytes;
+    private long lastSampleNanos;
+    private volatile double bytesPerSecond;
+
+    public JvmAllocationMetrics() {
+        this.threadBean = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled() ? bean : null;
+        if (threadBean != null) {
+            lastSampleBytes = threadBean.getTotalThreadAllocatedBytes();
+            lastSampleNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (threadBean == null) {
+            return;
+        }
+        FunctionCounter.builder("calendar.jvm.allocated", threadBean, com.sun.management.ThreadMXBean::getTotalThreadAllocatedBytes)
+                .description("Heap bytes allocated by all threads since the JVM started")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("calendar.jvm.allocation.rate", this, metrics -> metrics.bytesPerSecond)
+                .description("Heap allocation rate over the last sample interval")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    @Scheduled(fixedRateString = "${calendar.metrics.allocation.sample-interval:10s}")
+    void sample() {
+        if (threadBean == null) {
+            return;
+        }
+        long bytes = threadBean.getTotalThreadAllocatedBytes();
+        long nanos = System.nanoTime();
+        if (nanos > lastSampleNanos) {
+            bytesPerSecond = (bytes - lastSampleBytes) * 1e9 / (nanos - lastSampleNanos);
+        }
+        lastSampleBytes = bytes;
+        lastSampleNanos = nanos;
+    }
+}
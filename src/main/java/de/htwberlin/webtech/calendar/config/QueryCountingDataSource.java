@@ -0,0 +1,90 @@
+package de.htwberlin.webtech.calendar.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DataSource, die jede ausgeführte SQL-Anweisung zählt und ihre Dauer misst ({@code execute*} auf
+ * {@link Statement}, {@code PreparedStatement} und {@code CallableStatement}). Gemessen wird nur die Ausführung,
+ * nicht das Lesen des ResultSets. Die Summen laufen in {@link LongAdder}n auf, damit parallele Requests
+ * nicht um einen gemeinsamen Zähler konkurrieren; zusätzlich werden die Zähler des laufenden Requests
+ * ({@link QueryStats}) fortgeschrieben. Pro Anweisung kostet das zwei {@code nanoTime()}-Aufrufe.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    private final LongAdder queryCount = new LongAdder();
+    private final LongAdder queryNanos = new LongAdder();
+
+    public QueryCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countQueries(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countQueries(super.getConnection(username, password));
+    }
+
+    /**
+     * @return Die Anzahl aller bisher ausgeführten SQL-Anweisungen.
+     */
+    public long getQueryCount() {
+        return queryCount.sum();
+    }
+
+    /**
+     * @return Die Summe ihrer Ausführungszeiten in Nanosekunden.
+     */
+    public long getQueryNanos() {
+        return queryNanos.sum();
+    }
+
+    private Connection countQueries(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    // createStatement, prepareStatement und prepareCall liefern die zu messenden Anweisungen
+                    return result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())
+                            ? timeExecution(statement, method.getReturnType())
+                            : result;
+                });
+    }
+
+    private Object timeExecution(Statement statement, Class<?> type) {
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (!method.getName().startsWith("execute")) {
+                        return invoke(statement, method, args);
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        return invoke(statement, method, args);
+                    } finally {
+                        long nanos = System.nanoTime() - start;
+                        queryCount.increment();
+                        queryNanos.add(nanos);
+                        QueryStats.record(nanos);
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package de.htwberlin.webtech.calendar.config;
+
+/**
+ * Zählt die SQL-Anweisungen und ihre Dauer innerhalb eines Requests.
+ * {@link RequestMetricsFilter} bindet eine Instanz an den Thread des Requests, {@link QueryCountingDataSource} schreibt hinein.
+ * Anweisungen außerhalb eines Requests (z.B. aus {@code @Scheduled}-Aufgaben) zählen nur in die globalen Summen.
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private int count;
+    private long nanos;
+
+    private QueryStats() {
+    }
+
+    /**
+     * Beginnt die Zählung für den aktuellen Thread.
+     * @return Die Zähler des Requests, gültig bis {@link #stop()}.
+     */
+    public static QueryStats start() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Beendet die Zählung für den aktuellen Thread.
+     */
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    static void record(long nanos) {
+        QueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.count++;
+            stats.nanos += nanos;
+        }
+    }
+
+    /**
+     * @return Die Anzahl der ausgeführten SQL-Anweisungen (ein JDBC-Batch zählt einmal).
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @return Die Summe der Ausführungszeiten in Nanosekunden.
+     */
+    public long nanos() {
+        return nanos;
+    }
+}
@@ -0,0 +1,82 @@
+package de.htwberlin.webtech.calendar.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Leitet lesende Transaktionen der mit {@link ReplicaReads} markierten Endpunkte über den {@link ReplicaRouter}
+ * an Read-Replicas, sobald {@code calendar.datasource.replica.urls} gesetzt ist. Die Weiche liegt innerhalb der
+ * Abfragezählung, so dass diese auch die Zugriffe auf die Replicas erfasst. Der Bulkhead liegt dagegen innerhalb der
+ * Weiche: Die primäre Datenbank und jede Replica haben eigene Permits, Lesezugriffe auf die Replicas warten also
+ * nicht auf freie Verbindungen der primären Datenbank.
+ */
+@Configuration
+@ConditionalOnExpression("!'${calendar.datasource.replica.urls:}'.isBlank()")
+public class ReadReplicaConfig implements WebMvcConfigurer {
+
+    // static, damit der BeanPostProcessor ohne die übrige Konfiguration früh erzeugt werden kann
+    @Bean
+    static BeanPostProcessor replicaRoutingPostProcessor(ObjectProvider<ReplicaRouter> replicaRouter, Environment environment) {
+        return new ReplicaRoutingPostProcessor(replicaRouter, environment);
+    }
+
+    @Bean
+    ReplicaRouter replicaRouter(@Value("${calendar.datasource.replica.urls}") List<String> urls,
+                                @Value("${calendar.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                @Value("${calendar.datasource.replica.password:${spring.datasource.password:}}") String password,
+                                @Value("${calendar.datasource.replica.pool-size:10}") int poolSize,
+                                @Value("${calendar.datasource.replica.max-lag:5s}") Duration maxLag,
+                                Environment environment) {
+        // Jede Replica bekommt einen eigenen Bulkhead mit so vielen Permits, wie ihr Pool Verbindungen hat
+        Duration acquireTimeout = ConnectionBulkheadConfig.isEnabled(environment)
+                ? ConnectionBulkheadConfig.acquireTimeout(environment) : null;
+        return new ReplicaRouter(urls, username, password, poolSize, maxLag, acquireTimeout);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReplicaRoutingInterceptor()).addPathPatterns("/events", "/events/**");
+    }
+
+    // PriorityOrdered, damit die Weiche vor den übrigen Hüllen um Connection-Pool und Bulkhead gelegt wird
+    private static final class ReplicaRoutingPostProcessor implements BeanPostProcessor, PriorityOrdered {
+
+        private final ObjectProvider<ReplicaRouter> replicaRouter;
+        private final Environment environment;
+
+        private ReplicaRoutingPostProcessor(ObjectProvider<ReplicaRouter> replicaRouter, Environment environment) {
+            this.replicaRouter = replicaRouter;
+            this.environment = environment;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || bean instanceof LazyConnectionDataSourceProxy) {
+                return bean;
+            }
+            // Der Bulkhead der primären Datenbank gehört unter die Weiche; ConnectionBulkheadConfig erkennt ihn dort
+            DataSource primary = ConnectionBulkheadConfig.isEnabled(environment)
+                    ? ConnectionBulkheadConfig.bulkhead(dataSource, environment) : dataSource;
+            return replicaRouter.getObject().route(primary);
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
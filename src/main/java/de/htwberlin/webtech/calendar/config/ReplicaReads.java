@@ -0,0 +1,20 @@
+package de.htwberlin.webtech.calendar.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Erlaubt dem {@link ReplicaRouter}, die lesenden Transaktionen eines Endpunkts an Read-Replicas zu geben.
+ * Eine Replica kann bis zu {@code max-lag} (plus ein Messintervall) zurückliegen. Geeignet sind deshalb nur Endpunkte,
+ * deren Antwort ein solcher Rückstand nicht verfälscht: Sie füllt keinen Cache (EventCache, EventResponseCache),
+ * trägt kein ETag, das sich auf die aktuelle Revision bezieht, und liefert kein Token, das spätere Abfragen
+ * voraussetzt (wie GET /events/sync). Alle übrigen Endpunkte lesen von der primären Datenbank.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReplicaReads {
+}
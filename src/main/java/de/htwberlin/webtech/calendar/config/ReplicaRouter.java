@@ -0,0 +1,279 @@
+package de.htwberlin.webtech.calendar.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Verteilt lesende Transaktionen auf Read-Replicas ({@code calendar.datasource.replica.urls}).
+ * Die DataSource der Anwendung wird dazu in eine {@link LazyConnectionDataSourceProxy} gelegt, die erst beim
+ * ersten SQL eine Verbindung holt – dann ist bekannt, ob die Transaktion {@code readOnly} ist. Eine Replica bekommt
+ * eine Verbindung nur, wenn alle Bedingungen erfüllt sind:
+ * <ul>
+ *     <li>die Transaktion ist {@code readOnly} (z.B. die Lesemethoden der Spring-Data-Repositories),</li>
+ *     <li>sie läuft in einem Request an einen mit {@link ReplicaReads} markierten Endpunkt (alle anderen Endpunkte
+ *     und Hintergrundaufgaben lesen immer von der primären Datenbank, weil Caches, ETags und Sync-Tokens einen
+ *     aktuellen Stand voraussetzen),</li>
+ *     <li>der Request hat noch nichts geschrieben (Read-after-Write: nach dem ersten Schreibzugriff bleibt er primär),</li>
+ *     <li>die Replica ist erreichbar und höchstens {@code max-lag} hinter der primären Datenbank.</li>
+ * </ul>
+ * Andernfalls liest die primäre Datenbank. Die Verzögerung wird alle {@code check-interval} über die Tabelle
+ * {@code replica_heartbeat} gemessen; zwischen zwei Messungen kann sie um bis zu ein Intervall wachsen. Sind mehrere Replicas gesund, werden sie reihum verwendet.
+ */
+public class ReplicaRouter implements MeterBinder, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRouter.class);
+    private static final String HEARTBEAT = "primary";
+    private static final ThreadLocal<RequestScope> CURRENT_REQUEST = new ThreadLocal<>();
+
+    /**
+     * Zustand eines Requests: ob er bereits über die primäre Datenbank geschrieben hat.
+     */
+    private static final class RequestScope {
+        private boolean pinned;
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile long lagMillis = Long.MAX_VALUE; // Bis zur ersten Messung nicht verwendbar
+        private boolean healthy;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMillis;
+    private final Clock clock;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+    private DataSource primary;
+
+    /**
+     * @param urls JDBC-URLs der Replicas; für jede wird ein eigener, read-only konfigurierter Hikari-Pool angelegt.
+     * @param username Benutzer für die Replicas.
+     * @param password Passwort für die Replicas.
+     * @param poolSize Maximale Größe jedes Replica-Pools.
+     * @param maxLag Größte Verzögerung, bei der eine Replica noch verwendet wird.
+     * @param acquireTimeout Wartezeit des eigenen {@link BoundedDataSource}-Bulkheads jeder Replica, oder null ohne Bulkhead.
+     */
+    public ReplicaRouter(List<String> urls, String username, String password, int poolSize, Duration maxLag,
+                         Duration acquireTimeout) {
+        this(createPools(urls, username, password, poolSize, acquireTimeout), maxLag, Clock.systemUTC());
+    }
+
+    ReplicaRouter(List<DataSource> replicaDataSources, Duration maxLag, Clock clock) {
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            replicas.add(new Replica("replica-" + i, replicaDataSources.get(i)));
+        }
+        this.maxLagMillis = maxLag.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Legt die Weiche um die primäre DataSource.
+     * @param primary Die von Spring Boot konfigurierte DataSource.
+     * @return Die DataSource, die die Anwendung stattdessen verwendet.
+     */
+    public DataSource route(DataSource primary) {
+        this.primary = primary;
+        // Schreibende Verbindungen kommen aus dem Ziel der Proxy, lesende aus der Read-Only-DataSource
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(new DelegatingDataSource(primary) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                pinRequest();
+                return super.getConnection();
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                pinRequest();
+                return super.getConnection(username, password);
+            }
+        });
+        proxy.setReadOnlyDataSource(new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return readConnection();
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return readConnection();
+            }
+        });
+        // Auto-Commit und Isolation der Verbindungen schon jetzt ermitteln; sonst holt die Proxy sie im ersten Request
+        // über eine Verbindung der primären Datenbank, und der Request würde als schreibend festgehalten
+        proxy.checkDefaultConnectionProperties();
+        return proxy;
+    }
+
+    /**
+     * Beginnt einen Request, innerhalb dessen lesende Transaktionen an Replicas gehen dürfen.
+     */
+    public static void beginRequest() {
+        CURRENT_REQUEST.set(new RequestScope());
+    }
+
+    /**
+     * Beendet den Request des aktuellen Threads.
+     */
+    public static void endRequest() {
+        CURRENT_REQUEST.remove();
+    }
+
+    /**
+     * Schreibt den Herzschlag auf die primäre Datenbank und misst die Verzögerung jeder Replica.
+     */
+    @Scheduled(fixedDelayString = "${calendar.datasource.replica.check-interval:1s}")
+    public void checkReplicas() {
+        if (primary == null) {
+            return;
+        }
+        Instant now = clock.instant();
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(primary);
+            Timestamp beat = Timestamp.from(now);
+            if (jdbcTemplate.update("UPDATE replica_heartbeat SET beat = ? WHERE name = ?", beat, HEARTBEAT) == 0) {
+                jdbcTemplate.update("INSERT INTO replica_heartbeat (name, beat) VALUES (?, ?)", HEARTBEAT, beat);
+            }
+        } catch (DataAccessException e) {
+            // Ohne primäre Datenbank lässt sich die Verzögerung nicht messen; die letzten Werte bleiben gültig
+            log.warn("Could not write replica heartbeat: {}", e.getMessage());
+            return;
+        }
+        for (Replica replica : replicas) {
+            long lag;
+            try {
+                Timestamp beat = new JdbcTemplate(replica.dataSource).query("SELECT beat FROM replica_heartbeat WHERE name = ?",
+                        resultSet -> resultSet.next() ? resultSet.getTimestamp(1) : null, HEARTBEAT);
+                lag = beat != null ? Math.max(0, now.toEpochMilli() - beat.toInstant().toEpochMilli()) : Long.MAX_VALUE;
+            } catch (DataAccessException e) {
+                lag = Long.MAX_VALUE;
+            }
+            replica.lagMillis = lag;
+            boolean healthy = lag <= maxLagMillis;
+            if (healthy != replica.healthy) {
+                replica.healthy = healthy;
+                if (healthy) {
+                    log.info("Routing read-only transactions to {} again (lag {} ms)", replica.name, lag);
+                } else {
+                    log.warn("Reading from the primary instead of {} (lag {})", replica.name,
+                            lag == Long.MAX_VALUE ? "unknown" : lag + " ms");
+                }
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Replica replica : replicas) {
+            Gauge.builder("calendar.db.replica.lag", replica, r -> r.lagMillis == Long.MAX_VALUE ? Double.NaN : r.lagMillis / 1000.0)
+                    .description("Replication lag of the read replica, NaN while unreachable")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.name)
+                    .register(registry);
+        }
+        FunctionCounter.builder("calendar.db.reads", replicaReads, LongAdder::sum)
+                .description("Read-only connections by target")
+                .tag("target", "replica")
+                .register(registry);
+        FunctionCounter.builder("calendar.db.reads", primaryReads, LongAdder::sum)
+                .description("Read-only connections by target")
+                .tag("target", "primary")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() throws SQLException {
+        for (Replica replica : replicas) {
+            if (replica.dataSource.isWrapperFor(HikariDataSource.class)) {
+                replica.dataSource.unwrap(HikariDataSource.class).close();
+            }
+        }
+    }
+
+    private Connection readConnection() throws SQLException {
+        RequestScope request = CURRENT_REQUEST.get();
+        if (request != null && !request.pinned) {
+            int size = replicas.size();
+            int start = Math.floorMod(next.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((start + i) % size);
+                // Ist der Bulkhead einer Replica ausgeschöpft, weicht der Request aus, statt zu warten
+                if (replica.lagMillis <= maxLagMillis && !(replica.dataSource instanceof BoundedDataSource bounded
+                        && bounded.getAvailablePermits() == 0)) {
+                    try {
+                        Connection connection = replica.dataSource.getConnection();
+                        replicaReads.increment();
+                        return connection;
+                    } catch (SQLException e) {
+                        // Bis zur nächsten Messung nicht mehr verwenden
+                        replica.lagMillis = Long.MAX_VALUE;
+                        log.warn("Could not connect to {}: {}", replica.name, e.getMessage());
+                    }
+                }
+            }
+        }
+        primaryReads.increment();
+        Connection connection = primary.getConnection();
+        // Die Proxy setzt das Flag für die Read-Only-DataSource nicht; Hikari setzt es bei der Rückgabe zurück
+        connection.setReadOnly(true);
+        return connection;
+    }
+
+    private static void pinRequest() {
+        RequestScope request = CURRENT_REQUEST.get();
+        if (request != null) {
+            request.pinned = true;
+        }
+    }
+
+    private static List<DataSource> createPools(List<String> urls, String username, String password, int poolSize,
+                                                Duration acquireTimeout) {
+        List<DataSource> pools = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + pools.size());
+            pool.setJdbcUrl(url.trim());
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setMaximumPoolSize(poolSize);
+            pool.setReadOnly(true);
+            // Eine nicht erreichbare Replica darf den Start nicht verhindern; sie bleibt bis zur ersten Messung ungenutzt
+            pool.setInitializationFailTimeout(-1);
+            pools.add(acquireTimeout != null ? new BoundedDataSource(pool, poolSize, acquireTimeout) : pool);
+        }
+        return pools;
+    }
+}
@@ -0,0 +1,27 @@
+package de.htwberlin.webtech.calendar.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Markiert die Dauer eines Requests an einen mit {@link ReplicaReads} markierten Endpunkt für den
+ * {@link ReplicaRouter}: Nur dann dürfen lesende Transaktionen an Replicas gehen, und nach dem ersten
+ * Schreibzugriff liest der Request nur noch von der primären Datenbank.
+ */
+public class ReplicaRoutingInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method && method.hasMethodAnnotation(ReplicaReads.class)) {
+            ReplicaRouter.beginRequest();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReplicaRouter.endRequest();
+    }
+}
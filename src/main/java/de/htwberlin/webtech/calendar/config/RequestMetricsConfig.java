@@ -0,0 +1,55 @@
+package de.htwberlin.webtech.calendar.config;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Legt die {@link QueryCountingDataSource} um die DataSource und registriert den {@link RequestMetricsFilter}.
+ * Die Summe aller SQL-Anweisungen erscheint als {@code calendar.db.queries}, die Werte pro Request unter
+ * {@code calendar.http.*}. Deaktivierung über {@code calendar.metrics.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "calendar.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestMetricsConfig {
+
+    // static, damit der BeanPostProcessor ohne die übrige Konfiguration früh erzeugt werden kann
+    @Bean
+    static BeanPostProcessor queryCountingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof QueryCountingDataSource) {
+                    return bean;
+                }
+                return new QueryCountingDataSource(dataSource);
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder queryMetrics(DataSource dataSource) throws SQLException {
+        // Der Bulkhead kann außen um die zählende DataSource liegen
+        QueryCountingDataSource counting = dataSource.unwrap(QueryCountingDataSource.class);
+        return registry -> FunctionTimer.builder("calendar.db.queries", counting,
+                        QueryCountingDataSource::getQueryCount, QueryCountingDataSource::getQueryNanos, TimeUnit.NANOSECONDS)
+                .description("SQL statements executed by the application")
+                .register(registry);
+    }
+
+    @Bean
+    RequestMetricsFilter requestMetricsFilter(MeterRegistry meterRegistry,
+                                              @Value("${calendar.metrics.slow-request-threshold:1s}") Duration slowRequestThreshold) {
+        return new RequestMetricsFilter(meterRegistry, slowRequestThreshold);
+    }
+}
@@ -0,0 +1,130 @@
+package de.htwberlin.webtech.calendar.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Erfasst pro Endpunkt (Tags {@code method}, für nicht standardisierte Methoden "UNKNOWN", und {@code uri}, das Muster
+ * der Controller-Methode), was ein Request
+ * neben seiner Laufzeit kostet: die Anzahl der SQL-Anweisungen ({@code calendar.http.queries}), deren Dauer
+ * ({@code calendar.http.query.time}) und die auf dem Request-Thread allokierten Bytes ({@code calendar.http.allocated}).
+ * Die Laufzeit selbst misst Spring Boot bereits als {@code http.server.requests}.
+ * Requests ab {@code calendar.metrics.slow-request-threshold} werden mit diesen Werten geloggt.
+ * Asynchron beantwortete Requests (z.B. der Änderungs-Feed) werden nicht erfasst, da ihre Arbeit auf anderen Threads läuft.
+ */
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestMetricsFilter.class);
+    private static final String UNKNOWN = "UNKNOWN";
+    // Nur diese Methoden werden als Tag übernommen; beliebige Methodennamen eines Clients würden sonst je eigene Meter anlegen
+    private static final Set<String> METHODS = Arrays.stream(HttpMethod.values())
+            .map(HttpMethod::name)
+            .collect(Collectors.toUnmodifiableSet());
+
+    private record Endpoint(String method, String uri) {
+    }
+
+    private record EndpointMeters(DistributionSummary queries, Timer queryTime, DistributionSummary allocated) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final long slowRequestNanos;
+    private final com.sun.management.ThreadMXBean threadBean; // null, wenn die JVM keine Allokationen pro Thread zählt
+    // Meter pro Endpunkt, damit ein Request nur einen Map-Zugriff statt drei Registry-Lookups kostet
+    private final ConcurrentMap<Endpoint, EndpointMeters> meters = new ConcurrentHashMap<>();
+
+    public RequestMetricsFilter(MeterRegistry meterRegistry, Duration slowRequestThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.slowRequestNanos = slowRequestThreshold.toNanos();
+        this.threadBean = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled() ? bean : null;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        QueryStats queries = QueryStats.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryStats.stop();
+            if (!request.isAsyncStarted()) {
+                long allocatedAfter = allocatedBytes();
+                // Auf virtuellen Threads liefert die JVM keine Werte (-1)
+                long allocated = allocatedBefore >= 0 && allocatedAfter >= 0 ? allocatedAfter - allocatedBefore : -1;
+                record(request, queries, System.nanoTime() - start, allocated);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryStats queries, long nanos, long allocated) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String method = METHODS.contains(request.getMethod()) ? request.getMethod() : UNKNOWN;
+        Endpoint endpoint = new Endpoint(method, pattern != null ? pattern.toString() : UNKNOWN);
+        EndpointMeters endpointMeters = meters.computeIfAbsent(endpoint, this::register);
+        endpointMeters.queries().record(queries.count());
+        endpointMeters.queryTime().record(queries.nanos(), TimeUnit.NANOSECONDS);
+        if (allocated >= 0) {
+            endpointMeters.allocated().record(allocated);
+        }
+        if (nanos >= slowRequestNanos) {
+            log.warn("Slow request {} {}: {} ms, {} queries in {} ms, {} KB allocated", endpoint.method(),
+                    request.getRequestURI(), TimeUnit.NANOSECONDS.toMillis(nanos), queries.count(),
+                    TimeUnit.NANOSECONDS.toMillis(queries.nanos()), allocated >= 0 ? allocated / 1024 : "?");
+        }
+    }
+
+    // Feste Bucket-Grenzen statt Perzentil-Histogrammen halten die Zahl der Zeitreihen pro Endpunkt klein
+    private EndpointMeters register(Endpoint endpoint) {
+        return new EndpointMeters(
+                DistributionSummary.builder("calendar.http.queries")
+                        .description("SQL statements executed per request")
+                        .baseUnit("queries")
+                        .tags("method", endpoint.method(), "uri", endpoint.uri())
+                        .serviceLevelObjectives(1, 2, 5, 10, 20, 50, 100)
+                        .register(meterRegistry),
+                Timer.builder("calendar.http.query.time")
+                        .description("Time spent executing SQL statements per request")
+                        .tags("method", endpoint.method(), "uri", endpoint.uri())
+                        .serviceLevelObjectives(Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(25),
+                                Duration.ofMillis(100), Duration.ofMillis(500), Duration.ofSeconds(2))
+                        .register(meterRegistry),
+                DistributionSummary.builder("calendar.http.allocated")
+                        .description("Heap bytes allocated by the request thread")
+                        .baseUnit("bytes")
+                        .tags("method", endpoint.method(), "uri", endpoint.uri())
+                        .serviceLevelObjectives(64 << 10, 256 << 10, 1 << 20, 4 << 20, 16 << 20, 64 << 20)
+                        .register(meterRegistry));
+    }
+
+    private long allocatedBytes() {
+        return threadBean != null ? threadBean.getCurrentThreadAllocatedBytes() : -1;
+    }
+}
@@ -1,9 +1,18 @@
 package de.htwberlin.webtech.calendar.config;
 
+import de.htwberlin.webtech.calendar.codec.EventColumnarHttpMessageConverter;
+import de.htwberlin.webtech.calendar.model.RangeMode;
+import de.htwberlin.webtech.calendar.model.StatsBucket;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+import java.util.Locale;
+
 @Configuration // Markiert diese Klasse als Spring Konfigurationsklasse
 public class WebConfig implements WebMvcConfigurer {
 
@@ -26,7 +35,42 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH") // PATCH für Status-Update hinzugefügt
                 // Erlaubt alle Header in den Anfragen
                 .allowedHeaders("*")
+                // Macht den Pagination-Cursor, das ETag (für If-Match/If-None-Match), gemeldete Terminkonflikte
+                // und wiederholte Antworten (Idempotency-Key) für das Frontend lesbar
+                .exposedHeaders("X-Next-Cursor", "ETag", "X-Conflicting-Events", "Idempotent-Replayed")
                 // Erlaubt das Senden von Cookies und Authentifizierungs-Headern
                 .allowCredentials(true);
     }
-}
\ No newline at end of file
+
+    /**
+     * Prüft den Kalender-Header aller Event-Endpunkte, siehe {@link CalendarScopeInterceptor}.
+     * @param registry Die InterceptorRegistry, um Interceptoren hinzuzufügen.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new CalendarScopeInterceptor()).addPathPatterns("/events", "/events/**");
+    }
+
+    /**
+     * Registriert Konverter für Request-Parameter.
+     * Enum-Parameter wie rangeMode oder bucket sollen auch in Kleinschreibung ("overlaps", "week") angegeben werden können.
+     * @param registry Die FormatterRegistry, um Konverter hinzuzufügen.
+     */
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, RangeMode.class,
+                value -> RangeMode.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+        registry.addConverter(String.class, StatsBucket.class,
+                value -> StatsBucket.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+    }
+
+    /**
+     * Ergänzt das spaltenorientierte Binärformat für Event-Listen (Accept: application/x-calendar-events).
+     * Es wird hinten angehängt, damit JSON das Standardformat bleibt.
+     * @param converters Die bereits konfigurierten Konverter.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new EventColumnarHttpMessageConverter());
+    }
+}
@@ -0,0 +1,24 @@
+package de.htwberlin.webtech.calendar.controller;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Beantwortet Requests, für die innerhalb des Timeouts keine Datenbankverbindung frei wurde, mit 503 statt 500.
+ * Clients können es dann nach kurzer Zeit erneut versuchen, statt von einem Serverfehler auszugehen.
+ */
+@RestControllerAdvice
+public class DatabaseUnavailableHandler {
+
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<Void> handleDatabaseUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+}
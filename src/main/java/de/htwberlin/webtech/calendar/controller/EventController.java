@@ -1,18 +1,55 @@
 package de.htwberlin.webtech.calendar.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.htwberlin.webtech.calendar.cache.EventResponseCache;
+import de.htwberlin.webtech.calendar.changes.EventChangeFeed;
+import de.htwberlin.webtech.calendar.codec.EventColumnarCodec;
+import de.htwberlin.webtech.calendar.config.ReplicaReads;
+import de.htwberlin.webtech.calendar.model.BatchItemResult;
+import de.htwberlin.webtech.calendar.model.BusyBlock;
 import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventConflict;
+import de.htwberlin.webtech.calendar.model.EventCursor;
+import de.htwberlin.webtech.calendar.model.EventFilter;
+import de.htwberlin.webtech.calendar.model.EventStats;
+import de.htwberlin.webtech.calendar.model.RangeMode;
+import de.htwberlin.webtech.calendar.model.SparseEvent;
+import de.htwberlin.webtech.calendar.model.StatsBucket;
+import de.htwberlin.webtech.calendar.model.SyncResult;
+import de.htwberlin.webtech.calendar.model.SyncToken;
 import de.htwberlin.webtech.calendar.service.EventService;
+import de.htwberlin.webtech.calendar.service.EventStatsService;
+import de.htwberlin.webtech.calendar.service.EventSyncService;
+import de.htwberlin.webtech.calendar.service.FreeBusyService;
 
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/events")
@@ -22,77 +59,512 @@ import java.util.Optional;
 })
 public class EventController {
 
+    // Header, der den Kalender auswählt; alle Abfragen und Änderungen betreffen nur Events dieses Kalenders
+    public static final String CALENDAR_HEADER = "X-Calendar-Id";
+    // Header, in dem der Cursor für die nächste Seite der Keyset-Pagination zurückgegeben wird
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    // Header, in dem POST/PUT die IDs der Events melden, mit denen sich das gespeicherte Event überschneidet
+    public static final String CONFLICTS_HEADER = "X-Conflicting-Events";
+    // Seitengröße, wenn nur ein Cursor ohne limit übergeben wird
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
     private final EventService eventService; // Abhängigkeit zum EventService
+    private final ObjectMapper objectMapper; // Für das zeilenweise Serialisieren beim NDJSON-Export
+    private final Validator validator; // Validiert die Elemente von Batch-Requests einzeln
+    private final EventChangeFeed changeFeed; // Verteilt Änderungen an die Abonnenten von /events/changes
+    private final EventSyncService syncService; // Delta-Synchronisation für GET /events/sync
+    private final EventResponseCache responseCache; // Fertig serialisierte Antworten gefilterter Abfragen
+    private final FreeBusyService freeBusyService; // Frei/Belegt-Auskunft und Konfliktprüfung
+    private final EventStatsService statsService; // Aggregierte Statistiken für Dashboards
 
     // Konstruktor für Dependency Injection: Spring fügt automatisch eine Instanz von EventService ein
-    public EventController(EventService eventService) {
+    public EventController(EventService eventService, ObjectMapper objectMapper, Validator validator,
+                           EventChangeFeed changeFeed, EventSyncService syncService, EventResponseCache responseCache,
+                           FreeBusyService freeBusyService, EventStatsService statsService) {
         this.eventService = eventService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.changeFeed = changeFeed;
+        this.syncService = syncService;
+        this.responseCache = responseCache;
+        this.freeBusyService = freeBusyService;
+        this.statsService = statsService;
     }
 
     /**
      * Erstellt ein neues Event.
      * Erwartet ein Event-Objekt im Request Body.
+     * @param calendarId Der Kalender aus dem Header {@value #CALENDAR_HEADER} (Standard: "default").
      * @param event Das zu erstellende Event-Objekt.
-     * @return Das erstellte Event mit generierter ID und Status 201 Created.
+     * @return Das erstellte Event mit generierter ID und Status 201 Created; überschneidet es sich mit anderen Events,
+     *         stehen deren IDs im Header {@value #CONFLICTS_HEADER}.
      */
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public Event createEvent(@Valid @RequestBody Event event) {
-        return eventService.createEvent(event);
+    public ResponseEntity<Event> createEvent(@RequestHeader(name = CALENDAR_HEADER, defaultValue = Event.DEFAULT_CALENDAR) String calendarId,
+                                             @Valid @RequestBody Event event) {
+        Event savedEvent = eventService.createEvent(calendarId, event);
+        return withConflicts(ResponseEntity.status(HttpStatus.CREATED), savedEvent).body(savedEvent);
+    }
+
+    /**
+     * Erstellt mehrere Events in einem Request.
+     * Jedes Event wird einzeln validiert; ungültige Events werden mit 400 gemeldet, alle gültigen gemeinsam gespeichert.
+     * @param calendarId Der Kalender aus dem Header {@value #CALENDAR_HEADER} (Standard: "default").
+     * @param events Die zu erstellenden Events.
+     * @return Ein Ergebnis pro Event in Request-Reihenfolge (201 mit gespeichertem Event oder 400 mit Fehlermeldung).
+     */
+    @PostMapping("/batch")
+    public List<BatchItemResult> createEvents(@RequestHeader(name = CALENDAR_HEADER, defaultValue = Event.DEFAULT_CALENDAR) String calendarId,
+                                              @RequestBody List<Event> events) {
+        checkBatchSize(events.size());
+        BatchItemResult[] results = new BatchItemResult[events.size()];
+        List<Event> validEvents = new ArrayList<>();
+        List<Integer> validIndexes = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            String error = validate(events.get(i));
+            if (error != null) {
+                results[i] = BatchItemResult.failure(i, HttpStatus.BAD_REQUEST, null, error);
+            } else {
+                validEvents.add(events.get(i));
+                validIndexes.add(i);
+            }
+        }
+
+        List<Event> savedEvents = eventService.createEvents(calendarId, validEvents);
+        for (int j = 0; j < savedEvents.size(); j++) {
+            int index = validIndexes.get(j);
+            results[index] = BatchItemResult.success(index, HttpStatus.CREATED, savedEvents.get(j));
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Aktualisiert mehrere Events in einem Request. Jedes Event muss seine ID enthalten.
+     * @param calendarId Der Kalender aus dem Header {@value #CALENDAR_HEADER} (Standard: "default").
+     * @param events Die Events mit ihren neuen Daten.
+     * @return Ein Ergebnis pro Event in Request-Reihenfolge (200, 400 oder 404).
+     */
+    @PutMapping("/batch")
+    public List<BatchItemResult> updateEvents(@RequestHeader(name = CALENDAR_HEADER, defaultValue = Event.DEFAULT_CALENDAR) String calendarId,
+                                              @RequestBody List<Event> events) {
+        checkBatchSize(events.size());
+        BatchItemResult[] results = new BatchItemResult[events.size()];
+        List<Event> validEvents = new ArrayList<>();
+        List<Integer> validIndexes = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            String error = event.getId() == null ? "id: ID is mandatory for batch updates" : validate(event);
+            if (error != null) {
+                results[i] = BatchItemResult.failure(i, HttpStatus.BAD_REQUEST, event.getId(), error);
+            } else {
+                validEvents.add(event);
+                validIndexes.add(i);
+            }
+        }
+
+        List<BatchItemResult> updated = eventService.updateEvents(calendarId, validEvents);
+        for (int j = 0; j < updated.size(); j++) {
+            int index = validIndexes.get(j);
+            results[index] = updated.get(j).withIndex(index);
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Löscht mehrere Events in einem Request.
+     * @param calendarId Der Kalender aus dem Header {@value #CALENDAR_HEADER} (Standard: "default").
+     * @param ids Die IDs der zu löschenden Events.
+     * @return Ein Ergebnis pro ID in Request-Reihenfolge (204 oder 404).
+     */
+    @DeleteMapping("/batch")
+    public List<BatchItemResult> deleteEvents(@RequestHeader(name = CALENDAR_HEADER, defaultValue = Event.DEFAULT_CALENDAR) String calendarId,
+                                              @RequestBody List<Long> ids) {
+        checkBatchSize(ids.size());
+        if (ids.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "IDs must not be null");
+        }
+        return eventService.deleteEvents(calendarId, ids);
     }
 
     /**
      * Ruft alle Events ab, optional gefiltert nach Start-/Enddatum, Titel, Beschreibung oder Status.
      * Wenn keine Filterparameter übergeben werden, werden alle Events zurückgegeben.
-     * @param startDate Filter: Events, die an oder nach diesem Datum beginnen.
-     * @param endDate Filter: Events, die an oder vor diesem Datum enden.
+     * Archivierte Events (erledigt und lange vorbei) kommen nur bei Filterabfragen hinzu, deren Datumsbereich
+     * in das Archiv reicht, nicht aber ohne Filter und bei der Pagination.
+     * Mit {@code limit} und/oder {@code after} werden die Events stattdessen seitenweise (Keyset-Pagination) geliefert;
+     * der Cursor für die nächste Seite steht im Header {@value #NEXT_CURSOR_HEADER}.
+     * @param calendarId Der Kalender aus dem Header {@value #CALENDAR_HEADER} (Standard: "default").
+     * @param startDate Filter: Beginn des Datumsbereichs.
+     * @param endDate Filter: Ende des Datumsbereichs (einschließlich des ganzen Tages).
      * @param title Filter: Events, deren Titel den angegebenen String enthält (fall-insensitiv).
      * @param description Filter: Events, deren Beschreibung den angegebenen String enthält (fall-insensitiv).
      * @param isCompleted Filter: Events nach ihrem Erledigungsstatus.
-     * @return Eine Liste von Events, die den Filterkriterien entsprechen.
+     * @param rangeMode Auswertung des Datumsbereichs: "contained" (Standard) für Events, die vollständig im Bereich liegen,
+     *                  "overlaps" für alle Events, die den Bereich schneiden.
+     * @param limit Pagination: Maximale Anzahl der Events pro Seite.
+     * @param after Pagination: Cursor aus dem Header {@value #NEXT_CURSOR_HEADER} der vorherigen Seite.
+     * @param fields Kommagetrennte Feldnamen, z.B. {@code title,startDateTime}: liefert nur diese Felder (und die ID),
+     *               ohne die übrigen Spalten aus der Datenbank zu lesen. Nur als JSON und nicht mit Pagination.
+     * @return Eine Liste von Events, die den Filterkriterien entsprechen, mit einem (schwachen) ETag über den gesamten Bestand.
+     *         Passt der If-None-Match-Header dazu, wird ohne Datenbankabfrage 304 Not Modified geliefert.
+     *         Mit {@code Accept: application/x-calendar-events} kommt die Liste statt als JSON im kompakten
+     *         Spaltenformat von {@link EventColumnarCodec}. Gefilterte JSON-Antworten kommen aus dem
+     *         {@link EventResponseCache}, bei {@code Accept-Encoding: gzip} bereits komprimiert.
      */
     @GetMapping
-    public List<Event> getEvents(
+    public ResponseEntity<?> getEvents(
+            @RequestHeader(name = CALENDAR_HEADER, defaultValue = Event.DEFAULT_CALENDAR) String calendarId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(required = false) String title,
             @RequestParam(required = false) String description,
-            @RequestParam(required = false) Boolean isCompleted
+            @RequestParam(required = false) Boolean isCompleted,
+            @RequestParam(required = false) RangeMode rangeMode,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String fields,
+            WebRequest request
     ) {
         // Prüft, ob irgendwelche Filterparameter vorhanden sind
-        if (startDate == null && endDate == null && title == null && description == null && isCompleted == null) {
+        boolean hasFilters = startDate != null || endDate != null || title != null || description != null || isCompleted != null;
+        boolean paginated = limit != null || after != null;
+        if (paginated && hasFilters) {
+            // Seitenweiser Abruf: nur ohne Filter, da der Cursor sich auf die gesamte Sortierreihenfolge bezieht
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Pagination cannot be combined with filters");
+        }
+        List<String> selectedFields = null;
+        if (fields != null) {
+            if (paginated) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Pagination cannot be combined with fields");
+            }
+            if (!acceptsJson(request)) {
+                // Das Spaltenformat hat ein festes Schema und kann keine einzelnen Felder weglassen
+                throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, "fields is only supported for JSON");
+            }
+            try {
+                selectedFields = SparseEvent.parseFields(fields);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+        }
+
+        // Die Revision muss vor der Abfrage gelesen werden, damit ein ETag nie neuer ist als die gelieferten Daten.
+        // Schwaches ETag: es steht für den Stand des Bestands, nicht für genau diese Bytes (JSON, Spaltenformat, gzip);
+        // Tomcat komprimiert Antworten mit starkem ETag außerdem nicht.
+        // Der Kalender gehört ins ETag, damit ein Client es nicht für einen anderen Kalender wiederverwendet.
+        String eTag = "W/\"events-" + calendarId + "-" + eventService.getRevision() + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null; // 304 Not Modified wurde bereits gesetzt
+        }
+
+        if (paginated) {
+            return getEventsPage(calendarId, limit, after, eTag);
+        }
+        if (selectedFields != null) {
+            // Reduzierte Antworten gehen am Antwort-Cache vorbei, der nur vollständige Events hält
+            return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(eventService.getEventFields(
+                    calendarId, startDate, endDate, title, description, isCompleted, rangeMode, selectedFields));
+        }
+        if (!hasFilters) {
             // Wenn keine Filter vorhanden sind, gib alle Events zurück
-            return eventService.getAllEvents();
+            return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(eventService.getAllEvents(calendarId));
+        } else if (responseCache.isEnabled() && acceptsJson(request)) {
+            // Häufige Zeitfenster werden als fertiges (komprimiertes) JSON ausgeliefert
+            EventResponseCache.Body body = responseCache.get(
+                    new EventFilter(calendarId, startDate, endDate, title, description, isCompleted, rangeMode),
+                    () -> eventService.getFilteredEvents(calendarId, startDate, endDate, title, description, isCompleted, rangeMode));
+            boolean gzip = body.gzip() != null && acceptsGzip(request);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag)
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                    .contentType(MediaType.APPLICATION_JSON);
+            if (gzip) {
+                response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return response.body(gzip ? body.gzip() : body.json());
         } else {
             // Andernfalls, wende die Filter über den Service an
-            return eventService.getFilteredEvents(startDate, endDate, title, description, isCompleted);
+            return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT)
+                    .body(eventService.getFilteredEvents(calendarId, startDate, endDate, title, description, isCompleted, rangeMode));
+        }
+    }
+
+    // true, wenn die Content Negotiation JSON wählen würde (kein oder allgemeiner Accept-Header, nicht das Spaltenformat)
+    private static boolean acceptsJson(WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (IllegalArgumentException e) {
+            return false; // Die reguläre Verarbeitung meldet den Fehler
+        }
+        MediaType columnar = MediaType.parseMediaType(EventColumnarCodec.MEDIA_TYPE);
+        return accepted.stream().noneMatch(type -> type.equalsTypeAndSubtype(columnar))
+                && accepted.stream().anyMatch(type -> type.isCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    private static boolean acceptsGzip(WebRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                // "gzip;q=0" schließt gzip ausdrücklich aus
+                return parts.length < 2 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Liefert eine Seite der Keyset-Pagination und setzt den Cursor für die nächste Seite,
+     * falls die Seite voll ist (es also weitere Events geben kann).
+     */
+    private ResponseEntity<List<Event>> getEventsPage(String calendarId, Integer limit, String after, String eTag) {
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > EventService.MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit must be between 1 and " + EventService.MAX_PAGE_SIZE);
+        }
+        EventCursor cursor;
+        try {
+            cursor = after != null ? EventCursor.decode(after) : null;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        List<Event> page = eventService.getEventsPage(calendarId, cursor, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT);
+        if (page.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, EventCursor.of(page.get(page.size() - 1)).encode());
+        }
+        return response.body(page);
+    }
+
+    /**
+     * Exportiert alle Events als NDJSON (ein JSON-Objekt pro Zeile).
+     * Die Events werden direkt aus der Datenbank in die Antwort gestreamt,
+     * sodass der Speicherverbrauch unabhängig von der Anzahl der Events konstant bleibt.
+     * @param calendarId Der Kalender aus dem Header {@value #CALENDAR_HEADER} (Standard: "default").
+     * @return Der Stream aller Events im Format application/x-ndjson.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportEvents(@RequestHeader(name = CALENDAR_HEADER, defaultValue = Event.DEFAULT_CALENDAR) String calendarId) {
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = objectMapper.writerFor(Event.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                eventService.exportEvents(calendarId, event -> {
+                    try {
+                        writer.write(event);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Abonniert alle Änderungen an Events eines Kalenders als Server-Sent Events, statt GET /events regelmäßig abzufragen.
+     * Jede Änderung wird als Ereignis "created", "updated" oder "deleted" mit ihrer Sequenznummer als ID gesendet;
+     * die Daten enthalten {@code sequence}, {@code type}, {@code eventId}, {@code calendarId} und (außer bei "deleted")
+     * das Event.
+     * Nach einem Verbindungsabbruch sendet der Browser (EventSource) die letzte ID als Last-Event-ID mit
+     * und erhält nur die verpassten Änderungen. Liegen diese nicht mehr vor, folgt ein Ereignis "reset":
+     * der Client muss die Events dann neu laden.
+     * @param calendarId Der Kalender aus dem Header {@value #CALENDAR_HEADER} (Standard: "default").
+     * @param lastEventId Die zuletzt empfangene Sequenznummer (Header, wird von EventSource automatisch gesetzt).
+     * @param since Alternativ als Parameter, z.B. für den ersten Aufbau nach einem vollständigen Laden.
+     * @return Der Ereignis-Stream (text/event-stream), 400 bei ungültiger Sequenznummer
+     *         oder 503, wenn zu viele Clients verbunden sind.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(
+            @RequestHeader(name = CALENDAR_HEADER, defaultValue = Event.DEFAULT_CALENDAR) String calendarId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(required = false) Long since) {
+        Long lastSequence = since;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                lastSequence = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid Last-Event-ID: " + lastEventId);
+            }
         }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .header("X-Accel-Buffering", "no") // Verhindert, dass Reverse-Proxys den Stream puffern
+                .body(changeFeed.subscribe(calendarId, lastSequence));
+    }
+
+    /**
+     * Delta-Synchronisation: liefert nur die seit dem Token angelegten, geänderten und gelöschten Events.
+     * Ohne Token wird der vollständige Bestand geliefert. Ist {@code hasMore} gesetzt, ruft der Client sofort
+     * mit dem neuen Token weiter ab; sonst merkt er sich das Token für die nächste Synchronisation.
+     * Ein Event kann mehrfach geliefert werden und muss deshalb per ID übernommen (ersetzt) werden.
+     * @param calendarId Der Kalender aus dem Header {@value #CALENDAR_HEADER} (Standard: "default").
+     * @param since Das Token der letzten Synchronisation.
+     * @param limit Maximale Anzahl der Änderungen pro Antwort.
+     * @return Geänderte Events, IDs gelöschter Events und das neue Token; 400 bei ungültigem Token oder Limit,
+     *         410 Gone, wenn das Token abgelaufen ist und der Client ohne Token neu synchronisieren muss.
+     */
+    // Ohne @ReplicaReads: Das Token setzt voraus, dass alle Änderungen bis zu seinem Zeitpunkt gelesen wurden
+    @GetMapping("/sync")
+    public SyncResult syncEvents(@RequestHeader(name = CALENDAR_HEADER, defaultValue = Event.DEFAULT_CALENDAR) String calendarId,
+                                 @RequestParam(required = false) String since,
+                                 @RequestParam(defaultValue = "" + EventService.MAX_PAGE_SIZE) int limit) {
+        if (limit < 1 || limit > EventService.MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit must be between 1 and " + EventService.MAX_PAGE_SIZE);
+        }
+        SyncToken token;
+        try {
+            token = since != null ? SyncToken.decode(since) : null;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return syncService.getChangesSince(calendarId, token, limit);
+    }
+
+    /**
+     * Frei/Belegt-Auskunft: fasst die Zeiträume aller Events (einschließlich der Vorkommen von Serien) in [from, to)
+     * zu belegten Blöcken zusammen, so dass Clients freie Zeiten nicht selbst aus allen Events berechnen müssen.
+     * @param calendarId Der Kalender aus dem Header {@value #CALENDAR_HEADER} (Standard: "default").
+     * @param from Beginn des Bereichs (ISO-Datum mit Uhrzeit).
+     * @param to Ende des Bereichs (exklusiv).
+     * @param granularity Optionales Raster, z.B. "15m" oder "PT30M"; die Blöcke werden darauf erweitert.
+     * @return Die belegten Blöcke, aufsteigend; 400 bei ungültigem Bereich oder Raster.
+     */
+    @GetMapping("/freebusy")
+    @ReplicaReads
+    public List<BusyBlock> getFreeBusy(
+            @RequestHeader(name = CALENDAR_HEADER, defaultValue = Event.DEFAULT_CALENDAR) String calendarId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String granularity) {
+        Duration step;
+        try {
+            step = granularity != null ? DurationStyle.detectAndParse(granularity) : null;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid granularity: " + granularity);
+        }
+        return freeBusyService.getBusyBlocks(calendarId, from, to, step);
+    }
+
+    /**
+     * Liefert alle Paare von Events, die sich in [from, to) überschneiden.
+     * @param calendarId Der Kalender aus dem Header {@value #CALENDAR_HEADER} (Standard: "default").
+     * @param from Beginn des Bereichs (ISO-Datum mit Uhrzeit).
+     * @param to Ende des Bereichs (exklusiv).
+     * @return Die Konflikte, sortiert nach ihrem Beginn (höchstens {@value FreeBusyService#MAX_CONFLICTS});
+     *         400 bei ungültigem Bereich.
+     */
+    @GetMapping("/conflicts")
+    @ReplicaReads
+    public List<EventConflict> getConflicts(
+            @RequestHeader(name = CALENDAR_HEADER, defaultValue = Event.DEFAULT_CALENDAR) String calendarId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return freeBusyService.findConflicts(calendarId, from, to);
+    }
+
+    /**
+     * Statistiken für Dashboards, statt alle Events zu laden und im Browser zu zählen: pro Tag, Woche oder Monat
+     * die Anzahl der Events, davon erledigte und offene, der Anteil der erledigten und die geplante Dauer.
+     * @param calendarId Der Kalender aus dem Header {@value #CALENDAR_HEADER} (Standard: "default").
+     * @param from Erster Tag des Bereichs.
+     * @param to Letzter Tag des Bereichs (einschließlich).
+     * @param bucket Zeitraster: "day" (Standard), "week" oder "month".
+     * @return Ein Eintrag pro Abschnitt (auch leere), aufsteigend; 400 bei ungültigem oder zu großem Bereich.
+     */
+    @GetMapping("/stats")
+    @ReplicaReads
+    public List<EventStats> getStats(
+            @RequestHeader(name = CALENDAR_HEADER, defaultValue = Event.DEFAULT_CALENDAR) String calendarId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") StatsBucket bucket) {
+        return statsService.getStats(calendarId, from, to, bucket);
+    }
+
+    /**
+     * Volltextsuche über Titel und Beschreibung aller Events eines Kalenders.
+     * @param calendarId Der Kalender aus dem Header {@value #CALENDAR_HEADER} (Standard: "default").
+     * @param q Die Suchanfrage; alle Begriffe müssen vorkommen (auch als Präfix oder mit einem Tippfehler).
+     * @param limit Maximale Anzahl der Treffer.
+     * @return Die gefundenen Events, die relevantesten zuerst, oder 400 Bad Request bei leerer Suchanfrage.
+     */
+    @GetMapping("/search")
+    @ReplicaReads
+    public List<Event> searchEvents(@RequestHeader(name = CALENDAR_HEADER, defaultValue = Event.DEFAULT_CALENDAR) String calendarId,
+                                    @RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        if (q.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query must not be empty");
+        }
+        if (limit < 1 || limit > EventService.MAX_SEARCH_RESULTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit must be between 1 and " + EventService.MAX_SEARCH_RESULTS);
+        }
+        return eventService.searchEvents(calendarId, q, limit);
     }
 
     /**
      * Ruft ein einzelnes Event anhand seiner ID ab.
+     * Mit If-None-Match wird zuerst nur die Version gelesen; ist das Event unverändert, folgt 304 Not Modified,
+     * ohne das Event zu laden oder zu serialisieren.
+     * @param calendarId Der Kalender aus dem Header {@value #CALENDAR_HEADER} (Standard: "default").
      * @param id Die ID des abzurufenden Events.
-     * @return Das Event-Objekt mit Status 200 OK, oder 404 Not Found, wenn das Event nicht existiert.
+     * @return Das Event-Objekt mit ETag und Status 200 OK, 304 Not Modified, oder 404 Not Found, wenn das Event nicht
+     *         existiert oder zu einem anderen Kalender gehört.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Event> getEventById(@PathVariable Long id) {
-        Optional<Event> event = eventService.getEventById(id);
-        return event.map(ResponseEntity::ok)
+    public ResponseEntity<Event> getEventById(@RequestHeader(name = CALENDAR_HEADER, defaultValue = Event.DEFAULT_CALENDAR) String calendarId,
+                                              @PathVariable Long id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = eventService.getEventVersion(calendarId, id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (request.checkNotModified(eventETag(id, version.get()))) {
+                return null; // 304 Not Modified wurde bereits gesetzt
+            }
+        }
+        Optional<Event> event = eventService.getEventById(calendarId, id);
+        return event.map(found -> withETag(found).body(found))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     /**
      * Aktualisiert ein vorhandenes Event vollständig.
      * Erwartet die ID des Events in der URL und das vollständige Event-Objekt im Request Body.
+     * @param calendarId Der Kalender aus dem Header {@value #CALENDAR_HEADER} (Standard: "default").
      * @param id Die ID des zu aktualisierenden Events.
      * @param updatedEvent Das Event-Objekt mit den aktualisierten Daten.
-     * @return Das aktualisierte Event mit Status 200 OK, oder 404 Not Found, wenn das Event nicht existiert.
+     * @param ifMatch Optional: ETag des Events, auf dem die Änderung beruht. Die Änderung wird nur ausgeführt,
+     *                wenn das Event seitdem nicht geändert wurde (optimistisches Locking statt Sperren).
+     * @return Das aktualisierte Event mit neuem ETag und Status 200 OK, 404 Not Found, wenn das Event nicht existiert,
+     *         oder 412 Precondition Failed, wenn das Event inzwischen geändert wurde. Überschneidet es sich mit anderen
+     *         Events, stehen deren IDs im Header {@value #CONFLICTS_HEADER}.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Event> updateEvent(@PathVariable Long id, @Valid @RequestBody Event updatedEvent) {
+    public ResponseEntity<Event> updateEvent(@RequestHeader(name = CALENDAR_HEADER, defaultValue = Event.DEFAULT_CALENDAR) String calendarId,
+                                             @PathVariable Long id, @Valid @RequestBody Event updatedEvent,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            Event savedEvent = eventService.updateEvent(id, updatedEvent);
-            return ResponseEntity.ok(savedEvent);
+            Long expectedVersion = expectedVersion(id, ifMatch);
+            Event savedEvent = expectedVersion != null
+                    ? eventService.updateEvent(calendarId, id, updatedEvent, expectedVersion)
+                    : eventService.updateEvent(calendarId, id, updatedEvent);
+            return withConflicts(withETag(savedEvent), savedEvent).body(savedEvent);
         } catch (ResponseStatusException e) {
             // Fängt Ausnahmen vom Service ab und gibt den entsprechenden HTTP-Status zurück (z.B. 404)
             return ResponseEntity.status(e.getStatusCode()).build();
@@ -101,13 +573,14 @@ public class EventController {
 
     /**
      * Löscht ein Event anhand seiner ID.
+     * @param calendarId Der Kalender aus dem Header {@value #CALENDAR_HEADER} (Standard: "default").
      * @param id Die ID des zu löschenden Events.
      * @return Status 204 No Content bei Erfolg, oder 404 Not Found, wenn das Event nicht existiert.
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteEvent(@PathVariable Long id) {
+    public ResponseEntity<Void> deleteEvent(@RequestHeader(name = CALENDAR_HEADER, defaultValue = Event.DEFAULT_CALENDAR) String calendarId, @PathVariable Long id) {
         try {
-            eventService.deleteEvent(id);
+            eventService.deleteEvent(calendarId, id);
             return ResponseEntity.noContent().build();
         } catch (ResponseStatusException e) {
             // Fängt Ausnahmen vom Service ab und gibt den entsprechenden HTTP-Status zurück (z.B. 404)
@@ -118,18 +591,93 @@ public class EventController {
     /**
      * Aktualisiert den Erledigungsstatus eines Events.
      * Verwendet PATCH, um nur einen Teil der Ressource zu ändern.
+     * @param calendarId Der Kalender aus dem Header {@value #CALENDAR_HEADER} (Standard: "default").
      * @param id Die ID des Events, dessen Status aktualisiert werden soll.
      * @param isCompleted Der neue Erledigungsstatus (true für erledigt, false für nicht erledigt).
      * @return Das aktualisierte Event mit Status 200 OK, oder 404 Not Found, wenn das Event nicht existiert.
+     *         Im Write-Behind-Modus ({@code calendar.completion.write-behind.enabled}) ist die Änderung zunächst nur
+     *         im Journal gesichert; Event und ETag zeigen den Stand nach dem Schreiben. Stehen zu viele Änderungen aus,
+     *         kommt 503 Service Unavailable.
      */
     @PatchMapping("/{id}/complete")
-    public ResponseEntity<Event> markEventAsCompleted(@PathVariable Long id, @RequestParam Boolean isCompleted) {
+    public ResponseEntity<Event> markEventAsCompleted(@RequestHeader(name = CALENDAR_HEADER, defaultValue = Event.DEFAULT_CALENDAR) String calendarId,
+                                                      @PathVariable Long id, @RequestParam Boolean isCompleted) {
         try {
-            Event updatedEvent = eventService.updateEventCompletionStatus(id, isCompleted);
-            return ResponseEntity.ok(updatedEvent);
+            Event updatedEvent = eventService.updateEventCompletionStatus(calendarId, id, isCompleted);
+            return withETag(updatedEvent).body(updatedEvent);
         } catch (ResponseStatusException e) {
             // Fängt Ausnahmen vom Service ab und gibt den entsprechenden HTTP-Status zurück (z.B. 404)
             return ResponseEntity.status(e.getStatusCode()).build();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Bildet das ETag eines einzelnen Events aus ID und Version, z.B. {@code "42-3"}.
+     */
+    private static String eventETag(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    private static ResponseEntity.BodyBuilder withETag(Event event) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (event.getVersion() != null) {
+            response.eTag(eventETag(event.getId(), event.getVersion()));
+        }
+        return response;
+    }
+
+    // Meldet die Events, mit denen sich das gespeicherte Event überschneidet; gespeichert wird trotzdem
+    private ResponseEntity.BodyBuilder withConflicts(ResponseEntity.BodyBuilder response, Event event) {
+        List<Long> conflicts = freeBusyService.findConflictingEvents(event);
+        if (!conflicts.isEmpty()) {
+            response.header(CONFLICTS_HEADER, conflicts.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        }
+        return response;
+    }
+
+    /**
+     * Liest die erwartete Version aus einem If-Match-Header.
+     * @return Die Version, oder null, wenn kein Header (oder "*") übergeben wurde.
+     * @throws ResponseStatusException 412, wenn das ETag nicht zu diesem Event gehört oder nicht lesbar ist.
+     */
+    private static Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        String prefix = "\"" + id + "-";
+        if (value.startsWith(prefix) && value.endsWith("\"") && value.length() > prefix.length() + 1) {
+            try {
+                return Long.parseLong(value.substring(prefix.length(), value.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // Fällt auf 412 durch
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match does not match event " + id);
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > EventService.MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A batch may contain at most " + EventService.MAX_BATCH_SIZE + " items");
+        }
+    }
+
+    /**
+     * Validiert ein einzelnes Event wie {@code @Valid}.
+     * @return Die Fehlermeldungen im Format "feld: meldung", oder null, wenn das Event gültig ist.
+     */
+    private String validate(Event event) {
+        if (event == null) {
+            return "Event must not be null";
+        }
+        Set<ConstraintViolation<Event>> violations = validator.validate(event);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+}
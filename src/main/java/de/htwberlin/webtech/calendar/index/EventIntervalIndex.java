@@ -0,0 +1,145 @@
+package de.htwberlin.webtech.calendar.index;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optionaler In-Memory-Index über die Zeiträume aller Events.
+ * Beantwortet Überlappungs- und Enthaltenseins-Abfragen in O(log n + k), ohne die Datenbank zu fragen.
+ * Wird beim Start einmalig aus der Datenbank geladen und danach über {@link de.htwberlin.webtech.calendar.service.EventChange}-Ereignisse
+ * des EventService synchron gehalten. Serien liegen in einem eigenen Baum über ihren Gesamtzeitraum, ihre Vorkommen
+ * berechnet der Aufrufer. Jeder Kalender hat eigene Bäume, eine Abfrage durchsucht also nur die Events ihres Kalenders.
+ * Aktivierung über {@code calendar.index.enabled=true}.
+ */
+@Component
+public class EventIntervalIndex extends InMemoryEventIndex {
+
+    private final Map<String, Partition> partitions = new HashMap<>();
+    private final Map<Long, Event> eventsById = new HashMap<>();
+    private int size;
+
+    public EventIntervalIndex(EventRepository eventRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${calendar.index.enabled:false}") boolean enabled) {
+        super(eventRepository, transactionManager, enabled);
+    }
+
+    /**
+     * Liefert alle Events eines Kalenders, deren Zeitraum das Intervall [from, to) schneidet
+     * ({@code start < to && end > from}).
+     * @param calendarId Der Kalender.
+     * @param from Beginn des Intervalls, oder null für unbeschränkt.
+     * @param to Ende des Intervalls (exklusiv), oder null für unbeschränkt.
+     * @return Die passenden Events, sortiert nach (startDateTime, id).
+     */
+    public List<Event> findOverlapping(String calendarId, LocalDateTime from, LocalDateTime to) {
+        List<Event> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Partition partition = partitions.get(calendarId);
+            if (partition != null) {
+                partition.tree.collectOverlapping(from != null ? from : LocalDateTime.MIN, to != null ? to : LocalDateTime.MAX, result);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Liefert alle Events eines Kalenders, die vollständig in [from, to] liegen ({@code start >= from && end <= to}).
+     * @param calendarId Der Kalender.
+     * @param from Frühester Beginn, oder null für unbeschränkt.
+     * @param to Spätestes Ende, oder null für unbeschränkt.
+     * @return Die passenden Events, sortiert nach (startDateTime, id).
+     */
+    public List<Event> findContained(String calendarId, LocalDateTime from, LocalDateTime to) {
+        List<Event> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Partition partition = partitions.get(calendarId);
+            if (partition != null) {
+                partition.tree.collectContained(from != null ? from : LocalDateTime.MIN, to != null ? to : LocalDateTime.MAX, result);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Liefert alle Serien eines Kalenders, deren Gesamtzeitraum vom ersten bis zum letzten Vorkommen [from, to) schneidet.
+     * Welche Vorkommen tatsächlich im Intervall liegen, muss der Aufrufer berechnen.
+     * @param calendarId Der Kalender.
+     * @param from Beginn des Intervalls, oder null für unbeschränkt.
+     * @param to Ende des Intervalls (exklusiv), oder null für unbeschränkt.
+     * @return Die Serien, sortiert nach (startDateTime, id).
+     */
+    public List<Event> findSeries(String calendarId, LocalDateTime from, LocalDateTime to) {
+        List<Event> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Partition partition = partitions.get(calendarId);
+            if (partition != null) {
+                partition.seriesTree.collectOverlapping(from != null ? from : LocalDateTime.MIN, to != null ? to : LocalDateTime.MAX, result);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    @Override
+    protected void insertLocked(Event event) {
+        if (event.getStartDateTime() == null || event.getEndDateTime() == null) {
+            return;
+        }
+        Partition partition = partitions.computeIfAbsent(event.getCalendarId(), calendarId -> new Partition());
+        if (event.getRecurrence() != null) {
+            partition.seriesTree.insert(event, event.getSeriesEnd() != null ? event.getSeriesEnd() : LocalDateTime.MAX);
+        } else {
+            partition.tree.insert(event);
+        }
+        eventsById.put(event.getId(), event);
+        size++;
+    }
+
+    @Override
+    protected void removeLocked(Long id) {
+        Event existing = eventsById.remove(id);
+        if (existing != null) {
+            Partition partition = partitions.get(existing.getCalendarId());
+            (existing.getRecurrence() != null ? partition.seriesTree : partition.tree)
+                    .remove(existing.getStartDateTime(), existing.getId());
+            size--;
+            if (partition.tree.size() + partition.seriesTree.size() == 0) {
+                partitions.remove(existing.getCalendarId());
+            }
+        }
+    }
+
+    @Override
+    protected boolean containsLocked(Long id) {
+        return eventsById.containsKey(id);
+    }
+
+    @Override
+    protected int sizeLocked() {
+        return size;
+    }
+
+    // Bäume eines Kalenders
+    private static final class Partition {
+        final EventIntervalTree tree = new EventIntervalTree();
+        final EventIntervalTree seriesTree = new EventIntervalTree(); // Serien mit [erstes Vorkommen, seriesEnd)
+    }
+}
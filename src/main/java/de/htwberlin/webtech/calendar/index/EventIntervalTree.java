@@ -0,0 +1,194 @@
+package de.htwberlin.webtech.calendar.index;
+
+import de.htwberlin.webtech.calendar.model.Event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Augmentierter Intervallbaum über Events, implementiert als Treap mit Schlüssel (startDateTime, id).
+ * Jeder Knoten kennt das späteste Ende in seinem Teilbaum ({@code maxEnd}), sodass Teilbäume ohne Treffer
+ * bei Überlappungsabfragen übersprungen werden können. Erwartete Laufzeit: O(log n) für Einfügen/Entfernen,
+ * O(log n + k) für Abfragen mit k Treffern.
+ * Die Klasse ist nicht threadsicher; die Synchronisierung übernimmt {@link EventIntervalIndex}.
+ */
+class EventIntervalTree {
+
+    private static final class Node {
+        final Event event;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        final long id;
+        final int priority;
+        LocalDateTime maxEnd;
+        Node left;
+        Node right;
+
+        Node(Event event, LocalDateTime end) {
+            this.event = event;
+            this.start = event.getStartDateTime();
+            this.end = end;
+            this.id = event.getId();
+            this.priority = ThreadLocalRandom.current().nextInt();
+            this.maxEnd = end;
+        }
+    }
+
+    private Node root;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void insert(Event event) {
+        insert(event, event.getEndDateTime());
+    }
+
+    /**
+     * Fügt ein Event mit abweichendem Intervallende ein, z.B. eine Serie mit dem Ende ihres letzten Vorkommens.
+     */
+    void insert(Event event, LocalDateTime end) {
+        root = insert(root, new Node(event, end));
+        size++;
+    }
+
+    /**
+     * Entfernt das Event mit dem angegebenen Schlüssel. Der Aufrufer muss sicherstellen, dass es existiert.
+     */
+    void remove(LocalDateTime start, long id) {
+        root = remove(root, start, id);
+        size--;
+    }
+
+    /**
+     * Sammelt alle Events mit {@code start < to} und {@code end > from}, sortiert nach (startDateTime, id).
+     */
+    void collectOverlapping(LocalDateTime from, LocalDateTime to, List<Event> result) {
+        collectOverlapping(root, from, to, result);
+    }
+
+    /**
+     * Sammelt alle Events mit {@code start >= from} und {@code end <= to}, sortiert nach (startDateTime, id).
+     */
+    void collectContained(LocalDateTime from, LocalDateTime to, List<Event> result) {
+        collectContained(root, from, to, result);
+    }
+
+    private static int compare(LocalDateTime startA, long idA, LocalDateTime startB, long idB) {
+        int byStart = startA.compareTo(startB);
+        return byStart != 0 ? byStart : Long.compare(idA, idB);
+    }
+
+    private static Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (compare(inserted.start, inserted.id, node.start, node.id) < 0) {
+            node.left = insert(node.left, inserted);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, inserted);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node remove(Node node, LocalDateTime start, long id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node.start, node.id);
+        if (cmp < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            // Knoten gefunden: so lange nach unten rotieren, bis er höchstens ein Kind hat
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            if (node.left.priority > node.right.priority) {
+                node = rotateRight(node);
+                node.right = remove(node.right, start, id);
+            } else {
+                node = rotateLeft(node);
+                node.left = remove(node.left, start, id);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private static void collectOverlapping(Node node, LocalDateTime from, LocalDateTime to, List<Event> result) {
+        // Kein Intervall in diesem Teilbaum endet nach "from" -> nichts zu finden
+        if (node == null || !node.maxEnd.isAfter(from)) {
+            return;
+        }
+        collectOverlapping(node.left, from, to, result);
+        // Alle Knoten ab hier (inkl. rechtem Teilbaum) beginnen zu spät
+        if (!node.start.isBefore(to)) {
+            return;
+        }
+        if (node.end.isAfter(from)) {
+            result.add(node.event);
+        }
+        collectOverlapping(node.right, from, to, result);
+    }
+
+    private static void collectContained(Node node, LocalDateTime from, LocalDateTime to, List<Event> result) {
+        if (node == null) {
+            return;
+        }
+        boolean startsAfterFrom = !node.start.isBefore(from);
+        if (startsAfterFrom) {
+            collectContained(node.left, from, to, result);
+        }
+        // Events, die nach "to" beginnen, können nicht vor "to" enden
+        if (node.start.isAfter(to)) {
+            return;
+        }
+        if (startsAfterFrom && !node.end.isAfter(to)) {
+            result.add(node.event);
+        }
+        collectContained(node.right, from, to, result);
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        LocalDateTime maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+}
@@ -0,0 +1,570 @@
+package de.htwberlin.webtech.calendar.index;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Eingebetteter Volltext-Index (invertierter Index) über Titel und Beschreibung aller Events.
+ * Ersetzt die LIKE-'%x%'-Abfragen, die in der Datenbank immer einen Full Table Scan auslösen.
+ * Jeder Suchbegriff muss passen (UND-Verknüpfung), entweder exakt, als Präfix eines Terms
+ * oder mit höchstens einem Tippfehler (Einfügen, Löschen, Ersetzen oder Vertauschen eines Zeichens).
+ * Die Treffer werden nach einer BM25-ähnlichen Bewertung sortiert; Titel zählen stärker als Beschreibungen.
+ * Der Index ist für alle Kalender gemeinsam (auch die Dokumenthäufigkeiten); geliefert werden nur Treffer
+ * aus dem angefragten Kalender.
+ * Änderungen anderer Instanzen (auch umbenannte, gelöschte und archivierte Events) führt der
+ * {@link de.htwberlin.webtech.calendar.changes.EventChangePoller} nach; bis dahin findet die Suche hier noch den alten Stand.
+ * Aktivierung über {@code calendar.search.enabled=true}.
+ */
+@Component
+public class EventSearchIndex extends InMemoryEventIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    // Ein Vorkommen im Titel zählt so viel wie drei Vorkommen in der Beschreibung
+    private static final int TITLE_WEIGHT = 3;
+    // Sättigung der Termhäufigkeit wie bei BM25
+    private static final double K1 = 1.2;
+    // Abschläge für ungenaue Treffer gegenüber exakten Treffern
+    private static final double PREFIX_FACTOR = 0.6;
+    private static final double FUZZY_FACTOR = 0.4;
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    // Begrenzt die Anzahl der Terme, auf die ein kurzer Präfix erweitert wird
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    // Grobe Annahme für die Kostenabschätzung bei UND-Verknüpfungen
+    private static final int AVERAGE_TERMS_PER_DOCUMENT = 16;
+
+    // Term -> Postings-Liste; sortiert, damit Präfixe per subMap gefunden werden
+    private final TreeMap<String, PostingList> postings = new TreeMap<>();
+    // Variante mit einem gelöschten Zeichen -> Terme, aus denen sie entsteht (Tippfehler-Suche nach SymSpell)
+    private final Map<String, Set<String>> deletionVariants = new HashMap<>();
+    // Event-ID -> indiziertes Dokument; intern wird mit dichten int-Ordinalen statt Long-IDs gerechnet
+    private final Map<Long, Document> documentsById = new HashMap<>();
+    private Document[] documentsByOrdinal = new Document[1024];
+    private final IntStack freeOrdinals = new IntStack();
+    private int nextOrdinal;
+
+    public EventSearchIndex(EventRepository eventRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${calendar.search.enabled:false}") boolean enabled) {
+        super(eventRepository, transactionManager, enabled);
+    }
+
+    /**
+     * Sucht Events eines Kalenders, deren Titel oder Beschreibung alle Begriffe der Suchanfrage enthalten.
+     * @param calendarId Der Kalender.
+     * @param query Die Suchanfrage, z.B. "team meet".
+     * @param limit Maximale Anzahl der Treffer.
+     * @return Die IDs der besten Treffer, absteigend nach Relevanz sortiert.
+     */
+    public List<Long> search(String calendarId, String query, int limit) {
+        Set<String> tokens = new LinkedHashSet<>(tokenize(query));
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int documentCount = documentsById.size();
+            // Seltenste Begriffe zuerst, damit die Kandidatenmenge früh klein wird
+            List<Map<String, TermMatch>> matchesPerToken = new ArrayList<>();
+            for (String token : tokens) {
+                Map<String, TermMatch> matches = expand(token, documentCount);
+                if (matches.isEmpty()) {
+                    return List.of();
+                }
+                matchesPerToken.add(matches);
+            }
+            matchesPerToken.sort(Comparator.comparingLong(EventSearchIndex::postingCount));
+
+            ScoreMap scores = scoreAll(matchesPerToken.get(0));
+            for (int i = 1; i < matchesPerToken.size() && scores.size() > 0; i++) {
+                Map<String, TermMatch> matches = matchesPerToken.get(i);
+                // UND-Verknüpfung: bei wenigen Kandidaten deren Terme prüfen statt die ganzen Postings-Listen zu lesen
+                scores = (long) scores.size() * AVERAGE_TERMS_PER_DOCUMENT < postingCount(matches)
+                        ? scoreCandidates(scores, matches)
+                        : intersect(scores, matches);
+            }
+            return topIds(scores, calendarId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected void insertLocked(Event event) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        for (String token : tokenize(event.getTitle())) {
+            frequencies.merge(token, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String token : tokenize(event.getDescription())) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+
+        int ordinal = freeOrdinals.isEmpty() ? nextOrdinal++ : freeOrdinals.pop();
+        Document document = new Document(event.getId(), event.getCalendarId(), ordinal, frequencies.size());
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            document.terms[i] = entry.getKey();
+            document.frequencies[i] = entry.getValue();
+            document.slots[i] = postings.computeIfAbsent(entry.getKey(), this::newTerm).add(ordinal, entry.getValue());
+            i++;
+        }
+        if (ordinal >= documentsByOrdinal.length) {
+            documentsByOrdinal = Arrays.copyOf(documentsByOrdinal, documentsByOrdinal.length * 2);
+        }
+        documentsByOrdinal[ordinal] = document;
+        documentsById.put(document.id, document);
+    }
+
+    @Override
+    protected void removeLocked(Long id) {
+        Document document = documentsById.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (int i = 0; i < document.terms.length; i++) {
+            String term = document.terms[i];
+            PostingList postingList = postings.get(term);
+            int moved = postingList.remove(document.slots[i]);
+            if (moved >= 0) {
+                // Das letzte Element der Liste ist in den freien Platz gerutscht
+                Document movedDocument = documentsByOrdinal[moved];
+                movedDocument.slots[movedDocument.indexOf(term)] = document.slots[i];
+            }
+            if (postingList.size == 0) {
+                postings.remove(term);
+                removeDeletionVariants(term);
+            }
+        }
+        documentsByOrdinal[document.ordinal] = null;
+        freeOrdinals.push(document.ordinal);
+    }
+
+    @Override
+    protected boolean containsLocked(Long id) {
+        return documentsById.containsKey(id);
+    }
+
+    @Override
+    protected int sizeLocked() {
+        return documentsById.size();
+    }
+
+    /**
+     * Zerlegt einen Text in normalisierte Terme: Kleinschreibung, ohne diakritische Zeichen (ü -> u),
+     * getrennt an allem, was kein Buchstabe oder keine Ziffer ist.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (token.length() >= MIN_TOKEN_LENGTH) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Ermittelt alle Terme, die zu einem Suchbegriff passen (exakt, als Präfix oder mit einem Tippfehler),
+     * jeweils mit dem Faktor des besten Treffertyps und der inversen Dokumenthäufigkeit.
+     */
+    private Map<String, TermMatch> expand(String token, int documentCount) {
+        Map<String, TermMatch> matches = new HashMap<>();
+        addMatch(matches, token, postings.get(token), 1.0, documentCount);
+
+        int expansions = 0;
+        for (Map.Entry<String, PostingList> entry
+                : postings.subMap(token, false, token + Character.MAX_VALUE, false).entrySet()) {
+            if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            addMatch(matches, entry.getKey(), entry.getValue(), PREFIX_FACTOR, documentCount);
+        }
+
+        if (token.length() >= MIN_FUZZY_LENGTH) {
+            for (String candidate : fuzzyCandidates(token)) {
+                addMatch(matches, candidate, postings.get(candidate), FUZZY_FACTOR, documentCount);
+            }
+        }
+        return matches;
+    }
+
+    private static void addMatch(Map<String, TermMatch> matches, String term, PostingList postingList,
+                                 double factor, int documentCount) {
+        if (postingList == null) {
+            return;
+        }
+        double idf = Math.log(1 + (documentCount - postingList.size + 0.5) / (postingList.size + 0.5));
+        TermMatch match = new TermMatch(postingList, (float) (factor * idf));
+        // Ein Term kann gleichzeitig Präfix- und Tippfehler-Treffer sein; es zählt der bessere
+        matches.merge(term, match, (a, b) -> a.weight >= b.weight ? a : b);
+    }
+
+    private static long postingCount(Map<String, TermMatch> matches) {
+        long count = 0;
+        for (TermMatch match : matches.values()) {
+            count += match.postingList.size;
+        }
+        return count;
+    }
+
+    private static float termScore(float weight, int frequency) {
+        return (float) (weight * frequency * (K1 + 1) / (frequency + K1));
+    }
+
+    /**
+     * Bewertet alle Dokumente der passenden Postings-Listen; passt ein Dokument über mehrere Terme, zählt der beste.
+     */
+    private static ScoreMap scoreAll(Map<String, TermMatch> matches) {
+        ScoreMap scores = new ScoreMap((int) Math.min(postingCount(matches), Integer.MAX_VALUE / 4));
+        for (TermMatch match : matches.values()) {
+            PostingList postingList = match.postingList;
+            for (int i = 0; i < postingList.size; i++) {
+                scores.putMax(postingList.ordinals[i], termScore(match.weight, postingList.frequencies[i]));
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Bewertet nur die bisherigen Kandidaten anhand ihrer eigenen Terme.
+     */
+    private ScoreMap scoreCandidates(ScoreMap candidates, Map<String, TermMatch> matches) {
+        ScoreMap scores = new ScoreMap(candidates.size());
+        candidates.forEach((ordinal, score) -> {
+            Document document = documentsByOrdinal[ordinal];
+            float best = 0;
+            for (int i = 0; i < document.terms.length; i++) {
+                TermMatch match = matches.get(document.terms[i]);
+                if (match != null) {
+                    best = Math.max(best, termScore(match.weight, document.frequencies[i]));
+                }
+            }
+            if (best > 0) {
+                scores.putMax(ordinal, score + best);
+            }
+        });
+        return scores;
+    }
+
+    /**
+     * Liest die passenden Postings-Listen vollständig, übernimmt aber nur Dokumente, die bereits Kandidaten sind.
+     */
+    private static ScoreMap intersect(ScoreMap candidates, Map<String, TermMatch> matches) {
+        ScoreMap scores = new ScoreMap(candidates.size());
+        for (TermMatch match : matches.values()) {
+            PostingList postingList = match.postingList;
+            for (int i = 0; i < postingList.size; i++) {
+                float previous = candidates.get(postingList.ordinals[i]);
+                if (previous > 0) {
+                    scores.putMax(postingList.ordinals[i], previous + termScore(match.weight, postingList.frequencies[i]));
+                }
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Findet alle Terme mit Editierdistanz 1 zum Token über gemeinsame Lösch-Varianten (SymSpell),
+     * statt das ganze Vokabular zu durchsuchen.
+     */
+    private Set<String> fuzzyCandidates(String token) {
+        Set<String> candidates = new HashSet<>(deletionVariants.getOrDefault(token, Set.of()));
+        for (String variant : deletions(token)) {
+            if (postings.containsKey(variant)) {
+                candidates.add(variant);
+            }
+            candidates.addAll(deletionVariants.getOrDefault(variant, Set.of()));
+        }
+        candidates.remove(token);
+        candidates.removeIf(candidate -> !withinOneEdit(token, candidate));
+        return candidates;
+    }
+
+    private PostingList newTerm(String term) {
+        if (term.length() >= MIN_FUZZY_LENGTH) {
+            for (String variant : deletions(term)) {
+                deletionVariants.computeIfAbsent(variant, key -> new HashSet<>(2)).add(term);
+            }
+        }
+        return new PostingList();
+    }
+
+    private void removeDeletionVariants(String term) {
+        if (term.length() < MIN_FUZZY_LENGTH) {
+            return;
+        }
+        for (String variant : deletions(term)) {
+            Set<String> terms = deletionVariants.get(variant);
+            if (terms != null) {
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    deletionVariants.remove(variant);
+                }
+            }
+        }
+    }
+
+    private static Set<String> deletions(String term) {
+        Set<String> variants = new HashSet<>(term.length() * 2);
+        for (int i = 0; i < term.length(); i++) {
+            variants.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return variants;
+    }
+
+    /**
+     * Prüft, ob sich zwei Terme um höchstens eine Operation unterscheiden
+     * (Einfügen, Löschen, Ersetzen oder Vertauschen zweier benachbarter Zeichen).
+     */
+    static boolean withinOneEdit(String a, String b) {
+        int lengthDifference = a.length() - b.length();
+        if (Math.abs(lengthDifference) > 1) {
+            return false;
+        }
+        int prefix = 0;
+        int minLength = Math.min(a.length(), b.length());
+        while (prefix < minLength && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        if (lengthDifference == 0) {
+            if (prefix == a.length()) {
+                return true;
+            }
+            // Ersetzen: Rest ab der Abweichung identisch
+            if (a.substring(prefix + 1).equals(b.substring(prefix + 1))) {
+                return true;
+            }
+            // Vertauschen benachbarter Zeichen
+            return prefix + 1 < a.length()
+                    && a.charAt(prefix) == b.charAt(prefix + 1)
+                    && a.charAt(prefix + 1) == b.charAt(prefix)
+                    && a.substring(prefix + 2).equals(b.substring(prefix + 2));
+        }
+        String longer = lengthDifference > 0 ? a : b;
+        String shorter = lengthDifference > 0 ? b : a;
+        return longer.substring(prefix + 1).equals(shorter.substring(prefix));
+    }
+
+    private List<Long> topIds(ScoreMap scores, String calendarId, int limit) {
+        // Min-Heap mit den bisher besten Treffern, damit nicht alle Treffer sortiert werden müssen
+        PriorityQueue<ScoredDocument> best = new PriorityQueue<>(limit + 1);
+        scores.forEach((ordinal, score) -> {
+            // Schlechter als der schwächste der bisher besten Treffer -> ohne Allokation verwerfen
+            if (best.size() == limit && score < best.peek().score()) {
+                return;
+            }
+            Document document = documentsByOrdinal[ordinal];
+            if (!document.calendarId.equals(calendarId)) {
+                return;
+            }
+            best.offer(new ScoredDocument(document.id, score));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        });
+        List<ScoredDocument> sorted = new ArrayList<>(best);
+        sorted.sort(Comparator.reverseOrder());
+        return sorted.stream().map(ScoredDocument::id).toList();
+    }
+
+    /**
+     * Ein indiziertes Event: seine Terme, deren Häufigkeiten und die Position in der jeweiligen Postings-Liste.
+     */
+    private static final class Document {
+        final long id;
+        final String calendarId;
+        final int ordinal;
+        final String[] terms;
+        final int[] frequencies;
+        final int[] slots;
+
+        Document(long id, String calendarId, int ordinal, int termCount) {
+            this.id = id;
+            this.calendarId = calendarId;
+            this.ordinal = ordinal;
+            this.terms = new String[termCount];
+            this.frequencies = new int[termCount];
+            this.slots = new int[termCount];
+        }
+
+        int indexOf(String term) {
+            for (int i = 0; i < terms.length; i++) {
+                if (terms[i].equals(term)) {
+                    return i;
+                }
+            }
+            throw new IllegalStateException("Term not indexed for event " + id + ": " + term);
+        }
+    }
+
+    /**
+     * Postings-Liste eines Terms als primitive Arrays. Entfernen tauscht das letzte Element in die Lücke (O(1)).
+     */
+    private static final class PostingList {
+        int[] ordinals = new int[4];
+        int[] frequencies = new int[4];
+        int size;
+
+        int add(int ordinal, int frequency) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = frequency;
+            return size++;
+        }
+
+        /**
+         * @return Das Ordinal, das in den frei gewordenen Platz verschoben wurde, oder -1.
+         */
+        int remove(int slot) {
+            int last = --size;
+            if (slot == last) {
+                return -1;
+            }
+            ordinals[slot] = ordinals[last];
+            frequencies[slot] = frequencies[last];
+            return ordinals[slot];
+        }
+    }
+
+    private record TermMatch(PostingList postingList, float weight) {
+    }
+
+    private record ScoredDocument(long id, float score) implements Comparable<ScoredDocument> {
+        @Override
+        public int compareTo(ScoredDocument other) {
+            int byScore = Float.compare(score, other.score);
+            // Bei gleicher Relevanz gewinnt die kleinere ID
+            return byScore != 0 ? byScore : Long.compare(other.id, id);
+        }
+    }
+
+    /**
+     * Hash-Map von Ordinal auf Score mit offener Adressierung, ohne Boxing.
+     */
+    private static final class ScoreMap {
+        private static final int EMPTY = -1;
+        private int[] keys;
+        private float[] values;
+        private int size;
+
+        ScoreMap(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+            keys = new int[capacity];
+            values = new float[capacity];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        int size() {
+            return size;
+        }
+
+        float get(int key) {
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return 0;
+        }
+
+        void putMax(int key, float value) {
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            while (keys[i] != EMPTY) {
+                if (keys[i] == key) {
+                    values[i] = Math.max(values[i], value);
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            if (++size * 3 > keys.length * 2) {
+                resize();
+            }
+        }
+
+        void forEach(OrdinalScoreConsumer consumer) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY) {
+                    consumer.accept(keys[i], values[i]);
+                }
+            }
+        }
+
+        private void resize() {
+            int[] oldKeys = keys;
+            float[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new float[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    putMax(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int mix(int key) {
+            return key * 0x9E3779B9;
+        }
+    }
+
+    @FunctionalInterface
+    private interface OrdinalScoreConsumer {
+        void accept(int ordinal, float score);
+    }
+
+    /**
+     * Stapel freigewordener Ordinale, damit das Ordinal-Array nach Löschungen nicht unbegrenzt wächst.
+     */
+    private static final class IntStack {
+        private int[] values = new int[16];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int pop() {
+            return values[--size];
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package de.htwberlin.webtech.calendar.index;
+
+import de.htwberlin.webtech.calendar.model.DailyEventStats;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Vorab aggregierte Tagessummen (Anzahl, davon erledigt, geplante Dauer) aller Einzeltermine, nach Beginn.
+ * Jede Schreiboperation ändert nur die Summen der betroffenen Tage; eine Statistik-Abfrage liest deshalb
+ * höchstens einen Wert pro Tag im Bereich, unabhängig von der Anzahl der Events.
+ * Serien haben keine festen Tage und werden nur gemerkt; ihre Vorkommen zählt der Aufrufer.
+ * Summen und Serien werden getrennt pro Kalender geführt.
+ * Aktivierung über {@code calendar.stats.rollup.enabled=true}.
+ */
+@Component
+public class EventStatsRollup extends InMemoryEventIndex {
+
+    private final Map<String, TreeMap<LocalDate, Totals>> totalsByCalendar = new HashMap<>();
+    // Beitrag jedes Einzeltermins, damit Änderungen und Löschungen ihn wieder abziehen können
+    private final Map<Long, Contribution> contributions = new HashMap<>();
+    private final Map<Long, Event> series = new HashMap<>();
+
+    public EventStatsRollup(EventRepository eventRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${calendar.stats.rollup.enabled:false}") boolean enabled) {
+        super(eventRepository, transactionManager, enabled);
+    }
+
+    /**
+     * Liefert die Tagessummen eines Kalenders im Bereich [from, to], ohne leere Tage.
+     * @param calendarId Der Kalender.
+     * @param from Erster Tag.
+     * @param to Letzter Tag (einschließlich).
+     * @return Die Summen aufsteigend nach Tag.
+     */
+    public List<DailyEventStats> getDailyStats(String calendarId, LocalDate from, LocalDate to) {
+        List<DailyEventStats> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            totalsByCalendar.getOrDefault(calendarId, new TreeMap<>()).subMap(from, true, to, true).forEach((day, totals) ->
+                    result.add(new DailyEventStats(day, totals.count, totals.completed, totals.durationSeconds)));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * @param calendarId Der Kalender.
+     * @return Alle Serien des Kalenders; welche Vorkommen in einen Bereich fallen, berechnet der Aufrufer.
+     */
+    public List<Event> getSeries(String calendarId) {
+        lock.readLock().lock();
+        try {
+            List<Event> result = new ArrayList<>();
+            for (Event event : series.values()) {
+                if (event.getCalendarId().equals(calendarId)) {
+                    result.add(event);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected void insertLocked(Event event) {
+        if (event.getStartDateTime() == null || event.getEndDateTime() == null) {
+            return;
+        }
+        if (event.getRecurrence() != null) {
+            series.put(event.getId(), event);
+            return;
+        }
+        Contribution contribution = new Contribution(event.getCalendarId(), event.getStartDateTime().toLocalDate(),
+                Boolean.TRUE.equals(event.getIsCompleted()),
+                Duration.between(event.getStartDateTime(), event.getEndDateTime()).toSeconds());
+        contributions.put(event.getId(), contribution);
+        totalsByCalendar.computeIfAbsent(contribution.calendarId(), calendarId -> new TreeMap<>())
+                .computeIfAbsent(contribution.day(), day -> new Totals()).add(contribution, 1);
+    }
+
+    @Override
+    protected void removeLocked(Long id) {
+        if (series.remove(id) != null) {
+            return;
+        }
+        Contribution contribution = contributions.remove(id);
+        if (contribution != null) {
+            TreeMap<LocalDate, Totals> totalsByDay = totalsByCalendar.get(contribution.calendarId());
+            Totals totals = totalsByDay.get(contribution.day());
+            totals.add(contribution, -1);
+            if (totals.count == 0) {
+                totalsByDay.remove(contribution.day());
+                if (totalsByDay.isEmpty()) {
+                    totalsByCalendar.remove(contribution.calendarId());
+                }
+            }
+        }
+    }
+
+    @Override
+    protected boolean containsLocked(Long id) {
+        return contributions.containsKey(id) || series.containsKey(id);
+    }
+
+    @Override
+    protected int sizeLocked() {
+        return contributions.size() + series.size();
+    }
+
+    private record Contribution(String calendarId, LocalDate day, boolean completed, long durationSeconds) {
+    }
+
+    private static final class Totals {
+        long count;
+        long completed;
+        long durationSeconds;
+
+        void add(Contribution contribution, int sign) {
+            count += sign;
+            completed += contribution.completed() ? sign : 0;
+            durationSeconds += sign * contribution.durationSeconds();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package de.htwberlin.webtech.calendar.index;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.Recurrence;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import de.htwberlin.webtech.calendar.service.EventChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Gemeinsame Basis für die optionalen In-Memory-Indizes über alle Events.
+ * Übernimmt das initiale Laden aus der Datenbank, das Nachführen über {@link EventChange}-Ereignisse
+ * und die Synchronisierung über ein Read-Write-Lock. Unterklassen pflegen nur noch ihre eigene Datenstruktur.
+ * Schreiboperationen anderer Instanzen kommen über den {@link de.htwberlin.webtech.calendar.changes.EventChangePoller}
+ * ebenfalls als {@link EventChange} an, spätestens nach {@code calendar.changes.poll-interval}. Ein nachgeführter Stand
+ * kann dabei kurz einen neueren eigenen überholen; der nächste Durchlauf des Pollers liest ihn dann erneut.
+ */
+public abstract class InMemoryEventIndex {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final EventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    // Lesende Abfragen der Unterklassen nehmen das Read-Lock, alle Änderungen das Write-Lock
+    protected final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // IDs, die während des initialen Ladens gelöscht wurden und deshalb nicht mehr eingefügt werden dürfen
+    private final Set<Long> deletedWhileLoading = new HashSet<>();
+    private volatile boolean loading;
+    private volatile boolean ready;
+
+    protected InMemoryEventIndex(EventRepository eventRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 boolean enabled) {
+        this.eventRepository = eventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gibt an, ob der Index vollständig geladen ist und Abfragen beantworten darf.
+     * @return true, wenn Abfragen aus dem Index bedient werden können.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Lädt alle Events aus der Datenbank in den Index, sobald die Anwendung gestartet ist.
+     * Schreiboperationen, die parallel eintreffen, werden bereits angewendet und vom Laden nicht überschrieben.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        loading = true;
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Event> events = eventRepository.streamAllOrdered()) {
+                events.forEach(this::addIfAbsent);
+            }
+        });
+        lock.writeLock().lock();
+        try {
+            deletedWhileLoading.clear();
+            loading = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("{} loaded {} events in {} ms",
+                getClass().getSimpleName(), size(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    /**
+     * Hält den Index nach jeder erfolgreichen Schreiboperation des EventService aktuell.
+     * @param change Die Änderung, die der EventService veröffentlicht hat.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChange(EventChange change) {
+        if (!enabled) {
+            return;
+        }
+        if (change.type() == EventChange.Type.DELETED || change.type() == EventChange.Type.ARCHIVED) {
+            remove(change.eventId());
+        } else {
+            put(change.event());
+        }
+    }
+
+    /**
+     * @return Die Anzahl der Events im Index.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return sizeLocked();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void put(Event event) {
+        Event snapshot = snapshot(event);
+        lock.writeLock().lock();
+        try {
+            removeLocked(snapshot.getId());
+            insertLocked(snapshot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (loading) {
+                deletedWhileLoading.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addIfAbsent(Event event) {
+        Event snapshot = snapshot(event);
+        lock.writeLock().lock();
+        try {
+            // Ein bereits vorhandener Eintrag stammt aus einer neueren Schreiboperation
+            if (!containsLocked(snapshot.getId()) && !deletedWhileLoading.contains(snapshot.getId())) {
+                insertLocked(snapshot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Fügt ein Event ein, das noch nicht im Index enthalten ist. Wird unter dem Write-Lock aufgerufen.
+     */
+    protected abstract void insertLocked(Event event);
+
+    /**
+     * Entfernt ein Event, falls es enthalten ist. Wird unter dem Write-Lock aufgerufen.
+     */
+    protected abstract void removeLocked(Long id);
+
+    protected abstract boolean containsLocked(Long id);
+
+    protected abstract int sizeLocked();
+
+    // Kopie, damit spätere Änderungen an verwalteten Entitäten den Index nicht unbemerkt verändern
+    private static Event snapshot(Event event) {
+        return new Event(event.getId(), event.getTitle(), event.getDescription(),
+                event.getStartDateTime(), event.getEndDateTime(), event.getIsCompleted(), event.getVersion(),
+                snapshot(event.getRecurrence()), event.getSeriesEnd(), event.getLastModified(), event.getCalendarId());
+    }
+
+    private static Recurrence snapshot(Recurrence recurrence) {
+        return recurrence == null ? null : new Recurrence(recurrence.getFrequency(), recurrence.getInterval(),
+                recurrence.getUntil(), recurrence.getCount(), recurrence.getExceptions());
+    }
+}
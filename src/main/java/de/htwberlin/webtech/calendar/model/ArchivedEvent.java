@@ -0,0 +1,89 @@
+package de.htwberlin.webtech.calendar.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Ein erledigter, lange vergangener Einzeltermin, den der {@link de.htwberlin.webtech.calendar.service.EventArchiveService}
+ * aus der Tabelle event in die Tabelle event_archive verschoben hat. Die Tabelle event bleibt dadurch klein,
+ * ihre Indizes ebenso. Archivierte Events sind schreibgeschützt und werden nur gelesen, wenn eine Abfrage
+ * in ihren Zeitraum reicht.
+ * Serien werden nicht archiviert; der Erledigungsstatus ist immer true und wird deshalb nicht gespeichert.
+ */
+@Entity
+@Table(name = "event_archive", indexes = {
+        // Datumsfilter von GET /events, sobald der Bereich in das Archiv reicht
+        @Index(name = "idx_event_archive_calendar_end_start", columnList = "calendar_id, end_date_time, start_date_time"),
+        // Nachführen der Archivierungen anderer Instanzen (EventChangePoller)
+        @Index(name = "idx_event_archive_archived_at", columnList = "archived_at, id")
+})
+@Getter
+@NoArgsConstructor // Wird von JPA/Hibernate benötigt
+public class ArchivedEvent implements Persistable<Long> {
+
+    @Id
+    private Long id; // Die ID aus der Tabelle event bleibt erhalten
+
+    @Column(name = "calendar_id", nullable = false, length = 64)
+    private String calendarId;
+
+    private String title;
+
+    private String description;
+
+    @Column(name = "start_date_time", nullable = false)
+    private LocalDateTime startDateTime;
+
+    @Column(name = "end_date_time", nullable = false)
+    private LocalDateTime endDateTime;
+
+    private Long version;
+
+    @Column(name = "last_modified")
+    private Instant lastModified;
+
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+
+    /**
+     * Übernimmt ein Event aus der Tabelle event.
+     * @param event Der erledigte Einzeltermin.
+     * @param archivedAt Zeitpunkt der Archivierung.
+     * @return Die Zeile für das Archiv.
+     */
+    public static ArchivedEvent of(Event event, Instant archivedAt) {
+        ArchivedEvent archived = new ArchivedEvent();
+        archived.id = event.getId();
+        archived.calendarId = event.getCalendarId();
+        archived.title = event.getTitle();
+        archived.description = event.getDescription();
+        archived.startDateTime = event.getStartDateTime();
+        archived.endDateTime = event.getEndDateTime();
+        archived.version = event.getVersion();
+        archived.lastModified = event.getLastModified();
+        archived.archivedAt = archivedAt;
+        return archived;
+    }
+
+    /**
+     * @return Das Event in der Darstellung der API, wie vor der Archivierung.
+     */
+    public Event toEvent() {
+        return new Event(id, title, description, startDateTime, endDateTime, true, version, null, null, lastModified, calendarId);
+    }
+
+    // Archivzeilen werden nur angelegt, nie geändert: save() kann direkt INSERT ausführen, ohne vorher per SELECT zu prüfen
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
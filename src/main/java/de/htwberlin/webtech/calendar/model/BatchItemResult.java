@@ -0,0 +1,39 @@
+package de.htwberlin.webtech.calendar.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Ergebnis für ein einzelnes Element eines Batch-Requests (POST/PUT/DELETE /events/batch).
+ * @param index Position des Elements im Request.
+ * @param status HTTP-Statuscode, den das Element als Einzel-Request erhalten hätte (z.B. 201, 400, 404).
+ * @param id ID des betroffenen Events, sofern bekannt.
+ * @param event Das gespeicherte Event bei erfolgreichem Anlegen oder Aktualisieren.
+ * @param error Fehlermeldung, falls das Element nicht verarbeitet wurde.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL) // Nicht gesetzte Felder werden im JSON weggelassen
+public record BatchItemResult(int index, int status, Long id, Event event, String error) {
+
+    public static BatchItemResult success(int index, HttpStatus status, Event event) {
+        return new BatchItemResult(index, status.value(), event.getId(), event, null);
+    }
+
+    public static BatchItemResult deleted(int index, Long id) {
+        return new BatchItemResult(index, HttpStatus.NO_CONTENT.value(), id, null, null);
+    }
+
+    public static BatchItemResult failure(int index, HttpStatus status, Long id, String error) {
+        return new BatchItemResult(index, status.value(), id, null, error);
+    }
+
+    /**
+     * @return Dasselbe Ergebnis mit einer anderen Position im Request.
+     */
+    public BatchItemResult withIndex(int newIndex) {
+        return new BatchItemResult(newIndex, status, id, event, error);
+    }
+
+    public boolean isSuccess() {
+        return status < 400;
+    }
+}
@@ -0,0 +1,11 @@
+package de.htwberlin.webtech.calendar.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ein zusammenhängender belegter Zeitraum in der Antwort von GET /events/freebusy.
+ * @param start Beginn der Belegung.
+ * @param end Ende der Belegung (exklusiv).
+ */
+public record BusyBlock(LocalDateTime start, LocalDateTime end) {
+}
@@ -0,0 +1,14 @@
+package de.htwberlin.webtech.calendar.model;
+
+import java.time.LocalDate;
+
+/**
+ * Summen der Events, die an einem Tag beginnen; Ergebnis des GROUP BY in der Datenbank
+ * und Baustein der vorab aggregierten Statistiken im Speicher.
+ * @param day Der Tag.
+ * @param count Anzahl der Events.
+ * @param completed Davon erledigt.
+ * @param durationSeconds Summe der geplanten Dauer in Sekunden.
+ */
+public record DailyEventStats(LocalDate day, long count, long completed, long durationSeconds) {
+}
@@ -1,26 +1,64 @@
 package de.htwberlin.webtech.calendar.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Column;
+import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity // Markiert diese Klasse als JPA-Entität, die einer Datenbanktabelle zugeordnet ist
+// Alle Abfragen sind auf einen Kalender beschränkt; jeder Index beginnt deshalb mit calendar_id,
+// so dass eine Abfrage nur den Indexbereich (bzw. in PostgreSQL die Partition) dieses Kalenders liest
+@Table(indexes = {
+        // Ermöglicht Index-Range-Scans für die Datumsfilter (contained und overlaps) in GET /events
+        @Index(name = "idx_event_calendar_start_end", columnList = "calendar_id, start_date_time, end_date_time"),
+        @Index(name = "idx_event_calendar_is_completed", columnList = "calendar_id, is_completed"),
+        // Findet die (wenigen) Serien, die ein Zeitfenster berühren, ohne alle Einzeltermine zu lesen
+        @Index(name = "idx_event_calendar_series", columnList = "calendar_id, recurrence_frequency, series_end"),
+        // Keyset-Zugriff für GET /events/sync: liest nur die seit dem Token geänderten Zeilen
+        @Index(name = "idx_event_calendar_last_modified", columnList = "calendar_id, last_modified, id"),
+        // Ausnahmen ohne calendar_id für kalenderübergreifende Hintergrundaufgaben:
+        // Die Archivierung sucht alte, erledigte Events, ...
+        @Index(name = "idx_event_completed_end", columnList = "is_completed, end_date_time"),
+        // ... die Erinnerungen laden offene Events und Serien der nächsten Minuten und verfolgen alle Änderungen
+        @Index(name = "idx_event_completed_start", columnList = "is_completed, start_date_time"),
+        @Index(name = "idx_event_series_end", columnList = "recurrence_frequency, series_end"),
+        @Index(name = "idx_event_last_modified_id", columnList = "last_modified, id")
+})
 @Data // Lombok-Annotation: Generiert automatisch Getter, Setter, toString, equals und hashCode Methoden
 @AllArgsConstructor // Lombok-Annotation: Generiert einen Konstruktor mit allen Feldern
 @NoArgsConstructor // Lombok-Annotation: Generiert einen parameterlosen Konstruktor (wird von JPA/Hibernate benötigt)
 public class Event {
 
+    // Kalender, dem Events ohne Angabe des Headers X-Calendar-Id zugeordnet werden
+    public static final String DEFAULT_CALENDAR = "default";
+
     @Id // Markiert dieses Feld als Primärschlüssel der Entität
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // Konfiguriert die automatische Generierung des Primärschlüssels durch die Datenbank
+    // IDs kommen aus einer Sequenz, von der Hibernate jeweils 50 Werte auf einmal reserviert (pooled Optimizer).
+    // Anders als bei IDENTITY muss Hibernate dadurch nicht nach jedem INSERT die ID abfragen und kann INSERTs bündeln.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_seq")
+    @SequenceGenerator(name = "event_seq", sequenceName = "event_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Title is mandatory and cannot be empty") // Validierungs-Constraint: Der Titel darf nicht null oder leer sein
@@ -36,4 +74,89 @@ public class Event {
 
     @Column(name = "is_completed") // Definiert den Spaltennamen in der Datenbank, optional bei Namenskonvention
     private Boolean isCompleted = false; // Statusfeld: Gibt an, ob ein Event abgeschlossen ist. Standardmäßig false.
+
+    // Versionszähler für optimistisches Locking; wird bei jeder Änderung erhöht und bildet zusammen mit der ID das ETag.
+    // Nur lesbar über die API: Clients übergeben die erwartete Version per If-Match-Header, nicht im Body.
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    // Wiederholungsregel, wenn das Event eine Serie ist; Start und Ende beschreiben dann das erste Vorkommen.
+    // Die Vorkommen werden nicht gespeichert, sondern erst bei Abfragen für das angefragte Zeitfenster berechnet.
+    @Valid
+    @Embedded
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Recurrence recurrence;
+
+    // Ende des letzten Vorkommens einer Serie, oder null bei Einzelterminen und unbegrenzten Serien.
+    // Wird beim Speichern berechnet, damit die Datenbank Serien nach Zeitraum vorfiltern kann.
+    @Column(name = "series_end")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDateTime seriesEnd;
+
+    // Zeitpunkt der letzten Änderung (UTC, auf Mikrosekunden gekürzt wie die Datenbankspalte).
+    // Wird bei jedem Schreibzugriff mit {@link #touch()} gesetzt und bildet die Grundlage der Delta-Synchronisation.
+    @Column(name = "last_modified")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant lastModified;
+
+    // Kalender (bzw. Besitzer), zu dem das Event gehört. Wird aus dem Header X-Calendar-Id gesetzt, nicht aus dem Body.
+    // Der Spalten-Default füllt bestehende Zeilen, wenn Hibernate die Spalte per ddl-auto=update ergänzt.
+    @Column(name = "calendar_id", nullable = false, length = 64)
+    @ColumnDefault("'" + DEFAULT_CALENDAR + "'")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String calendarId = DEFAULT_CALENDAR;
+
+    // Konstruktor ohne Version und Wiederholung, z.B. für neue Einzeltermine, deren Version Hibernate beim Speichern setzt
+    public Event(Long id, String title, String description,
+                 LocalDateTime startDateTime, LocalDateTime endDateTime, Boolean isCompleted) {
+        this(id, title, description, startDateTime, endDateTime, isCompleted, null);
+    }
+
+    // Konstruktor für Einzeltermine mit bekannter Version
+    public Event(Long id, String title, String description,
+                 LocalDateTime startDateTime, LocalDateTime endDateTime, Boolean isCompleted, Long version) {
+        this(id, title, description, startDateTime, endDateTime, isCompleted, version, null, null, null, DEFAULT_CALENDAR);
+    }
+
+    /**
+     * Aktualisiert die abgeleiteten Felder vor jedem INSERT und UPDATE durch Hibernate.
+     * Bulk-Updates umgehen diesen Callback und müssen {@link #updateSeriesEnd()} und {@link #touch()} selbst aufrufen.
+     */
+    @PrePersist
+    @PreUpdate
+    void beforeSave() {
+        updateSeriesEnd();
+        touch();
+    }
+
+    /**
+     * Setzt {@link #lastModified} auf den aktuellen Zeitpunkt.
+     */
+    public void touch() {
+        lastModified = modificationTimestamp();
+    }
+
+    /**
+     * @return Der aktuelle Zeitpunkt in der Genauigkeit der Änderungsspalten (Mikrosekunden), damit Vergleiche
+     *         mit gelesenen Werten nicht an abgeschnittenen Nanosekunden scheitern.
+     */
+    public static Instant modificationTimestamp() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /**
+     * Berechnet {@link #seriesEnd} aus Wiederholungsregel und erstem Vorkommen neu.
+     */
+    public void updateSeriesEnd() {
+        if (recurrence == null || recurrence.getFrequency() == null || startDateTime == null || endDateTime == null) {
+            seriesEnd = null;
+            return;
+        }
+        long lastIndex = recurrence.lastIndex(startDateTime);
+        seriesEnd = lastIndex == Long.MAX_VALUE
+                ? null
+                : recurrence.occurrenceStart(startDateTime, lastIndex).plus(Duration.between(startDateTime, endDateTime));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package de.htwberlin.webtech.calendar.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Zwei Events, die sich zeitlich überschneiden (GET /events/conflicts).
+ * Bei Serien ist die ID die der Serie; start und end beschreiben dann die Überschneidung des betroffenen Vorkommens.
+ * @param eventId Das früher beginnende Event.
+ * @param conflictingEventId Das Event, das während eventId beginnt.
+ * @param start Beginn der Überschneidung.
+ * @param end Ende der Überschneidung (exklusiv).
+ */
+public record EventConflict(Long eventId, Long conflictingEventId, LocalDateTime start, LocalDateTime end) {
+}
@@ -0,0 +1,57 @@
+package de.htwberlin.webtech.calendar.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor für die Keyset-Pagination über (startDateTime, id).
+ * Der Cursor zeigt auf das letzte Event einer Seite; die nächste Seite beginnt direkt dahinter.
+ * Nach außen wird er als undurchsichtiger Base64-String weitergegeben, damit Clients ihn nicht selbst bauen.
+ * @param startDateTime Startzeitpunkt des letzten Events der vorherigen Seite.
+ * @param id ID des letzten Events der vorherigen Seite (Tiebreaker bei gleichem Startzeitpunkt).
+ */
+public record EventCursor(LocalDateTime startDateTime, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Erzeugt den Cursor, der auf das angegebene Event zeigt.
+     * @param event Das letzte Event der aktuellen Seite.
+     * @return Der Cursor für die nächste Seite.
+     */
+    public static EventCursor of(Event event) {
+        return new EventCursor(event.getStartDateTime(), event.getId());
+    }
+
+    /**
+     * Kodiert den Cursor als URL-sicheren Base64-String.
+     * @return Der kodierte Cursor.
+     */
+    public String encode() {
+        String raw = startDateTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Dekodiert einen Cursor, der zuvor mit {@link #encode()} erzeugt wurde.
+     * @param value Der kodierte Cursor.
+     * @return Der dekodierte Cursor.
+     * @throws IllegalArgumentException wenn der String kein gültiger Cursor ist.
+     */
+    public static EventCursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + value);
+            }
+            return new EventCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package de.htwberlin.webtech.calendar.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Die Filterkriterien von GET /events als Wert, z.B. als Schlüssel für gecachte Abfrageergebnisse.
+ * Leere Strings werden wie nicht gesetzte Kriterien behandelt und ein fehlender rangeMode als {@link RangeMode#CONTAINED},
+ * damit gleichbedeutende Abfragen denselben Schlüssel ergeben.
+ * @param calendarId Der abgefragte Kalender; gehört zum Schlüssel, damit Kalender sich keine Einträge teilen.
+ * @param startDate Beginn des Datumsbereichs.
+ * @param endDate Ende des Datumsbereichs (einschließlich des ganzen Tages).
+ * @param title Teilstring des Titels (fall-insensitiv).
+ * @param description Teilstring der Beschreibung (fall-insensitiv).
+ * @param isCompleted Erledigungsstatus.
+ * @param rangeMode Auswertung des Datumsbereichs.
+ */
+public record EventFilter(
+        String calendarId,
+        LocalDate startDate,
+        LocalDate endDate,
+        String title,
+        String description,
+        Boolean isCompleted,
+        RangeMode rangeMode
+) {
+
+    public EventFilter {
+        title = title == null || title.isEmpty() ? null : title;
+        description = description == null || description.isEmpty() ? null : description;
+        rangeMode = rangeMode == null ? RangeMode.CONTAINED : rangeMode;
+    }
+
+    /**
+     * Prüft ein einzelnes Event mit derselben Semantik wie
+     * {@link de.htwberlin.webtech.calendar.repository.EventSpecifications#filter}.
+     * Für Serien wird nur geprüft, ob ihr Gesamtzeitraum den Bereich berührt; das ist eine obere Abschätzung
+     * (z.B. für die Cache-Invalidierung), welche Vorkommen tatsächlich passen, prüft {@link #matchesPeriod}.
+     * @param event Das zu prüfende Event.
+     * @return true, wenn das Event zum Ergebnis der Abfrage gehört.
+     */
+    public boolean matches(Event event) {
+        if (event.getRecurrence() != null) {
+            return mayContainOccurrences(event) && matchesAttributes(event);
+        }
+        return matchesPeriod(event.getStartDateTime(), event.getEndDateTime()) && matchesAttributes(event);
+    }
+
+    /**
+     * Prüft nur den Datumsbereich, z.B. für ein einzelnes Vorkommen einer Serie.
+     * @param start Beginn des Zeitraums.
+     * @param end Ende des Zeitraums.
+     * @return true, wenn der Zeitraum nach rangeMode zum Bereich passt.
+     */
+    public boolean matchesPeriod(LocalDateTime start, LocalDateTime end) {
+        if (rangeMode == RangeMode.OVERLAPS) {
+            if (endDate != null && (start == null || !start.isBefore(endDate.plusDays(1).atStartOfDay()))) {
+                return false;
+            }
+            if (startDate != null && (end == null || !end.isAfter(startDate.atStartOfDay()))) {
+                return false;
+            }
+        } else {
+            if (startDate != null && (start == null || start.isBefore(startDate.atStartOfDay()))) {
+                return false;
+            }
+            if (endDate != null && (end == null || end.isAfter(endDate.atTime(LocalTime.MAX)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Prüft alle Kriterien außer dem Datumsbereich; sie gelten für alle Vorkommen einer Serie gleichermaßen.
+     * @param event Das zu prüfende Event.
+     * @return true, wenn Kalender, Titel, Beschreibung und Erledigungsstatus passen.
+     */
+    public boolean matchesAttributes(Event event) {
+        if (!Objects.equals(calendarId, event.getCalendarId())) {
+            return false;
+        }
+        if (title != null && !containsIgnoreCase(event.getTitle(), title)) {
+            return false;
+        }
+        if (description != null && !containsIgnoreCase(event.getDescription(), description)) {
+            return false;
+        }
+        return isCompleted == null || isCompleted.equals(event.getIsCompleted());
+    }
+
+    // Der Gesamtzeitraum der Serie (erstes Vorkommen bis seriesEnd) berührt den Bereich
+    private boolean mayContainOccurrences(Event series) {
+        if (endDate != null && (series.getStartDateTime() == null
+                || series.getStartDateTime().isAfter(endDate.atTime(LocalTime.MAX)))) {
+            return false;
+        }
+        return startDate == null || series.getSeriesEnd() == null
+                || !series.getSeriesEnd().isBefore(startDate.atStartOfDay());
+    }
+
+    // Wie LIKE auf NULL: ein fehlender Wert enthält nie den Suchstring
+    private static boolean containsIgnoreCase(String value, String part) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(part.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,23 @@
+package de.htwberlin.webtech.calendar.model;
+
+import java.time.LocalDate;
+
+/**
+ * Ein Abschnitt der Statistiken von GET /events/stats. Gezählt wird jedes Event (bzw. Vorkommen einer Serie)
+ * in dem Abschnitt, in dem es beginnt.
+ * @param start Erster Tag des Abschnitts.
+ * @param end Letzter Tag des Abschnitts (einschließlich).
+ * @param count Anzahl der Events.
+ * @param completed Davon erledigt.
+ * @param open Davon offen.
+ * @param completionRate Anteil der erledigten Events (0 bis 1; 0, wenn der Abschnitt leer ist).
+ * @param durationSeconds Summe der geplanten Dauer in Sekunden.
+ */
+public record EventStats(LocalDate start, LocalDate end, long count, long completed, long open,
+                         double completionRate, long durationSeconds) {
+
+    public static EventStats of(LocalDate start, LocalDate end, long count, long completed, long durationSeconds) {
+        return new EventStats(start, end, count, completed, count - completed,
+                count == 0 ? 0 : (double) completed / count, durationSeconds);
+    }
+}
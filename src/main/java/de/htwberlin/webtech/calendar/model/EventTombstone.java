@@ -0,0 +1,58 @@
+package de.htwberlin.webtech.calendar.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Grabstein eines gelöschten Events: Die Zeile des Events selbst ist weg, damit Clients der Delta-Synchronisation
+ * (GET /events/sync) trotzdem erfahren, dass sie ihre lokale Kopie entfernen müssen.
+ * Grabsteine werden nach einer Aufbewahrungsfrist gelöscht; ältere Sync-Tokens sind danach ungültig.
+ */
+@Entity
+@Table(name = "event_tombstone", indexes = {
+        // Keyset-Zugriff für GET /events/sync eines Kalenders, analog zu idx_event_calendar_last_modified
+        @Index(name = "idx_event_tombstone_calendar_deleted_at", columnList = "calendar_id, deleted_at, event_id"),
+        // Nachführen der Löschungen anderer Instanzen über alle Kalender (EventChangePoller) und Aufräumen
+        @Index(name = "idx_event_tombstone_deleted_at", columnList = "deleted_at, event_id")
+})
+@Getter
+@NoArgsConstructor // Wird von JPA/Hibernate benötigt
+public class EventTombstone implements Persistable<Long> {
+
+    @Id
+    @Column(name = "event_id")
+    private Long eventId; // IDs aus der Sequenz werden nicht wiederverwendet, daher genügt sie als Primärschlüssel
+
+    @Column(name = "calendar_id", nullable = false, length = 64)
+    @ColumnDefault("'" + Event.DEFAULT_CALENDAR + "'")
+    private String calendarId; // Kalender des gelöschten Events
+
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+
+    public EventTombstone(Long eventId, String calendarId, Instant deletedAt) {
+        this.eventId = eventId;
+        this.calendarId = calendarId;
+        this.deletedAt = deletedAt;
+    }
+
+    @Override
+    public Long getId() {
+        return eventId;
+    }
+
+    // Grabsteine werden nur angelegt, nie geändert: save() kann direkt INSERT ausführen, ohne vorher per SELECT zu prüfen
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -0,0 +1,36 @@
+package de.htwberlin.webtech.calendar.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Speichert eine Liste von Datumswerten als kommagetrennte ISO-Daten in einer Spalte, z.B. "2025-07-14,2025-07-21".
+ * Eine leere Liste wird als NULL gespeichert und NULL wieder als null gelesen, damit Hibernate eine eingebettete
+ * {@link Recurrence}, deren Spalten alle NULL sind, weiterhin als nicht vorhanden erkennt.
+ */
+@Converter
+public class LocalDateListConverter implements AttributeConverter<List<LocalDate>, String> {
+
+    private static final String SEPARATOR = ",";
+
+    @Override
+    public String convertToDatabaseColumn(List<LocalDate> dates) {
+        if (dates == null || dates.isEmpty()) {
+            return null;
+        }
+        return dates.stream().map(LocalDate::toString).collect(Collectors.joining(SEPARATOR));
+    }
+
+    @Override
+    public List<LocalDate> convertToEntityAttribute(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        return Arrays.stream(value.split(SEPARATOR)).map(LocalDate::parse).toList();
+    }
+}
@@ -0,0 +1,18 @@
+package de.htwberlin.webtech.calendar.model;
+
+/**
+ * Legt fest, wie der Datumsbereich [startDate, endDate] in GET /events ausgewertet wird.
+ */
+public enum RangeMode {
+
+    /**
+     * Events, die an oder nach startDate beginnen und an oder vor endDate enden (bisheriges Verhalten).
+     */
+    CONTAINED,
+
+    /**
+     * Events, die den Bereich schneiden: Beginn vor dem Ende des Bereichs und Ende nach dessen Beginn.
+     * Damit werden auch mehrtägige Events gefunden, die über den Rand des Bereichs hinausragen.
+     */
+    OVERLAPS
+}
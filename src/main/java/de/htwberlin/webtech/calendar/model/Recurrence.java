@@ -0,0 +1,129 @@
+package de.htwberlin.webtech.calendar.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Wiederholungsregel eines Events nach dem Vorbild von iCalendar-RRULEs (FREQ, INTERVAL, UNTIL, COUNT, EXDATE).
+ * Eine Serie wird nur einmal gespeichert; ihr erstes Vorkommen ist der Zeitraum des Events selbst.
+ * Das n-te Vorkommen lässt sich direkt berechnen, so dass für ein Zeitfenster nur dessen Vorkommen erzeugt werden
+ * müssen, unabhängig davon, wie lange die Serie schon läuft.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+public class Recurrence {
+
+    @NotNull(message = "Recurrence frequency is mandatory")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "recurrence_frequency")
+    private RecurrenceFrequency frequency;
+
+    @Positive(message = "Recurrence interval must be positive")
+    @Column(name = "recurrence_interval")
+    private Integer interval; // Jedes wievielte Vorkommen des Rhythmus; null entspricht 1
+
+    @Column(name = "recurrence_until")
+    private LocalDate until; // Letzter Tag, an dem ein Vorkommen beginnen darf (einschließlich); null für unbegrenzt
+
+    @Positive(message = "Recurrence count must be positive")
+    @Column(name = "recurrence_count")
+    private Integer count; // Maximale Anzahl der Vorkommen einschließlich ausgenommener; null für unbegrenzt
+
+    // Tage, an denen ein Vorkommen ausfällt. Immer sortiert und ohne Duplikate, damit die Prüfung per Binärsuche geht.
+    @Size(max = 300, message = "A recurrence can have at most 300 exceptions")
+    @Convert(converter = LocalDateListConverter.class)
+    @Column(name = "recurrence_exceptions", length = 4000)
+    private List<LocalDate> exceptions;
+
+    public Recurrence(RecurrenceFrequency frequency, Integer interval, LocalDate until, Integer count,
+                      List<LocalDate> exceptions) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.until = until;
+        this.count = count;
+        this.exceptions = normalize(exceptions);
+    }
+
+    public List<LocalDate> getExceptions() {
+        return exceptions != null ? exceptions : List.of();
+    }
+
+    public void setExceptions(List<LocalDate> exceptions) {
+        this.exceptions = normalize(exceptions);
+    }
+
+    // Statisch, damit der Konstruktor keine überschreibbare Methode aufruft
+    private static List<LocalDate> normalize(List<LocalDate> exceptions) {
+        return exceptions == null || exceptions.isEmpty() ? null : exceptions.stream().distinct().sorted().toList();
+    }
+
+    /**
+     * Berechnet den Beginn eines Vorkommens direkt aus dem ersten, ohne die Vorkommen dazwischen zu durchlaufen.
+     * @param first Beginn des ersten Vorkommens.
+     * @param index Nummer des Vorkommens (0 für das erste).
+     * @return Der Beginn des Vorkommens (unabhängig von until, count und Ausnahmen).
+     */
+    public LocalDateTime occurrenceStart(LocalDateTime first, long index) {
+        return first.plus(index * step(), frequency.unit());
+    }
+
+    /**
+     * Liefert die Nummer des ersten Vorkommens, das nicht vor dem angegebenen Zeitpunkt beginnt.
+     * Wird in O(1) berechnet; die Schleife korrigiert nur Rundungen durch unterschiedliche Monatslängen.
+     * @param first Beginn des ersten Vorkommens.
+     * @param notBefore Frühester Beginn.
+     * @return Die Nummer des Vorkommens (0, wenn schon das erste passt).
+     */
+    public long firstIndexNotBefore(LocalDateTime first, LocalDateTime notBefore) {
+        if (!notBefore.isAfter(first)) {
+            return 0;
+        }
+        long index = frequency.unit().between(first, notBefore) / step();
+        while (occurrenceStart(first, index).isBefore(notBefore)) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Liefert die Nummer des letzten Vorkommens der Serie nach until und count.
+     * Wie DTSTART in iCalendar gehört das erste Vorkommen immer zur Serie, auch wenn until davor liegt.
+     * @param first Beginn des ersten Vorkommens.
+     * @return Die Nummer des letzten Vorkommens, oder {@link Long#MAX_VALUE} für unbegrenzte Serien.
+     */
+    public long lastIndex(LocalDateTime first) {
+        long last = count != null ? count - 1L : Long.MAX_VALUE;
+        if (until != null) {
+            // Das erste Vorkommen, das nach until beginnt, gehört nicht mehr dazu
+            last = Math.min(last, firstIndexNotBefore(first, until.plusDays(1).atStartOfDay()) - 1);
+        }
+        return Math.max(last, 0);
+    }
+
+    /**
+     * Prüft, ob ein Vorkommen an diesem Tag als Ausnahme entfällt.
+     * @param date Der Tag, an dem das Vorkommen beginnt.
+     * @return true, wenn das Vorkommen entfällt.
+     */
+    public boolean isException(LocalDate date) {
+        return exceptions != null && Collections.binarySearch(exceptions, date) >= 0;
+    }
+
+    private long step() {
+        return (long) (interval != null ? interval : 1) * frequency.unitsPerStep();
+    }
+}
@@ -0,0 +1,40 @@
+package de.htwberlin.webtech.calendar.model;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Wiederholungsrhythmus einer Event-Serie (entspricht FREQ in einer iCalendar-RRULE).
+ */
+public enum RecurrenceFrequency {
+
+    DAILY(ChronoUnit.DAYS, 1),
+
+    WEEKLY(ChronoUnit.DAYS, 7),
+
+    /**
+     * Monatlich am selben Tag; in kürzeren Monaten wie bei {@link java.time.LocalDateTime#plusMonths} am letzten Tag.
+     */
+    MONTHLY(ChronoUnit.MONTHS, 1);
+
+    private final ChronoUnit unit;
+    private final int unitsPerStep;
+
+    RecurrenceFrequency(ChronoUnit unit, int unitsPerStep) {
+        this.unit = unit;
+        this.unitsPerStep = unitsPerStep;
+    }
+
+    /**
+     * @return Die Zeiteinheit, in der die Abstände zwischen Vorkommen gerechnet werden.
+     */
+    public ChronoUnit unit() {
+        return unit;
+    }
+
+    /**
+     * @return Die Anzahl der Zeiteinheiten zwischen zwei Vorkommen bei Intervall 1.
+     */
+    public int unitsPerStep() {
+        return unitsPerStep;
+    }
+}
@@ -0,0 +1,29 @@
+package de.htwberlin.webtech.calendar.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Herzschlag der primären Datenbank, an dem die Verzögerung der Read-Replicas gemessen wird: Die Anwendung schreibt
+ * den Zeitstempel regelmäßig auf die primäre Datenbank und liest ihn auf jeder Replica; die Differenz zur aktuellen
+ * Zeit ist die Replikationsverzögerung. Die Tabelle wird nur über JDBC gelesen und geschrieben.
+ */
+@Entity
+@Table(name = "replica_heartbeat")
+@Getter
+@NoArgsConstructor // Wird von JPA/Hibernate benötigt
+public class ReplicaHeartbeat {
+
+    @Id
+    @Column(length = 64)
+    private String name; // Eine Zeile pro Quelle, derzeit nur "primary"
+
+    @Column(nullable = false)
+    private Instant beat;
+}
@@ -0,0 +1,53 @@
+package de.htwberlin.webtech.calendar.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Befristete Leitung einer Hintergrundaufgabe, die bei mehreren Instanzen nur auf einer laufen darf
+ * (z.B. das Versenden von Erinnerungen). Wer die Zeile hält, verlängert sie regelmäßig; eine abgelaufene Zeile darf
+ * jede Instanz übernehmen. Die Zeitstempel setzen die Instanzen selbst, ihre Uhren müssen also synchron laufen.
+ */
+@Entity
+@Table(name = "scheduler_lease")
+@Getter
+@NoArgsConstructor // Wird von JPA/Hibernate benötigt
+public class SchedulerLease implements Persistable<String> {
+
+    @Id
+    @Column(length = 64)
+    private String name; // Name der Aufgabe
+
+    @Column(nullable = false, length = 64)
+    private String owner; // Instanz, die die Aufgabe gerade ausführt
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // Fortschritt der Aufgabe, den eine übernehmende Instanz fortsetzt (bei Erinnerungen: bis wann alle versendet sind)
+    private Instant checkpoint;
+
+    public SchedulerLease(String name, String owner, Instant expiresAt) {
+        this.name = name;
+        this.owner = owner;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String getId() {
+        return name;
+    }
+
+    // Wird nur beim ersten Start angelegt und danach per UPDATE übernommen und verlängert
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
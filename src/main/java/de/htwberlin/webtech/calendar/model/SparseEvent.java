@@ -0,0 +1,99 @@
+package de.htwberlin.webtech.calendar.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Ein Event, von dem nur ausgewählte Felder gelesen wurden (Sparse Fieldset, {@code GET /events?fields=...}).
+ * Die Werte stehen in derselben Reihenfolge wie die Feldnamen und werden ohne Zwischen-Map als JSON-Objekt
+ * geschrieben; nicht ausgewählte Felder fehlen in der Antwort ganz.
+ * @param fields Die Feldnamen, wie in der JSON-Darstellung von {@link Event}.
+ * @param values Die Werte, an derselben Position wie ihr Feldname.
+ */
+@JsonSerialize(using = SparseEvent.Serializer.class)
+public record SparseEvent(List<String> fields, Object[] values) {
+
+    // Alle auswählbaren Felder mit ihrem Zugriff auf ein geladenes Event, in der Reihenfolge der Entität
+    private static final List<String> FIELDS = List.of("id", "title", "description", "startDateTime",
+            "endDateTime", "isCompleted", "version", "recurrence", "seriesEnd", "lastModified", "calendarId");
+    private static final List<Function<Event, Object>> GETTERS = List.of(Event::getId, Event::getTitle,
+            Event::getDescription, Event::getStartDateTime, Event::getEndDateTime, Event::getIsCompleted,
+            Event::getVersion, Event::getRecurrence, Event::getSeriesEnd, Event::getLastModified,
+            Event::getCalendarId);
+    // Felder, die Event nur schreibt, wenn sie gesetzt sind (@JsonInclude NON_NULL)
+    private static final Set<String> OMIT_IF_NULL = Set.of("recurrence", "seriesEnd");
+
+    /**
+     * Zerlegt den Parameter {@code fields} in die auszuwählenden Felder.
+     * Die ID steht immer an erster Stelle, auch wenn sie nicht angefragt wurde; Duplikate werden ignoriert.
+     * @param fields Kommagetrennte Feldnamen, z.B. {@code "title,startDateTime"}.
+     * @return Die Feldnamen in angefragter Reihenfolge.
+     * @throws IllegalArgumentException Bei unbekannten Feldnamen.
+     */
+    public static List<String> parseFields(String fields) {
+        List<String> selected = new ArrayList<>();
+        selected.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty() || selected.contains(name)) {
+                continue;
+            }
+            if (!FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', expected one of " + FIELDS);
+            }
+            selected.add(name);
+        }
+        return List.copyOf(selected);
+    }
+
+    /**
+     * Übernimmt die ausgewählten Felder aus einem bereits geladenen Event, z.B. aus dem Intervall-Index.
+     * @param event Das Event.
+     * @param fields Die Feldnamen aus {@link #parseFields}.
+     * @return Das reduzierte Event.
+     */
+    public static SparseEvent of(Event event, List<String> fields) {
+        Object[] values = new Object[fields.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = GETTERS.get(FIELDS.indexOf(fields.get(i))).apply(event);
+        }
+        return new SparseEvent(fields, values);
+    }
+
+    /**
+     * @param field Der Feldname.
+     * @return Der Wert des Feldes, oder null, wenn es nicht ausgewählt wurde.
+     */
+    public Object get(String field) {
+        int index = fields.indexOf(field);
+        return index >= 0 ? values[index] : null;
+    }
+
+    // Schreibt die Felder direkt als Objekt, mit denselben Regeln für null-Werte wie bei Event
+    static final class Serializer extends StdSerializer<SparseEvent> {
+
+        Serializer() {
+            super(SparseEvent.class);
+        }
+
+        @Override
+        public void serialize(SparseEvent event, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < event.values.length; i++) {
+                if (event.values[i] == null && OMIT_IF_NULL.contains(event.fields.get(i))) {
+                    continue;
+                }
+                provider.defaultSerializeField(event.fields.get(i), event.values[i], generator);
+            }
+            generator.writeEndObject();
+        }
+    }
+}
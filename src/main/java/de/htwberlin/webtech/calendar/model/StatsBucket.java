@@ -0,0 +1,50 @@
+package de.htwberlin.webtech.calendar.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Zeitraster der Statistiken von GET /events/stats.
+ */
+public enum StatsBucket {
+
+    /**
+     * Ein Abschnitt pro Kalendertag.
+     */
+    DAY,
+
+    /**
+     * Ein Abschnitt pro Kalenderwoche (ISO, beginnend am Montag).
+     */
+    WEEK,
+
+    /**
+     * Ein Abschnitt pro Kalendermonat.
+     */
+    MONTH;
+
+    /**
+     * @param day Ein beliebiger Tag.
+     * @return Der erste Tag des Abschnitts, in dem der Tag liegt.
+     */
+    public LocalDate start(LocalDate day) {
+        return switch (this) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * @param start Der erste Tag eines Abschnitts.
+     * @return Der erste Tag des folgenden Abschnitts.
+     */
+    public LocalDate next(LocalDate start) {
+        return switch (this) {
+            case DAY -> start.plusDays(1);
+            case WEEK -> start.plusWeeks(1);
+            case MONTH -> start.plusMonths(1);
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package de.htwberlin.webtech.calendar.model;
+
+import java.util.List;
+
+/**
+ * Antwort der Delta-Synchronisation (GET /events/sync).
+ * @param changed Seit dem Token angelegte oder geänderte Events (Serien als Serie, nicht in Vorkommen aufgelöst).
+ * @param deleted IDs der seit dem Token gelöschten Events.
+ * @param token Token für die nächste Synchronisation.
+ * @param hasMore true, wenn das Limit erreicht wurde und sofort mit dem neuen Token weitergelesen werden soll.
+ */
+public record SyncResult(List<Event> changed, List<Long> deleted, String token, boolean hasMore) {
+}
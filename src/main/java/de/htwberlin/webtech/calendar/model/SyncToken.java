@@ -0,0 +1,56 @@
+package de.htwberlin.webtech.calendar.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Token der Delta-Synchronisation (GET /events/sync): die Position (Änderungszeitpunkt, id), bis zu der ein Client
+ * alle Änderungen kennt, und der Zeitpunkt, zu dem das Token ausgestellt wurde.
+ * Nach außen wird es wie {@link EventCursor} als undurchsichtiger Base64-String weitergegeben.
+ * @param modifiedAt Änderungs- bzw. Löschzeitpunkt der Position.
+ * @param id ID der Position (Tiebreaker bei gleichem Zeitpunkt).
+ * @param issuedAt Ausstellungszeitpunkt; Tokens, die älter als die Aufbewahrungsfrist der Grabsteine sind, verfallen.
+ */
+public record SyncToken(Instant modifiedAt, Long id, Instant issuedAt) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Position vor allen Änderungen; eine Synchronisation ohne Token liefert damit den vollständigen Bestand.
+     * @param issuedAt Zeitpunkt der ersten Synchronisation.
+     * @return Das Start-Token.
+     */
+    public static SyncToken initial(Instant issuedAt) {
+        return new SyncToken(Instant.EPOCH, 0L, issuedAt);
+    }
+
+    /**
+     * Kodiert das Token als URL-sicheren Base64-String.
+     * @return Das kodierte Token.
+     */
+    public String encode() {
+        String raw = modifiedAt + SEPARATOR + id + SEPARATOR + issuedAt;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Dekodiert ein Token, das zuvor mit {@link #encode()} erzeugt wurde.
+     * @param value Das kodierte Token.
+     * @return Das dekodierte Token.
+     * @throws IllegalArgumentException wenn der String kein gültiges Token ist.
+     */
+    public static SyncToken decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid sync token: " + value);
+            }
+            return new SyncToken(Instant.parse(parts[0]), Long.parseLong(parts[1]), Instant.parse(parts[2]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid sync token: " + value, e);
+        }
+    }
+}
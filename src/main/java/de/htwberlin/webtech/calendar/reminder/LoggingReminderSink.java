@@ -0,0 +1,22 @@
+package de.htwberlin.webtech.calendar.reminder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Schreibt fällige Erinnerungen ins Log (Standard, z.B. für Entwicklung und Tests).
+ */
+@Component
+@ConditionalOnProperty(name = "calendar.reminders.sink", havingValue = "log", matchIfMissing = true)
+public class LoggingReminderSink implements ReminderSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingReminderSink.class);
+
+    @Override
+    public void deliver(Reminder reminder) {
+        log.info("Reminder for event {} in calendar {}: '{}' starts at {}",
+                reminder.eventId(), reminder.calendarId(), reminder.title(), reminder.startDateTime());
+    }
+}
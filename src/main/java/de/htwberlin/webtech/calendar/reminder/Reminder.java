@@ -0,0 +1,16 @@
+package de.htwberlin.webtech.calendar.reminder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Eine fällige Erinnerung an ein Event bzw. an ein Vorkommen einer Serie.
+ * @param eventId ID des Events (bei Serien die ID der Serie).
+ * @param calendarId Kalender des Events.
+ * @param title Titel des Events zum Zeitpunkt der Erinnerung.
+ * @param startDateTime Beginn des Events bzw. des Vorkommens.
+ * @param endDateTime Ende des Events bzw. des Vorkommens.
+ * @param remindAt Zeitpunkt, zu dem die Erinnerung fällig war.
+ */
+public record Reminder(Long eventId, String calendarId, String title,
+                       LocalDateTime startDateTime, LocalDateTime endDateTime, LocalDateTime remindAt) {
+}
@@ -0,0 +1,500 @@
+package de.htwberlin.webtech.calendar.reminder;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.Recurrence;
+import de.htwberlin.webtech.calendar.model.SchedulerLease;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import de.htwberlin.webtech.calendar.repository.SchedulerLeaseRepository;
+import de.htwberlin.webtech.calendar.service.EventChange;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Versendet Erinnerungen {@code calendar.reminders.lead-time} vor dem Beginn jedes offenen Events
+ * (bei Serien vor jedem Vorkommen) an den konfigurierten {@link ReminderSink}.
+ * <p>
+ * Die Erinnerungen der nächsten {@code lookahead} liegen in einem {@link TimingWheel}: Ein einziger Scheduler-Thread
+ * dreht es jeden {@code tick} weiter, Einplanen und Abbrechen kosten O(1), auch bei einer Million ausstehender
+ * Erinnerungen. Alle {@code refresh-interval} lädt der Scheduler das nächste Zeitfenster aus der Datenbank nach und liest
+ * die seit der letzten Abfrage geänderten Events (auch die anderer Instanzen). Schreiboperationen dieser Instanz kommen
+ * zusätzlich sofort über {@link EventChange} an. Vor dem Versenden wird jedes fällige Event noch einmal gelesen;
+ * inzwischen gelöschte, erledigte oder verschobene Events werden übersprungen.
+ * <p>
+ * Bei mehreren Instanzen versendet nur die, die die {@link SchedulerLease} "reminders" hält; die übrigen halten kein Rad.
+ * Mit der Verlängerung speichert der Leader, bis wann alle Erinnerungen versendet sind. Ein neuer Leader setzt dort fort
+ * (höchstens {@code max-catch-up} zurück), so dass bei einem Wechsel keine Erinnerung verloren geht; doppelt versendet
+ * werden höchstens die eines Verlängerungsintervalls.
+ * Aktivierung über {@code calendar.reminders.enabled=true}.
+ */
+@Service
+public class ReminderScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderScheduler.class);
+
+    static final String LEASE_NAME = "reminders";
+    private static final int PAGE_SIZE = 1000;
+    // Obergrenze für die IDs in der IN-Liste beim Nachlesen fälliger Events
+    private static final int MAX_IDS_PER_QUERY = 500;
+    // Änderungen werden mit etwas Überlappung gelesen, weil lastModified vor dem Commit gesetzt wird
+    private static final Duration MODIFIED_OVERLAP = Duration.ofSeconds(5);
+
+    // Eintrag im Rad: ein Vorkommen, identifiziert über Event und Beginn
+    private record Occurrence(Long eventId, String calendarId, LocalDateTime start) {
+    }
+
+    private final EventRepository eventRepository;
+    private final SchedulerLeaseRepository leaseRepository;
+    private final ReminderSink sink;
+    private final boolean enabled;
+    private final Duration leadTime;
+    private final long tickMillis;
+    private final Duration lookahead;
+    private final Duration refreshInterval;
+    private final Duration maxCatchUp;
+    private final Duration leaseDuration;
+    private final String owner;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // Rad und Zustand gibt es nur auf dem Leader; Scheduler-Thread und Listener greifen unter dem Lock zu
+    private final ReentrantLock lock = new ReentrantLock();
+    private TimingWheel<Occurrence> wheel;
+    private final Map<Long, List<TimingWheel.Timer<Occurrence>>> timers = new HashMap<>();
+    private Instant firedUntil; // Alle Erinnerungen davor sind versendet
+    private Instant loadedUntil; // Alle Erinnerungen davor sind eingeplant
+
+    // Nur vom Scheduler-Thread verwendet
+    private Instant leaseValidUntil; // null, solange diese Instanz nicht Leader ist
+    private Instant nextLeaseCheck = Instant.MIN;
+    private Instant resumeFrom; // Fortschritt des vorigen Leaders
+    private Instant nextRefresh;
+    private Instant modifiedSince;
+
+    public ReminderScheduler(EventRepository eventRepository,
+                             SchedulerLeaseRepository leaseRepository,
+                             ReminderSink sink,
+                             @Value("${calendar.reminders.enabled:false}") boolean enabled,
+                             @Value("${calendar.reminders.lead-time:15m}") Duration leadTime,
+                             @Value("${calendar.reminders.tick:1s}") Duration tick,
+                             @Value("${calendar.reminders.lookahead:10m}") Duration lookahead,
+                             @Value("${calendar.reminders.refresh-interval:30s}") Duration refreshInterval,
+                             @Value("${calendar.reminders.max-catch-up:1h}") Duration maxCatchUp,
+                             @Value("${calendar.reminders.lease-duration:30s}") Duration leaseDuration,
+                             @Value("${calendar.reminders.instance-id:${random.uuid}}") String owner) {
+        if (enabled && refreshInterval.compareTo(lookahead) >= 0) {
+            throw new IllegalArgumentException("calendar.reminders.refresh-interval must be shorter than lookahead");
+        }
+        this.eventRepository = eventRepository;
+        this.leaseRepository = leaseRepository;
+        this.sink = sink;
+        this.enabled = enabled;
+        this.leadTime = leadTime;
+        this.tickMillis = tick.toMillis();
+        this.lookahead = lookahead;
+        this.refreshInterval = refreshInterval;
+        this.maxCatchUp = maxCatchUp;
+        this.leaseDuration = leaseDuration;
+        this.owner = owner;
+    }
+
+    /**
+     * Dreht das Rad weiter und versendet die fälligen Erinnerungen, sofern diese Instanz Leader ist.
+     */
+    @Scheduled(fixedDelayString = "${calendar.reminders.tick:1s}")
+    public void tick() {
+        if (enabled) {
+            tick(Instant.now());
+        }
+    }
+
+    void tick(Instant now) {
+        if (!holdsLease(now)) {
+            stepDown();
+            return;
+        }
+        if (!isLeading()) {
+            startLeading(now);
+        }
+        if (!now.isBefore(nextRefresh)) {
+            try {
+                refresh(now);
+            } catch (RuntimeException e) {
+                log.warn("Could not load upcoming reminders, retrying with the next tick", e);
+            }
+        }
+        List<Occurrence> due = advance(now);
+        if (!due.isEmpty()) {
+            dispatch(due);
+        }
+    }
+
+    /**
+     * Hält das Rad nach jeder Schreiboperation dieser Instanz aktuell.
+     * @param change Die Änderung, die der EventService veröffentlicht hat.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChange(EventChange change) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (wheel == null) {
+                return;
+            }
+            if (change.type() == EventChange.Type.DELETED || change.type() == EventChange.Type.ARCHIVED) {
+                cancelLocked(change.eventId());
+            } else {
+                rescheduleLocked(change.event(), loadedUntil);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Die Anzahl der eingeplanten Erinnerungen (0, wenn diese Instanz nicht Leader ist).
+     */
+    public int pendingCount() {
+        lock.lock();
+        try {
+            return wheel != null ? wheel.size() : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gibt die Leitung beim Herunterfahren frei, damit eine andere Instanz sofort übernehmen kann.
+     */
+    @PreDestroy
+    public void close() {
+        if (leaseValidUntil == null) {
+            return;
+        }
+        try {
+            leaseRepository.renew(LEASE_NAME, owner, Instant.now(), checkpoint());
+        } catch (RuntimeException e) {
+            log.warn("Could not release the reminder lease; another instance takes over after it expires", e);
+        }
+    }
+
+    // Übernimmt oder verlängert die Leitung alle lease-duration/3; ohne Datenbank gilt sie bis zum Ende der Frist
+    private boolean holdsLease(Instant now) {
+        if (leaseValidUntil != null && !now.isBefore(leaseValidUntil)) {
+            log.warn("Reminder lease of instance {} expired", owner);
+            leaseValidUntil = null;
+            stepDown(); // Inzwischen kann eine andere Instanz geleitet haben; nach der Übernahme neu laden
+        }
+        if (now.isBefore(nextLeaseCheck)) {
+            return leaseValidUntil != null;
+        }
+        Instant expiresAt = now.plus(leaseDuration);
+        try {
+            boolean held = leaseValidUntil != null
+                    ? leaseRepository.renew(LEASE_NAME, owner, expiresAt, checkpoint()) == 1
+                    : acquire(now, expiresAt);
+            if (held != (leaseValidUntil != null)) {
+                log.info("Instance {} {} the reminder lease", owner, held ? "took over" : "lost");
+            }
+            leaseValidUntil = held ? expiresAt : null;
+            nextLeaseCheck = now.plus(leaseDuration.dividedBy(3));
+        } catch (RuntimeException e) {
+            log.warn("Could not renew the reminder lease", e);
+        }
+        return leaseValidUntil != null;
+    }
+
+    private boolean acquire(Instant now, Instant expiresAt) {
+        if (leaseRepository.takeOver(LEASE_NAME, owner, expiresAt, now) == 1) {
+            resumeFrom = leaseRepository.findById(LEASE_NAME).map(SchedulerLease::getCheckpoint).orElse(null);
+            return true;
+        }
+        if (leaseRepository.existsById(LEASE_NAME)) {
+            return false;
+        }
+        try {
+            leaseRepository.saveAndFlush(new SchedulerLease(LEASE_NAME, owner, expiresAt));
+            resumeFrom = null;
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false; // Eine andere Instanz hat die Zeile gleichzeitig angelegt
+        }
+    }
+
+    private boolean isLeading() {
+        lock.lock();
+        try {
+            return wheel != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Beginnt beim Fortschritt des vorigen Leaders, höchstens max-catch-up zurück; verpasste Erinnerungen gehen sofort raus
+    private void startLeading(Instant now) {
+        Instant start = now;
+        if (resumeFrom != null) {
+            Instant earliest = now.minus(maxCatchUp);
+            start = resumeFrom.isAfter(earliest) ? resumeFrom : earliest;
+        }
+        lock.lock();
+        try {
+            wheel = new TimingWheel<>(Math.floorDiv(start.toEpochMilli(), tickMillis));
+            timers.clear();
+            firedUntil = Instant.ofEpochMilli(wheel.currentTick() * tickMillis);
+            loadedUntil = firedUntil;
+        } finally {
+            lock.unlock();
+        }
+        nextRefresh = now;
+        modifiedSince = now;
+        log.info("Scheduling reminders from {}", start);
+    }
+
+    private void stepDown() {
+        lock.lock();
+        try {
+            if (wheel != null) {
+                log.info("Stopped scheduling reminders with {} pending", wheel.size());
+                wheel = null;
+                timers.clear();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Lädt das nächste Zeitfenster und liest die seit der letzten Abfrage geänderten Events.
+    // Schlägt das Laden fehl, bleibt loadedUntil stehen und der nächste Tick lädt dasselbe Fenster noch einmal.
+    private void refresh(Instant now) {
+        Instant target = now.plus(lookahead);
+        LocalDateTime from = toLocal(loadedUntil()).plus(leadTime);
+        LocalDateTime to = toLocal(target).plus(leadTime);
+        if (from.isBefore(to)) {
+            LocalDateTime after = from;
+            Long afterId = Long.MIN_VALUE;
+            List<Event> page;
+            do {
+                page = eventRepository.findOpenStartingAfter(after, afterId, to, Limit.of(PAGE_SIZE));
+                reschedule(page, target);
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1).getStartDateTime();
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == PAGE_SIZE);
+            reschedule(eventRepository.findOpenSeriesBetween(from, to), target);
+            lock.lock();
+            try {
+                loadedUntil = target;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Erfasst auch Änderungen dieser Instanz, die während des Ladens committet wurden
+        Instant since = modifiedSince.minus(MODIFIED_OVERLAP);
+        Long sinceId = Long.MIN_VALUE;
+        List<Event> page;
+        do {
+            page = eventRepository.findAllModifiedAfter(since, sinceId, Limit.of(PAGE_SIZE));
+            reschedule(page, null);
+            if (!page.isEmpty()) {
+                since = page.get(page.size() - 1).getLastModified();
+                sinceId = page.get(page.size() - 1).getId();
+                if (since.isAfter(modifiedSince)) {
+                    modifiedSince = since;
+                }
+            }
+        } while (page.size() == PAGE_SIZE);
+        nextRefresh = now.plus(refreshInterval);
+    }
+
+    // until: Ende des Fensters, oder null für das bereits geladene
+    private void reschedule(List<Event> events, Instant until) {
+        if (events.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (wheel != null) {
+                Instant end = until != null ? until : loadedUntil;
+                events.forEach(event -> rescheduleLocked(event, end));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Ersetzt die Erinnerungen eines Events durch die seiner Vorkommen mit Erinnerung zwischen firedUntil und until
+    private void rescheduleLocked(Event event, Instant until) {
+        cancelLocked(event.getId());
+        if (Boolean.TRUE.equals(event.getIsCompleted())) {
+            return;
+        }
+        LocalDateTime from = toLocal(firedUntil).plus(leadTime);
+        LocalDateTime to = toLocal(until).plus(leadTime);
+        Recurrence recurrence = event.getRecurrence();
+        LocalDateTime first = event.getStartDateTime();
+        if (recurrence == null || recurrence.getFrequency() == null) {
+            if (!first.isBefore(from) && first.isBefore(to)) {
+                scheduleLocked(new Occurrence(event.getId(), event.getCalendarId(), first));
+            }
+            return;
+        }
+        long lastIndex = recurrence.lastIndex(first);
+        for (long index = recurrence.firstIndexNotBefore(first, from); index <= lastIndex; index++) {
+            LocalDateTime start = recurrence.occurrenceStart(first, index);
+            if (!start.isBefore(to)) {
+                break;
+            }
+            if (!recurrence.isException(start.toLocalDate())) {
+                scheduleLocked(new Occurrence(event.getId(), event.getCalendarId(), start));
+            }
+        }
+    }
+
+    private void scheduleLocked(Occurrence occurrence) {
+        long deadline = Math.floorDiv(toInstant(occurrence.start().minus(leadTime)).toEpochMilli(), tickMillis);
+        TimingWheel.Timer<Occurrence> timer = wheel.schedule(deadline, occurrence);
+        // Einzeltermine (der Normalfall) kommen mit einer unveränderlichen Liste aus, nur Serien brauchen mehr
+        timers.merge(occurrence.eventId(), List.of(timer), (existing, added) -> {
+            List<TimingWheel.Timer<Occurrence>> all = new ArrayList<>(existing);
+            all.addAll(added);
+            return all;
+        });
+    }
+
+    private void cancelLocked(Long eventId) {
+        List<TimingWheel.Timer<Occurrence>> cancelled = timers.remove(eventId);
+        if (cancelled != null) {
+            cancelled.forEach(wheel::cancel);
+        }
+    }
+
+    private List<Occurrence> advance(Instant now) {
+        lock.lock();
+        try {
+            if (wheel == null) {
+                return List.of();
+            }
+            List<Occurrence> due = new ArrayList<>();
+            wheel.advanceTo(Math.floorDiv(now.toEpochMilli(), tickMillis), due::add);
+            for (Occurrence occurrence : due) {
+                timers.computeIfPresent(occurrence.eventId(),
+                        (id, list) -> list.stream().anyMatch(TimingWheel.Timer::isPending) ? list : null);
+            }
+            firedUntil = Instant.ofEpochMilli(wheel.currentTick() * tickMillis);
+            return due;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Liest die fälligen Events nach und versendet die Erinnerungen, deren Vorkommen noch aktuell ist
+    private void dispatch(List<Occurrence> due) {
+        Map<String, List<Occurrence>> byCalendar = new LinkedHashSet<>(due).stream()
+                .collect(Collectors.groupingBy(Occurrence::calendarId));
+        for (Map.Entry<String, List<Occurrence>> entry : byCalendar.entrySet()) {
+            List<Occurrence> occurrences = entry.getValue();
+            for (int from = 0; from < occurrences.size(); from += MAX_IDS_PER_QUERY) {
+                List<Occurrence> chunk = occurrences.subList(from, Math.min(from + MAX_IDS_PER_QUERY, occurrences.size()));
+                Map<Long, Event> events;
+                try {
+                    events = eventRepository.findByCalendarIdAndIdIn(entry.getKey(),
+                                    chunk.stream().map(Occurrence::eventId).collect(Collectors.toSet()))
+                            .stream().collect(Collectors.toMap(Event::getId, Function.identity()));
+                } catch (RuntimeException e) {
+                    log.warn("Could not load {} due reminders, retrying with the next tick", chunk.size(), e);
+                    requeue(chunk);
+                    continue;
+                }
+                for (Occurrence occurrence : chunk) {
+                    Event event = events.get(occurrence.eventId());
+                    if (event != null && !Boolean.TRUE.equals(event.getIsCompleted()) && occursAt(event, occurrence.start())) {
+                        deliver(event, occurrence.start());
+                    }
+                }
+            }
+        }
+    }
+
+    private void deliver(Event event, LocalDateTime start) {
+        Reminder reminder = new Reminder(event.getId(), event.getCalendarId(), event.getTitle(), start,
+                start.plus(Duration.between(event.getStartDateTime(), event.getEndDateTime())), start.minus(leadTime));
+        try {
+            sink.deliver(reminder);
+        } catch (RuntimeException e) {
+            log.warn("Could not deliver reminder for event {} starting at {}", event.getId(), start, e);
+        }
+    }
+
+    private void requeue(Collection<Occurrence> occurrences) {
+        lock.lock();
+        try {
+            if (wheel != null) {
+                occurrences.forEach(this::scheduleLocked); // Schon fällig, also beim nächsten Tick
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Instant loadedUntil() {
+        lock.lock();
+        try {
+            return loadedUntil;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Instant checkpoint() {
+        lock.lock();
+        try {
+            return firedUntil;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean occursAt(Event event, LocalDateTime start) {
+        Recurrence recurrence = event.getRecurrence();
+        LocalDateTime first = event.getStartDateTime();
+        if (recurrence == null || recurrence.getFrequency() == null) {
+            return first.equals(start);
+        }
+        long index = recurrence.firstIndexNotBefore(first, start);
+        return index <= recurrence.lastIndex(first)
+                && recurrence.occurrenceStart(first, index).equals(start)
+                && !recurrence.isException(start.toLocalDate());
+    }
+
+    private LocalDateTime toLocal(Instant instant) {
+        return LocalDateTime.ofInstant(instant, zone);
+    }
+
+    private Instant toInstant(LocalDateTime dateTime) {
+        return dateTime.atZone(zone).toInstant();
+    }
+}
@@ -0,0 +1,17 @@
+package de.htwberlin.webtech.calendar.reminder;
+
+/**
+ * Ziel, an das der {@link ReminderScheduler} fällige Erinnerungen übergibt.
+ * Die Implementierung wird über {@code calendar.reminders.sink} gewählt ({@code log} oder {@code webhook}).
+ */
+public interface ReminderSink {
+
+    /**
+     * Stellt eine Erinnerung zu. Wird nacheinander aus dem Scheduler-Thread aufgerufen; langsame Ziele verzögern
+     * also die folgenden Erinnerungen.
+     * @param reminder Die fällige Erinnerung.
+     * @throws RuntimeException wenn die Zustellung fehlschlägt; der Scheduler protokolliert den Fehler
+     *         und versucht es nicht erneut.
+     */
+    void deliver(Reminder reminder);
+}
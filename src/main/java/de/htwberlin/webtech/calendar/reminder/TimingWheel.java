@@ -0,0 +1,207 @@
+package de.htwberlin.webtech.calendar.reminder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchisches Timing-Wheel nach dem Vorbild der klassischen Timer-Wheels im Linux-Kernel.
+ * Die Zeit ist in Ticks eingeteilt; {@value #LEVELS} Räder mit je 64 Fächern decken zusammen 64^5 Ticks ab
+ * (bei einem Tick von 1s rund 34 Jahre). Ein Timer liegt auf der untersten Ebene, deren Spanne bis zu seiner Frist reicht,
+ * im Fach, das die entsprechenden sechs Bits seiner Frist angeben. Fächer sind doppelt verkettete Listen:
+ * Einplanen und Abbrechen kosten O(1), unabhängig von der Anzahl der Timer.
+ * Beim Weiterdrehen werden die Timer eines Fachs der höheren Ebene erst dann auf die tieferen verteilt,
+ * wenn das Fach an der Reihe ist; jeder Timer wandert so höchstens viermal.
+ * <p>
+ * Nicht threadsicher; der Aufrufer muss Zugriffe synchronisieren.
+ * @param <T> Typ der Nutzdaten eines Timers.
+ */
+public final class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 5;
+    // Fristen, die weiter als das oberste Rad in der Zukunft liegen, werden abgelehnt
+    static final long MAX_DELAY_TICKS = 1L << (SLOT_BITS * LEVELS);
+
+    /**
+     * Ein eingeplanter Timer. Dient als Handle für {@link #cancel}.
+     * @param <T> Typ der Nutzdaten.
+     */
+    public static final class Timer<T> {
+
+        private final long deadline;
+        private final T payload;
+        // Nachbarn in der Liste des Fachs; null, sobald der Timer abgelaufen oder abgebrochen ist
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(long deadline, T payload) {
+            this.deadline = deadline;
+            this.payload = payload;
+        }
+
+        /**
+         * @return Die Frist in Ticks.
+         */
+        public long deadline() {
+            return deadline;
+        }
+
+        /**
+         * @return Die Nutzdaten.
+         */
+        public T payload() {
+            return payload;
+        }
+
+        /**
+         * @return true, solange der Timer weder abgelaufen noch abgebrochen ist.
+         */
+        public boolean isPending() {
+            return next != null;
+        }
+    }
+
+    // Pro Ebene und Fach ein Wächterknoten einer zirkulären Liste, Ebene für Ebene hintereinander (siehe sentinel)
+    private final List<Timer<T>> sentinels = new ArrayList<>(LEVELS * SLOTS);
+    private long current; // Nächster noch nicht verarbeiteter Tick
+    private int size;
+
+    /**
+     * @param startTick Der erste Tick, den {@link #advanceTo} verarbeitet.
+     */
+    public TimingWheel(long startTick) {
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            Timer<T> sentinel = new Timer<>(Long.MIN_VALUE, null);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            sentinels.add(sentinel);
+        }
+        current = startTick;
+    }
+
+    /**
+     * Plant einen Timer ein. Eine bereits verstrichene Frist läuft beim nächsten {@link #advanceTo} ab.
+     * @param deadline Frist in Ticks.
+     * @param payload Die Nutzdaten.
+     * @return Das Handle des Timers.
+     * @throws IllegalArgumentException wenn die Frist mehr als 64^5 Ticks in der Zukunft liegt.
+     */
+    public Timer<T> schedule(long deadline, T payload) {
+        if (deadline - current >= MAX_DELAY_TICKS) {
+            throw new IllegalArgumentException("Deadline " + deadline + " is too far ahead of tick " + current);
+        }
+        Timer<T> timer = new Timer<>(deadline, payload);
+        link(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * Bricht einen Timer ab.
+     * @param timer Das Handle aus {@link #schedule}.
+     * @return true, wenn der Timer noch eingeplant war.
+     */
+    public boolean cancel(Timer<T> timer) {
+        if (!timer.isPending()) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Dreht das Rad bis einschließlich des angegebenen Ticks weiter und übergibt alle Timer, deren Frist
+     * höchstens diesem Tick entspricht, Tick für Tick an den Consumer (innerhalb eines Ticks in beliebiger Reihenfolge).
+     * Ein leeres Rad springt direkt zum Ziel, der Aufwand hängt also nur bei eingeplanten Timern
+     * von der verstrichenen Zeit ab.
+     * @param tick Der letzte zu verarbeitende Tick.
+     * @param expired Empfängt die Nutzdaten der abgelaufenen Timer; darf selbst neue Timer einplanen.
+     */
+    public void advanceTo(long tick, Consumer<? super T> expired) {
+        while (current <= tick) {
+            if (size == 0) {
+                current = tick + 1;
+                return;
+            }
+            int slot = (int) (current & SLOT_MASK);
+            if (slot == 0) {
+                cascade(1);
+            }
+            Timer<T> sentinel = sentinel(0, slot);
+            current++; // Schon jetzt, damit im Consumer eingeplante Timer nicht in diesem Fach landen
+            while (sentinel.next != sentinel) {
+                Timer<T> timer = sentinel.next;
+                unlink(timer);
+                size--;
+                expired.accept(timer.payload);
+            }
+        }
+    }
+
+    /**
+     * @return Die Anzahl der eingeplanten Timer.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Der nächste Tick, den {@link #advanceTo} verarbeiten wird.
+     */
+    public long currentTick() {
+        return current;
+    }
+
+    // Verteilt das aktuelle Fach der Ebene auf die tieferen Ebenen; ist es Fach 0, ist auch die nächste Ebene an der Reihe
+    private void cascade(int level) {
+        if (level >= LEVELS) {
+            return;
+        }
+        int slot = (int) ((current >>> (SLOT_BITS * level)) & SLOT_MASK);
+        Timer<T> sentinel = sentinel(level, slot);
+        Timer<T> timer = sentinel.next;
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        while (timer != sentinel) {
+            Timer<T> next = timer.next;
+            link(timer);
+            timer = next;
+        }
+        if (slot == 0) {
+            cascade(level + 1);
+        }
+    }
+
+    private Timer<T> sentinel(int level, int slot) {
+        return sentinels.get(level * SLOTS + slot);
+    }
+
+    private void link(Timer<T> timer) {
+        long delay = timer.deadline - current;
+        Timer<T> sentinel;
+        if (delay < 0) {
+            sentinel = sentinel(0, (int) (current & SLOT_MASK));
+        } else {
+            int level = 0;
+            while (delay >= 1L << (SLOT_BITS * (level + 1))) {
+                level++;
+            }
+            sentinel = sentinel(level, (int) ((timer.deadline >>> (SLOT_BITS * level)) & SLOT_MASK));
+        }
+        timer.prev = sentinel.prev;
+        timer.next = sentinel;
+        sentinel.prev.next = timer;
+        sentinel.prev = timer;
+    }
+
+    private void unlink(Timer<T> timer) {
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+    }
+}
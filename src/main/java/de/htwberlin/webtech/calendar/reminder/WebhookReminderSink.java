@@ -0,0 +1,64 @@
+package de.htwberlin.webtech.calendar.reminder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Sendet jede fällige Erinnerung als JSON per POST an {@code calendar.reminders.webhook.url}.
+ * Jede Antwort außer 2xx gilt als fehlgeschlagene Zustellung.
+ */
+@Component
+@ConditionalOnProperty(name = "calendar.reminders.sink", havingValue = "webhook")
+public class WebhookReminderSink implements ReminderSink {
+
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+
+    public WebhookReminderSink(ObjectMapper objectMapper,
+                               @Value("${calendar.reminders.webhook.url}") URI url,
+                               @Value("${calendar.reminders.webhook.timeout:5s}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.url = url;
+        this.timeout = timeout;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public void deliver(Reminder reminder) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(url)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(reminder)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize reminder", e);
+        }
+        HttpResponse<Void> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling reminder webhook", e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Reminder webhook " + url + " answered " + response.statusCode());
+        }
+    }
+}
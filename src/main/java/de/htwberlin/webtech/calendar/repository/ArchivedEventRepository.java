@@ -0,0 +1,73 @@
+package de.htwberlin.webtech.calendar.repository;
+
+import de.htwberlin.webtech.calendar.model.ArchivedEvent;
+import de.htwberlin.webtech.calendar.model.DailyEventStats;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedEventRepository extends JpaRepository<ArchivedEvent, Long> {
+
+    /**
+     * @param id Die ID des Events.
+     * @param calendarId Der Kalender.
+     * @return Das archivierte Event, oder leer, wenn es nicht archiviert ist oder zu einem anderen Kalender gehört.
+     */
+    Optional<ArchivedEvent> findByIdAndCalendarId(Long id, String calendarId);
+
+    /**
+     * Liefert die archivierten Events eines Kalenders, die den Zeitraum berühren. Das ist eine obere Abschätzung
+     * für beide Auswertungen des Datumsbereichs; welche Events genau passen, prüft der Aufrufer.
+     * @param calendarId Der Kalender.
+     * @param from Beginn des Zeitraums, oder null für unbeschränkt.
+     * @param to Ende des Zeitraums (exklusiv), oder null für unbeschränkt.
+     * @return Die in Frage kommenden Events in beliebiger Reihenfolge.
+     */
+    @Query("SELECT a FROM ArchivedEvent a WHERE a.calendarId = :calendarId " +
+            "AND (:from IS NULL OR a.endDateTime >= :from) " +
+            "AND (:to IS NULL OR a.startDateTime < :to)")
+    List<ArchivedEvent> findBetween(@Param("calendarId") String calendarId,
+                                    @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Wie {@link EventRepository#sumByDay}, für die archivierten Events (alle erledigt).
+     * @param calendarId Der Kalender.
+     * @param from Beginn des Zeitraums.
+     * @param to Ende des Zeitraums (exklusiv).
+     * @return Eine Zeile pro Tag mit mindestens einem Event, in beliebiger Reihenfolge.
+     */
+    @Query("SELECT new de.htwberlin.webtech.calendar.model.DailyEventStats(CAST(a.startDateTime AS LocalDate), COUNT(a), " +
+            "COUNT(a), SUM(CAST((a.endDateTime - a.startDateTime) BY SECOND AS Long))) " +
+            "FROM ArchivedEvent a WHERE a.calendarId = :calendarId " +
+            "AND a.startDateTime >= :from AND a.startDateTime < :to " +
+            "GROUP BY CAST(a.startDateTime AS LocalDate)")
+    List<DailyEventStats> sumByDay(@Param("calendarId") String calendarId,
+                                   @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Liefert die nach der Position (archivedAt, id) archivierten Events aller Kalender, sortiert nach dieser Position,
+     * damit andere Instanzen die Archivierung nachführen können. Nutzt den Index idx_event_archive_archived_at.
+     * @param archivedAt Zeitpunkt der Position.
+     * @param id ID der Position.
+     * @param limit Maximale Anzahl der Events.
+     * @return Die archivierten Events in Sortierreihenfolge.
+     */
+    @Query("SELECT a FROM ArchivedEvent a " +
+            "WHERE a.archivedAt > :archivedAt OR (a.archivedAt = :archivedAt AND a.id > :id) " +
+            "ORDER BY a.archivedAt ASC, a.id ASC")
+    List<ArchivedEvent> findArchivedAfter(@Param("archivedAt") Instant archivedAt, @Param("id") Long id, Limit limit);
+
+    /**
+     * @return Das späteste Ende aller archivierten Events, oder null, wenn das Archiv leer ist.
+     */
+    @Query("SELECT MAX(a.endDateTime) FROM ArchivedEvent a")
+    LocalDateTime findMaxEndDateTime();
+}
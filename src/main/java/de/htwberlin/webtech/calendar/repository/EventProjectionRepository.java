@@ -0,0 +1,25 @@
+package de.htwberlin.webtech.calendar.repository;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.SparseEvent;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Ergänzung von {@link EventRepository} um Abfragen, die nur einzelne Spalten lesen.
+ * Spring Data kann dynamische Projektionen nicht mit Specifications kombinieren, ohne die Entitäten vollständig zu
+ * laden; die Implementierung baut deshalb selbst eine Tupel-Abfrage über die Criteria API.
+ */
+public interface EventProjectionRepository {
+
+    /**
+     * Liest nur die angegebenen Felder der Events, die zur Specification passen.
+     * Es werden keine Entitäten erzeugt und nichts im Persistence Context abgelegt; nicht ausgewählte Spalten
+     * (z.B. lange Beschreibungen) werden gar nicht erst gelesen.
+     * @param specification Die Filterkriterien, mindestens {@link EventSpecifications#inCalendar}.
+     * @param fields Die Feldnamen aus {@link SparseEvent#parseFields}.
+     * @return Die reduzierten Events in beliebiger Reihenfolge.
+     */
+    List<SparseEvent> findFields(Specification<Event> specification, List<String> fields);
+}
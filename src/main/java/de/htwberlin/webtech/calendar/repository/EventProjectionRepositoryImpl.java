@@ -0,0 +1,38 @@
+package de.htwberlin.webtech.calendar.repository;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.SparseEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Implementierung von {@link EventProjectionRepository}; Spring Data findet sie über das Suffix "Impl".
+ */
+class EventProjectionRepositoryImpl implements EventProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    EventProjectionRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<SparseEvent> findFields(Specification<Event> specification, List<String> fields) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Event> root = query.from(Event.class);
+        // SELECT nur der angefragten Spalten; ein eingebettetes Feld wie recurrence ergibt ein eigenes Objekt
+        query.multiselect(fields.stream().<Selection<?>>map(root::get).toList());
+        query.where(specification.toPredicate(root, query, criteriaBuilder));
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(tuple -> new SparseEvent(fields, tuple.toArray()))
+                .toList();
+    }
+}
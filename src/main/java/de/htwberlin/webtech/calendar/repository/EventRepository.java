@@ -1,21 +1,310 @@
 package de.htwberlin.webtech.calendar.repository;
 
+import de.htwberlin.webtech.calendar.model.DailyEventStats;
 import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.Recurrence;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository // Kennzeichnet dieses Interface als Spring Data JPA Repository
-public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
+public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event>,
+        EventProjectionRepository {
     // Dieses Interface erbt bereits alle grundlegenden CRUD-Methoden (save, findById, findAll, deleteById, etc.)
     // von JpaRepository.
 
     // JpaSpecificationExecutor<Event> ermöglicht die Nutzung von Spring Data JPA Specifications,
     // um komplexe und dynamische Abfragen zu erstellen (wie z.B. für Filter).
 
-    // Hier könnten bei Bedarf auch benutzerdefinierte Finder-Methoden definiert werden,
-    // die JpaSpecificationExecutor nicht abdeckt oder für die eine einfache Methode ausreicht.
-    // Beispiel:
-    // List<Event> findByTitleContainingIgnoreCase(String titlePart);
-    // List<Event> findByStartDateTimeBetween(LocalDateTime start, LocalDateTime end);
-}
\ No newline at end of file
+    // EventProjectionRepository ergänzt Abfragen, die nur ausgewählte Spalten lesen (GET /events?fields=...).
+
+    // Alle Abfragen der Anwendung sind auf einen Kalender (calendarId) beschränkt und nutzen die mit calendar_id
+    // beginnenden Indizes. Die geerbten Methoden ohne Kalender (findById, findAll, ...) sind nur für Wartung und Tests
+    // gedacht; einzige Ausnahme im Betrieb ist streamAllOrdered() zum Laden der In-Memory-Indizes.
+
+    /**
+     * @param id Die ID des Events.
+     * @param calendarId Der Kalender.
+     * @return Das Event, oder leer, wenn es nicht existiert oder zu einem anderen Kalender gehört.
+     */
+    Optional<Event> findByIdAndCalendarId(Long id, String calendarId);
+
+    /**
+     * @param calendarId Der Kalender.
+     * @return Alle Events des Kalenders.
+     */
+    List<Event> findByCalendarId(String calendarId);
+
+    /**
+     * @param calendarId Der Kalender.
+     * @param ids Die IDs.
+     * @return Die vorhandenen Events des Kalenders mit diesen IDs, in beliebiger Reihenfolge.
+     */
+    List<Event> findByCalendarIdAndIdIn(String calendarId, Collection<Long> ids);
+
+    /**
+     * @param id Die ID des Events.
+     * @param calendarId Der Kalender.
+     * @return true, wenn das Event im Kalender existiert.
+     */
+    boolean existsByIdAndCalendarId(Long id, String calendarId);
+
+    /**
+     * Liefert die erste Seite der Keyset-Pagination, sortiert nach (startDateTime, id).
+     * @param calendarId Der Kalender.
+     * @param limit Maximale Anzahl der Events auf der Seite.
+     * @return Die ersten Events in Sortierreihenfolge.
+     */
+    @Query("SELECT e FROM Event e WHERE e.calendarId = :calendarId ORDER BY e.startDateTime ASC, e.id ASC")
+    List<Event> findFirstPage(@Param("calendarId") String calendarId, Limit limit);
+
+    /**
+     * Liefert die Seite, die direkt hinter dem Cursor (startDateTime, id) beginnt.
+     * Im Gegensatz zu OFFSET muss die Datenbank dabei keine bereits gelesenen Zeilen überspringen.
+     * @param calendarId Der Kalender.
+     * @param startDateTime Startzeitpunkt des letzten Events der vorherigen Seite.
+     * @param id ID des letzten Events der vorherigen Seite.
+     * @param limit Maximale Anzahl der Events auf der Seite.
+     * @return Die nächsten Events in Sortierreihenfolge.
+     */
+    @Query("SELECT e FROM Event e WHERE e.calendarId = :calendarId " +
+            "AND (e.startDateTime > :startDateTime OR (e.startDateTime = :startDateTime AND e.id > :id)) " +
+            "ORDER BY e.startDateTime ASC, e.id ASC")
+    List<Event> findPageAfter(@Param("calendarId") String calendarId, @Param("startDateTime") LocalDateTime startDateTime,
+                              @Param("id") Long id, Limit limit);
+
+    /**
+     * Streamt alle Events aller Kalender in Sortierreihenfolge, ohne sie gesammelt in eine Liste zu laden,
+     * z.B. zum Laden der In-Memory-Indizes. Muss innerhalb einer Transaktion konsumiert und anschließend geschlossen werden.
+     * @return Ein Stream über alle Events.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT e FROM Event e ORDER BY e.startDateTime ASC, e.id ASC")
+    Stream<Event> streamAllOrdered();
+
+    /**
+     * Wie {@link #streamAllOrdered()}, aber nur für die Events eines Kalenders (z.B. für den Export).
+     * @param calendarId Der Kalender.
+     * @return Ein Stream über alle Events des Kalenders.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT e FROM Event e WHERE e.calendarId = :calendarId ORDER BY e.startDateTime ASC, e.id ASC")
+    Stream<Event> streamByCalendarOrdered(@Param("calendarId") String calendarId);
+
+    /**
+     * Prüft, welche der angegebenen IDs im Kalender existieren, ohne die Events selbst zu laden.
+     * @param calendarId Der Kalender.
+     * @param ids Die zu prüfenden IDs.
+     * @return Die vorhandenen IDs.
+     */
+    @Query("SELECT e.id FROM Event e WHERE e.calendarId = :calendarId AND e.id IN :ids")
+    Set<Long> findExistingIds(@Param("calendarId") String calendarId, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Liefert nur die Version eines Events, z.B. um ein ETag zu prüfen, ohne das Event zu laden.
+     * @param calendarId Der Kalender.
+     * @param id Die ID des Events.
+     * @return Die aktuelle Version, oder leer, wenn das Event im Kalender nicht existiert.
+     */
+    @Query("SELECT COALESCE(e.version, 0) FROM Event e WHERE e.calendarId = :calendarId AND e.id = :id")
+    Optional<Long> findVersionById(@Param("calendarId") String calendarId, @Param("id") Long id);
+
+    /**
+     * Liefert alle Serien, die ein Vorkommen im Zeitraum haben können: Sie beginnen vor dessen Ende und
+     * enden frühestens zu dessen Beginn (oder sind unbegrenzt). Welche Vorkommen passen, berechnet der Aufrufer.
+     * @param calendarId Der Kalender.
+     * @param from Beginn des Zeitraums, oder null für unbeschränkt.
+     * @param to Ende des Zeitraums (exklusiv), oder null für unbeschränkt.
+     * @return Die in Frage kommenden Serien.
+     */
+    @Query("SELECT e FROM Event e WHERE e.calendarId = :calendarId AND e.recurrence.frequency IS NOT NULL " +
+            "AND (:to IS NULL OR e.startDateTime < :to) " +
+            "AND (:from IS NULL OR e.seriesEnd IS NULL OR e.seriesEnd >= :from)")
+    List<Event> findSeriesBetween(@Param("calendarId") String calendarId,
+                                  @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Summiert die Einzeltermine, die im Zeitraum beginnen, pro Tag direkt in der Datenbank (GROUP BY),
+     * ohne Events zu laden. Serien sind ausgenommen; ihre Vorkommen zählt der Aufrufer.
+     * @param calendarId Der Kalender.
+     * @param from Beginn des Zeitraums.
+     * @param to Ende des Zeitraums (exklusiv).
+     * @return Eine Zeile pro Tag mit mindestens einem Event, in beliebiger Reihenfolge.
+     */
+    @Query("SELECT new de.htwberlin.webtech.calendar.model.DailyEventStats(CAST(e.startDateTime AS LocalDate), COUNT(e), " +
+            "SUM(CASE WHEN e.isCompleted = true THEN 1L ELSE 0L END), " +
+            "SUM(CAST((e.endDateTime - e.startDateTime) BY SECOND AS Long))) " +
+            "FROM Event e WHERE e.calendarId = :calendarId AND e.recurrence.frequency IS NULL " +
+            "AND e.startDateTime >= :from AND e.startDateTime < :to " +
+            "GROUP BY CAST(e.startDateTime AS LocalDate)")
+    List<DailyEventStats> sumByDay(@Param("calendarId") String calendarId,
+                                   @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Liefert die ältesten erledigten Einzeltermine aller Kalender, die vor dem Stichtag enden (für die Archivierung).
+     * @param cutoff Stichtag (exklusiv).
+     * @param limit Maximale Anzahl der Events.
+     * @return Die Events aufsteigend nach Ende.
+     */
+    @Query("SELECT e FROM Event e WHERE e.isCompleted = true AND e.endDateTime < :cutoff " +
+            "AND e.recurrence.frequency IS NULL ORDER BY e.endDateTime ASC, e.id ASC")
+    List<Event> findArchivable(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    /**
+     * Liefert offene Einzeltermine aller Kalender, die nach der Position (startDateTime, id) und vor {@code to}
+     * beginnen, sortiert nach dieser Position (Keyset-Pagination für das Laden der Erinnerungen).
+     * Mit {@code id = Long.MIN_VALUE} beginnt die erste Seite einschließlich {@code startDateTime}.
+     * @param startDateTime Startzeitpunkt der Position.
+     * @param id ID der Position.
+     * @param to Ende des Zeitraums (exklusiv).
+     * @param limit Maximale Anzahl der Events.
+     * @return Die Events in Sortierreihenfolge.
+     */
+    @Query("SELECT e FROM Event e WHERE e.isCompleted = false AND e.recurrence.frequency IS NULL " +
+            "AND (e.startDateTime > :startDateTime OR (e.startDateTime = :startDateTime AND e.id > :id)) " +
+            "AND e.startDateTime < :to ORDER BY e.startDateTime ASC, e.id ASC")
+    List<Event> findOpenStartingAfter(@Param("startDateTime") LocalDateTime startDateTime, @Param("id") Long id,
+                                      @Param("to") LocalDateTime to, Limit limit);
+
+    /**
+     * Wie {@link #findSeriesBetween}, aber für die offenen Serien aller Kalender (für das Laden der Erinnerungen).
+     * @param from Beginn des Zeitraums.
+     * @param to Ende des Zeitraums (exklusiv).
+     * @return Die in Frage kommenden Serien.
+     */
+    @Query("SELECT e FROM Event e WHERE e.recurrence.frequency IS NOT NULL AND e.isCompleted = false " +
+            "AND e.startDateTime < :to AND (e.seriesEnd IS NULL OR e.seriesEnd >= :from)")
+    List<Event> findOpenSeriesBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Wie {@link #findModifiedAfter}, aber über alle Kalender, z.B. damit die Erinnerungen auch Änderungen
+     * anderer Instanzen sehen. Nutzt den Index idx_event_last_modified_id.
+     * @param lastModified Änderungszeitpunkt der Position.
+     * @param id ID der Position.
+     * @param limit Maximale Anzahl der Events.
+     * @return Die geänderten Events in Sortierreihenfolge.
+     */
+    @Query("SELECT e FROM Event e " +
+            "WHERE e.lastModified > :lastModified OR (e.lastModified = :lastModified AND e.id > :id) " +
+            "ORDER BY e.lastModified ASC, e.id ASC")
+    List<Event> findAllModifiedAfter(@Param("lastModified") Instant lastModified, @Param("id") Long id, Limit limit);
+
+    /**
+     * Liefert die Events, die nach der Position (lastModified, id) geändert oder angelegt wurden, sortiert nach dieser
+     * Position. Über den Index idx_event_last_modified hängt der Aufwand von der Anzahl der Änderungen ab,
+     * nicht von der Tabellengröße.
+     * @param calendarId Der Kalender.
+     * @param lastModified Änderungszeitpunkt der Position.
+     * @param id ID der Position (Tiebreaker bei gleichem Änderungszeitpunkt).
+     * @param limit Maximale Anzahl der Events.
+     * @return Die geänderten Events in Sortierreihenfolge.
+     */
+    @Query("SELECT e FROM Event e WHERE e.calendarId = :calendarId " +
+            "AND (e.lastModified > :lastModified OR (e.lastModified = :lastModified AND e.id > :id)) " +
+            "ORDER BY e.lastModified ASC, e.id ASC")
+    List<Event> findModifiedAfter(@Param("calendarId") String calendarId, @Param("lastModified") Instant lastModified,
+                                  @Param("id") Long id, Limit limit);
+
+    /**
+     * Überschreibt alle Felder eines Events mit einer einzigen UPDATE-Anweisung, ohne es vorher zu laden.
+     * Bulk-Updates umgehen das Versions-Handling und die Entity-Callbacks von Hibernate, deshalb wird die Version
+     * hier selbst erhöht; seriesEnd und lastModified muss der Aufrufer vorher mit {@link Event#updateSeriesEnd()}
+     * und {@link Event#touch()} setzen.
+     * @param calendarId Der Kalender; Events anderer Kalender werden nicht geändert.
+     * @param id Die ID des Events.
+     * @return Die Anzahl der geänderten Zeilen (0, wenn das Event im Kalender nicht existiert).
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Event e SET e.title = :title, e.description = :description, " +
+            "e.startDateTime = :startDateTime, e.endDateTime = :endDateTime, e.isCompleted = :isCompleted, " +
+            "e.recurrence = :recurrence, e.seriesEnd = :seriesEnd, e.lastModified = :lastModified, " +
+            "e.version = COALESCE(e.version, 0) + 1 " +
+            "WHERE e.calendarId = :calendarId AND e.id = :id")
+    int updateById(@Param("calendarId") String calendarId,
+                   @Param("id") Long id,
+                   @Param("title") String title,
+                   @Param("description") String description,
+                   @Param("startDateTime") LocalDateTime startDateTime,
+                   @Param("endDateTime") LocalDateTime endDateTime,
+                   @Param("isCompleted") Boolean isCompleted,
+                   @Param("recurrence") Recurrence recurrence,
+                   @Param("seriesEnd") LocalDateTime seriesEnd,
+                   @Param("lastModified") Instant lastModified);
+
+    /**
+     * Wie {@link #updateById}, ändert das Event aber nur, wenn es noch die erwartete Version hat.
+     * @param expectedVersion Die Version, die der Client zuletzt gesehen hat (aus dem If-Match-Header).
+     * @return Die Anzahl der geänderten Zeilen (0, wenn das Event nicht existiert oder inzwischen geändert wurde).
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Event e SET e.title = :title, e.description = :description, " +
+            "e.startDateTime = :startDateTime, e.endDateTime = :endDateTime, e.isCompleted = :isCompleted, " +
+            "e.recurrence = :recurrence, e.seriesEnd = :seriesEnd, e.lastModified = :lastModified, " +
+            "e.version = :expectedVersion + 1 " +
+            "WHERE e.calendarId = :calendarId AND e.id = :id AND COALESCE(e.version, 0) = :expectedVersion")
+    int updateByIdAndVersion(@Param("calendarId") String calendarId,
+                             @Param("id") Long id,
+                             @Param("expectedVersion") Long expectedVersion,
+                             @Param("title") String title,
+                             @Param("description") String description,
+                             @Param("startDateTime") LocalDateTime startDateTime,
+                             @Param("endDateTime") LocalDateTime endDateTime,
+                             @Param("isCompleted") Boolean isCompleted,
+                             @Param("recurrence") Recurrence recurrence,
+                             @Param("seriesEnd") LocalDateTime seriesEnd,
+                             @Param("lastModified") Instant lastModified);
+
+    /**
+     * Setzt den Erledigungsstatus eines Events mit einer einzigen UPDATE-Anweisung und erhöht dessen Version.
+     * @param lastModified Der neue Änderungszeitpunkt.
+     * @return Die Anzahl der geänderten Zeilen (0, wenn das Event im Kalender nicht existiert).
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Event e SET e.isCompleted = :isCompleted, e.lastModified = :lastModified, " +
+            "e.version = COALESCE(e.version, 0) + 1 WHERE e.calendarId = :calendarId AND e.id = :id")
+    int updateCompletionStatusById(@Param("calendarId") String calendarId, @Param("id") Long id,
+                                   @Param("isCompleted") Boolean isCompleted, @Param("lastModified") Instant lastModified);
+
+    /**
+     * Wie {@link #updateCompletionStatusById}, für mehrere Events desselben Kalenders mit demselben neuen Status
+     * (gesammelte Änderungen aus dem Write-Behind-Modus).
+     * @param ids Die IDs der Events.
+     * @return Die Anzahl der geänderten Zeilen; inzwischen gelöschte Events fehlen darin.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Event e SET e.isCompleted = :isCompleted, e.lastModified = :lastModified, " +
+            "e.version = COALESCE(e.version, 0) + 1 WHERE e.calendarId = :calendarId AND e.id IN :ids")
+    int updateCompletionStatusByIds(@Param("calendarId") String calendarId, @Param("ids") Collection<Long> ids,
+                                    @Param("isCompleted") Boolean isCompleted, @Param("lastModified") Instant lastModified);
+
+    /**
+     * Löscht ein Event mit einer einzigen DELETE-Anweisung, ohne es vorher zu laden.
+     * Im Gegensatz zu {@code deleteById} meldet die Methode, ob das Event existiert hat.
+     * @return Die Anzahl der gelöschten Zeilen (0, wenn das Event im Kalender nicht existiert).
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Event e WHERE e.calendarId = :calendarId AND e.id = :id")
+    int deleteByIdReturningCount(@Param("calendarId") String calendarId, @Param("id") Long id);
+}
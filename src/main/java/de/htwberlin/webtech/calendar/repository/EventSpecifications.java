@@ -0,0 +1,110 @@
+package de.htwberlin.webtech.calendar.repository;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.RangeMode;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sammlung der Specifications, mit denen Events dynamisch gefiltert werden.
+ */
+public final class EventSpecifications {
+
+    private EventSpecifications() {
+    }
+
+    /**
+     * Beschränkt eine Abfrage auf einen Kalender.
+     * @param calendarId Der Kalender.
+     * @return Die Specification.
+     */
+    public static Specification<Event> inCalendar(String calendarId) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("calendarId"), calendarId);
+    }
+
+    /**
+     * Baut die Specification für die optionalen Filterkriterien von GET /events.
+     * Nicht gesetzte Kriterien (null bzw. leer) werden ignoriert, alle übrigen mit UND verknüpft.
+     * Liefert nur Einzeltermine; Serien werden über {@link EventRepository#findSeriesBetween} geladen,
+     * weil ihre Vorkommen nicht als Zeilen existieren.
+     * @param calendarId Der Kalender (Pflicht).
+     * @param startDate Beginn des Datumsbereichs.
+     * @param endDate Ende des Datumsbereichs (einschließlich des ganzen Tages).
+     * @param title Events, deren Titel den angegebenen String enthält (fall-insensitiv).
+     * @param description Events, deren Beschreibung den angegebenen String enthält (fall-insensitiv).
+     * @param isCompleted Events nach ihrem Erledigungsstatus.
+     * @param rangeMode Auswertung des Datumsbereichs; null entspricht {@link RangeMode#CONTAINED}.
+     * @return Die kombinierte Specification.
+     */
+    public static Specification<Event> filter(
+            String calendarId,
+            LocalDate startDate,
+            LocalDate endDate,
+            String title,
+            String description,
+            Boolean isCompleted,
+            RangeMode rangeMode
+    ) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(criteriaBuilder.equal(root.get("calendarId"), calendarId));
+            predicates.add(criteriaBuilder.isNull(root.get("recurrence").get("frequency")));
+
+            if (rangeMode == RangeMode.OVERLAPS) {
+                if (endDate != null) {
+                    // Event beginnt vor dem Ende des Bereichs (exklusiv: Beginn des Folgetags)
+                    predicates.add(criteriaBuilder.lessThan(root.get("startDateTime"), endDate.plusDays(1).atStartOfDay()));
+                }
+                if (startDate != null) {
+                    // Event endet nach dem Beginn des Bereichs
+                    predicates.add(criteriaBuilder.greaterThan(root.get("endDateTime"), startDate.atStartOfDay()));
+                }
+            } else {
+                if (startDate != null) {
+                    // Filtert Events, die am oder nach dem angegebenen Startdatum beginnen
+                    predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("startDateTime"), startDate.atStartOfDay()));
+                }
+                if (endDate != null) {
+                    // Filtert Events, die am oder vor dem angegebenen Enddatum enden (bis Ende des Tages)
+                    predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("endDateTime"), endDate.atTime(LocalTime.MAX)));
+                }
+            }
+            if (title != null && !title.isEmpty()) {
+                // Filtert Events, deren Titel den String enthält (fall-insensitiv)
+                predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("title")), "%" + title.toLowerCase() + "%"));
+            }
+            if (description != null && !description.isEmpty()) {
+                // Filtert Events, deren Beschreibung den String enthält (fall-insensitiv)
+                predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("description")), "%" + description.toLowerCase() + "%"));
+            }
+            if (isCompleted != null) {
+                // Filtert Events basierend auf ihrem Erledigungsstatus
+                predicates.add(criteriaBuilder.equal(root.get("isCompleted"), isCompleted));
+            }
+
+            // Kombiniert alle angewendeten Filter mit einem logischen UND
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Baut die Specification für die Volltextsuche ohne Suchindex:
+     * Events des Kalenders, deren Titel oder Beschreibung den Suchbegriff enthält (fall-insensitiv).
+     * @param calendarId Der Kalender.
+     * @param query Der Suchbegriff.
+     * @return Die Specification.
+     */
+    public static Specification<Event> textMatches(String calendarId, String query) {
+        String pattern = "%" + query.toLowerCase() + "%";
+        return (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.and(
+                criteriaBuilder.equal(root.get("calendarId"), calendarId),
+                criteriaBuilder.or(
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("title")), pattern),
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("description")), pattern)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package de.htwberlin.webtech.calendar.repository;
+
+import de.htwberlin.webtech.calendar.model.EventTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface EventTombstoneRepository extends JpaRepository<EventTombstone, Long> {
+
+    /**
+     * Liefert die Grabsteine eines Kalenders nach der Position (deletedAt, eventId), sortiert nach dieser Position.
+     * @param calendarId Der Kalender.
+     * @param deletedAt Zeitpunkt der Position.
+     * @param eventId ID der Position (Tiebreaker bei gleichem Zeitpunkt).
+     * @param limit Maximale Anzahl der Grabsteine.
+     * @return Die Grabsteine in Sortierreihenfolge.
+     */
+    @Query("SELECT t FROM EventTombstone t WHERE t.calendarId = :calendarId " +
+            "AND (t.deletedAt > :deletedAt OR (t.deletedAt = :deletedAt AND t.eventId > :eventId)) " +
+            "ORDER BY t.deletedAt ASC, t.eventId ASC")
+    List<EventTombstone> findDeletedAfter(@Param("calendarId") String calendarId, @Param("deletedAt") Instant deletedAt,
+                                          @Param("eventId") Long eventId, Limit limit);
+
+    /**
+     * Wie {@link #findDeletedAfter}, aber über alle Kalender, damit andere Instanzen Löschungen nachführen können.
+     * Nutzt den Index idx_event_tombstone_deleted_at.
+     * @param deletedAt Zeitpunkt der Position.
+     * @param eventId ID der Position.
+     * @param limit Maximale Anzahl der Grabsteine.
+     * @return Die Grabsteine in Sortierreihenfolge.
+     */
+    @Query("SELECT t FROM EventTombstone t " +
+            "WHERE t.deletedAt > :deletedAt OR (t.deletedAt = :deletedAt AND t.eventId > :eventId) " +
+            "ORDER BY t.deletedAt ASC, t.eventId ASC")
+    List<EventTombstone> findAllDeletedAfter(@Param("deletedAt") Instant deletedAt, @Param("eventId") Long eventId,
+                                             Limit limit);
+
+    /**
+     * Löscht alle Grabsteine, die vor dem angegebenen Zeitpunkt entstanden sind.
+     * @param cutoff Grenze der Aufbewahrungsfrist.
+     * @return Die Anzahl der gelöschten Grabsteine.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EventTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteDeletedBefore(@Param("cutoff") Instant cutoff);
+}
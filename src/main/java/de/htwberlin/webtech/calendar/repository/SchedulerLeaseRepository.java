@@ -0,0 +1,46 @@
+package de.htwberlin.webtech.calendar.repository;
+
+import de.htwberlin.webtech.calendar.model.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    /**
+     * Übernimmt eine abgelaufene Leitung. Die Bedingung im UPDATE sorgt dafür, dass von mehreren Instanzen,
+     * die es gleichzeitig versuchen, nur eine die Zeile ändert.
+     * @param name Name der Aufgabe.
+     * @param owner Die übernehmende Instanz.
+     * @param expiresAt Ende der neuen Frist.
+     * @param now Aktueller Zeitpunkt.
+     * @return 1, wenn die Instanz die Leitung übernommen hat, sonst 0.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.owner = :owner, l.expiresAt = :expiresAt " +
+            "WHERE l.name = :name AND l.expiresAt < :now")
+    int takeOver(@Param("name") String name, @Param("owner") String owner,
+                 @Param("expiresAt") Instant expiresAt, @Param("now") Instant now);
+
+    /**
+     * Verlängert die eigene Leitung und speichert den Fortschritt.
+     * @param name Name der Aufgabe.
+     * @param owner Die Instanz, die die Leitung hält.
+     * @param expiresAt Ende der neuen Frist.
+     * @param checkpoint Der neue Fortschritt.
+     * @return 1, wenn die Instanz die Leitung noch hält, 0, wenn eine andere sie inzwischen übernommen hat.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.expiresAt = :expiresAt, l.checkpoint = :checkpoint " +
+            "WHERE l.name = :name AND l.owner = :owner")
+    int renew(@Param("name") String name, @Param("owner") String owner,
+              @Param("expiresAt") Instant expiresAt, @Param("checkpoint") Instant checkpoint);
+}
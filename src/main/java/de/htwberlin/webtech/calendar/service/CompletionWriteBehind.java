@@ -0,0 +1,400 @@
+package de.htwberlin.webtech.calendar.service;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Optionaler Write-Behind-Modus für PATCH /events/{id}/complete, die mit Abstand häufigste Schreiboperation.
+ * Eine Änderung wird nur in ein lokales Journal geschrieben (mit fsync) und sofort bestätigt; mehrere Änderungen
+ * desselben Events werden zusammengefasst. Der fsync läuft außerhalb des Locks als Group Commit: Gleichzeitige
+ * Änderungen teilen sich einen fsync, statt nacheinander auf die Platte zu warten. Alle {@code flush-interval} schreibt {@link #flush()} die ausstehenden
+ * Änderungen mit einem UPDATE pro Kalender und Status in die Datenbank und veröffentlicht danach die {@link EventChange}s.
+ * Nach einem Absturz werden bestätigte, aber noch nicht geschriebene Änderungen beim Start aus dem Journal gelesen.
+ * <p>
+ * Ist die Warteschlange voll ({@code max-pending} verschiedene Events), warten neue Änderungen bis zu
+ * {@code offer-timeout} auf den nächsten Flush und werden danach mit 503 abgelehnt.
+ * {@link EventService#getEventById} und {@link EventService#getEventVersion} berücksichtigen ausstehende Änderungen
+ * (Read-your-writes), einschließlich der Version, die das Event nach dem Flush haben wird. Listen, Suche und
+ * Statistiken zeigen die Änderung erst nach dem Flush.
+ * Aktivierung über {@code calendar.completion.write-behind.enabled=true}; das Journal ist lokal, der Modus passt
+ * also nur für Instanzen mit eigenem, dauerhaftem Dateisystem.
+ */
+@Service
+public class CompletionWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(CompletionWriteBehind.class);
+
+    // Obergrenze für die IDs in der IN-Liste eines UPDATE
+    private static final int MAX_IDS_PER_UPDATE = 500;
+
+    private final EventRepository eventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxPending;
+    private final Duration offerTimeout;
+    private final Path journalPath;
+
+    // Änderungen werden unter dem Lock eingetragen und entfernt; Leser brauchen es dank ConcurrentHashMap nicht
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Map<Long, Toggle> pending = new ConcurrentHashMap<>();
+    // Hält ein Flush während seiner Transaktion, damit applyPending keine Änderungen entnimmt, die der Flush
+    // schon gelesen hat. Ein Lock statt synchronized, damit virtuelle Threads ihren Träger nicht blockieren.
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile FileChannel journal;
+    // Group Commit: Anzahl der ins Journal geschriebenen Zeilen und wie viele davon bereits dauerhaft gespeichert sind
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong synced = new AtomicLong();
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    public CompletionWriteBehind(EventRepository eventRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${calendar.completion.write-behind.enabled:false}") boolean enabled,
+                                 @Value("${calendar.completion.write-behind.max-pending:10000}") int maxPending,
+                                 @Value("${calendar.completion.write-behind.offer-timeout:1s}") Duration offerTimeout,
+                                 @Value("${calendar.completion.write-behind.journal:data/completion-journal.log}") Path journalPath) {
+        this.eventRepository = eventRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxPending = maxPending;
+        this.offerTimeout = offerTimeout;
+        this.journalPath = journalPath;
+        if (enabled) {
+            recover();
+        }
+    }
+
+    /**
+     * @return true, wenn Änderungen des Erledigungsstatus verzögert geschrieben werden.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Nimmt eine Änderung an und schreibt sie ins Journal. Kehrt erst zurück, wenn sie dort dauerhaft gespeichert ist.
+     * Der Aufrufer muss vorher geprüft haben, dass das Event im Kalender existiert.
+     * @param calendarId Der Kalender des Events.
+     * @param id Die ID des Events.
+     * @param isCompleted Der neue Erledigungsstatus.
+     * @throws ResponseStatusException 503, wenn die Warteschlange auch nach {@code offer-timeout} noch voll ist.
+     */
+    public void enqueue(String calendarId, Long id, boolean isCompleted) {
+        Toggle toggle = new Toggle(calendarId, isCompleted);
+        long line;
+        lock.lock();
+        try {
+            // Eine weitere Änderung desselben Events ersetzt nur die vorige und braucht keinen Platz
+            long remaining = offerTimeout.toNanos();
+            while (!pending.containsKey(id) && pending.size() >= maxPending) {
+                if (remaining <= 0) {
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many pending completion updates");
+                }
+                remaining = notFull.awaitNanos(remaining);
+            }
+            line = appendToJournal("S " + calendarId + " " + id + " " + isCompleted + "\n");
+            pending.put(id, toggle);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for the write-behind queue");
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(line);
+    }
+
+    /**
+     * Schreibt alle ausstehenden Änderungen in einer Transaktion in die Datenbank. Änderungen, die währenddessen
+     * eintreffen, bleiben für den nächsten Flush stehen. Schlägt der Flush fehl, bleiben alle Änderungen stehen.
+     */
+    @Scheduled(fixedDelayString = "${calendar.completion.write-behind.flush-interval:200ms}")
+    public void flush() {
+        if (!enabled || pending.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            Map<Long, Toggle> batch = new HashMap<>(pending);
+            transactionTemplate.executeWithoutResult(status -> write(batch));
+            lock.lock();
+            try {
+                batch.forEach(pending::remove); // Nur, wenn die Änderung nicht inzwischen ersetzt wurde
+                compactJournal();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Schreibt ausstehende Änderungen der Events in der laufenden Transaktion, z.B. vor einem PUT auf dieselben Events,
+     * damit die älteren Änderungen nicht erst danach geschrieben werden und Versionen wie vorhergesagt hochzählen.
+     * Muss die erste Schreiboperation der Transaktion sein: Ein laufender Flush wird abgewartet, und der darf nicht
+     * auf Zeilensperren dieser Transaktion warten. Bei einem Rollback kommen die Änderungen zurück in die Warteschlange.
+     * @param ids Die IDs der Events.
+     */
+    public void applyPending(Collection<Long> ids) {
+        if (!enabled || ids.stream().noneMatch(pending::containsKey)) {
+            return;
+        }
+        Map<Long, Toggle> applied = new HashMap<>();
+        flushLock.lock(); // Kein Flush, der die Änderungen schon gelesen hat, schreibt sie nach dieser Transaktion
+        lock.lock();
+        try {
+            for (Long id : ids) {
+                Toggle toggle = pending.remove(id);
+                if (toggle != null) {
+                    applied.put(id, toggle);
+                }
+            }
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+            flushLock.unlock();
+        }
+        Instant lastModified = Event.modificationTimestamp();
+        applied.forEach((id, toggle) ->
+                eventRepository.updateCompletionStatusByIds(toggle.calendarId(), List.of(id), toggle.isCompleted(), lastModified));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                restoreOrForget(applied, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    /**
+     * Überträgt eine ausstehende Änderung auf ein gelesenes Event.
+     * @param event Das Event aus Cache oder Datenbank; wird nicht verändert.
+     * @return Eine Kopie mit dem neuen Status und der Version nach dem Flush, oder das Event selbst.
+     */
+    public Event applyTo(Event event) {
+        Toggle toggle = pending.get(event.getId());
+        if (toggle == null || !toggle.calendarId().equals(event.getCalendarId())) {
+            return event;
+        }
+        return new Event(event.getId(), event.getTitle(), event.getDescription(), event.getStartDateTime(),
+                event.getEndDateTime(), toggle.isCompleted(), nextVersion(event.getVersion()), event.getRecurrence(),
+                event.getSeriesEnd(), event.getLastModified(), event.getCalendarId());
+    }
+
+    /**
+     * @param calendarId Der Kalender des Events.
+     * @param id Die ID des Events.
+     * @param version Die gespeicherte Version.
+     * @return Die Version nach dem Flush, wenn eine Änderung aussteht, sonst die gespeicherte.
+     */
+    public Long applyToVersion(String calendarId, Long id, Long version) {
+        Toggle toggle = pending.get(id);
+        return toggle != null && toggle.calendarId().equals(calendarId) ? nextVersion(version) : version;
+    }
+
+    /**
+     * Schreibt beim Herunterfahren alle ausstehenden Änderungen, solange die Datenbank noch erreichbar ist.
+     * Gelingt das nicht, bleiben sie im Journal für den nächsten Start.
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Could not flush {} pending completion updates on shutdown, keeping them in {}",
+                    pending.size(), journalPath, e);
+        }
+        lock.lock();
+        try {
+            journal.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Ein UPDATE pro Kalender, Status und bis zu MAX_IDS_PER_UPDATE IDs; danach die Events für die Listener laden
+    private void write(Map<Long, Toggle> batch) {
+        Instant lastModified = Event.modificationTimestamp();
+        Map<String, Map<Boolean, List<Long>>> groups = batch.entrySet().stream()
+                .collect(Collectors.groupingBy(entry -> entry.getValue().calendarId(),
+                        Collectors.groupingBy(entry -> entry.getValue().isCompleted(),
+                                Collectors.mapping(Map.Entry::getKey, Collectors.toList()))));
+        groups.forEach((calendarId, byStatus) -> byStatus.forEach((isCompleted, ids) -> {
+            for (int from = 0; from < ids.size(); from += MAX_IDS_PER_UPDATE) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_UPDATE));
+                eventRepository.updateCompletionStatusByIds(calendarId, chunk, isCompleted, lastModified);
+                // Inzwischen gelöschte Events fehlen hier und werden übersprungen
+                eventRepository.findByCalendarIdAndIdIn(calendarId, chunk)
+                        .forEach(event -> eventPublisher.publishEvent(EventChange.updated(event)));
+            }
+        }));
+    }
+
+    // Nach dem Commit sind die Änderungen geschrieben und werden im Journal gestrichen (außer, es kam schon eine
+    // neuere nach); nach einem Rollback stehen sie wieder aus, sofern sie nicht inzwischen ersetzt wurden
+    private void restoreOrForget(Map<Long, Toggle> applied, boolean committed) {
+        lock.lock();
+        try {
+            applied.forEach((id, toggle) -> {
+                if (committed) {
+                    if (!pending.containsKey(id)) {
+                        appendToJournal("C " + id + "\n");
+                    }
+                } else if (pending.putIfAbsent(id, toggle) == null) {
+                    appendToJournal("S " + toggle.calendarId() + " " + id + " " + toggle.isCompleted() + "\n");
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(appended.get());
+    }
+
+    // Liest das Journal des letzten Laufs; eine unvollständige letzte Zeile (Absturz beim Schreiben) wird ignoriert
+    private void recover() {
+        try {
+            Files.createDirectories(journalPath.toAbsolutePath().getParent());
+            if (Files.exists(journalPath)) {
+                for (String line : Files.readAllLines(journalPath, StandardCharsets.UTF_8)) {
+                    String[] parts = line.split(" ");
+                    if (parts.length == 4 && parts[0].equals("S")) {
+                        pending.put(Long.parseLong(parts[2]), new Toggle(parts[1], Boolean.parseBoolean(parts[3])));
+                    } else if (parts.length == 2 && parts[0].equals("C")) {
+                        pending.remove(Long.parseLong(parts[1]));
+                    } else {
+                        log.warn("Skipping malformed line in completion journal {}: '{}'", journalPath, line);
+                    }
+                }
+                if (!pending.isEmpty()) {
+                    log.info("Recovered {} pending completion updates from {}", pending.size(), journalPath);
+                }
+            }
+            lock.lock();
+            try {
+                compactJournal();
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open completion journal " + journalPath, e);
+        }
+    }
+
+    // Ersetzt das Journal atomar durch die noch ausstehenden Änderungen, damit es nicht unbegrenzt wächst
+    private void compactJournal() {
+        Path compacted = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+        try {
+            StringBuilder lines = new StringBuilder();
+            pending.forEach((id, toggle) ->
+                    lines.append("S ").append(toggle.calendarId()).append(' ').append(id).append(' ')
+                            .append(toggle.isCompleted()).append('\n'));
+            try (FileChannel channel = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8)));
+                channel.force(false);
+            }
+            if (journal != null) {
+                journal.close();
+            }
+            Files.move(compacted, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journal = FileChannel.open(journalPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            // Das kompaktierte Journal enthält alle ausstehenden Änderungen und ist bereits synchronisiert
+            synced.accumulateAndGet(appended.get(), Math::max);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compact completion journal " + journalPath, e);
+        }
+    }
+
+    // Schreibt eine Zeile unter dem Lock, aber ohne fsync; liefert ihre laufende Nummer für awaitDurable
+    private long appendToJournal(String line) {
+        try {
+            journal.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write completion journal " + journalPath, e);
+        }
+        return appended.incrementAndGet();
+    }
+
+    // Wartet, bis die Zeile mit dieser Nummer dauerhaft gespeichert ist. Ein fsync sichert alle bis dahin
+    // geschriebenen Zeilen; wer währenddessen wartet, findet seine Zeile danach meist schon gesichert vor.
+    private void awaitDurable(long line) {
+        if (synced.get() >= line) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (synced.get() >= line) {
+                return;
+            }
+            long target = appended.get();
+            try {
+                journal.force(false);
+            } catch (ClosedChannelException e) {
+                // Inzwischen kompaktiert; danach ist die Zeile im neuen Journal enthalten und bereits gesichert.
+                // Die Kompaktierung läuft unter dem Lock, unter ihm ist das Journal also vollständig ausgetauscht.
+                lock.lock();
+                try {
+                    target = appended.get();
+                    if (synced.get() < line) {
+                        journal.force(false);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            synced.accumulateAndGet(target, Math::max);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not sync completion journal " + journalPath, e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private static Long nextVersion(Long version) {
+        return (version != null ? version : 0L) + 1;
+    }
+
+    private record Toggle(String calendarId, boolean isCompleted) {
+    }
+}
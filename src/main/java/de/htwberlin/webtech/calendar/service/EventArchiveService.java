@@ -0,0 +1,277 @@
+package de.htwberlin.webtech.calendar.service;
+
+import de.htwberlin.webtech.calendar.model.ArchivedEvent;
+import de.htwberlin.webtech.calendar.model.DailyEventStats;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventFilter;
+import de.htwberlin.webtech.calendar.model.SchedulerLease;
+import de.htwberlin.webtech.calendar.repository.ArchivedEventRepository;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import de.htwberlin.webtech.calendar.repository.SchedulerLeaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Verschiebt erledigte Einzeltermine, die länger als {@code calendar.archive.min-age} vorbei sind, regelmäßig
+ * aus der Tabelle event in die Tabelle event_archive ({@link ArchivedEvent}), damit Tabelle und Indizes der
+ * laufenden Abfragen nicht mit jedem Jahr wachsen.
+ * Jeder Durchlauf arbeitet in Batches zu je einer Transaktion (INSERT ins Archiv, DELETE aus event) und pausiert
+ * zwischen den Batches, um die Datenbank nicht zu blockieren. Ein abgebrochener Durchlauf hinterlässt nur vollständig
+ * verschobene Batches; der nächste Durchlauf setzt ohne gespeicherten Fortschritt dort fort, weil er einfach die
+ * verbliebenen Kandidaten liest.
+ * Bei mehreren Instanzen archiviert nur die, die die {@link SchedulerLease} "archive" hält. Sie übernimmt die Leitung zu
+ * Beginn eines Durchlaufs, verlängert sie vor jedem weiteren Batch und gibt sie am Ende frei; ein einzelner Batch samt
+ * Pause muss deshalb kürzer als {@code calendar.archive.lease-duration} sein.
+ * Lesend stellt der Dienst archivierte Events für {@link EventService#getFilteredEvents} und die Statistiken bereit,
+ * aber nur, wenn der abgefragte Bereich vor den Horizont reicht (das späteste Ende im Archiv). Abfragen auf
+ * aktuelle Zeiträume lesen das Archiv also nie. Den Horizont liest jede Instanz nach {@code calendar.archive.horizon-ttl}
+ * neu aus der Datenbank, damit sie auch Batches anderer Instanzen findet; eigene Batches verschieben ihn sofort nach dem
+ * Commit.
+ * Aktivierung über {@code calendar.archive.enabled=true}.
+ */
+@Service
+public class EventArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(EventArchiveService.class);
+
+    static final String LEASE_NAME = "archive";
+
+    private final EventRepository eventRepository;
+    private final ArchivedEventRepository archiveRepository;
+    private final SchedulerLeaseRepository leaseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration minAge;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final Duration leaseDuration;
+    private final String owner;
+
+    // Spätestes Ende im Archiv (leer bei leerem Archiv) und bis wann (System.nanoTime) der Wert gilt
+    private record Horizon(Optional<LocalDateTime> end, long validUntil) {
+
+        // Das Archiv wächst nur; ein gleichzeitig gelesener älterer Wert darf den Horizont nicht zurücksetzen
+        Horizon merge(Horizon other) {
+            boolean later = end.isEmpty() || other.end.isPresent() && other.end.get().isAfter(end.get());
+            return new Horizon(later ? other.end : end, validUntil - other.validUntil >= 0 ? validUntil : other.validUntil);
+        }
+    }
+
+    private final Duration horizonTtl;
+    // null, solange der Horizont noch nicht gelesen wurde
+    private final AtomicReference<Horizon> horizon = new AtomicReference<>();
+
+    public EventArchiveService(EventRepository eventRepository,
+                               ArchivedEventRepository archiveRepository,
+                               SchedulerLeaseRepository leaseRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${calendar.archive.enabled:false}") boolean enabled,
+                               @Value("${calendar.archive.min-age:365d}") Duration minAge,
+                               @Value("${calendar.archive.batch-size:500}") int batchSize,
+                               @Value("${calendar.archive.batch-pause:200ms}") Duration batchPause,
+                               @Value("${calendar.archive.horizon-ttl:30s}") Duration horizonTtl,
+                               @Value("${calendar.archive.lease-duration:5m}") Duration leaseDuration,
+                               @Value("${calendar.archive.instance-id:${random.uuid}}") String owner) {
+        this.eventRepository = eventRepository;
+        this.archiveRepository = archiveRepository;
+        this.leaseRepository = leaseRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+        this.horizonTtl = horizonTtl;
+        this.leaseDuration = leaseDuration;
+        this.owner = owner;
+    }
+
+    /**
+     * Archiviert regelmäßig alle Kandidaten, Batch für Batch, bis keine mehr übrig sind. Hält eine andere Instanz
+     * die Leitung, entfällt der Durchlauf.
+     */
+    @Scheduled(fixedDelayString = "${calendar.archive.interval:1h}")
+    public void archiveCompleted() {
+        if (!enabled || !acquireLease(Instant.now())) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(minAge);
+        long archived = 0;
+        try {
+            int moved;
+            do {
+                moved = archiveBatch(cutoff);
+                archived += moved;
+                if (moved == batchSize) {
+                    Thread.sleep(batchPause.toMillis());
+                    if (!renewLease(Instant.now().plus(leaseDuration))) {
+                        log.warn("Instance {} lost the archive lease; stopping this run", owner);
+                        break;
+                    }
+                }
+            } while (moved == batchSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Beim Herunterfahren; der nächste Start setzt fort
+        } finally {
+            releaseLease();
+        }
+        if (archived > 0) {
+            log.info("Archived {} completed events that ended before {}", archived, cutoff);
+        }
+    }
+
+    /**
+     * Verschiebt einen Batch von Kandidaten in einer Transaktion ins Archiv.
+     * Die Lese-Komponenten erfahren davon nach dem Commit über {@link EventChange.Type#ARCHIVED}, der Horizont
+     * wird ebenfalls erst nach dem Commit verschoben.
+     * @param cutoff Nur Events, die vor diesem Zeitpunkt enden.
+     * @return Die Anzahl der verschobenen Events.
+     */
+    int archiveBatch(LocalDateTime cutoff) {
+        List<Event> moved = transactionTemplate.execute(status -> {
+            List<Event> events = eventRepository.findArchivable(cutoff, Limit.of(batchSize));
+            if (events.isEmpty()) {
+                return events;
+            }
+            Instant archivedAt = Event.modificationTimestamp();
+            archiveRepository.saveAll(events.stream().map(event -> ArchivedEvent.of(event, archivedAt)).toList());
+            eventRepository.deleteAllByIdInBatch(events.stream().map(Event::getId).toList());
+            events.forEach(event -> eventPublisher.publishEvent(EventChange.archived(event.getId(), event.getCalendarId())));
+            return events;
+        });
+        if (moved == null || moved.isEmpty()) {
+            return 0;
+        }
+        // Aufsteigend nach Ende gelesen, bestimmt das letzte Event den neuen Horizont
+        advanceHorizon(moved.get(moved.size() - 1).getEndDateTime());
+        return moved.size();
+    }
+
+    /**
+     * Prüft, ob archivierte Events zum Ergebnis einer Filterabfrage gehören können. Sie enden alle spätestens
+     * am Horizont, passen also nur, wenn der Bereich vorher beginnt (oder offen ist) und nicht nur offene Events
+     * gesucht werden.
+     * @param filter Die Filterkriterien.
+     * @return true, wenn das Archiv gelesen werden muss.
+     */
+    public boolean reachesInto(EventFilter filter) {
+        if (Boolean.FALSE.equals(filter.isCompleted())) {
+            return false;
+        }
+        return reachesInto(filter.startDate());
+    }
+
+    /**
+     * @param from Beginn des abgefragten Bereichs, oder null für unbeschränkt.
+     * @return true, wenn das Archiv Events enthält, die nach diesem Zeitpunkt enden können.
+     */
+    public boolean reachesInto(LocalDate from) {
+        Optional<LocalDateTime> current = horizon();
+        return current.isPresent() && (from == null || !current.get().isBefore(from.atStartOfDay()));
+    }
+
+    /**
+     * Liefert die archivierten Events, die zur Filterabfrage passen. Nur aufrufen, wenn {@link #reachesInto} true ist.
+     * @param filter Die Filterkriterien.
+     * @return Die passenden Events in beliebiger Reihenfolge.
+     */
+    public List<Event> findArchived(EventFilter filter) {
+        LocalDateTime from = filter.startDate() != null ? filter.startDate().atStartOfDay() : null;
+        LocalDateTime to = filter.endDate() != null ? filter.endDate().plusDays(1).atStartOfDay() : null;
+        return archiveRepository.findBetween(filter.calendarId(), from, to).stream()
+                .map(ArchivedEvent::toEvent)
+                .filter(filter::matches)
+                .toList();
+    }
+
+    /**
+     * @param calendarId Der Kalender.
+     * @param id Die ID des Events.
+     * @return Das archivierte Event, oder leer, wenn es nicht im Archiv des Kalenders liegt.
+     */
+    public Optional<Event> findById(String calendarId, Long id) {
+        if (horizon().isEmpty()) {
+            return Optional.empty();
+        }
+        return archiveRepository.findByIdAndCalendarId(id, calendarId).map(ArchivedEvent::toEvent);
+    }
+
+    /**
+     * Wie {@link ArchivedEventRepository#sumByDay}, liest das Archiv aber nur, wenn der Bereich hineinreicht.
+     * @param calendarId Der Kalender.
+     * @param from Erster Tag.
+     * @param to Letzter Tag (einschließlich).
+     * @return Eine Zeile pro Tag mit mindestens einem archivierten Event.
+     */
+    public List<DailyEventStats> sumByDay(String calendarId, LocalDate from, LocalDate to) {
+        if (!reachesInto(from)) {
+            return List.of();
+        }
+        return archiveRepository.sumByDay(calendarId, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+
+    // Übernimmt eine abgelaufene Leitung oder legt sie beim ersten Start an
+    private boolean acquireLease(Instant now) {
+        Instant expiresAt = now.plus(leaseDuration);
+        if (leaseRepository.takeOver(LEASE_NAME, owner, expiresAt, now) == 1) {
+            return true;
+        }
+        if (leaseRepository.existsById(LEASE_NAME)) {
+            return false;
+        }
+        try {
+            leaseRepository.saveAndFlush(new SchedulerLease(LEASE_NAME, owner, expiresAt));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false; // Eine andere Instanz hat die Zeile gleichzeitig angelegt
+        }
+    }
+
+    private boolean renewLease(Instant expiresAt) {
+        return leaseRepository.renew(LEASE_NAME, owner, expiresAt, null) == 1;
+    }
+
+    // Gibt die Leitung sofort frei, damit der nächste Durchlauf auf jeder Instanz starten kann
+    private void releaseLease() {
+        try {
+            renewLease(Instant.now());
+        } catch (RuntimeException e) {
+            log.warn("Could not release the archive lease; another instance takes over after it expires", e);
+        }
+    }
+
+    // Liest den Horizont beim ersten Zugriff und nach Ablauf von horizon-ttl neu, um Batches anderer Instanzen zu sehen
+    private Optional<LocalDateTime> horizon() {
+        Horizon current = horizon.get();
+        long now = System.nanoTime();
+        if (current == null || now - current.validUntil() >= 0) {
+            Horizon read = new Horizon(Optional.ofNullable(archiveRepository.findMaxEndDateTime()), now + horizonTtl.toNanos());
+            current = horizon.accumulateAndGet(read, (previous, next) -> previous == null ? next : previous.merge(next));
+        }
+        return current.end();
+    }
+
+    // Nach dem Commit eines eigenen Batches; ein noch nicht gelesener Horizont gilt sofort als abgelaufen
+    private void advanceHorizon(LocalDateTime batchEnd) {
+        Horizon advanced = new Horizon(Optional.of(batchEnd), System.nanoTime());
+        horizon.accumulateAndGet(advanced, (previous, next) -> previous == null ? next : previous.merge(next));
+    }
+}
@@ -0,0 +1,39 @@
+package de.htwberlin.webtech.calendar.service;
+
+import de.htwberlin.webtech.calendar.model.Event;
+
+/**
+ * Anwendungsereignis, das der {@link EventService} nach jeder Schreiboperation veröffentlicht.
+ * Lese-Komponenten (z.B. In-Memory-Indizes) halten sich darüber synchron, ohne dass der Service sie kennen muss.
+ * Listener sollten {@code @TransactionalEventListener} verwenden, damit sie erst nach dem Commit reagieren.
+ * @param type Art der Änderung.
+ * @param eventId ID des geänderten Events.
+ * @param calendarId Kalender des geänderten Events.
+ * @param event Zustand des Events nach der Änderung, oder null bei {@link Type#DELETED} und {@link Type#ARCHIVED}.
+ */
+public record EventChange(Type type, Long eventId, String calendarId, Event event) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        // Aus der Tabelle event ins Archiv verschoben (siehe EventArchiveService); für Indizes wie gelöscht
+        ARCHIVED
+    }
+
+    public static EventChange created(Event event) {
+        return new EventChange(Type.CREATED, event.getId(), event.getCalendarId(), event);
+    }
+
+    public static EventChange updated(Event event) {
+        return new EventChange(Type.UPDATED, event.getId(), event.getCalendarId(), event);
+    }
+
+    public static EventChange deleted(Long eventId, String calendarId) {
+        return new EventChange(Type.DELETED, eventId, calendarId, null);
+    }
+
+    public static EventChange archived(Long eventId, String calendarId) {
+        return new EventChange(Type.ARCHIVED, eventId, calendarId, null);
+    }
+}
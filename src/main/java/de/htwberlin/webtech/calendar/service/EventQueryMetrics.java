@@ -0,0 +1,46 @@
+package de.htwberlin.webtech.calendar.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Zählt, wie viele Events eine gefilterte Abfrage ({@link EventService#getFilteredEvents}) zusammenstellt,
+ * getrennt nach Quelle: {@code source=database} für Abfragen, die der Cache nicht beantworten konnte und die
+ * Entities aus der Datenbank laden, {@code source=index} für Abfragen aus dem Intervall-Index.
+ * Berechnete Vorkommen von Serien und archivierte Events sind enthalten.
+ */
+@Component
+public class EventQueryMetrics {
+
+    private final DistributionSummary database;
+    private final DistributionSummary index;
+
+    public EventQueryMetrics(MeterRegistry meterRegistry) {
+        this.database = summary(meterRegistry, "database");
+        this.index = summary(meterRegistry, "index");
+    }
+
+    /**
+     * @param events Die Anzahl der aus der Datenbank geladenen Events.
+     */
+    public void recordDatabase(int events) {
+        database.record(events);
+    }
+
+    /**
+     * @param events Die Anzahl der aus dem Intervall-Index übernommenen Events.
+     */
+    public void recordIndex(int events) {
+        index.record(events);
+    }
+
+    private static DistributionSummary summary(MeterRegistry meterRegistry, String source) {
+        return DistributionSummary.builder("calendar.events.loaded")
+                .description("Events assembled per filtered query")
+                .baseUnit("events")
+                .tag("source", source)
+                .serviceLevelObjectives(10, 100, 1_000, 10_000, 100_000)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,55 @@
+package de.htwberlin.webtech.calendar.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Revisionszähler über den gesamten Event-Bestand, aus dem das ETag der Listenabfragen gebildet wird.
+ * Jede Schreiboperation erhöht den Zähler, so dass eine unveränderte Revision ohne Datenbankabfrage
+ * mit 304 Not Modified beantwortet werden kann.
+ * Der Zähler wird erst nach dem Commit erhöht: Ein Leser, der die Revision vor seiner Abfrage liest,
+ * kann dadurch nie neuere Revisionen mit älteren Daten kennzeichnen.
+ * Der Zähler lebt im Speicher dieser Instanz. Schreibzugriffe anderer Instanzen erhöhen ihn erst, wenn der
+ * {@link de.htwberlin.webtech.calendar.changes.EventChangePoller} sie nachgeführt hat. Die Revision enthält eine
+ * zufällige Kennung der Instanz: Ein ETag einer anderen Instanz (oder von vor einem Neustart) passt nie, auch wenn
+ * deren Zähler zufällig denselben Stand hat.
+ * Zusätzlich wechselt die Revision nach jedem Ablauf von {@code calendar.cache.expire-after-write}, wie die Caches
+ * verfallen. Ohne Poller (oder wenn er eine Änderung verpasst) gibt es so höchstens ein Intervall lang 304-Antworten
+ * auf einen veralteten Stand.
+ */
+@Component
+public class EventRevision {
+
+    private final String instance = Long.toUnsignedString(UUID.randomUUID().getMostSignificantBits(), 36);
+    private final AtomicLong revision = new AtomicLong();
+    private final long expireAfterWriteMillis;
+
+    public EventRevision(@Value("${calendar.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.expireAfterWriteMillis = Math.max(1, expireAfterWrite.toMillis());
+    }
+
+    /**
+     * @return Die aktuelle Revision des Event-Bestands, z.B. "3w5e11264sgsf-2979541-42".
+     */
+    public String current() {
+        return current(System.currentTimeMillis());
+    }
+
+    String current(long nowMillis) {
+        return instance + "-" + nowMillis / expireAfterWriteMillis + "-" + revision.get();
+    }
+
+    /**
+     * Erhöht die Revision nach jeder erfolgreichen Schreiboperation, eigener wie nachgeführter.
+     * @param change Die Änderung, die der EventService oder der EventChangePoller veröffentlicht hat.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChange(EventChange change) {
+        revision.incrementAndGet();
+    }
+}
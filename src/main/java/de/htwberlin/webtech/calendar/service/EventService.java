@@ -1,145 +1,548 @@
 package de.htwberlin.webtech.calendar.service;
 
+import de.htwberlin.webtech.calendar.cache.EventCache;
+import de.htwberlin.webtech.calendar.index.EventIntervalIndex;
+import de.htwberlin.webtech.calendar.index.EventSearchIndex;
+import de.htwberlin.webtech.calendar.model.BatchItemResult;
 import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventCursor;
+import de.htwberlin.webtech.calendar.model.EventFilter;
+import de.htwberlin.webtech.calendar.model.EventTombstone;
+import de.htwberlin.webtech.calendar.model.RangeMode;
+import de.htwberlin.webtech.calendar.model.SparseEvent;
 import de.htwberlin.webtech.calendar.repository.EventRepository;
-import jakarta.persistence.criteria.Predicate;
-import org.springframework.data.jpa.domain.Specification;
+import de.htwberlin.webtech.calendar.repository.EventSpecifications;
+import de.htwberlin.webtech.calendar.repository.EventTombstoneRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service // Markiert diese Klasse als Spring Service, der Geschäftslogik enthält
 public class EventService {
 
+    // Obergrenze für die Seitengröße der Keyset-Pagination, damit ein Request nicht den ganzen Heap belegt
+    public static final int MAX_PAGE_SIZE = 1000;
+    // Obergrenze für die Anzahl der Treffer einer Volltextsuche
+    public static final int MAX_SEARCH_RESULTS = 100;
+    // Obergrenze für die Anzahl der Elemente in einem Batch-Request
+    public static final int MAX_BATCH_SIZE = 1000;
+    // Obergrenze für die Anzahl der Vorkommen, die eine Serie zu einer Abfrage beiträgt (z.B. täglich über Jahre)
+    public static final int MAX_OCCURRENCES_PER_SERIES = 10_000;
+    // Sortierung der Ergebnisse des Intervall-Index
+    private static final Comparator<Event> BY_START_AND_ID =
+            Comparator.comparing(Event::getStartDateTime).thenComparing(Event::getId);
+
     private final EventRepository eventRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher; // Meldet Änderungen an Lese-Komponenten wie den Intervall-Index
+    private final EventIntervalIndex eventIntervalIndex;
+    private final EventSearchIndex eventSearchIndex;
+    private final EventRevision eventRevision;
+    private final EventCache eventCache; // Cacht Lesezugriffe; wird über EventChange-Ereignisse invalidiert
+    private final EventTombstoneRepository tombstoneRepository; // Merkt sich Löschungen für GET /events/sync
+    private final EventArchiveService eventArchiveService; // Liest archivierte Events, wenn eine Abfrage hineinreicht
+    private final CompletionWriteBehind completionWriteBehind; // Optional verzögertes Schreiben des Erledigungsstatus
+    private final EventQueryMetrics eventQueryMetrics; // Anzahl der Events pro gefilterter Abfrage
 
     // Konstruktor für Dependency Injection: Spring injiziert automatisch eine Instanz von EventRepository
-    public EventService(EventRepository eventRepository) {
+    public EventService(EventRepository eventRepository,
+                        EntityManager entityManager,
+                        ApplicationEventPublisher eventPublisher,
+                        EventIntervalIndex eventIntervalIndex,
+                        EventSearchIndex eventSearchIndex,
+                        EventRevision eventRevision,
+                        EventCache eventCache,
+                        EventTombstoneRepository tombstoneRepository,
+                        EventArchiveService eventArchiveService,
+                        CompletionWriteBehind completionWriteBehind,
+                        EventQueryMetrics eventQueryMetrics) {
         this.eventRepository = eventRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.eventIntervalIndex = eventIntervalIndex;
+        this.eventSearchIndex = eventSearchIndex;
+        this.eventRevision = eventRevision;
+        this.eventCache = eventCache;
+        this.tombstoneRepository = tombstoneRepository;
+        this.eventArchiveService = eventArchiveService;
+        this.completionWriteBehind = completionWriteBehind;
+        this.eventQueryMetrics = eventQueryMetrics;
     }
 
     /**
      * Erstellt ein neues Event in der Datenbank.
+     * @param calendarId Der Kalender, in dem das Event angelegt wird.
      * @param event Das zu speichernde Event-Objekt.
      * @return Das gespeicherte Event mit der zugewiesenen ID.
      */
-    public Event createEvent(Event event) {
-        return eventRepository.save(event);
+    public Event createEvent(String calendarId, Event event) {
+        event.setId(null); // IDs vergibt immer die Datenbank-Sequenz
+        event.setCalendarId(calendarId);
+        Event savedEvent = eventRepository.save(event);
+        eventPublisher.publishEvent(EventChange.created(savedEvent));
+        return savedEvent;
+    }
+
+    /**
+     * Legt mehrere Events in einer Transaktion an.
+     * Dank Sequenz-IDs und hibernate.jdbc.batch_size werden die INSERTs als JDBC-Batch gesendet.
+     * @param calendarId Der Kalender, in dem die Events angelegt werden.
+     * @param events Die anzulegenden, bereits validierten Events.
+     * @return Die gespeicherten Events mit zugewiesenen IDs, in derselben Reihenfolge.
+     */
+    @Transactional // Alle Events werden gemeinsam gespeichert oder gar nicht
+    public List<Event> createEvents(String calendarId, List<Event> events) {
+        events.forEach(event -> {
+            event.setId(null); // IDs vergibt immer die Datenbank-Sequenz
+            event.setCalendarId(calendarId);
+        });
+        List<Event> savedEvents = eventRepository.saveAll(events);
+        savedEvents.forEach(event -> eventPublisher.publishEvent(EventChange.created(event)));
+        return savedEvents;
     }
 
     /**
-     * Ruft alle vorhandenen Events aus der Datenbank ab.
-     * @return Eine Liste aller Events.
+     * Aktualisiert mehrere Events in einer Transaktion.
+     * Alle betroffenen Events werden mit einem einzigen SELECT geladen; die Änderungen schreibt Hibernate
+     * beim Commit als gebündelte UPDATEs. IDs, die im Kalender nicht vorhanden sind, werden als 404 gemeldet.
+     * @param calendarId Der Kalender, auf den sich die Operation bezieht.
+     * @param events Die Events mit ihren neuen Daten, jeweils mit gesetzter ID.
+     * @return Ein Ergebnis pro Event, in derselben Reihenfolge.
      */
-    public List<Event> getAllEvents() {
-        return eventRepository.findAll();
+    @Transactional
+    public List<BatchItemResult> updateEvents(String calendarId, List<Event> events) {
+        List<Long> ids = events.stream().map(Event::getId).toList();
+        completionWriteBehind.applyPending(ids); // Ältere, noch ausstehende Statusänderungen zuerst
+        Map<Long, Event> existing = eventRepository.findByCalendarIdAndIdIn(calendarId, ids).stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
+
+        List<BatchItemResult> results = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            Event updatedEvent = events.get(i);
+            Event event = existing.get(updatedEvent.getId());
+            if (event == null) {
+                results.add(BatchItemResult.failure(i, HttpStatus.NOT_FOUND, updatedEvent.getId(),
+                        "Event not found with ID: " + updatedEvent.getId()));
+                continue;
+            }
+            // Verwaltete Entität ändern; das UPDATE entsteht durch Dirty Checking beim Flush
+            event.setTitle(updatedEvent.getTitle());
+            event.setDescription(updatedEvent.getDescription());
+            event.setStartDateTime(updatedEvent.getStartDateTime());
+            event.setEndDateTime(updatedEvent.getEndDateTime());
+            event.setIsCompleted(updatedEvent.getIsCompleted());
+            event.setRecurrence(updatedEvent.getRecurrence());
+            // Schon hier statt erst in @PreUpdate, weil die Listener den neuen Zustand brauchen
+            event.updateSeriesEnd();
+            event.touch();
+            eventPublisher.publishEvent(EventChange.updated(event));
+            results.add(BatchItemResult.success(i, HttpStatus.OK, event));
+        }
+        return results;
     }
 
     /**
-     * Ruft ein einzelnes Event anhand seiner ID ab.
+     * Löscht mehrere Events mit einer einzigen DELETE-Anweisung.
+     * Vorher wird nur geprüft, welche IDs existieren (ohne die Events zu laden); nicht vorhandene IDs werden als 404 gemeldet.
+     * Für jedes gelöschte Event wird ein {@link EventTombstone} angelegt (als gebündelte INSERTs).
+     * @param calendarId Der Kalender, auf den sich die Operation bezieht.
+     * @param ids Die IDs der zu löschenden Events.
+     * @return Ein Ergebnis pro ID, in derselben Reihenfolge.
+     */
+    @Transactional
+    public List<BatchItemResult> deleteEvents(String calendarId, List<Long> ids) {
+        Set<Long> existingIds = eventRepository.findExistingIds(calendarId, ids);
+        if (!existingIds.isEmpty()) {
+            eventRepository.deleteAllByIdInBatch(existingIds); // Nur IDs dieses Kalenders, siehe findExistingIds
+            Instant deletedAt = Event.modificationTimestamp();
+            tombstoneRepository.saveAll(existingIds.stream().map(id -> new EventTombstone(id, calendarId, deletedAt)).toList());
+        }
+
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (existingIds.contains(id)) {
+                results.add(BatchItemResult.deleted(i, id));
+            } else {
+                results.add(BatchItemResult.failure(i, HttpStatus.NOT_FOUND, id, "Event not found with ID: " + id));
+            }
+        }
+        existingIds.forEach(id -> eventPublisher.publishEvent(EventChange.deleted(id, calendarId)));
+        return results;
+    }
+
+    /**
+     * Ruft alle vorhandenen Events eines Kalenders aus der Datenbank ab.
+     * @param calendarId Der Kalender, auf den sich die Operation bezieht.
+     * @return Eine Liste aller Events des Kalenders.
+     */
+    public List<Event> getAllEvents(String calendarId) {
+        return eventRepository.findByCalendarId(calendarId);
+    }
+
+    /**
+     * Ruft eine Seite von Events per Keyset-Pagination ab, sortiert nach (startDateTime, id).
+     * @param calendarId Der Kalender, auf den sich die Operation bezieht.
+     * @param after Cursor auf das letzte Event der vorherigen Seite, oder null für die erste Seite.
+     * @param limit Maximale Anzahl der Events auf der Seite (wird auf {@link #MAX_PAGE_SIZE} begrenzt).
+     * @return Die Events der angeforderten Seite.
+     */
+    public List<Event> getEventsPage(String calendarId, EventCursor after, int limit) {
+        Limit pageLimit = Limit.of(Math.min(limit, MAX_PAGE_SIZE));
+        if (after == null) {
+            return eventRepository.findFirstPage(calendarId, pageLimit);
+        }
+        return eventRepository.findPageAfter(calendarId, after.startDateTime(), after.id(), pageLimit);
+    }
+
+    /**
+     * Übergibt alle Events nacheinander an den Consumer, ohne sie gesammelt im Speicher zu halten.
+     * Jedes Event wird nach der Verarbeitung aus dem Persistence Context entfernt,
+     * sodass der Speicherverbrauch unabhängig von der Tabellengröße konstant bleibt.
+     * @param calendarId Der Kalender, auf den sich die Operation bezieht.
+     * @param consumer Empfänger der Events, z.B. ein Writer für die HTTP-Antwort.
+     */
+    @Transactional(readOnly = true) // Der Stream muss innerhalb einer Transaktion gelesen werden
+    public void exportEvents(String calendarId, Consumer<Event> consumer) {
+        try (Stream<Event> events = eventRepository.streamByCalendarOrdered(calendarId)) {
+            events.forEach(event -> {
+                consumer.accept(event);
+                entityManager.detach(event);
+            });
+        }
+    }
+
+    /**
+     * Ruft ein einzelnes Event anhand seiner ID ab, bevorzugt aus dem {@link EventCache}.
+     * Fehlt es in der Tabelle event, wird im Archiv nachgesehen (siehe {@link EventArchiveService}).
+     * Eine noch nicht geschriebene Statusänderung aus dem {@link CompletionWriteBehind} ist bereits enthalten.
+     * @param calendarId Der Kalender, auf den sich die Operation bezieht.
      * @param id Die ID des abzurufenden Events.
-     * @return Ein Optional, das das Event enthält, falls es gefunden wurde.
+     * @return Ein Optional, das das Event enthält, falls es im Kalender gefunden wurde.
+     */
+    public Optional<Event> getEventById(String calendarId, Long id) {
+        Optional<Event> event = findActiveEvent(calendarId, id);
+        if (completionWriteBehind.isEnabled()) {
+            event = event.map(completionWriteBehind::applyTo);
+        }
+        return event.or(() -> eventArchiveService.findById(calendarId, id));
+    }
+
+    // Das Event aus dem Cache bzw. der Tabelle event, ohne Archiv und ausstehende Statusänderungen
+    private Optional<Event> findActiveEvent(String calendarId, Long id) {
+        // Der Cache ist nach ID geordnet; ein Event eines anderen Kalenders gilt als nicht vorhanden
+        return eventCache.getById(id, eventId -> eventRepository.findByIdAndCalendarId(eventId, calendarId))
+                .filter(event -> calendarId.equals(event.getCalendarId()));
+    }
+
+    /**
+     * Ruft nur die Version eines Events ab, z.B. um einen If-None-Match-Header ohne Laden des Events zu prüfen.
+     * @param calendarId Der Kalender, auf den sich die Operation bezieht.
+     * @param id Die ID des Events.
+     * @return Die aktuelle Version, oder ein leeres Optional, wenn das Event weder in der Tabelle event
+     *         noch im Archiv existiert.
      */
-    public Optional<Event> getEventById(Long id) {
-        return eventRepository.findById(id);
+    public Optional<Long> getEventVersion(String calendarId, Long id) {
+        Optional<Long> version = eventRepository.findVersionById(calendarId, id);
+        if (completionWriteBehind.isEnabled()) {
+            version = version.map(current -> completionWriteBehind.applyToVersion(calendarId, id, current));
+        }
+        return version.or(() -> eventArchiveService.findById(calendarId, id)
+                        .map(event -> event.getVersion() != null ? event.getVersion() : 0L));
     }
 
     /**
-     * Aktualisiert ein vorhandenes Event.
+     * Liefert die aktuelle Revision des gesamten Event-Bestands; sie ändert sich nach jeder Schreiboperation.
+     * Muss vor der eigentlichen Abfrage gelesen werden, wenn daraus ein ETag gebildet wird.
+     * @return Die aktuelle Revision.
+     */
+    public String getRevision() {
+        return eventRevision.current();
+    }
+
+    /**
+     * Aktualisiert ein vorhandenes Event mit einer einzigen UPDATE-Anweisung.
+     * Ob das Event existiert, ergibt sich aus der Anzahl der geänderten Zeilen.
      * Wirft eine ResponseStatusException (HTTP 404), wenn das Event nicht gefunden wird.
+     * @param calendarId Der Kalender, auf den sich die Operation bezieht.
      * @param id Die ID des zu aktualisierenden Events.
      * @param updatedEvent Das Event-Objekt mit den aktualisierten Daten.
      * @return Das aktualisierte Event.
      */
     @Transactional // Stellt sicher, dass die Operation in einer Transaktion ausgeführt wird
-    public Event updateEvent(Long id, Event updatedEvent) {
-        if (!eventRepository.existsById(id)) {
+    public Event updateEvent(String calendarId, Long id, Event updatedEvent) {
+        return updateEvent(calendarId, id, updatedEvent, null);
+    }
+
+    /**
+     * Aktualisiert ein vorhandenes Event, optional nur, wenn es noch die erwartete Version hat (optimistisches Locking).
+     * Mit erwarteter Version genügt eine einzige UPDATE-Anweisung. Ohne erwartete Version wird die Version aus dem
+     * {@link EventCache} als erwartete Version verwendet, so dass meist ebenfalls eine Anweisung genügt. Fehlt das Event
+     * im Cache oder ist seine Version dort veraltet, folgt ein unbedingtes UPDATE und die neue Version wird mit einer
+     * zweiten Anweisung gelesen.
+     * Wirft eine ResponseStatusException mit HTTP 404, wenn das Event nicht gefunden wird,
+     * und mit HTTP 412, wenn es inzwischen von jemand anderem geändert wurde.
+     * @param calendarId Der Kalender, auf den sich die Operation bezieht.
+     * @param id Die ID des zu aktualisierenden Events.
+     * @param updatedEvent Das Event-Objekt mit den aktualisierten Daten.
+     * @param expectedVersion Die Version, auf der die Änderung beruht, oder null für ein unbedingtes Update.
+     * @return Das aktualisierte Event mit seiner neuen Version.
+     */
+    @Transactional // Stellt sicher, dass die Operation in einer Transaktion ausgeführt wird
+    public Event updateEvent(String calendarId, Long id, Event updatedEvent, Long expectedVersion) {
+        // Eine ausstehende Statusänderung zuerst schreiben: Sie ist älter, und die erwartete Version rechnet sie mit ein
+        completionWriteBehind.applyPending(List.of(id));
+        // Das Bulk-Update umgeht @PreUpdate
+        updatedEvent.updateSeriesEnd();
+        updatedEvent.touch();
+        Long version = expectedVersion != null ? expectedVersion : eventCache.getCachedVersion(id).orElse(null);
+        Long newVersion = null;
+        if (version != null && eventRepository.updateByIdAndVersion(calendarId, id, version, updatedEvent.getTitle(),
+                updatedEvent.getDescription(), updatedEvent.getStartDateTime(), updatedEvent.getEndDateTime(), updatedEvent.getIsCompleted(),
+                updatedEvent.getRecurrence(), updatedEvent.getSeriesEnd(), updatedEvent.getLastModified()) > 0) {
+            newVersion = version + 1;
+        } else if (expectedVersion != null) {
+            // Nur im Fehlerfall wird geprüft, ob das Event fehlt oder nur die Version nicht passt
+            if (eventRepository.existsByIdAndCalendarId(id, calendarId)) {
+                throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Event was modified concurrently: " + id);
+            }
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Event not found with ID: " + id);
+        } else {
+            // Unbedingtes Update ohne passende Version aus dem Cache: Die neue Version muss nachgelesen werden
+            if (eventRepository.updateById(calendarId, id, updatedEvent.getTitle(), updatedEvent.getDescription(),
+                    updatedEvent.getStartDateTime(), updatedEvent.getEndDateTime(), updatedEvent.getIsCompleted(),
+                    updatedEvent.getRecurrence(), updatedEvent.getSeriesEnd(), updatedEvent.getLastModified()) == 0) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Event not found with ID: " + id);
+            }
+            newVersion = eventRepository.findVersionById(calendarId, id).orElse(null);
         }
         updatedEvent.setId(id); // Sicherstellen, dass die ID korrekt gesetzt ist
-        return eventRepository.save(updatedEvent);
+        updatedEvent.setCalendarId(calendarId);
+        updatedEvent.setVersion(newVersion);
+        eventPublisher.publishEvent(EventChange.updated(updatedEvent));
+        return updatedEvent;
     }
 
     /**
-     * Löscht ein Event anhand seiner ID.
+     * Löscht ein Event anhand seiner ID mit einer einzigen DELETE-Anweisung und legt dafür einen {@link EventTombstone} an.
      * Wirft eine ResponseStatusException (HTTP 404), wenn das Event nicht gefunden wird.
+     * @param calendarId Der Kalender, auf den sich die Operation bezieht.
      * @param id Die ID des zu löschenden Events.
      */
     @Transactional // Stellt sicher, dass die Operation in einer Transaktion ausgeführt wird
-    public void deleteEvent(Long id) {
-        if (!eventRepository.existsById(id)) {
+    public void deleteEvent(String calendarId, Long id) {
+        if (eventRepository.deleteByIdReturningCount(calendarId, id) == 0) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Event not found with ID: " + id);
         }
-        eventRepository.deleteById(id);
+        tombstoneRepository.save(new EventTombstone(id, calendarId, Event.modificationTimestamp()));
+        eventPublisher.publishEvent(EventChange.deleted(id, calendarId));
     }
 
     /**
      * Ruft Events basierend auf optionalen Filterkriterien ab.
-     * Die Filter können kombiniert werden.
-     * @param startDate Events, die an oder nach diesem Datum beginnen.
-     * @param endDate Events, die an oder vor diesem Datum enden.
+     * Die Filter können kombiniert werden. Serien werden in ihre Vorkommen im Datumsbereich aufgelöst
+     * (siehe {@link RecurrenceExpander}); jedes Vorkommen trägt die ID der Serie.
+     * Reicht der Bereich vor den Horizont des Archivs, kommen die passenden archivierten Events hinzu.
+     * @param calendarId Der abgefragte Kalender.
+     * @param startDate Beginn des Datumsbereichs (siehe rangeMode).
+     * @param endDate Ende des Datumsbereichs, einschließlich des ganzen Tages (siehe rangeMode).
      * @param title Events, deren Titel den angegebenen String enthält (fall-insensitiv).
      * @param description Events, deren Beschreibung den angegebenen String enthält (fall-insensitiv).
      * @param isCompleted Events nach ihrem Erledigungsstatus.
+     * @param rangeMode {@link RangeMode#CONTAINED} (Standard, auch bei null): Events, die vollständig im Bereich liegen;
+     *                  {@link RangeMode#OVERLAPS}: Events, die den Bereich schneiden.
      * @return Eine Liste von Events, die den Filterkriterien entsprechen.
      */
     public List<Event> getFilteredEvents(
+            String calendarId,
             LocalDate startDate,
             LocalDate endDate,
             String title,
             String description,
-            Boolean isCompleted
+            Boolean isCompleted,
+            RangeMode rangeMode
     ) {
-        return eventRepository.findAll((Specification<Event>) (root, query, criteriaBuilder) -> {
-            List<Predicate> predicates = new ArrayList<>();
-
-            if (startDate != null) {
-                // Filtert Events, die am oder nach dem angegebenen Startdatum beginnen
-                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("startDateTime"), startDate.atStartOfDay()));
-            }
-            if (endDate != null) {
-                // Filtert Events, die am oder vor dem angegebenen Enddatum enden (bis Ende des Tages)
-                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("endDateTime"), endDate.atTime(LocalTime.MAX)));
-            }
-            if (title != null && !title.isEmpty()) {
-                // Filtert Events, deren Titel den String enthält (fall-insensitiv)
-                predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("title")), "%" + title.toLowerCase() + "%"));
-            }
-            if (description != null && !description.isEmpty()) {
-                // Filtert Events, deren Beschreibung den String enthält (fall-insensitiv)
-                predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("description")), "%" + description.toLowerCase() + "%"));
-            }
-            if (isCompleted != null) {
-                // Filtert Events basierend auf ihrem Erledigungsstatus
-                predicates.add(criteriaBuilder.equal(root.get("isCompleted"), isCompleted));
+        EventFilter filter = new EventFilter(calendarId, startDate, endDate, title, description, isCompleted, rangeMode);
+        LocalDateTime seriesFrom = startDate != null ? startDate.atStartOfDay() : null;
+        LocalDateTime seriesTo = endDate != null ? endDate.plusDays(1).atStartOfDay() : null;
+        // Reine Zeitraum-/Status-Abfragen kann der Intervall-Index ohne Datenbankzugriff beantworten
+        if (eventIntervalIndex.isReady() && isBlank(title) && isBlank(description)) {
+            List<Event> inRange = rangeMode == RangeMode.OVERLAPS
+                    ? eventIntervalIndex.findOverlapping(calendarId,
+                            startDate != null ? startDate.atStartOfDay() : null,
+                            endDate != null ? endDate.plusDays(1).atStartOfDay() : null)
+                    : eventIntervalIndex.findContained(calendarId,
+                            startDate != null ? startDate.atStartOfDay() : null,
+                            endDate != null ? endDate.atTime(LocalTime.MAX) : null);
+            List<Event> events = inRange.stream()
+                    .filter(event -> isCompleted == null || isCompleted.equals(event.getIsCompleted()))
+                    .collect(Collectors.toCollection(ArrayList::new));
+            boolean added = addOccurrences(events, eventIntervalIndex.findSeries(calendarId, seriesFrom, seriesTo), filter);
+            if (addArchived(events, filter) || added) {
+                events.sort(BY_START_AND_ID); // Der Index liefert sortiert; Vorkommen und archivierte Events werden eingereiht
             }
-
-            // Kombiniert alle angewendeten Filter mit einem logischen UND
-            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+            eventQueryMetrics.recordIndex(events.size());
+            return events;
+        }
+        // Alle übrigen Abfragen gehen an die Datenbank; wiederholte Abfragen beantwortet der Cache
+        return eventCache.getFiltered(filter, () -> {
+            List<Event> events = new ArrayList<>(eventRepository.findAll(
+                    EventSpecifications.filter(calendarId, startDate, endDate, title, description, isCompleted, rangeMode)));
+            addOccurrences(events, eventRepository.findSeriesBetween(calendarId, seriesFrom, seriesTo), filter);
+            addArchived(events, filter);
+            eventQueryMetrics.recordDatabase(events.size());
+            return events;
         });
     }
 
     /**
-     * Aktualisiert den Erledigungsstatus eines Events.
-     * Wirft eine ResponseStatusException (HTTP 404), wenn das Event nicht gefunden wird.
+     * Wie {@link #getAllEvents} bzw. {@link #getFilteredEvents}, liefert aber nur die ausgewählten Felder.
+     * Kalender und Filterparameter entsprechen denen von {@link #getFilteredEvents}; sind alle Filter null,
+     * kommen alle Events des Kalenders (ohne das Archiv, wie bei {@link #getAllEvents}).
+     * Ohne Textfilter und mit geladenem Intervall-Index werden die Felder aus dem Speicher übernommen; sonst liest
+     * die Datenbank nur die ausgewählten Spalten der Einzeltermine. Serien werden wie bisher vollständig geladen,
+     * da ihre Vorkommen aus der Regel berechnet werden, und erst danach reduziert.
+     * Der {@link EventCache} wird umgangen, weil er vollständige Events hält.
+     * @param fields Die Feldnamen aus {@link SparseEvent#parseFields}.
+     * @return Die reduzierten Events; ohne Filter in beliebiger Reihenfolge und Serien ohne berechnete Vorkommen.
+     */
+    public List<SparseEvent> getEventFields(
+            String calendarId,
+            LocalDate startDate,
+            LocalDate endDate,
+            String title,
+            String description,
+            Boolean isCompleted,
+            RangeMode rangeMode,
+            List<String> fields
+    ) {
+        boolean hasFilters = startDate != null || endDate != null || title != null || description != null || isCompleted != null;
+        if (!hasFilters) {
+            return eventRepository.findFields(EventSpecifications.inCalendar(calendarId), fields);
+        }
+        if (eventIntervalIndex.isReady() && isBlank(title) && isBlank(description)) {
+            return getFilteredEvents(calendarId, startDate, endDate, title, description, isCompleted, rangeMode).stream()
+                    .map(event -> SparseEvent.of(event, fields))
+                    .toList();
+        }
+        List<SparseEvent> events = new ArrayList<>(eventRepository.findFields(
+                EventSpecifications.filter(calendarId, startDate, endDate, title, description, isCompleted, rangeMode), fields));
+        EventFilter filter = new EventFilter(calendarId, startDate, endDate, title, description, isCompleted, rangeMode);
+        // Vorkommen der Serien und archivierte Events liegen nur vollständig vor und werden danach reduziert
+        List<Event> complete = new ArrayList<>();
+        addOccurrences(complete, eventRepository.findSeriesBetween(calendarId,
+                        startDate != null ? startDate.atStartOfDay() : null,
+                        endDate != null ? endDate.plusDays(1).atStartOfDay() : null),
+                filter);
+        if (eventArchiveService.reachesInto(filter)) {
+            complete.addAll(eventArchiveService.findArchived(filter));
+        }
+        complete.forEach(event -> events.add(SparseEvent.of(event, fields)));
+        return events;
+    }
+
+    // Hängt die Vorkommen der Serien an; true, wenn dabei etwas hinzugekommen ist
+    private static boolean addOccurrences(List<Event> events, List<Event> series, EventFilter filter) {
+        int sizeBefore = events.size();
+        for (Event recurring : series) {
+            RecurrenceExpander.expand(recurring, filter, MAX_OCCURRENCES_PER_SERIES, events);
+        }
+        return events.size() > sizeBefore;
+    }
+
+    // Hängt die archivierten Events an, wenn der Bereich ins Archiv reicht; true, wenn dabei etwas hinzugekommen ist
+    private boolean addArchived(List<Event> events, EventFilter filter) {
+        if (!eventArchiveService.reachesInto(filter)) {
+            return false;
+        }
+        List<Event> archived = eventArchiveService.findArchived(filter);
+        if (archived.isEmpty()) {
+            return false;
+        }
+        // Direkt nach dem Commit eines Archiv-Batches kann der Intervall-Index ein Event noch enthalten
+        Set<Long> ids = events.stream().map(Event::getId).collect(Collectors.toSet());
+        archived.stream().filter(event -> !ids.contains(event.getId())).forEach(events::add);
+        return true;
+    }
+
+    /**
+     * Durchsucht Titel und Beschreibung aller Events nach den Begriffen der Suchanfrage.
+     * Ist der Suchindex geladen, werden die Treffer nach Relevanz sortiert und Präfixe sowie Tippfehler berücksichtigt;
+     * andernfalls wird auf eine einfache Teilstring-Suche in der Datenbank zurückgegriffen.
+     * @param calendarId Der Kalender, auf den sich die Operation bezieht.
+     * @param query Die Suchanfrage.
+     * @param limit Maximale Anzahl der Treffer (wird auf {@link #MAX_SEARCH_RESULTS} begrenzt).
+     * @return Die gefundenen Events, die relevantesten zuerst.
+     */
+    public List<Event> searchEvents(String calendarId, String query, int limit) {
+        int maxResults = Math.min(limit, MAX_SEARCH_RESULTS);
+        if (!eventSearchIndex.isReady()) {
+            return eventRepository.findBy(EventSpecifications.textMatches(calendarId, query), q -> q.limit(maxResults).all());
+        }
+        List<Long> rankedIds = eventSearchIndex.search(calendarId, query, maxResults);
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        // Ein Zugriff über den Primärschlüssel lädt alle Treffer; danach die Reihenfolge des Index wiederherstellen
+        Map<Long, Event> eventsById = eventRepository.findByCalendarIdAndIdIn(calendarId, rankedIds).stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
+        return rankedIds.stream()
+                .map(eventsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Aktualisiert den Erledigungsstatus eines Events mit einer UPDATE-Anweisung, ohne das Event vorher zu laden.
+     * Im Write-Behind-Modus wird die Änderung stattdessen nur vorgemerkt und später gesammelt geschrieben
+     * (siehe {@link CompletionWriteBehind}); das zurückgegebene Event zeigt dann bereits den Zustand nach dem Schreiben.
+     * Wirft eine ResponseStatusException (HTTP 404), wenn das Event nicht gefunden wird,
+     * und im Write-Behind-Modus HTTP 503, wenn zu viele Änderungen ausstehen.
+     * @param calendarId Der Kalender, auf den sich die Operation bezieht.
      * @param id Die ID des Events, dessen Status aktualisiert werden soll.
      * @param isCompleted Der neue Erledigungsstatus (true für erledigt, false für nicht erledigt).
      * @return Das aktualisierte Event.
      */
-    @Transactional // Stellt sicher, dass die Operation in einer Transaktion ausgeführt wird
-    public Event updateEventCompletionStatus(Long id, Boolean isCompleted) {
-        Event event = eventRepository.findById(id)
+    // Ohne @Transactional: Im Write-Behind-Modus soll keine Datenbankverbindung belegt werden;
+    // UPDATE und Nachladen laufen sonst jeweils in der Transaktion des Repositorys
+    public Event updateEventCompletionStatus(String calendarId, Long id, Boolean isCompleted) {
+        if (completionWriteBehind.isEnabled()) {
+            Event current = findActiveEvent(calendarId, id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Event not found with ID: " + id));
+            completionWriteBehind.enqueue(calendarId, id, Boolean.TRUE.equals(isCompleted));
+            return completionWriteBehind.applyTo(current);
+        }
+        if (eventRepository.updateCompletionStatusById(calendarId, id, isCompleted, Event.modificationTimestamp()) == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Event not found with ID: " + id);
+        }
+        // Das UPDATE liefert keine Zeile zurück; das vollständige Event wird für Antwort und Indizes nachgeladen
+        Event event = eventRepository.findByIdAndCalendarId(id, calendarId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Event not found with ID: " + id));
+        eventPublisher.publishEvent(EventChange.updated(event));
+        return event;
+    }
 
-        event.setIsCompleted(isCompleted);
-        return eventRepository.save(event);
+    private static boolean isBlank(String value) {
+        return value == null || value.isEmpty();
     }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package de.htwberlin.webtech.calendar.service;
+
+import de.htwberlin.webtech.calendar.index.EventStatsRollup;
+import de.htwberlin.webtech.calendar.model.DailyEventStats;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventFilter;
+import de.htwberlin.webtech.calendar.model.EventStats;
+import de.htwberlin.webtech.calendar.model.RangeMode;
+import de.htwberlin.webtech.calendar.model.StatsBucket;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statistiken für Dashboards: Anzahl, erledigte und offene Events sowie geplante Dauer pro Tag, Woche oder Monat.
+ * Die Tagessummen der Einzeltermine kommen aus dem {@link EventStatsRollup}, solange er geladen ist, sonst aus einem
+ * GROUP BY in der Datenbank. In beiden Fällen wird kein Einzeltermin als Objekt geladen; die Abschnitte werden aus
+ * den Tagessummen gebildet. Vorkommen von Serien werden für den Bereich berechnet und hinzugezählt, archivierte Events
+ * über ein GROUP BY im Archiv, sofern der Bereich hineinreicht (siehe {@link EventArchiveService}).
+ */
+@Service
+public class EventStatsService {
+
+    // Obergrenze für den abgefragten Zeitraum (rund zehn Jahre), da jeder Tag einen Wert beitragen kann
+    public static final int MAX_STATS_DAYS = 3660;
+
+    private final EventRepository eventRepository;
+    private final EventStatsRollup rollup;
+    private final EventArchiveService eventArchiveService;
+
+    public EventStatsService(EventRepository eventRepository, EventStatsRollup rollup,
+                             EventArchiveService eventArchiveService) {
+        this.eventRepository = eventRepository;
+        this.rollup = rollup;
+        this.eventArchiveService = eventArchiveService;
+    }
+
+    /**
+     * Liefert die Statistiken eines Kalenders für alle Abschnitte, die den Bereich [from, to] berühren, auch leere.
+     * Gezählt werden nur Events, die im Bereich beginnen; ein Abschnitt am Rand enthält also nur die Tage im Bereich.
+     * @param calendarId Der Kalender.
+     * @param from Erster Tag.
+     * @param to Letzter Tag (einschließlich).
+     * @param bucket Das Zeitraster.
+     * @return Ein Eintrag pro Abschnitt, aufsteigend.
+     * @throws ResponseStatusException 400, wenn from nach to liegt oder der Bereich {@link #MAX_STATS_DAYS} übersteigt.
+     */
+    public List<EventStats> getStats(String calendarId, LocalDate from, LocalDate to, StatsBucket bucket) {
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > MAX_STATS_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Range must not exceed " + MAX_STATS_DAYS + " days");
+        }
+
+        // Summen pro Tag, Index = Tage seit from
+        long[] count = new long[days];
+        long[] completed = new long[days];
+        long[] durationSeconds = new long[days];
+        List<DailyEventStats> daily = new ArrayList<>();
+        List<Event> series;
+        if (rollup.isReady()) {
+            daily.addAll(rollup.getDailyStats(calendarId, from, to));
+            series = rollup.getSeries(calendarId);
+        } else {
+            daily.addAll(eventRepository.sumByDay(calendarId, from.atStartOfDay(), to.plusDays(1).atStartOfDay()));
+            series = eventRepository.findSeriesBetween(calendarId, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+        }
+        daily.addAll(eventArchiveService.sumByDay(calendarId, from, to));
+        for (DailyEventStats stats : daily) {
+            int day = (int) ChronoUnit.DAYS.between(from, stats.day());
+            count[day] += stats.count();
+            completed[day] += stats.completed();
+            durationSeconds[day] += stats.durationSeconds();
+        }
+
+        EventFilter filter = new EventFilter(calendarId, from, to, null, null, null, RangeMode.OVERLAPS);
+        List<Event> occurrences = new ArrayList<>();
+        for (Event recurring : series) {
+            RecurrenceExpander.expand(recurring, filter, EventService.MAX_OCCURRENCES_PER_SERIES, occurrences);
+        }
+        for (Event occurrence : occurrences) {
+            LocalDate start = occurrence.getStartDateTime().toLocalDate();
+            if (start.isBefore(from) || start.isAfter(to)) {
+                continue; // Überlappt den Bereich, beginnt aber davor
+            }
+            int day = (int) ChronoUnit.DAYS.between(from, start);
+            count[day]++;
+            completed[day] += Boolean.TRUE.equals(occurrence.getIsCompleted()) ? 1 : 0;
+            durationSeconds[day] += Duration.between(occurrence.getStartDateTime(), occurrence.getEndDateTime()).toSeconds();
+        }
+
+        List<EventStats> result = new ArrayList<>();
+        for (LocalDate start = bucket.start(from); !start.isAfter(to); start = bucket.next(start)) {
+            LocalDate end = bucket.next(start).minusDays(1);
+            int first = (int) Math.max(0, ChronoUnit.DAYS.between(from, start));
+            int last = (int) Math.min(days - 1, ChronoUnit.DAYS.between(from, end));
+            long bucketCount = 0;
+            long bucketCompleted = 0;
+            long bucketDuration = 0;
+            for (int day = first; day <= last; day++) {
+                bucketCount += count[day];
+                bucketCompleted += completed[day];
+                bucketDuration += durationSeconds[day];
+            }
+            result.add(EventStats.of(start, end, bucketCount, bucketCompleted, bucketDuration));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,127 @@
+package de.htwberlin.webtech.calendar.service;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventTombstone;
+import de.htwberlin.webtech.calendar.model.SyncResult;
+import de.htwberlin.webtech.calendar.model.SyncToken;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import de.htwberlin.webtech.calendar.repository.EventTombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delta-Synchronisation für Clients mit lokaler Kopie (z.B. mobil oder offline): Statt bei jedem Start alle Events
+ * zu laden, holen sie mit ihrem letzten Token nur die seitdem angelegten, geänderten und gelöschten Events.
+ * Geänderte Events werden über ihre Spalte lastModified gefunden, gelöschte über ihre {@link EventTombstone}s;
+ * beide Abfragen laufen als Keyset-Zugriff über einen Index, so dass die Kosten mit der Anzahl der Änderungen wachsen.
+ */
+@Service
+public class EventSyncService {
+
+    private static final Logger log = LoggerFactory.getLogger(EventSyncService.class);
+
+    private final EventRepository eventRepository;
+    private final EventTombstoneRepository tombstoneRepository;
+    private final Duration safetyMargin;
+    private final Duration tombstoneRetention;
+
+    public EventSyncService(EventRepository eventRepository,
+                            EventTombstoneRepository tombstoneRepository,
+                            @Value("${calendar.sync.safety-margin:5s}") Duration safetyMargin,
+                            @Value("${calendar.sync.tombstone-retention:30d}") Duration tombstoneRetention) {
+        this.eventRepository = eventRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.safetyMargin = safetyMargin;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    /**
+     * Liefert alle Änderungen eines Kalenders nach dem Token, höchstens aber limit Stück, in der Reihenfolge ihres Zeitpunkts.
+     * Das neue Token bleibt um die Sicherheitsmarge hinter der aktuellen Zeit zurück: Eine Transaktion, die ihren
+     * Zeitstempel vor dieser Abfrage gesetzt, aber erst danach committet hat, wird so bei der nächsten Synchronisation
+     * nachgeliefert. Clients müssen Änderungen deshalb idempotent übernehmen (ein Event kann zweimal kommen).
+     * @param calendarId Der Kalender.
+     * @param since Das Token der letzten Synchronisation, oder null für den vollständigen Bestand.
+     * @param limit Maximale Anzahl der Änderungen (geänderte und gelöschte Events zusammen).
+     * @return Die Änderungen und das Token für die nächste Synchronisation.
+     * @throws ResponseStatusException 410, wenn das Token älter als die Aufbewahrungsfrist der Grabsteine ist;
+     *                                 der Client muss dann ohne Token neu synchronisieren.
+     */
+    @Transactional(readOnly = true) // Beide Abfragen sehen denselben Stand
+    public SyncResult getChangesSince(String calendarId, SyncToken since, int limit) {
+        Instant now = Event.modificationTimestamp();
+        if (since != null && since.issuedAt().isBefore(now.minus(tombstoneRetention))) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Sync token expired, a full sync is required");
+        }
+        SyncToken from = since != null ? since : SyncToken.initial(now);
+
+        // Je ein Element mehr als nötig zeigt an, ob es weitere Änderungen gibt
+        List<Event> modified = eventRepository.findModifiedAfter(calendarId, from.modifiedAt(), from.id(), Limit.of(limit + 1));
+        List<EventTombstone> tombstones = tombstoneRepository.findDeletedAfter(calendarId, from.modifiedAt(), from.id(), Limit.of(limit + 1));
+
+        // Beide sortierten Listen nach (Zeitpunkt, id) zusammenführen, bis das Limit erreicht ist
+        List<Event> changed = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        Instant lastAt = from.modifiedAt();
+        Long lastId = from.id();
+        int i = 0;
+        int j = 0;
+        while (changed.size() + deleted.size() < limit && (i < modified.size() || j < tombstones.size())) {
+            if (j == tombstones.size() || (i < modified.size() && isBefore(modified.get(i), tombstones.get(j)))) {
+                Event event = modified.get(i++);
+                changed.add(event);
+                lastAt = event.getLastModified();
+                lastId = event.getId();
+            } else {
+                EventTombstone tombstone = tombstones.get(j++);
+                deleted.add(tombstone.getEventId());
+                lastAt = tombstone.getDeletedAt();
+                lastId = tombstone.getEventId();
+            }
+        }
+        boolean hasMore = i < modified.size() || j < tombstones.size();
+
+        SyncToken next;
+        if (hasMore) {
+            // Die nächste Seite beginnt direkt hinter der letzten gelieferten Änderung
+            next = new SyncToken(lastAt, lastId, now);
+        } else {
+            // Alles gelesen: Position auf die Sicherheitsmarge zurücksetzen, aber nie hinter das alte Token
+            Instant settled = now.minus(safetyMargin);
+            next = settled.isAfter(from.modifiedAt())
+                    ? new SyncToken(settled, 0L, now)
+                    : new SyncToken(from.modifiedAt(), from.id(), now);
+        }
+        return new SyncResult(changed, deleted, next.encode(), hasMore);
+    }
+
+    /**
+     * Löscht regelmäßig die Grabsteine, die älter als die Aufbewahrungsfrist sind. Die Sicherheitsmarge kommt hinzu,
+     * weil ein gerade noch gültiges Token um diese Marge vor seinem Ausstellungszeitpunkt steht.
+     */
+    @Scheduled(fixedDelayString = "${calendar.sync.tombstone-purge-interval:1h}")
+    public void purgeTombstones() {
+        Instant cutoff = Event.modificationTimestamp().minus(tombstoneRetention).minus(safetyMargin);
+        int purged = tombstoneRepository.deleteDeletedBefore(cutoff);
+        if (purged > 0) {
+            log.info("Purged {} event tombstones older than {}", purged, tombstoneRetention);
+        }
+    }
+
+    private static boolean isBefore(Event event, EventTombstone tombstone) {
+        int byTime = event.getLastModified().compareTo(tombstone.getDeletedAt());
+        return byTime < 0 || (byTime == 0 && event.getId() < tombstone.getEventId());
+    }
+}
@@ -0,0 +1,107 @@
+package de.htwberlin.webtech.calendar.service;
+
+import de.htwberlin.webtech.calendar.model.BusyBlock;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventConflict;
+import de.htwberlin.webtech.calendar.model.RangeMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Frei/Belegt-Auskunft und Konfliktprüfung für Terminplanung. Statt dass Clients ganze Zeiträume laden und
+ * selbst vergleichen, werden die Events eines Bereichs hier einmal gelesen (über den Intervall-Index oder die
+ * Datenbank, Serien in Vorkommen aufgelöst) und mit {@link IntervalSweep} ausgewertet.
+ */
+@Service
+public class FreeBusyService {
+
+    // Obergrenze für die Anzahl der Konflikte einer Abfrage; ganztägige Events können mit sehr vielen kollidieren
+    public static final int MAX_CONFLICTS = 1000;
+
+    private final EventService eventService;
+    private final Duration maxRange;
+    private final boolean checkOnWrite;
+
+    public FreeBusyService(EventService eventService,
+                           @Value("${calendar.freebusy.max-range:366d}") Duration maxRange,
+                           @Value("${calendar.freebusy.check-on-write:true}") boolean checkOnWrite) {
+        this.eventService = eventService;
+        this.maxRange = maxRange;
+        this.checkOnWrite = checkOnWrite;
+    }
+
+    /**
+     * Liefert die belegten Zeiträume eines Kalenders in [from, to), zusammengefasst zu Blöcken ohne Überschneidungen.
+     * @param calendarId Der Kalender.
+     * @param from Beginn des Bereichs.
+     * @param to Ende des Bereichs (exklusiv).
+     * @param granularity Optionales Raster (z.B. 15 Minuten), auf das die Blöcke erweitert werden.
+     * @return Die belegten Blöcke, aufsteigend.
+     * @throws ResponseStatusException 400 bei leerem oder zu großem Bereich oder nicht positivem Raster.
+     */
+    public List<BusyBlock> getBusyBlocks(String calendarId, LocalDateTime from, LocalDateTime to, Duration granularity) {
+        checkRange(from, to);
+        if (granularity != null && (granularity.isNegative() || granularity.isZero())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "granularity must be positive");
+        }
+        return IntervalSweep.mergeBusy(findOverlapping(calendarId, from, to), from, to, granularity);
+    }
+
+    /**
+     * Liefert alle Paare von Events eines Kalenders, die sich innerhalb von [from, to) überschneiden,
+     * höchstens {@link #MAX_CONFLICTS} Stück.
+     * @param calendarId Der Kalender.
+     * @param from Beginn des Bereichs.
+     * @param to Ende des Bereichs (exklusiv).
+     * @return Die Konflikte, sortiert nach ihrem Beginn.
+     * @throws ResponseStatusException 400 bei leerem oder zu großem Bereich.
+     */
+    public List<EventConflict> findConflicts(String calendarId, LocalDateTime from, LocalDateTime to) {
+        checkRange(from, to);
+        return IntervalSweep.findConflicts(findOverlapping(calendarId, from, to), from, to, MAX_CONFLICTS);
+    }
+
+    /**
+     * Liefert die IDs der Events desselben Kalenders, die sich mit einem gerade angelegten oder geänderten Event
+     * überschneiden.
+     * Bei einer Serie wird nur ihr erstes Vorkommen geprüft.
+     * @param event Das gespeicherte Event.
+     * @return Die IDs der überschneidenden Events, aufsteigend nach Beginn; leer, wenn die Prüfung abgeschaltet ist.
+     */
+    public List<Long> findConflictingEvents(Event event) {
+        if (!checkOnWrite || event.getStartDateTime() == null || event.getEndDateTime() == null
+                || !event.getEndDateTime().isAfter(event.getStartDateTime())) {
+            return List.of();
+        }
+        LocalDateTime start = event.getStartDateTime();
+        LocalDateTime end = event.getEndDateTime();
+        return findOverlapping(event.getCalendarId(), start, end).stream()
+                .filter(other -> !other.getId().equals(event.getId()))
+                .filter(other -> other.getStartDateTime().isBefore(end) && other.getEndDateTime().isAfter(start))
+                .map(Event::getId)
+                .distinct()
+                .limit(MAX_CONFLICTS)
+                .toList();
+    }
+
+    // Die Abfrage über den EventService arbeitet tageweise; die genaue Grenze setzen die Aufrufer
+    private List<Event> findOverlapping(String calendarId, LocalDateTime from, LocalDateTime to) {
+        return eventService.getFilteredEvents(calendarId, from.toLocalDate(), to.minusNanos(1).toLocalDate(),
+                null, null, null, RangeMode.OVERLAPS);
+    }
+
+    private void checkRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+        if (Duration.between(from, to).compareTo(maxRange) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Range must not exceed " + maxRange.toDays() + " days");
+        }
+    }
+}
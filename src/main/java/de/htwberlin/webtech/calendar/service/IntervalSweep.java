@@ -0,0 +1,154 @@
+package de.htwberlin.webtech.calendar.service;
+
+import de.htwberlin.webtech.calendar.model.BusyBlock;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventConflict;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sweep-Line-Algorithmen über die Zeiträume von Events: Zusammenfassen zu belegten Blöcken und Finden von
+ * Überschneidungen. Beide sortieren einmal nach Beginn und laufen dann einmal über die Liste,
+ * statt jedes Event mit jedem zu vergleichen.
+ */
+public final class IntervalSweep {
+
+    // Am Bereichsbeginn abgeschnittene Events haben denselben Beginn; dort entscheidet der tatsächliche Beginn
+    private static final Comparator<Span> BY_START = Comparator.comparingLong(Span::start)
+            .thenComparing(span -> span.event().getStartDateTime())
+            .thenComparing(span -> span.event().getId());
+    private static final Comparator<Span> BY_END = Comparator.comparingLong(Span::end);
+
+    private IntervalSweep() {
+    }
+
+    /**
+     * Fasst die Zeiträume der Events innerhalb von [from, to) zu belegten Blöcken zusammen.
+     * Überlappende und direkt aneinander anschließende Zeiträume ergeben einen Block. Für die Vereinigung ist egal,
+     * welches Ende zu welchem Beginn gehört: Anfänge und Enden werden getrennt als Nanosekunden ab from sortiert
+     * (primitiv, ohne Comparator) und mit einem Zähler laufender Events durchlaufen. Laufzeit O(n log n).
+     * @param events Die Events (in beliebiger Reihenfolge); Zeiträume außerhalb von [from, to) werden abgeschnitten.
+     * @param from Beginn des Bereichs.
+     * @param to Ende des Bereichs (exklusiv); höchstens rund 290 Jahre nach from.
+     * @param granularity Raster, auf das die Blöcke vor dem Zusammenfassen erweitert werden (Beginn abgerundet,
+     *                    Ende aufgerundet, gezählt ab from), oder null für exakte Blöcke.
+     * @return Die belegten Blöcke, aufsteigend und ohne Überschneidungen.
+     */
+    public static List<BusyBlock> mergeBusy(List<Event> events, LocalDateTime from, LocalDateTime to, Duration granularity) {
+        long range = Duration.between(from, to).toNanos();
+        long step = granularity != null ? granularity.toNanos() : 0;
+        long[] starts = new long[events.size()];
+        long[] ends = new long[events.size()];
+        int count = 0;
+        for (Event event : events) {
+            if (!event.getStartDateTime().isBefore(to) || !event.getEndDateTime().isAfter(from)) {
+                continue; // Außerhalb des Bereichs oder ohne Dauer
+            }
+            long start = event.getStartDateTime().isAfter(from) ? offset(from, event.getStartDateTime()) : 0;
+            long end = event.getEndDateTime().isBefore(to) ? offset(from, event.getEndDateTime()) : range;
+            if (step > 0) {
+                start = start / step * step;
+                end = Math.min(Math.ceilDiv(end, step) * step, range);
+            }
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+        }
+        Arrays.sort(starts, 0, count);
+        Arrays.sort(ends, 0, count);
+
+        List<BusyBlock> merged = new ArrayList<>();
+        int running = 0;
+        long blockStart = 0;
+        for (int i = 0, j = 0; j < count; ) {
+            // Anfänge vor Enden zum selben Zeitpunkt, damit aneinander anschließende Zeiträume verschmelzen
+            if (i < count && starts[i] <= ends[j]) {
+                if (running++ == 0) {
+                    blockStart = starts[i];
+                }
+                i++;
+            } else {
+                if (--running == 0) {
+                    merged.add(new BusyBlock(from.plusNanos(blockStart), from.plusNanos(ends[j])));
+                }
+                j++;
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Findet alle Paare von Events, deren Zeiträume sich überschneiden ({@code startA < endB && startB < endA}).
+     * Ein Min-Heap nach Ende enthält nur die Events, die zum aktuellen Beginn noch laufen; jedes davon ist ein Treffer.
+     * Laufzeit O(n log n + k) für k Paare. Vorkommen derselben Serie (gleiche ID) gelten nicht als Konflikt.
+     * Wie bei {@link #mergeBusy} werden die Zeiträume auf [from, to) abgeschnitten und als Nanosekunden ab from
+     * gerechnet; Paare, die sich nur außerhalb des Bereichs überschneiden, werden deshalb nicht gemeldet, und Events
+     * beliebig weit vor oder nach dem Bereich sind kein Problem.
+     * @param events Die Events (in beliebiger Reihenfolge).
+     * @param from Beginn des Bereichs.
+     * @param to Ende des Bereichs (exklusiv); höchstens rund 290 Jahre nach from.
+     * @param maxConflicts Obergrenze für die Anzahl der gelieferten Paare.
+     * @return Die Paare, sortiert nach Beginn des später beginnenden Events.
+     */
+    public static List<EventConflict> findConflicts(List<Event> events, LocalDateTime from, LocalDateTime to, int maxConflicts) {
+        long range = Duration.between(from, to).toNanos();
+        // Zeitpunkte einmal in Nanosekunden umrechnen; Sortieren und Heap vergleichen dann nur noch long-Werte
+        Span[] spans = new Span[events.size()];
+        int count = 0;
+        for (Event event : events) {
+            if (!event.getStartDateTime().isBefore(to) || !event.getEndDateTime().isAfter(from)) {
+                continue; // Außerhalb des Bereichs
+            }
+            long start = event.getStartDateTime().isAfter(from) ? offset(from, event.getStartDateTime()) : 0;
+            long end = event.getEndDateTime().isBefore(to) ? offset(from, event.getEndDateTime()) : range;
+            if (end <= start) {
+                continue; // Events ohne Dauer überschneiden sich mit nichts
+            }
+            spans[count++] = new Span(start, end, event);
+        }
+        spans = Arrays.copyOf(spans, count);
+        Arrays.sort(spans, BY_START);
+
+        List<EventConflict> conflicts = new ArrayList<>();
+        PriorityQueue<Span> running = new PriorityQueue<>(BY_END);
+        for (Span span : spans) {
+            while (!running.isEmpty() && running.peek().end() <= span.start()) {
+                running.poll(); // Endet vor diesem Beginn und damit auch vor allen folgenden
+            }
+            Event event = span.event();
+            for (Span other : running) {
+                if (other.event().getId().equals(event.getId())) {
+                    continue;
+                }
+                if (conflicts.size() == maxConflicts) {
+                    return conflicts;
+                }
+                conflicts.add(new EventConflict(other.event().getId(), event.getId(), event.getStartDateTime(),
+                        min(other.event().getEndDateTime(), event.getEndDateTime())));
+            }
+            running.add(span);
+        }
+        return conflicts;
+    }
+
+    // Abstand in Nanosekunden; ein long reicht für rund 290 Jahre in beide Richtungen
+    private static long offset(LocalDateTime origin, LocalDateTime time) {
+        long seconds = time.toEpochSecond(ZoneOffset.UTC) - origin.toEpochSecond(ZoneOffset.UTC);
+        return Math.addExact(Math.multiplyExact(seconds, 1_000_000_000L), time.getNano() - origin.getNano());
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    // Zeitraum eines Events relativ zu einem gemeinsamen Ursprung
+    private record Span(long start, long end, Event event) {
+    }
+}
@@ -0,0 +1,75 @@
+package de.htwberlin.webtech.calendar.service;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventFilter;
+import de.htwberlin.webtech.calendar.model.RangeMode;
+import de.htwberlin.webtech.calendar.model.Recurrence;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Berechnet die Vorkommen von Event-Serien innerhalb des Datumsbereichs einer Abfrage.
+ * Das erste Vorkommen im Bereich wird direkt berechnet, nicht durch Ablaufen der Serie gesucht. Der Aufwand ist damit
+ * proportional zur Anzahl der Vorkommen im Bereich; außer den zurückgegebenen Vorkommen wird nichts angelegt.
+ */
+public final class RecurrenceExpander {
+
+    private RecurrenceExpander() {
+    }
+
+    /**
+     * Fügt die passenden Vorkommen einer Serie an die Ergebnisliste an.
+     * Jedes Vorkommen ist eine Kopie der Serie mit deren ID und Regel, aber dem eigenen Start und Ende.
+     * Eine unbegrenzte Serie bei einer Abfrage ohne endDate hat unendlich viele Vorkommen;
+     * dann wird stattdessen die Serie selbst angefügt.
+     * @param series Die Serie (ein Event mit Wiederholungsregel).
+     * @param filter Die Filterkriterien der Abfrage.
+     * @param maxOccurrences Obergrenze für die Anzahl der Vorkommen dieser Serie.
+     * @param result Die Liste, an die die Vorkommen angefügt werden.
+     */
+    public static void expand(Event series, EventFilter filter, int maxOccurrences, List<Event> result) {
+        Recurrence recurrence = series.getRecurrence();
+        if (!filter.matchesAttributes(series)) {
+            return;
+        }
+        LocalDateTime first = series.getStartDateTime();
+        Duration duration = Duration.between(first, series.getEndDateTime());
+        long lastIndex = recurrence.lastIndex(first);
+        if (filter.endDate() == null && lastIndex == Long.MAX_VALUE) {
+            result.add(series);
+            return;
+        }
+
+        long index = 0;
+        if (filter.startDate() != null) {
+            LocalDateTime from = filter.startDate().atStartOfDay();
+            // Überlappende Vorkommen enden nach "from", beginnen also spätestens eine Dauer davor
+            index = recurrence.firstIndexNotBefore(first,
+                    filter.rangeMode() == RangeMode.OVERLAPS ? from.minus(duration) : from);
+        }
+        LocalDateTime to = filter.endDate() != null ? filter.endDate().plusDays(1).atStartOfDay() : null;
+        int added = 0;
+        for (; index <= lastIndex && added < maxOccurrences; index++) {
+            LocalDateTime start = recurrence.occurrenceStart(first, index);
+            if (to != null && !start.isBefore(to)) {
+                break; // Alle weiteren Vorkommen beginnen nach dem Bereich
+            }
+            if (recurrence.isException(start.toLocalDate())) {
+                continue;
+            }
+            LocalDateTime end = start.plus(duration);
+            if (filter.matchesPeriod(start, end)) {
+                result.add(occurrence(series, start, end));
+                added++;
+            }
+        }
+    }
+
+    private static Event occurrence(Event series, LocalDateTime start, LocalDateTime end) {
+        return new Event(series.getId(), series.getTitle(), series.getDescription(), start, end,
+                series.getIsCompleted(), series.getVersion(), series.getRecurrence(), series.getSeriesEnd(),
+                series.getLastModified(), series.getCalendarId());
+    }
+}
@@ -0,0 +1,18 @@
+-- Einmalige Migration für bestehende PostgreSQL-Datenbanken nach Einführung der Kalender (Header X-Calendar-Id).
+-- Hibernate ergänzt bei ddl-auto=update zwar die Spalten, löscht aber keine Indizes; die alten Indizes ohne
+-- calendar_id würden bei jedem Schreibzugriff weiter gepflegt, ohne von einer Abfrage noch genutzt zu werden.
+-- Bestehende Events landen im Kalender "default", den auch Clients ohne Header sehen.
+ALTER TABLE event ADD COLUMN IF NOT EXISTS calendar_id VARCHAR(64) NOT NULL DEFAULT 'default';
+ALTER TABLE event_tombstone ADD COLUMN IF NOT EXISTS calendar_id VARCHAR(64) NOT NULL DEFAULT 'default';
+
+DROP INDEX IF EXISTS idx_event_start_end;
+DROP INDEX IF EXISTS idx_event_is_completed;
+DROP INDEX IF EXISTS idx_event_series;
+DROP INDEX IF EXISTS idx_event_last_modified;
+DROP INDEX IF EXISTS idx_event_tombstone_deleted_at;
+
+CREATE INDEX IF NOT EXISTS idx_event_calendar_start_end ON event (calendar_id, start_date_time, end_date_time);
+CREATE INDEX IF NOT EXISTS idx_event_calendar_is_completed ON event (calendar_id, is_completed);
+CREATE INDEX IF NOT EXISTS idx_event_calendar_series ON event (calendar_id, recurrence_frequency, series_end);
+CREATE INDEX IF NOT EXISTS idx_event_calendar_last_modified ON event (calendar_id, last_modified, id);
+CREATE INDEX IF NOT EXISTS idx_event_tombstone_calendar_deleted_at ON event_tombstone (calendar_id, deleted_at, event_id);
@@ -0,0 +1,6 @@
+-- Einmalige Migration für bestehende PostgreSQL-Datenbanken nach Einführung der Delta-Synchronisation (GET /events/sync).
+-- Hibernate legt Spalte, Tabelle und Indizes bei ddl-auto=update an; bestehende Zeilen hätten aber NULL als
+-- Änderungszeitpunkt und würden nie synchronisiert.
+ALTER TABLE event ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP(6) WITH TIME ZONE;
+UPDATE event SET last_modified = now() WHERE last_modified IS NULL;
+CREATE INDEX IF NOT EXISTS idx_event_last_modified ON event (last_modified, id);
@@ -0,0 +1,52 @@
+-- Optionale Migration: teilt die Tabelle "event" per Hash über calendar_id in 16 Partitionen auf
+-- (deklarative Partitionierung, PostgreSQL 11+). Setzt db/postgres/event_calendar.sql voraus.
+-- Da jede Abfrage calendar_id enthält, liest PostgreSQL nur die Partition des Kalenders (Partition Pruning);
+-- Indizes, VACUUM und Statistiken bleiben pro Partition klein. Für wenige, kleine Kalender lohnt sich das nicht.
+-- Der Primärschlüssel muss den Partitionsschlüssel enthalten und wird deshalb zu (calendar_id, id);
+-- die IDs bleiben trotzdem eindeutig, weil sie aus der Sequenz event_seq kommen.
+-- Danach muss in application-render.properties hibernate.hbm2ddl.extra_physical_table_types gesetzt sein,
+-- sonst hält Hibernate die partitionierte Tabelle bei ddl-auto=update für fehlend.
+BEGIN;
+
+ALTER TABLE event RENAME TO event_unpartitioned;
+
+-- Übernimmt Spalten, Defaults und NOT NULL; Indizes und Primärschlüssel werden unten neu angelegt
+CREATE TABLE event (LIKE event_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY HASH (calendar_id);
+
+DO $$
+BEGIN
+    FOR i IN 0..15 LOOP
+        EXECUTE format('CREATE TABLE event_p%s PARTITION OF event FOR VALUES WITH (MODULUS 16, REMAINDER %s)', i, i);
+    END LOOP;
+END $$;
+
+ALTER TABLE event ADD PRIMARY KEY (calendar_id, id);
+
+INSERT INTO event SELECT * FROM event_unpartitioned;
+
+-- Indizes auf der partitionierten Tabelle werden automatisch auf allen Partitionen angelegt
+DROP INDEX IF EXISTS idx_event_calendar_start_end;
+DROP INDEX IF EXISTS idx_event_calendar_is_completed;
+DROP INDEX IF EXISTS idx_event_calendar_series;
+DROP INDEX IF EXISTS idx_event_calendar_last_modified;
+CREATE INDEX idx_event_calendar_start_end ON event (calendar_id, start_date_time, end_date_time);
+CREATE INDEX idx_event_calendar_is_completed ON event (calendar_id, is_completed);
+CREATE INDEX idx_event_calendar_series ON event (calendar_id, recurrence_frequency, series_end);
+CREATE INDEX idx_event_calendar_last_modified ON event (calendar_id, last_modified, id);
+
+DROP TABLE event_unpartitioned;
+
+COMMIT;
+
+-- Alternative für wenige, aber sehr große Kalender: Partitionierung nach Zeitraum statt nach Kalender.
+-- Datumsfilter lesen dann nur die Partitionen ihres Zeitraums, alte Jahre lassen sich per DETACH PARTITION
+-- archivieren. Der Primärschlüssel wird zu (start_date_time, id); Serien liegen in der Partition ihres
+-- ersten Vorkommens, Abfragen auf Serien (series_end) lesen deshalb alle Partitionen.
+--
+-- CREATE TABLE event (LIKE event_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+--     PARTITION BY RANGE (start_date_time);
+-- CREATE TABLE event_2025 PARTITION OF event FOR VALUES FROM ('2025-01-01') TO ('2026-01-01');
+-- CREATE TABLE event_2026 PARTITION OF event FOR VALUES FROM ('2026-01-01') TO ('2027-01-01');
+-- CREATE TABLE event_default PARTITION OF event DEFAULT;
+-- ALTER TABLE event ADD PRIMARY KEY (start_date_time, id);
@@ -0,0 +1,7 @@
+-- Einmalige Migration für bestehende PostgreSQL-Datenbanken, deren Tabelle "event" noch IDENTITY-IDs verwendet.
+-- Hibernate legt die Sequenz bei ddl-auto=update an, sie beginnt aber bei 1 und würde mit vorhandenen IDs kollidieren.
+CREATE SEQUENCE IF NOT EXISTS event_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('event_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM event));
+
+-- Die alte IDENTITY-Generierung wird nicht mehr benötigt.
+ALTER TABLE event ALTER COLUMN id DROP IDENTITY IF EXISTS;
@@ -0,0 +1,4 @@
+-- Einmalige Migration für bestehende PostgreSQL-Datenbanken nach Einführung von Event.version (@Version).
+-- Hibernate legt die Spalte bei ddl-auto=update an, bestehende Zeilen hätten aber NULL als Version.
+ALTER TABLE event ADD COLUMN IF NOT EXISTS version BIGINT;
+UPDATE event SET version = 0 WHERE version IS NULL;
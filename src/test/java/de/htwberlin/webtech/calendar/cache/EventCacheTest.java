@@ -0,0 +1,188 @@
+package de.htwberlin.webtech.calendar.cache;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventFilter;
+import de.htwberlin.webtech.calendar.model.RangeMode;
+import de.htwberlin.webtech.calendar.service.EventChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EventCache Unit Tests")
+public class EventCacheTest {
+
+    private static final EventFilter JULY = new EventFilter(Event.DEFAULT_CALENDAR,
+            LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 31), null, null, null, RangeMode.CONTAINED);
+    private static final EventFilter AUGUST = new EventFilter(Event.DEFAULT_CALENDAR,
+            LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 31), null, null, null, RangeMode.CONTAINED);
+
+    private SimpleMeterRegistry meterRegistry;
+    private EventCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new EventCache(meterRegistry, true, 100, 1000, Duration.ofMinutes(10));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Should answer repeated reads from the cache and record hits and misses")
+    void shouldCacheReads() {
+        Event event = event(1L, 7, 10);
+
+        cache.getById(1L, id -> load(Optional.of(event)));
+        Optional<Event> second = cache.getById(1L, id -> load(Optional.of(event)));
+
+        assertEquals(Optional.of(event), second);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "events.byId").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "events.byId").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should not cache missing events")
+    void shouldNotCacheMissingEvents() {
+        cache.getById(99L, id -> load(Optional.empty()));
+        cache.getById(99L, id -> load(Optional.empty()));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should only evict filter results affected by a change")
+    void shouldInvalidatePrecisely() {
+        cache.getFiltered(JULY, () -> load(List.of(event(1L, 7, 10))));
+        cache.getFiltered(AUGUST, () -> load(List.of(event(2L, 8, 10))));
+
+        // Neues Event im Juli: nur das Juli-Ergebnis ist betroffen
+        cache.onEventChange(EventChange.created(event(3L, 7, 20)));
+        cache.getFiltered(JULY, () -> load(List.of()));
+        cache.getFiltered(AUGUST, () -> load(List.of()));
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should evict results that contained an event moved out of their range or deleted")
+    void shouldInvalidateResultsContainingTheEvent() {
+        cache.getFiltered(JULY, () -> load(List.of(event(1L, 7, 10))));
+        cache.getById(1L, id -> load(Optional.of(event(1L, 7, 10))));
+
+        // Das Event wird in den August verschoben: passt nicht mehr zum Juli, war aber im Juli-Ergebnis enthalten
+        cache.onEventChange(EventChange.updated(event(1L, 8, 10)));
+
+        assertTrue(cache.getFiltered(JULY, () -> load(List.of())).isEmpty());
+        cache.getById(1L, id -> load(Optional.of(event(1L, 8, 10))));
+        assertEquals(4, loads.get());
+
+        cache.onEventChange(EventChange.deleted(1L, Event.DEFAULT_CALENDAR));
+        cache.getById(1L, id -> load(Optional.empty()));
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should not keep a result that was loaded while a write happened")
+    void shouldDiscardResultLoadedDuringWrite() {
+        cache.getFiltered(JULY, () -> {
+            // Schreiboperation, während die Abfrage noch läuft: das geladene Ergebnis kann veraltet sein
+            cache.onEventChange(EventChange.created(event(2L, 7, 11)));
+            return load(List.of(event(1L, 7, 10)));
+        });
+        cache.getFiltered(JULY, () -> load(List.of(event(1L, 7, 10), event(2L, 7, 11))));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should match events with the same semantics as the database filter")
+    void shouldMatchLikeTheSpecification() {
+        Event event = event(1L, 7, 31);
+        event.setTitle("Team Meeting");
+
+        assertTrue(JULY.matches(event));
+        assertTrue(new EventFilter(Event.DEFAULT_CALENDAR, null, null, "meet", "", null, null).matches(event));
+        assertFalse(new EventFilter(Event.DEFAULT_CALENDAR, null, null, null, "notes", null, null).matches(event)); // Beschreibung ist null
+        assertFalse(new EventFilter(Event.DEFAULT_CALENDAR, null, null, null, null, true, null).matches(event));
+        // Endet am 31.07. um 10 Uhr: liegt nicht vollständig im August, überschneidet ihn aber auch nicht
+        assertFalse(AUGUST.matches(event));
+        assertFalse(new EventFilter(Event.DEFAULT_CALENDAR, LocalDate.of(2025, 8, 1), null, null, null, null, RangeMode.OVERLAPS).matches(event));
+        assertTrue(new EventFilter(Event.DEFAULT_CALENDAR, LocalDate.of(2025, 7, 31), null, null, null, null, RangeMode.OVERLAPS).matches(event));
+        assertEquals(JULY, new EventFilter(Event.DEFAULT_CALENDAR, JULY.startDate(), JULY.endDate(), "", null, null, null));
+    }
+
+    @Test
+    @DisplayName("Should load a filter once for concurrent misses, but not join a load that started before a write")
+    void shouldCoalesceConcurrentMisses() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Event> july = List.of(event(1L, 7, 10));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Event>>> results = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(() -> cache.getFiltered(JULY, () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return july;
+                })));
+            }
+            // Warten, bis sich die beiden übrigen Threads dem laufenden Ladevorgang angeschlossen haben
+            while (meterRegistry.get("calendar.cache.coalesced").tag("cache", "events.filtered").functionCounter().count() < 2) {
+                Thread.sleep(1);
+            }
+            assertEquals(1, loads.get());
+
+            // Nach einer Schreiboperation wird neu geladen, statt auf das womöglich veraltete Ergebnis zu warten
+            cache.onEventChange(EventChange.created(event(2L, 7, 11)));
+            assertEquals(List.of(), cache.getFiltered(JULY, () -> load(List.<Event>of())));
+            assertEquals(2, loads.get());
+
+            release.countDown();
+            for (Future<List<Event>> result : results) {
+                assertEquals(july, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private <T> T load(T value) {
+        loads.incrementAndGet();
+        return value;
+    }
+
+    private static Event event(Long id, int month, int day) {
+        return new Event(id, "Event " + id, null,
+                LocalDateTime.of(2025, month, day, 9, 0),
+                LocalDateTime.of(2025, month, day, 10, 0),
+                false);
+    }
+}
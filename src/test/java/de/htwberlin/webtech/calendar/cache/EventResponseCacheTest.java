@@ -0,0 +1,105 @@
+package de.htwberlin.webtech.calendar.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventFilter;
+import de.htwberlin.webtech.calendar.model.RangeMode;
+import de.htwberlin.webtech.calendar.service.EventChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EventResponseCache Unit Tests")
+public class EventResponseCacheTest {
+
+    private static final EventFilter JULY = new EventFilter(Event.DEFAULT_CALENDAR,
+            LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 31), null, null, null, RangeMode.OVERLAPS);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private EventResponseCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new EventResponseCache(objectMapper, new SimpleMeterRegistry(), true,
+                DataSize.ofMegabytes(1), Duration.ofMinutes(10));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Should serve a hit as pre-serialized JSON and gzip without calling the loader")
+    void shouldServeSerializedBody() throws Exception {
+        List<Event> events = july(50);
+
+        EventResponseCache.Body first = cache.get(JULY, () -> load(events));
+        EventResponseCache.Body second = cache.get(JULY, () -> load(events));
+
+        assertEquals(1, loads.get());
+        assertSame(first, second);
+        assertArrayEquals(objectMapper.writeValueAsBytes(events), first.json());
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(first.gzip()))) {
+            assertArrayEquals(first.json(), gzip.readAllBytes());
+        }
+        // Kleine Antworten werden nicht komprimiert
+        assertNull(cache.get(new EventFilter(Event.DEFAULT_CALENDAR, null, null, "x", null, null, null), () -> load(july(1))).gzip());
+    }
+
+    @Test
+    @DisplayName("Should drop only windows that contain the changed event or that it now overlaps")
+    void shouldInvalidateAffectedWindows() {
+        EventFilter august = new EventFilter(Event.DEFAULT_CALENDAR, LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 31), null, null, null, null);
+        cache.get(JULY, () -> load(july(3)));
+        cache.get(august, () -> load(List.of()));
+
+        // Änderung eines Events außerhalb beider Fenster: beide bleiben
+        cache.onEventChange(EventChange.updated(event(99L, LocalDateTime.of(2025, 9, 1, 9, 0))));
+        cache.get(JULY, () -> load(july(3)));
+        cache.get(august, () -> load(List.of()));
+        assertEquals(2, loads.get());
+
+        // Ein Juli-Event wird in den August verschoben: beide Fenster ändern sich
+        cache.onEventChange(EventChange.updated(event(2L, LocalDateTime.of(2025, 8, 5, 9, 0))));
+        cache.get(JULY, () -> load(july(3)));
+        cache.get(august, () -> load(List.of()));
+        assertEquals(4, loads.get());
+
+        // Löschen eines enthaltenen Events
+        cache.onEventChange(EventChange.deleted(1L, Event.DEFAULT_CALENDAR));
+        cache.get(august, () -> load(List.of()));
+        cache.get(JULY, () -> load(july(3)));
+        assertEquals(5, loads.get());
+    }
+
+    private List<Event> load(List<Event> events) {
+        loads.incrementAndGet();
+        return events;
+    }
+
+    private static List<Event> july(int count) {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            events.add(event((long) i + 1, LocalDateTime.of(2025, 7, 1 + i % 28, 9, 0)));
+        }
+        return events;
+    }
+
+    private static Event event(Long id, LocalDateTime start) {
+        return new Event(id, "Event " + id, "Description of event " + id, start, start.plusHours(1), false, 0L);
+    }
+}
@@ -0,0 +1,74 @@
+package de.htwberlin.webtech.calendar.changes;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.service.EventChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EventChangeLog Unit Tests")
+public class EventChangeLogTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private EventChangeLog changeLog;
+
+    @BeforeEach
+    void setUp() {
+        changeLog = new EventChangeLog(objectMapper, 4);
+    }
+
+    @Test
+    @DisplayName("Should number changes consecutively and serialize them once")
+    void shouldAppendChanges() throws Exception {
+        long start = changeLog.head();
+        AtomicInteger notifications = new AtomicInteger();
+        changeLog.addAppendListener(notifications::incrementAndGet);
+
+        changeLog.onEventChange(EventChange.created(event(1L)));
+        changeLog.onEventChange(EventChange.deleted(1L, Event.DEFAULT_CALENDAR));
+
+        assertEquals(start + 2, changeLog.head());
+        assertEquals(2, notifications.get());
+        EventChangeLog.Entry created = changeLog.get(start + 1);
+        assertEquals("created", created.eventName());
+        JsonNode json = objectMapper.readTree(created.json());
+        assertEquals(start + 1, json.get("sequence").asLong());
+        assertEquals("CREATED", json.get("type").asText());
+        assertEquals("Event 1", json.get("event").get("title").asText());
+        assertTrue(objectMapper.readTree(changeLog.get(start + 2).json()).get("event").isNull());
+        assertNull(changeLog.get(start + 3));
+    }
+
+    @Test
+    @DisplayName("Should only allow resuming while the missed changes are still buffered")
+    void shouldDetectOverwrittenEntries() {
+        long start = changeLog.head();
+        assertTrue(changeLog.canResumeFrom(start));
+
+        for (long id = 1; id <= 6; id++) {
+            changeLog.onEventChange(EventChange.updated(event(id)));
+        }
+
+        // Puffergröße 4: die ersten beiden Änderungen sind überschrieben
+        assertNull(changeLog.get(start + 2));
+        assertNotNull(changeLog.get(start + 3));
+        assertFalse(changeLog.canResumeFrom(start + 1));
+        assertTrue(changeLog.canResumeFrom(start + 2));
+        assertTrue(changeLog.canResumeFrom(start + 6));
+        // Sequenznummern aus der Zukunft (z.B. von einer anderen Instanz) lassen sich nicht fortsetzen
+        assertFalse(changeLog.canResumeFrom(start + 7));
+    }
+
+    private static Event event(Long id) {
+        return new Event(id, "Event " + id, null,
+                LocalDateTime.of(2025, 7, 10, 9, 0), LocalDateTime.of(2025, 7, 10, 10, 0), false);
+    }
+}
@@ -0,0 +1,115 @@
+package de.htwberlin.webtech.calendar.changes;
+
+import de.htwberlin.webtech.calendar.model.ArchivedEvent;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventTombstone;
+import de.htwberlin.webtech.calendar.repository.ArchivedEventRepository;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import de.htwberlin.webtech.calendar.repository.EventTombstoneRepository;
+import de.htwberlin.webtech.calendar.service.EventChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EventChangePoller Unit Tests")
+public class EventChangePollerTest {
+
+    private static final String CALENDAR = Event.DEFAULT_CALENDAR;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private EventTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private ArchivedEventRepository archiveRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private EventChangePoller poller;
+    private final List<EventChange> published = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        poller = new EventChangePoller(eventRepository, tombstoneRepository, archiveRepository, eventPublisher, true);
+        // Wie im Anwendungskontext erreicht jede veröffentlichte Änderung auch den Poller selbst
+        lenient().doAnswer(invocation -> {
+            EventChange change = invocation.getArgument(0);
+            published.add(change);
+            poller.onEventChange(change);
+            return null;
+        }).when(eventPublisher).publishEvent(any(Object.class));
+    }
+
+    @Test
+    @DisplayName("Should publish changes, deletions and archivals of other instances exactly once")
+    void shouldPublishRemoteChangesOnce() {
+        Instant now = Instant.now();
+        Event created = event(1L, 0L, now);
+        Event updated = event(2L, 3L, now);
+        when(eventRepository.findAllModifiedAfter(any(), any(), any())).thenReturn(List.of(created, updated));
+        when(tombstoneRepository.findAllDeletedAfter(any(), any(), any()))
+                .thenReturn(List.of(new EventTombstone(3L, CALENDAR, now)));
+        when(archiveRepository.findArchivedAfter(any(), any(), any()))
+                .thenReturn(List.of(ArchivedEvent.of(event(4L, 1L, now), now)));
+
+        poller.poll();
+        // Der nächste Durchlauf liest dieselben Zeilen wegen der Überlappung erneut
+        poller.poll();
+
+        assertEquals(List.of(EventChange.created(created), EventChange.updated(updated),
+                EventChange.deleted(3L, CALENDAR), EventChange.archived(4L, CALENDAR)), published);
+    }
+
+    @Test
+    @DisplayName("Should skip own changes and events changed locally while the poll was reading")
+    void shouldSkipLocalChanges() {
+        Instant now = Instant.now();
+        Event own = event(1L, 2L, now);
+        Event stale = event(2L, 2L, now);
+        poller.onEventChange(EventChange.updated(own));
+        when(eventRepository.findAllModifiedAfter(any(), any(), any())).thenAnswer(invocation -> {
+            // Eine eigene Schreiboperation committet, nachdem die Zeile gelesen wurde
+            poller.onEventChange(EventChange.updated(event(2L, 3L, now.plusMillis(1))));
+            return List.of(own, stale);
+        });
+
+        poller.poll();
+
+        assertTrue(published.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep its position and retry after a failed poll")
+    void shouldRetryAfterFailure() {
+        Event remote = event(1L, 1L, Instant.now());
+        when(eventRepository.findAllModifiedAfter(any(), any(), any()))
+                .thenThrow(new IllegalStateException("Database unavailable"))
+                .thenReturn(List.of(remote));
+
+        poller.poll();
+        poller.poll();
+
+        assertEquals(List.of(EventChange.updated(remote)), published);
+    }
+
+    private static Event event(Long id, Long version, Instant lastModified) {
+        LocalDateTime start = LocalDateTime.of(2025, 7, 10, 9, 0);
+        return new Event(id, "Event " + id, null, start, start.plusHours(1), false, version, null, null, lastModified, CALENDAR);
+    }
+}
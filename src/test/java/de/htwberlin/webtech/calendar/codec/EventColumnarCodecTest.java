@@ -0,0 +1,85 @@
+package de.htwberlin.webtech.calendar.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.Recurrence;
+import de.htwberlin.webtech.calendar.model.RecurrenceFrequency;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EventColumnarCodec Unit Tests")
+public class EventColumnarCodecTest {
+
+    @Test
+    @DisplayName("Should restore all fields including nulls, sub-second times and series")
+    void shouldRoundTripEvents() throws IOException {
+        Event plain = new Event(7L, "Meeting", null,
+                LocalDateTime.of(2025, 7, 10, 9, 0), LocalDateTime.of(2025, 7, 10, 10, 0), true, 2L);
+        plain.setLastModified(Instant.parse("2025-07-01T12:00:00.123456Z"));
+        Event precise = new Event(3L, "Zoë – Café", "Beschreibung",
+                LocalDateTime.of(1969, 12, 31, 23, 59, 59, 500_000_000), LocalDateTime.of(1970, 1, 1, 0, 30), null, null);
+        Event series = new Event(12L, "Meeting", "Weekly",
+                LocalDateTime.of(2025, 1, 6, 9, 0), LocalDateTime.of(2025, 1, 6, 10, 0), false, 0L);
+        series.setRecurrence(new Recurrence(RecurrenceFrequency.WEEKLY, 2, LocalDate.of(2025, 12, 31), null,
+                List.of(LocalDate.of(2025, 3, 3), LocalDate.of(2025, 1, 20))));
+        series.updateSeriesEnd();
+        series.setLastModified(Instant.parse("2025-06-30T08:00:00Z"));
+
+        List<Event> decoded = roundTrip(List.of(plain, precise, series));
+
+        assertEquals(plain, decoded.get(0));
+        assertEquals(series, decoded.get(2));
+        Event restored = decoded.get(1);
+        assertEquals(precise.getStartDateTime(), restored.getStartDateTime());
+        assertEquals("Zoë – Café", restored.getTitle());
+        assertFalse(restored.getIsCompleted()); // null wird als false übertragen
+        assertNull(restored.getVersion());
+        assertNull(restored.getLastModified());
+        assertNull(restored.getRecurrence());
+    }
+
+    @Test
+    @DisplayName("Should encode large lists much smaller than JSON")
+    void shouldBeSmallerThanJson() throws IOException {
+        List<Event> events = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 8, 0);
+        for (int i = 0; i < 10_000; i++) {
+            Event event = new Event((long) i + 1, i % 2 == 0 ? "Standup" : "Review", null,
+                    start.plusMinutes(37L * i), start.plusMinutes(37L * i + 30), i % 3 == 0, 0L);
+            events.add(event);
+        }
+        ByteArrayOutputStream columnar = new ByteArrayOutputStream();
+        EventColumnarCodec.write(events, columnar);
+        byte[] json = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .writeValueAsBytes(events);
+
+        // Pro Event wenige Bytes statt über hundert
+        assertTrue(columnar.size() * 10 < json.length, columnar.size() + " vs " + json.length);
+        assertEquals(events, EventColumnarCodec.read(new ByteArrayInputStream(columnar.toByteArray())));
+    }
+
+    @Test
+    @DisplayName("Should reject data that is not in the columnar format")
+    void shouldRejectForeignData() {
+        assertThrows(IOException.class, () -> EventColumnarCodec.read(new ByteArrayInputStream("[{}]".getBytes())));
+    }
+
+    private static List<Event> roundTrip(List<Event> events) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EventColumnarCodec.write(events, out);
+        return EventColumnarCodec.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
@@ -0,0 +1,49 @@
+package de.htwberlin.webtech.calendar.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("BoundedDataSource Unit Tests")
+public class BoundedDataSourceTest {
+
+    @Test
+    @DisplayName("Should fail fast when all permits are in use and release them on close")
+    void shouldLimitConcurrentConnections() throws Exception {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        BoundedDataSource dataSource = new BoundedDataSource(target, 1, Duration.ofMillis(50));
+
+        Connection first = dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        first.close();
+        first.close(); // Ein zweites close() darf kein weiteres Permit freigeben
+        Connection second = dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        second.close();
+        verify(connection, times(3)).close();
+    }
+
+    @Test
+    @DisplayName("Should return the permit if the pool itself fails")
+    void shouldReleasePermitWhenTargetFails() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection())
+                .thenThrow(new SQLTransientConnectionException("pool timeout"))
+                .thenReturn(mock(Connection.class));
+        BoundedDataSource dataSource = new BoundedDataSource(target, 1, Duration.ofMillis(50));
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertNotNull(dataSource.getConnection());
+    }
+}
@@ -0,0 +1,202 @@
+package de.htwberlin.webtech.calendar.config;
+
+import de.htwberlin.webtech.calendar.controller.EventController;
+import de.htwberlin.webtech.calendar.model.Event;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IdempotencyFilter Unit Tests")
+public class IdempotencyFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyFilter filter;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new IdempotencyFilter(meterRegistry, DataSize.ofMegabytes(1), DataSize.ofBytes(64), Duration.ofHours(1));
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Should replay the stored response when a write is retried with the same key")
+    void shouldReplayRetriedWrite() throws Exception {
+        MockHttpServletResponse first = post("key-1", "{\"title\":\"A\"}", 201);
+        MockHttpServletResponse retry = post("key-1", "{\"title\":\"A\"}", 201);
+
+        assertEquals(1, executions.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("/events/1", retry.getHeader("Location"));
+        assertEquals("application/json", retry.getContentType());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(1.0, meterRegistry.get("calendar.idempotency.replayed").counter().count());
+
+        // Anderer Schlüssel oder Request ohne Schlüssel: wird ausgeführt
+        post("key-2", "{\"title\":\"A\"}", 201);
+        post(null, "{\"title\":\"A\"}", 201);
+        assertEquals(3, executions.get());
+    }
+
+    @Test
+    @DisplayName("Should reject a reused key with a different body and execute retries after failures")
+    void shouldRejectMismatchAndRetryFailures() throws Exception {
+        post("key-1", "{\"title\":\"A\"}", 201);
+        MockHttpServletResponse mismatch = post("key-1", "{\"title\":\"B\"}", 201);
+        assertEquals(422, mismatch.getStatus());
+        assertEquals(1, executions.get());
+
+        // Fehlerantworten werden nicht gespeichert, der nächste Versuch läuft erneut
+        assertEquals(503, post("key-2", "{}", 503).getStatus());
+        assertEquals(201, post("key-2", "{}", 201).getStatus());
+        assertEquals(3, executions.get());
+        assertEquals(400, post(" ", "{}", 201).getStatus());
+    }
+
+    @Test
+    @DisplayName("Should reject a retry while the first attempt is still running")
+    void shouldRejectConcurrentRetry() throws Exception {
+        MockHttpServletResponse[] concurrent = new MockHttpServletResponse[1];
+        MockHttpServletRequest request = request("key-1", "{}");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                try {
+                    concurrent[0] = post("key-1", "{}", 201); // Wiederholung, während der erste Versuch läuft
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                res.setStatus(201);
+            }
+        }));
+
+        assertEquals(409, concurrent[0].getStatus());
+    }
+
+    @Test
+    @DisplayName("Should reject bodies over the limit with 413 before executing the request")
+    void shouldRejectOversizedBody() throws Exception {
+        String large = "{\"title\":\"" + "x".repeat(64) + "\"}";
+        assertEquals(413, post("key-1", large, 201).getStatus());
+
+        // Ohne Content-Length wird nur bis knapp über die Grenze gelesen
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", "/events") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        chunked.addHeader(IdempotencyFilter.KEY_HEADER, "key-2");
+        chunked.setContent(large.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(chunked, response, new MockFilterChain());
+        assertEquals(413, response.getStatus());
+
+        assertEquals(0, executions.get());
+        assertEquals(201, post("key-3", "{\"title\":\"A\"}", 201).getStatus());
+    }
+
+    @Test
+    @DisplayName("Should treat a missing calendar header like the default calendar")
+    void shouldResolveMissingCalendarHeader() throws Exception {
+        post("key-1", "{}", 201);
+        MockHttpServletRequest request = request("key-1", "{}");
+        request.addHeader(EventController.CALENDAR_HEADER, Event.DEFAULT_CALENDAR);
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+        filter.doFilter(request, retry, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                executions.incrementAndGet();
+            }
+        }));
+
+        assertEquals(1, executions.get());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    @DisplayName("Should deliver the buffered body to a non-blocking read listener")
+    void shouldSupportReadListener() throws Exception {
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        AtomicInteger allDataRead = new AtomicInteger();
+        filter.doFilter(request("key-1", "{\"title\":\"A\"}"), new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                ServletInputStream in = req.getInputStream();
+                in.setReadListener(new ReadListener() {
+                    @Override
+                    public void onDataAvailable() throws IOException {
+                        byte[] buffer = new byte[4];
+                        while (in.isReady() && !in.isFinished()) {
+                            int read = in.read(buffer);
+                            if (read > 0) {
+                                received.write(buffer, 0, read);
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void onAllDataRead() {
+                        allDataRead.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail(t);
+                    }
+                });
+                res.setStatus(201);
+            }
+        }));
+
+        assertEquals("{\"title\":\"A\"}", received.toString(StandardCharsets.UTF_8));
+        assertEquals(1, allDataRead.get());
+    }
+
+    private MockHttpServletResponse post(String key, String body, int status) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(key, body), response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                executions.incrementAndGet();
+                // Liest den Body wie der JSON-Konverter aus dem Request
+                String requestBody = new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+                res.setStatus(status);
+                res.setHeader("Location", "/events/" + executions.get());
+                res.setContentType("application/json");
+                res.getWriter().write("{\"id\":" + executions.get() + ",\"request\":" + requestBody + "}");
+            }
+        }));
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/events");
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.KEY_HEADER, key);
+        }
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
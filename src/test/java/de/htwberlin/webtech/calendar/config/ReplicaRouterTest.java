@@ -0,0 +1,159 @@
+package de.htwberlin.webtech.calendar.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ReplicaRouter Unit Tests")
+public class ReplicaRouterTest {
+
+    private static final Instant NOW = Instant.parse("2025-07-10T08:00:00Z");
+
+    // Zwei getrennte H2-Datenbanken als Stellvertreter für primäre Datenbank und Replica
+    private final DataSource primary = database("primary");
+    private final DataSource replica = database("replica");
+    private DataSource routed;
+    private ReplicaRouter router;
+
+    @BeforeEach
+    void setUp() {
+        router = new ReplicaRouter(List.of(replica), Duration.ofSeconds(5), Clock.fixed(NOW, ZoneOffset.UTC));
+        routed = router.route(primary);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRouter.endRequest();
+        new JdbcTemplate(primary).execute("DROP ALL OBJECTS");
+        new JdbcTemplate(replica).execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("Should send read-only transactions of a request to a replica that is up to date")
+    void shouldReadFromFreshReplica() throws SQLException {
+        replicate(NOW.minusSeconds(2));
+        router.checkReplicas();
+
+        ReplicaRouter.beginRequest();
+        assertEquals("replica", readOnly());
+        assertEquals("replica", readOnly());
+        // Der Herzschlag wurde auf die primäre Datenbank geschrieben
+        assertEquals(1, new JdbcTemplate(primary).queryForObject("SELECT COUNT(*) FROM replica_heartbeat", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary while the replica lags behind or has no heartbeat")
+    void shouldFallBackWhenReplicaLags() throws SQLException {
+        ReplicaRouter.beginRequest();
+        router.checkReplicas(); // Noch kein Herzschlag auf der Replica
+        assertEquals("primary", readOnly());
+
+        replicate(NOW.minusSeconds(30));
+        router.checkReplicas();
+        assertEquals("primary", readOnly());
+
+        replicate(NOW);
+        router.checkReplicas();
+        assertEquals("replica", readOnly());
+    }
+
+    @Test
+    @DisplayName("Should read from the primary for the rest of a request once it has written")
+    void shouldPinRequestAfterWrite() throws SQLException {
+        replicate(NOW);
+        router.checkReplicas();
+        ReplicaRouter.beginRequest();
+        assertEquals("replica", readOnly());
+
+        try (Connection connection = routed.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE whoami SET name = name");
+        }
+
+        assertEquals("primary", readOnly());
+        ReplicaRouter.endRequest();
+        ReplicaRouter.beginRequest(); // Der nächste Request darf wieder von der Replica lesen
+        assertEquals("replica", readOnly());
+    }
+
+    @Test
+    @DisplayName("Should read from the primary outside of requests")
+    void shouldUsePrimaryOutsideRequests() throws SQLException {
+        replicate(NOW);
+        router.checkReplicas();
+
+        assertEquals("primary", readOnly());
+    }
+
+    @Test
+    @DisplayName("Should limit primary and replica by separate bulkheads and fall back when the replica is saturated")
+    void shouldUseSeparateBulkheads() throws SQLException {
+        ReplicaRouter bounded = new ReplicaRouter(List.of(new BoundedDataSource(replica, 1, Duration.ofSeconds(5))),
+                Duration.ofSeconds(5), Clock.fixed(NOW, ZoneOffset.UTC));
+        routed = bounded.route(new BoundedDataSource(primary, 1, Duration.ofMillis(10)));
+        replicate(NOW);
+        bounded.checkReplicas();
+        ReplicaRouter.beginRequest();
+
+        // Die einzige Verbindung der primären Datenbank ist belegt; die Replica liest trotzdem
+        try (Connection heldPrimary = routed.getConnection()) {
+            heldPrimary.createStatement().close();
+            ReplicaRouter.endRequest();
+            ReplicaRouter.beginRequest();
+            assertEquals("replica", readOnly());
+        }
+
+        // Ist der Bulkhead der Replica ausgeschöpft, weicht der Request sofort auf die primäre Datenbank aus
+        try (Connection heldReplica = routed.getConnection()) {
+            heldReplica.setReadOnly(true);
+            heldReplica.createStatement().close();
+            assertEquals("primary", readOnly());
+        }
+        assertEquals("replica", readOnly());
+    }
+
+    // Liest wie eine Transaktion mit readOnly = true, aus welcher Datenbank die Verbindung stammt
+    private String readOnly() throws SQLException {
+        try (Connection connection = routed.getConnection()) {
+            connection.setReadOnly(true);
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT name FROM whoami")) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    // Simuliert, dass die Replikation den Herzschlag mit diesem Stand übertragen hat
+    private void replicate(Instant beat) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(replica);
+        jdbcTemplate.update("DELETE FROM replica_heartbeat");
+        jdbcTemplate.update("INSERT INTO replica_heartbeat (name, beat) VALUES ('primary', ?)", Timestamp.from(beat));
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:replica-router-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (name VARCHAR(64) PRIMARY KEY, beat TIMESTAMP(6) WITH TIME ZONE NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(16))");
+        jdbcTemplate.execute("DELETE FROM whoami");
+        jdbcTemplate.update("INSERT INTO whoami VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,90 @@
+package de.htwberlin.webtech.calendar.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("RequestMetricsFilter Unit Tests")
+public class RequestMetricsFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestMetricsFilter filter;
+    private QueryCountingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RequestMetricsFilter(meterRegistry, Duration.ofSeconds(1));
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        dataSource = new QueryCountingDataSource(target);
+    }
+
+    @Test
+    @DisplayName("Should record the SQL statements of a request under the pattern of its endpoint")
+    void shouldRecordQueriesPerEndpoint() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/events/42");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new jakarta.servlet.http.HttpServlet() {
+            @Override
+            protected void service(jakarta.servlet.http.HttpServletRequest req, jakarta.servlet.http.HttpServletResponse res) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/events/{id}");
+                try (Connection connection = dataSource.getConnection()) {
+                    PreparedStatement statement = connection.prepareStatement("SELECT 1");
+                    statement.executeQuery();
+                    statement.setInt(1, 1); // Keine Ausführung, zählt nicht
+                    connection.createStatement().execute("SELECT 2");
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }));
+
+        DistributionSummary queries = meterRegistry.get("calendar.http.queries")
+                .tags("method", "GET", "uri", "/events/{id}").summary();
+        assertEquals(1, queries.count());
+        assertEquals(2, queries.totalAmount());
+        assertEquals(1, meterRegistry.get("calendar.http.query.time").tags("uri", "/events/{id}").timer().count());
+        assertEquals(2, dataSource.getQueryCount());
+    }
+
+    @Test
+    @DisplayName("Should tag non-standard HTTP methods as UNKNOWN")
+    void shouldTagNonStandardMethodsAsUnknown() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("FOO", "/events"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(new MockHttpServletRequest("BAR", "/events"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(2, meterRegistry.get("calendar.http.queries").tags("method", "UNKNOWN").summary().count());
+        assertEquals(1, meterRegistry.find("calendar.http.queries").meters().size());
+    }
+
+    @Test
+    @DisplayName("Should count statements outside of requests only in the totals and skip actuator requests")
+    void shouldCountStatementsOutsideRequestsOnlyGlobally() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().executeUpdate("DELETE FROM event");
+        }
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/prometheus"), new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        assertEquals(1, dataSource.getQueryCount());
+        assertTrue(meterRegistry.find("calendar.http.queries").meters().isEmpty());
+    }
+}
@@ -1,8 +1,25 @@
 // src/test/java/de/htwberlin/webtech/calendar/controller/EventControllerTest.java
 package de.htwberlin.webtech.calendar.controller; // Passen Sie Ihr Paket an
 
+import de.htwberlin.webtech.calendar.cache.EventResponseCache;
+import de.htwberlin.webtech.calendar.changes.EventChangeFeed;
+import de.htwberlin.webtech.calendar.codec.EventColumnarCodec;
+import de.htwberlin.webtech.calendar.model.BatchItemResult;
+import de.htwberlin.webtech.calendar.model.BusyBlock;
 import de.htwberlin.webtech.calendar.model.Event; // Passen Sie Ihr Paket an
+import de.htwberlin.webtech.calendar.model.EventConflict;
+import de.htwberlin.webtech.calendar.model.EventCursor;
+import de.htwberlin.webtech.calendar.model.EventFilter;
+import de.htwberlin.webtech.calendar.model.EventStats;
+import de.htwberlin.webtech.calendar.model.RangeMode;
+import de.htwberlin.webtech.calendar.model.SparseEvent;
+import de.htwberlin.webtech.calendar.model.StatsBucket;
+import de.htwberlin.webtech.calendar.model.SyncResult;
+import de.htwberlin.webtech.calendar.model.SyncToken;
 import de.htwberlin.webtech.calendar.service.EventService; // Passen Sie Ihr Paket an
+import de.htwberlin.webtech.calendar.service.EventStatsService;
+import de.htwberlin.webtech.calendar.service.EventSyncService;
+import de.htwberlin.webtech.calendar.service.FreeBusyService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,23 +27,35 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest; // Sp
 import org.springframework.test.context.bean.override.mockito.MockitoBean; // Zum Mocken von Services
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import com.fasterxml.jackson.databind.ObjectMapper; // Für JSON-Konvertierung
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule; // Für LocalDateTime
 
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 // @WebMvcTest ist leichter als @SpringBootTest, da es nur die Web-Schicht lädt
@@ -35,12 +64,29 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @DisplayName("EventController Integration Tests")
 public class EventControllerTest {
 
+    private static final String CALENDAR = Event.DEFAULT_CALENDAR;
+
     @Autowired
     private MockMvc mockMvc; // Ermöglicht das Senden von HTTP-Anfragen
 
     @MockitoBean // Erstellt einen Mock für den EventService im Spring Application Context
     private EventService eventService;
 
+    @MockitoBean
+    private EventChangeFeed changeFeed;
+
+    @MockitoBean
+    private EventSyncService syncService;
+
+    @MockitoBean // Standardmäßig deaktiviert (isEnabled() == false), gefilterte Abfragen gehen dann direkt an den Service
+    private EventResponseCache responseCache;
+
+    @MockitoBean
+    private FreeBusyService freeBusyService;
+
+    @MockitoBean
+    private EventStatsService statsService;
+
     // ObjectMapper zum Konvertieren von Java-Objekten in JSON und umgekehrt
     private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
 
@@ -56,7 +102,7 @@ public class EventControllerTest {
                 LocalDateTime.of(2025, 7, 15, 23, 59),
                 true);
 
-        when(eventService.getAllEvents()).thenReturn(Arrays.asList(event1, event2));
+        when(eventService.getAllEvents(CALENDAR)).thenReturn(Arrays.asList(event1, event2));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/events"))
                 .andExpect(status().isOk())
@@ -64,8 +110,8 @@ public class EventControllerTest {
                 .andExpect(jsonPath("$[0].title").value("Meeting"))
                 .andExpect(jsonPath("$[1].title").value("Project Deadline"));
 
-        verify(eventService, times(1)).getAllEvents();
-        verify(eventService, never()).getFilteredEvents(any(), any(), any(), any(), any());
+        verify(eventService, times(1)).getAllEvents(CALENDAR);
+        verify(eventService, never()).getFilteredEvents(any(), any(), any(), any(), any(), any(), any());
     }
 
     @Test
@@ -82,7 +128,7 @@ public class EventControllerTest {
 
         // Definieren des erwarteten Verhaltens des Service bei Filtern
         when(eventService.getFilteredEvents(
-                eq(startDate), eq(null), eq(title), eq(null), eq(isCompleted)))
+                eq(CALENDAR), eq(startDate), eq(null), eq(title), eq(null), eq(isCompleted), eq(null)))
                 .thenReturn(List.of(event1));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/events")
@@ -94,10 +140,146 @@ public class EventControllerTest {
                 .andExpect(jsonPath("$[0].title").value("Meeting"));
 
         verify(eventService, times(1)).getFilteredEvents(
-                eq(startDate), eq(null), eq(title), eq(null), eq(isCompleted));
-        verify(eventService, never()).getAllEvents(); // Sicherstellen, dass getAllEvents nicht aufgerufen wurde
+                eq(CALENDAR), eq(startDate), eq(null), eq(title), eq(null), eq(isCompleted), eq(null));
+        verify(eventService, never()).getAllEvents(CALENDAR); // Sicherstellen, dass getAllEvents nicht aufgerufen wurde
     }
 
+    @Test
+    @DisplayName("GET /events with rangeMode=overlaps should pass the overlap mode to the service")
+    void shouldGetOverlappingEvents() throws Exception {
+        LocalDate startDate = LocalDate.of(2025, 7, 1);
+        LocalDate endDate = LocalDate.of(2025, 7, 31);
+        Event multiDayEvent = new Event(1L, "Conference", "Crosses the month boundary",
+                LocalDateTime.of(2025, 6, 30, 9, 0),
+                LocalDateTime.of(2025, 7, 2, 17, 0),
+                false);
+
+        when(eventService.getFilteredEvents(
+                eq(CALENDAR), eq(startDate), eq(endDate), eq(null), eq(null), eq(null), eq(RangeMode.OVERLAPS)))
+                .thenReturn(List.of(multiDayEvent));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/events")
+                        .param("startDate", "2025-07-01")
+                        .param("endDate", "2025-07-31")
+                        .param("rangeMode", "overlaps"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Conference"));
+    }
+
+    @Test
+    @DisplayName("GET /events with limit should return a page and the next cursor")
+    void shouldGetEventsPage() throws Exception {
+        Event event1 = new Event(1L, "Meeting", "Team Meeting",
+                LocalDateTime.of(2025, 7, 10, 9, 0),
+                LocalDateTime.of(2025, 7, 10, 10, 0),
+                false);
+        Event event2 = new Event(2L, "Project Deadline", "Final submission",
+                LocalDateTime.of(2025, 7, 15, 17, 0),
+                LocalDateTime.of(2025, 7, 15, 23, 59),
+                true);
+        EventCursor cursor = EventCursor.of(event1);
+
+        when(eventService.getEventsPage(eq(CALENDAR), eq(cursor), eq(1))).thenReturn(List.of(event2));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/events")
+                        .param("limit", "1")
+                        .param("after", cursor.encode()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(2L))
+                .andExpect(header().string(EventController.NEXT_CURSOR_HEADER, EventCursor.of(event2).encode()));
+
+        verify(eventService, never()).getAllEvents(CALENDAR);
+    }
+
+    @Test
+    @DisplayName("GET /events should omit the next cursor on the last page")
+    void shouldOmitCursorOnLastPage() throws Exception {
+        when(eventService.getEventsPage(eq(CALENDAR), eq(null), eq(10))).thenReturn(Collections.emptyList());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/events").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0))
+                .andExpect(header().doesNotExist(EventController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @DisplayName("GET /events should return 400 for an invalid cursor or limit")
+    void shouldRejectInvalidPagination() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/events").param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get("/events").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get("/events").param("limit", "10").param("title", "Meeting"))
+                .andExpect(status().isBadRequest());
+
+        verify(eventService, never()).getEventsPage(any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("GET /events/export should stream events as NDJSON")
+    void shouldExportEventsAsNdjson() throws Exception {
+        Event event1 = new Event(1L, "Meeting", "Team Meeting",
+                LocalDateTime.of(2025, 7, 10, 9, 0),
+                LocalDateTime.of(2025, 7, 10, 10, 0),
+                false);
+        Event event2 = new Event(2L, "Project Deadline", "Final submission",
+                LocalDateTime.of(2025, 7, 15, 17, 0),
+                LocalDateTime.of(2025, 7, 15, 23, 59),
+                true);
+
+        doAnswer(invocation -> {
+            Consumer<Event> consumer = invocation.getArgument(1);
+            consumer.accept(event1);
+            consumer.accept(event2);
+            return null;
+        }).when(eventService).exportEvents(eq(CALENDAR), any());
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/events/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Meeting", objectMapper.readValue(lines[0], Event.class).getTitle());
+        assertEquals(2L, objectMapper.readValue(lines[1], Event.class).getId());
+        verify(eventService, never()).getAllEvents(CALENDAR);
+    }
+
+    @Test
+    @DisplayName("GET /events/search should return ranked search results")
+    void shouldSearchEvents() throws Exception {
+        Event event = new Event(1L, "Meeting", "Team Meeting",
+                LocalDateTime.of(2025, 7, 10, 9, 0),
+                LocalDateTime.of(2025, 7, 10, 10, 0),
+                false);
+
+        when(eventService.searchEvents(CALENDAR, "meet", 20)).thenReturn(List.of(event));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/search").param("q", "meet"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Meeting"));
+
+        verify(eventService, times(1)).searchEvents(CALENDAR, "meet", 20);
+    }
+
+    @Test
+    @DisplayName("GET /events/search should return 400 for an empty query")
+    void shouldRejectEmptySearchQuery() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/search"))
+                .andExpect(status().isBadRequest());
+
+        verify(eventService, never()).searchEvents(any(), any(), anyInt());
+    }
 
     @Test
     @DisplayName("GET /events/{id} should return event by ID")
@@ -107,25 +289,25 @@ public class EventControllerTest {
                 LocalDateTime.of(2025, 7, 10, 10, 0),
                 false);
 
-        when(eventService.getEventById(1L)).thenReturn(Optional.of(event));
+        when(eventService.getEventById(CALENDAR, 1L)).thenReturn(Optional.of(event));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/events/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1L))
                 .andExpect(jsonPath("$.title").value("Meeting"));
 
-        verify(eventService, times(1)).getEventById(1L);
+        verify(eventService, times(1)).getEventById(CALENDAR, 1L);
     }
 
     @Test
     @DisplayName("GET /events/{id} should return 404 if event not found")
     void shouldReturnNotFoundWhenEventIdDoesNotExist() throws Exception {
-        when(eventService.getEventById(99L)).thenReturn(Optional.empty());
+        when(eventService.getEventById(CALENDAR, 99L)).thenReturn(Optional.empty());
 
         mockMvc.perform(MockMvcRequestBuilders.get("/events/99"))
                 .andExpect(status().isNotFound());
 
-        verify(eventService, times(1)).getEventById(99L);
+        verify(eventService, times(1)).getEventById(CALENDAR, 99L);
     }
 
     @Test
@@ -140,7 +322,7 @@ public class EventControllerTest {
                 LocalDateTime.of(2025, 7, 11, 11, 0),
                 false);
 
-        when(eventService.createEvent(any(Event.class))).thenReturn(createdEvent);
+        when(eventService.createEvent(eq(CALENDAR), any(Event.class))).thenReturn(createdEvent);
 
         mockMvc.perform(MockMvcRequestBuilders.post("/events")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -149,7 +331,7 @@ public class EventControllerTest {
                 .andExpect(jsonPath("$.id").value(3L))
                 .andExpect(jsonPath("$.title").value("New Event"));
 
-        verify(eventService, times(1)).createEvent(any(Event.class));
+        verify(eventService, times(1)).createEvent(eq(CALENDAR), any(Event.class));
     }
 
     @Test
@@ -165,7 +347,7 @@ public class EventControllerTest {
                         .content(objectMapper.writeValueAsString(invalidEvent)))
                 .andExpect(status().isBadRequest()); // @Valid sollte hier zuschlagen
 
-        verify(eventService, never()).createEvent(any(Event.class)); // Service sollte nicht aufgerufen werden
+        verify(eventService, never()).createEvent(eq(CALENDAR), any(Event.class)); // Service sollte nicht aufgerufen werden
     }
 
 
@@ -177,7 +359,7 @@ public class EventControllerTest {
                 LocalDateTime.of(2025, 7, 10, 10, 0),
                 true); // isCompleted auf true gesetzt
 
-        when(eventService.updateEvent(eq(1L), any(Event.class))).thenReturn(updatedEventDetails);
+        when(eventService.updateEvent(eq(CALENDAR), eq(1L), any(Event.class))).thenReturn(updatedEventDetails);
 
         mockMvc.perform(MockMvcRequestBuilders.put("/events/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -187,7 +369,7 @@ public class EventControllerTest {
                 .andExpect(jsonPath("$.title").value("Updated Title"))
                 .andExpect(jsonPath("$.isCompleted").value(true));
 
-        verify(eventService, times(1)).updateEvent(eq(1L), any(Event.class));
+        verify(eventService, times(1)).updateEvent(eq(CALENDAR), eq(1L), any(Event.class));
     }
 
     @Test
@@ -198,25 +380,25 @@ public class EventControllerTest {
 
         // Mocken Sie die Ausnahme, die vom Service geworfen wird
         doThrow(new ResponseStatusException(org.springframework.http.HttpStatus.NOT_FOUND, "Event not found with ID: 99"))
-                .when(eventService).updateEvent(eq(99L), any(Event.class));
+                .when(eventService).updateEvent(eq(CALENDAR), eq(99L), any(Event.class));
 
         mockMvc.perform(MockMvcRequestBuilders.put("/events/99")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(updatedEventDetails)))
                 .andExpect(status().isNotFound());
 
-        verify(eventService, times(1)).updateEvent(eq(99L), any(Event.class));
+        verify(eventService, times(1)).updateEvent(eq(CALENDAR), eq(99L), any(Event.class));
     }
 
     @Test
     @DisplayName("DELETE /events/{id} should delete an event")
     void shouldDeleteEvent() throws Exception {
-        doNothing().when(eventService).deleteEvent(1L); // Simuliert erfolgreiches Löschen
+        doNothing().when(eventService).deleteEvent(CALENDAR, 1L); // Simuliert erfolgreiches Löschen
 
         mockMvc.perform(MockMvcRequestBuilders.delete("/events/1"))
                 .andExpect(status().isNoContent()); // 204 No Content
 
-        verify(eventService, times(1)).deleteEvent(1L);
+        verify(eventService, times(1)).deleteEvent(CALENDAR, 1L);
     }
 
     @Test
@@ -224,12 +406,12 @@ public class EventControllerTest {
     void shouldReturnNotFoundWhenDeletingNonExistentEvent() throws Exception {
         // Mocken Sie die Ausnahme, die vom Service geworfen wird
         doThrow(new ResponseStatusException(org.springframework.http.HttpStatus.NOT_FOUND, "Event not found with ID: 99"))
-                .when(eventService).deleteEvent(99L);
+                .when(eventService).deleteEvent(CALENDAR, 99L);
 
         mockMvc.perform(MockMvcRequestBuilders.delete("/events/99"))
                 .andExpect(status().isNotFound());
 
-        verify(eventService, times(1)).deleteEvent(99L);
+        verify(eventService, times(1)).deleteEvent(CALENDAR, 99L);
     }
 
     @Test
@@ -240,7 +422,7 @@ public class EventControllerTest {
                 LocalDateTime.of(2025, 7, 10, 10, 0),
                 true); // Neuer Status
 
-        when(eventService.updateEventCompletionStatus(eq(1L), eq(true))).thenReturn(updatedEvent);
+        when(eventService.updateEventCompletionStatus(eq(CALENDAR), eq(1L), eq(true))).thenReturn(updatedEvent);
 
         mockMvc.perform(MockMvcRequestBuilders.patch("/events/1/complete")
                         .param("isCompleted", "true"))
@@ -248,7 +430,7 @@ public class EventControllerTest {
                 .andExpect(jsonPath("$.id").value(1L))
                 .andExpect(jsonPath("$.isCompleted").value(true));
 
-        verify(eventService, times(1)).updateEventCompletionStatus(eq(1L), eq(true));
+        verify(eventService, times(1)).updateEventCompletionStatus(eq(CALENDAR), eq(1L), eq(true));
     }
 
     @Test
@@ -256,12 +438,415 @@ public class EventControllerTest {
     void shouldReturnNotFoundWhenUpdatingCompletionStatusForNonExistentEvent() throws Exception {
         // Mocken Sie die Ausnahme, die vom Service geworfen wird
         doThrow(new ResponseStatusException(org.springframework.http.HttpStatus.NOT_FOUND, "Event not found with ID: 99"))
-                .when(eventService).updateEventCompletionStatus(eq(99L), anyBoolean());
+                .when(eventService).updateEventCompletionStatus(eq(CALENDAR), eq(99L), anyBoolean());
 
         mockMvc.perform(MockMvcRequestBuilders.patch("/events/99/complete")
                         .param("isCompleted", "true"))
                 .andExpect(status().isNotFound());
 
-        verify(eventService, times(1)).updateEventCompletionStatus(eq(99L), anyBoolean());
+        verify(eventService, times(1)).updateEventCompletionStatus(eq(CALENDAR), eq(99L), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("POST /events/batch should create valid events and report invalid ones per item")
+    void shouldCreateEventsInBatch() throws Exception {
+        Event valid = new Event(null, "Meeting", null,
+                LocalDateTime.of(2025, 7, 10, 9, 0), LocalDateTime.of(2025, 7, 10, 10, 0), false);
+        Event invalid = new Event(null, "", null,
+                LocalDateTime.of(2025, 7, 10, 9, 0), LocalDateTime.of(2025, 7, 10, 10, 0), false);
+        Event saved = new Event(7L, "Meeting", null, valid.getStartDateTime(), valid.getEndDateTime(), false);
+
+        when(eventService.createEvents(eq(CALENDAR), anyList())).thenReturn(List.of(saved));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/events/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(invalid, valid))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].status").value(400))
+                .andExpect(jsonPath("$[0].error").value(org.hamcrest.Matchers.startsWith("title:")))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].status").value(201))
+                .andExpect(jsonPath("$[1].event.id").value(7));
+
+        // Nur das gültige Event erreicht den Service
+        verify(eventService, times(1)).createEvents(eq(CALENDAR), argThat(events -> events.size() == 1));
+    }
+
+    @Test
+    @DisplayName("PUT /events/batch should reject items without id and keep request order")
+    void shouldUpdateEventsInBatch() throws Exception {
+        Event withoutId = new Event(null, "Meeting", null,
+                LocalDateTime.of(2025, 7, 10, 9, 0), LocalDateTime.of(2025, 7, 10, 10, 0), false);
+        Event missing = new Event(99L, "Ghost", null,
+                LocalDateTime.of(2025, 7, 10, 9, 0), LocalDateTime.of(2025, 7, 10, 10, 0), false);
+
+        when(eventService.updateEvents(eq(CALENDAR), anyList())).thenReturn(List.of(
+                BatchItemResult.failure(0, org.springframework.http.HttpStatus.NOT_FOUND, 99L, "Event not found with ID: 99")));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/events/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(withoutId, missing))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(400))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].status").value(404))
+                .andExpect(jsonPath("$[1].id").value(99));
+    }
+
+    @Test
+    @DisplayName("DELETE /events/batch should return one result per id")
+    void shouldDeleteEventsInBatch() throws Exception {
+        when(eventService.deleteEvents(CALENDAR, List.of(1L, 99L))).thenReturn(List.of(
+                BatchItemResult.deleted(0, 1L),
+                BatchItemResult.failure(1, org.springframework.http.HttpStatus.NOT_FOUND, 99L, "Event not found with ID: 99")));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/events/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 99]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(204))
+                .andExpect(jsonPath("$[1].status").value(404));
+    }
+
+    @Test
+    @DisplayName("POST /events/batch should reject batches above the size limit")
+    void shouldRejectTooLargeBatch() throws Exception {
+        String body = "[" + String.join(",", Collections.nCopies(EventService.MAX_BATCH_SIZE + 1, "{}")) + "]";
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/events/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+
+        verify(eventService, never()).createEvents(eq(CALENDAR), anyList());
+    }
+
+    @Test
+    @DisplayName("GET /events/{id} should return an ETag built from id and version")
+    void shouldReturnETagForEvent() throws Exception {
+        Event event = new Event(1L, "Meeting", null,
+                LocalDateTime.of(2025, 7, 10, 9, 0), LocalDateTime.of(2025, 7, 10, 10, 0), false, 3L);
+        when(eventService.getEventById(CALENDAR, 1L)).thenReturn(Optional.of(event));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""))
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
+    @Test
+    @DisplayName("GET /events/{id} should answer 304 for a matching If-None-Match without loading the event")
+    void shouldReturnNotModifiedForMatchingETag() throws Exception {
+        when(eventService.getEventVersion(CALENDAR, 1L)).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/1").header("If-None-Match", "\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(eventService, never()).getEventById(any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Requests should be scoped by the calendar header and reject invalid calendar IDs")
+    void shouldScopeRequestsByCalendarHeader() throws Exception {
+        when(eventService.getRevision()).thenReturn("a1-42");
+        when(eventService.getAllEvents("team-1")).thenReturn(List.of());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/events").header(EventController.CALENDAR_HEADER, "team-1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"events-team-1-a1-42\""))
+                .andExpect(header().stringValues("Vary", hasItem(EventController.CALENDAR_HEADER)));
+        // Das ETag eines anderen Kalenders passt nicht
+        mockMvc.perform(MockMvcRequestBuilders.get("/events").header(EventController.CALENDAR_HEADER, "team-1")
+                        .header("If-None-Match", "W/\"events-default-a1-42\""))
+                .andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.delete("/events/1").header(EventController.CALENDAR_HEADER, "team-1"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(MockMvcRequestBuilders.get("/events").header(EventController.CALENDAR_HEADER, "team/1"))
+                .andExpect(status().isBadRequest());
+
+        verify(eventService, times(2)).getAllEvents("team-1");
+        verify(eventService, times(1)).deleteEvent("team-1", 1L);
+        verify(eventService, never()).getAllEvents(CALENDAR);
+    }
+
+    @Test
+    @DisplayName("GET /events should answer 304 while the revision is unchanged")
+    void shouldReturnNotModifiedForUnchangedCollection() throws Exception {
+        when(eventService.getRevision()).thenReturn("a1-42");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/events"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"events-default-a1-42\""));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/events").header("If-None-Match", "W/\"events-default-a1-42\""))
+                .andExpect(status().isNotModified());
+        // If-None-Match vergleicht schwach: auch das früher gelieferte starke ETag passt weiterhin
+        mockMvc.perform(MockMvcRequestBuilders.get("/events").header("If-None-Match", "\"events-default-a1-42\""))
+                .andExpect(status().isNotModified());
+
+        verify(eventService, times(1)).getAllEvents(CALENDAR);
+    }
+
+    @Test
+    @DisplayName("PUT /events/{id} with If-Match should pass the expected version to the service")
+    void shouldUpdateEventWithIfMatch() throws Exception {
+        Event updatedEvent = new Event(1L, "Updated Meeting", null,
+                LocalDateTime.of(2025, 7, 10, 9, 0), LocalDateTime.of(2025, 7, 10, 10, 0), false);
+        Event savedEvent = new Event(1L, "Updated Meeting", null,
+                updatedEvent.getStartDateTime(), updatedEvent.getEndDateTime(), false, 4L);
+        when(eventService.updateEvent(eq(CALENDAR), eq(1L), any(Event.class), eq(3L))).thenReturn(savedEvent);
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/events/1")
+                        .header("If-Match", "\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedEvent)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-4\""));
+    }
+
+    @Test
+    @DisplayName("PUT /events/{id} should return 412 on a version conflict or a foreign ETag")
+    void shouldReturnPreconditionFailedOnConflict() throws Exception {
+        Event updatedEvent = new Event(1L, "Updated Meeting", null,
+                LocalDateTime.of(2025, 7, 10, 9, 0), LocalDateTime.of(2025, 7, 10, 10, 0), false);
+        doThrow(new ResponseStatusException(org.springframework.http.HttpStatus.PRECONDITION_FAILED))
+                .when(eventService).updateEvent(eq(CALENDAR), eq(1L), any(Event.class), eq(2L));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/events/1")
+                        .header("If-Match", "\"1-2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedEvent)))
+                .andExpect(status().isPreconditionFailed());
+
+        // ETag eines anderen Events
+        mockMvc.perform(MockMvcRequestBuilders.put("/events/1")
+                        .header("If-Match", "\"7-2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedEvent)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(eventService, times(1)).updateEvent(eq(CALENDAR), eq(1L), any(Event.class), anyLong());
+    }
+
+    @Test
+    @DisplayName("GET /events/changes should open an event stream resuming from Last-Event-ID")
+    void shouldSubscribeToChanges() throws Exception {
+        when(changeFeed.subscribe(any(), any())).thenAnswer(invocation -> new SseEmitter());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/changes").header("Last-Event-ID", "42"))
+                .andExpect(request().asyncStarted());
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/changes").param("since", "7"))
+                .andExpect(request().asyncStarted());
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/changes"))
+                .andExpect(request().asyncStarted());
+
+        verify(changeFeed).subscribe(CALENDAR, 42L);
+        verify(changeFeed).subscribe(CALENDAR, 7L);
+        verify(changeFeed).subscribe(CALENDAR, null);
+    }
+
+    @Test
+    @DisplayName("GET /events/changes should reject an invalid Last-Event-ID and report a full feed as 503")
+    void shouldRejectInvalidChangeSubscriptions() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/changes").header("Last-Event-ID", "abc"))
+                .andExpect(status().isBadRequest());
+
+        when(changeFeed.subscribe(any(), any())).thenThrow(
+                new ResponseStatusException(org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE));
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/changes"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    @DisplayName("GET /events/sync should return the changes since the decoded token")
+    void shouldSyncEvents() throws Exception {
+        SyncToken since = new SyncToken(Instant.parse("2025-07-10T09:00:00Z"), 5L, Instant.parse("2025-07-10T09:00:05Z"));
+        Event changed = new Event(1L, "Meeting", null,
+                LocalDateTime.of(2025, 7, 10, 9, 0), LocalDateTime.of(2025, 7, 10, 10, 0), false, 3L);
+        when(syncService.getChangesSince(CALENDAR, since, 50)).thenReturn(new SyncResult(List.of(changed), List.of(2L), "next", false));
+        when(syncService.getChangesSince(CALENDAR, null, EventService.MAX_PAGE_SIZE)).thenReturn(new SyncResult(List.of(), List.of(), "first", false));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/sync").param("since", since.encode()).param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed[0].id").value(1))
+                .andExpect(jsonPath("$.deleted[0]").value(2))
+                .andExpect(jsonPath("$.token").value("next"))
+                .andExpect(jsonPath("$.hasMore").value(false));
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/sync"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("first"));
+    }
+
+    @Test
+    @DisplayName("GET /events/sync should reject invalid tokens and limits and pass on expired tokens as 410")
+    void shouldRejectInvalidSyncRequests() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/sync").param("since", "kein-token"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/sync").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+
+        when(syncService.getChangesSince(any(), any(), anyInt())).thenThrow(
+                new ResponseStatusException(org.springframework.http.HttpStatus.GONE));
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/sync"))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    @DisplayName("GET /events should return the columnar format only when it is requested via Accept")
+    void shouldNegotiateColumnarFormat() throws Exception {
+        Event event = new Event(1L, "Meeting", "Team Meeting",
+                LocalDateTime.of(2025, 7, 10, 9, 0), LocalDateTime.of(2025, 7, 10, 10, 0), false, 2L);
+        when(eventService.getAllEvents(CALENDAR)).thenReturn(List.of(event));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/events").accept(EventColumnarCodec.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(EventColumnarCodec.MEDIA_TYPE))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andReturn();
+        assertEquals(List.of(event),
+                EventColumnarCodec.read(new ByteArrayInputStream(result.getResponse().getContentAsByteArray())));
+
+        // Ohne bzw. mit allgemeinem Accept-Header bleibt es bei JSON
+        mockMvc.perform(MockMvcRequestBuilders.get("/events").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].title").value("Meeting"));
+    }
+
+    @Test
+    @DisplayName("GET /events with fields should return only the selected fields and reject unknown ones")
+    void shouldGetSparseFieldsets() throws Exception {
+        List<String> fields = List.of("id", "title", "startDateTime");
+        when(eventService.getEventFields(CALENDAR, LocalDate.of(2025, 7, 1), null, null, null, null, null, fields))
+                .thenReturn(List.of(new SparseEvent(fields, new Object[]{1L, "Meeting", LocalDateTime.of(2025, 7, 10, 9, 0)})));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/events")
+                        .param("startDate", "2025-07-01").param("fields", "title, startDateTime,title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].title").value("Meeting"))
+                .andExpect(jsonPath("$[0].startDateTime").value("2025-07-10T09:00:00"))
+                .andExpect(jsonPath("$[0].description").doesNotExist());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/events").param("fields", "title,location"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get("/events").param("fields", "title").param("limit", "10"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get("/events").param("fields", "title").accept(EventColumnarCodec.MEDIA_TYPE))
+                .andExpect(status().isNotAcceptable());
+        verify(eventService, never()).getFilteredEvents(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("GET /events with filters should serve the cached body, gzip-compressed if accepted")
+    void shouldServeFilteredEventsFromResponseCache() throws Exception {
+        byte[] json = "[{\"id\":1}]".getBytes();
+        byte[] gzip = {31, -117, 8, 0};
+        EventFilter filter = new EventFilter(CALENDAR, LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 31), null, null, null, null);
+        when(responseCache.isEnabled()).thenReturn(true);
+        when(responseCache.get(eq(filter), any())).thenReturn(new EventResponseCache.Body(json, gzip));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/events")
+                        .param("startDate", "2025-07-01").param("endDate", "2025-07-31")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().stringValues("Vary", hasItem(containsString("Accept-Encoding"))))
+                .andExpect(content().bytes(gzip));
+        mockMvc.perform(MockMvcRequestBuilders.get("/events")
+                        .param("startDate", "2025-07-01").param("endDate", "2025-07-31")
+                        .header("Accept-Encoding", "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().bytes(json));
+
+        // Das Spaltenformat wird nicht aus dem JSON-Cache bedient
+        when(eventService.getFilteredEvents(any(), any(), any(), any(), any(), any(), any())).thenReturn(List.of());
+        mockMvc.perform(MockMvcRequestBuilders.get("/events")
+                        .param("startDate", "2025-07-01").param("endDate", "2025-07-31")
+                        .accept(EventColumnarCodec.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(EventColumnarCodec.MEDIA_TYPE));
+        verify(responseCache, times(2)).get(any(), any());
+    }
+
+    @Test
+    @DisplayName("GET /events/freebusy should return merged busy blocks")
+    void shouldGetFreeBusy() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2025, 7, 10, 8, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 7, 10, 18, 0);
+        when(freeBusyService.getBusyBlocks(CALENDAR, from, to, Duration.ofMinutes(15))).thenReturn(List.of(
+                new BusyBlock(LocalDateTime.of(2025, 7, 10, 9, 0), LocalDateTime.of(2025, 7, 10, 11, 0))));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/freebusy")
+                        .param("from", "2025-07-10T08:00:00").param("to", "2025-07-10T18:00:00")
+                        .param("granularity", "15m"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].start").value("2025-07-10T09:00:00"))
+                .andExpect(jsonPath("$[0].end").value("2025-07-10T11:00:00"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/freebusy")
+                        .param("from", "2025-07-10T08:00:00").param("to", "2025-07-10T18:00:00")
+                        .param("granularity", "quarter"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /events/conflicts should return overlapping pairs")
+    void shouldGetConflicts() throws Exception {
+        when(freeBusyService.findConflicts(any(), any(), any())).thenReturn(List.of(new EventConflict(1L, 2L,
+                LocalDateTime.of(2025, 7, 10, 10, 0), LocalDateTime.of(2025, 7, 10, 11, 0))));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/conflicts")
+                        .param("from", "2025-07-10T00:00:00").param("to", "2025-07-11T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].eventId").value(1))
+                .andExpect(jsonPath("$[0].conflictingEventId").value(2));
+    }
+
+    @Test
+    @DisplayName("POST and PUT /events should report conflicting events in a header")
+    void shouldReportConflictsOnWrite() throws Exception {
+        Event event = new Event(3L, "Overlapping", null,
+                LocalDateTime.of(2025, 7, 10, 9, 30), LocalDateTime.of(2025, 7, 10, 10, 30), false);
+        when(eventService.createEvent(eq(CALENDAR), any(Event.class))).thenReturn(event);
+        when(eventService.updateEvent(eq(CALENDAR), eq(3L), any(Event.class))).thenReturn(event);
+        when(freeBusyService.findConflictingEvents(event)).thenReturn(List.of(1L, 2L));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(event)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(EventController.CONFLICTS_HEADER, "1,2"));
+        mockMvc.perform(MockMvcRequestBuilders.put("/events/3")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(event)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(EventController.CONFLICTS_HEADER, "1,2"));
+    }
+
+    @Test
+    @DisplayName("GET /events/stats should return aggregated buckets")
+    void shouldGetStats() throws Exception {
+        LocalDate july = LocalDate.of(2025, 7, 1);
+        when(statsService.getStats(CALENDAR, july, LocalDate.of(2025, 7, 31), StatsBucket.MONTH))
+                .thenReturn(List.of(EventStats.of(july, LocalDate.of(2025, 7, 31), 4, 1, 14400)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/stats")
+                        .param("from", "2025-07-01").param("to", "2025-07-31").param("bucket", "month"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].start").value("2025-07-01"))
+                .andExpect(jsonPath("$[0].count").value(4))
+                .andExpect(jsonPath("$[0].open").value(3))
+                .andExpect(jsonPath("$[0].completionRate").value(0.25))
+                .andExpect(jsonPath("$[0].durationSeconds").value(14400));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/events/stats")
+                        .param("from", "2025-07-01").param("to", "2025-07-31").param("bucket", "year"))
+                .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+}
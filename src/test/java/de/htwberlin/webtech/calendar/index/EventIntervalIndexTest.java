@@ -0,0 +1,155 @@
+package de.htwberlin.webtech.calendar.index;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.Recurrence;
+import de.htwberlin.webtech.calendar.model.RecurrenceFrequency;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import de.htwberlin.webtech.calendar.service.EventChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("EventIntervalIndex Unit Tests")
+public class EventIntervalIndexTest {
+
+    private static final String CALENDAR = Event.DEFAULT_CALENDAR;
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final Comparator<Event> ORDER =
+            Comparator.comparing(Event::getStartDateTime).thenComparing(Event::getId);
+
+    private EventIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new EventIntervalIndex(mock(EventRepository.class), mock(PlatformTransactionManager.class), true);
+    }
+
+    @Test
+    @DisplayName("Should find overlapping and contained events like a linear scan")
+    void shouldMatchLinearScan() {
+        Random random = new Random(42);
+        List<Event> events = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            Event event = randomEvent(random, id);
+            events.add(event);
+            index.put(event);
+        }
+        // Einen Teil der Events wieder entfernen bzw. verschieben, damit auch Rotationen beim Löschen greifen
+        for (int i = 0; i < 500; i++) {
+            Event removed = events.remove(random.nextInt(events.size()));
+            index.remove(removed.getId());
+        }
+        for (int i = 0; i < 200; i++) {
+            int position = random.nextInt(events.size());
+            Event moved = randomEvent(random, events.get(position).getId());
+            events.set(position, moved);
+            index.put(moved);
+        }
+        assertEquals(events.size(), index.size());
+
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime from = BASE.plusHours(random.nextInt(24 * 365));
+            LocalDateTime to = from.plusHours(random.nextInt(24 * 60));
+
+            List<Long> expectedOverlapping = events.stream()
+                    .filter(e -> e.getStartDateTime().isBefore(to) && e.getEndDateTime().isAfter(from))
+                    .sorted(ORDER).map(Event::getId).toList();
+            List<Long> expectedContained = events.stream()
+                    .filter(e -> !e.getStartDateTime().isBefore(from) && !e.getEndDateTime().isAfter(to))
+                    .sorted(ORDER).map(Event::getId).toList();
+
+            assertEquals(expectedOverlapping, index.findOverlapping(CALENDAR, from, to).stream().map(Event::getId).toList());
+            assertEquals(expectedContained, index.findContained(CALENDAR, from, to).stream().map(Event::getId).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should treat missing bounds as unbounded")
+    void shouldHandleOpenBounds() {
+        Event event = new Event(1L, "Meeting", null, BASE, BASE.plusHours(1), false);
+        index.put(event);
+
+        assertEquals(1, index.findContained(CALENDAR, null, null).size());
+        assertEquals(1, index.findOverlapping(CALENDAR, BASE.plusMinutes(30), null).size());
+        assertTrue(index.findOverlapping(CALENDAR, null, BASE).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep series apart and find them by their whole span")
+    void shouldIndexSeriesBySpan() {
+        Event series = new Event(1L, "Weekly", null, BASE, BASE.plusHours(1), false);
+        series.setRecurrence(new Recurrence(RecurrenceFrequency.WEEKLY, null, null, 10, null));
+        series.updateSeriesEnd();
+        index.put(series);
+        index.put(new Event(2L, "Single", null, BASE.plusDays(20), BASE.plusDays(20).plusHours(1), false));
+
+        // Die Serie erscheint nicht als Einzeltermin, wird aber bis zu ihrem zehnten Vorkommen gefunden
+        assertEquals(List.of(2L), index.findContained(CALENDAR, null, null).stream().map(Event::getId).toList());
+        assertEquals(List.of(1L), index.findSeries(CALENDAR, BASE.plusDays(60), BASE.plusDays(70)).stream().map(Event::getId).toList());
+        assertTrue(index.findSeries(CALENDAR, BASE.plusDays(70), null).isEmpty());
+
+        index.remove(1L);
+        assertTrue(index.findSeries(CALENDAR, null, null).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Should only return events of the requested calendar")
+    void shouldSeparateCalendars() {
+        Event own = new Event(1L, "Meeting", null, BASE, BASE.plusHours(1), false);
+        Event other = new Event(2L, "Meeting", null, BASE, BASE.plusHours(1), false);
+        other.setCalendarId("team");
+        index.put(own);
+        index.put(other);
+
+        assertEquals(List.of(1L), index.findOverlapping(CALENDAR, null, null).stream().map(Event::getId).toList());
+        assertEquals(List.of(2L), index.findContained("team", null, null).stream().map(Event::getId).toList());
+        assertTrue(index.findOverlapping("unknown", null, null).isEmpty());
+
+        // Ein Event, das den Kalender wechselt, verschwindet aus dem alten
+        Event moved = new Event(1L, "Meeting", null, BASE, BASE.plusHours(1), false);
+        moved.setCalendarId("team");
+        index.put(moved);
+        assertTrue(index.findOverlapping(CALENDAR, null, null).isEmpty());
+        assertEquals(List.of(1L, 2L), index.findOverlapping("team", null, null).stream().map(Event::getId).toList());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("Should apply change events and ignore them when disabled")
+    void shouldApplyChangeEvents() {
+        Event event = new Event(1L, "Meeting", null, BASE, BASE.plusHours(1), false);
+
+        index.onEventChange(EventChange.created(event));
+        event.setIsCompleted(true); // Änderungen an der Entität dürfen den Index nicht verändern
+        assertFalse(index.findContained(CALENDAR, null, null).get(0).getIsCompleted());
+
+        index.onEventChange(EventChange.updated(event));
+        assertTrue(index.findContained(CALENDAR, null, null).get(0).getIsCompleted());
+
+        index.onEventChange(EventChange.deleted(1L, CALENDAR));
+        assertEquals(0, index.size());
+
+        EventIntervalIndex disabled = new EventIntervalIndex(
+                mock(EventRepository.class), mock(PlatformTransactionManager.class), false);
+        disabled.onEventChange(EventChange.created(event));
+        assertEquals(0, disabled.size());
+        assertFalse(disabled.isReady());
+    }
+
+    private static Event randomEvent(Random random, long id) {
+        LocalDateTime start = BASE.plusHours(random.nextInt(24 * 365));
+        LocalDateTime end = start.plusMinutes(random.nextInt(60 * 24 * 10));
+        return new Event(id, "Event " + id, null, start, end, random.nextBoolean());
+    }
+}
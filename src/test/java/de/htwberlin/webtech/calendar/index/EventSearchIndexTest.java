@@ -0,0 +1,135 @@
+package de.htwberlin.webtech.calendar.index;
+
+import de.htwberlin.webtech.calendar.changes.EventChangePoller;
+import de.htwberlin.webtech.calendar.model.ArchivedEvent;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.repository.ArchivedEventRepository;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import de.htwberlin.webtech.calendar.repository.EventTombstoneRepository;
+import de.htwberlin.webtech.calendar.service.EventChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("EventSearchIndex Unit Tests")
+public class EventSearchIndexTest {
+
+    private static final String CALENDAR = Event.DEFAULT_CALENDAR;
+
+    private EventSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new EventSearchIndex(mock(EventRepository.class), mock(PlatformTransactionManager.class), true);
+        index.put(event(1L, "Team Meeting", "Weekly sync with the whole team"));
+        index.put(event(2L, "Project Deadline", "Final submission of the meeting notes"));
+        index.put(event(3L, "Zahnarzt", "Kontrolle bei Dr. Müller"));
+        index.put(event(4L, "Lunch", "Lunch with Anna"));
+    }
+
+    @Test
+    @DisplayName("Should rank title matches above description matches")
+    void shouldRankTitleMatchesFirst() {
+        assertEquals(List.of(1L, 2L), index.search(CALENDAR, "meeting", 10));
+    }
+
+    @Test
+    @DisplayName("Should require every query term to match")
+    void shouldCombineTermsWithAnd() {
+        assertEquals(List.of(1L), index.search(CALENDAR, "team weekly", 10));
+        assertTrue(index.search(CALENDAR, "team lunch", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should match prefixes, typos and ignore case and diacritics")
+    void shouldMatchPrefixesAndTypos() {
+        assertEquals(List.of(2L), index.search(CALENDAR, "dead", 10));
+        assertEquals(List.of(1L, 2L), index.search(CALENDAR, "meetnig", 10)); // vertauschte Buchstaben
+        assertEquals(List.of(3L), index.search(CALENDAR, "zahnartz", 10));
+        assertEquals(List.of(3L), index.search(CALENDAR, "MULLER", 10));
+        assertEquals(List.of(4L), index.search(CALENDAR, "lnch", 10)); // fehlender Buchstabe
+    }
+
+    @Test
+    @DisplayName("Should limit the number of results")
+    void shouldLimitResults() {
+        assertEquals(List.of(1L), index.search(CALENDAR, "meeting", 1));
+        assertTrue(index.search(CALENDAR, "  ", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should only return hits from the requested calendar")
+    void shouldSeparateCalendars() {
+        Event other = event(5L, "Meeting Room", "Booked by another team");
+        other.setCalendarId("team");
+        index.put(other);
+
+        assertEquals(List.of(1L, 2L), index.search(CALENDAR, "meeting", 10));
+        assertEquals(List.of(5L), index.search("team", "meeting", 10));
+        assertTrue(index.search("unknown", "meeting", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reindex updated events and forget deleted ones")
+    void shouldFollowChanges() {
+        index.onEventChange(EventChange.updated(event(4L, "Dinner", "Dinner with Anna")));
+        assertTrue(index.search(CALENDAR, "lunch", 10).isEmpty());
+        assertEquals(List.of(4L), index.search(CALENDAR, "dinner", 10));
+
+        index.onEventChange(EventChange.deleted(1L, CALENDAR));
+        assertEquals(List.of(2L), index.search(CALENDAR, "meeting", 10));
+        assertTrue(index.search(CALENDAR, "weekly", 10).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    @DisplayName("Should follow renames and archivals made by other instances")
+    void shouldFollowOtherInstances() {
+        EventRepository eventRepository = mock(EventRepository.class);
+        EventTombstoneRepository tombstoneRepository = mock(EventTombstoneRepository.class);
+        ArchivedEventRepository archiveRepository = mock(ArchivedEventRepository.class);
+        ApplicationEventPublisher publisher = change -> index.onEventChange((EventChange) change);
+        EventChangePoller poller = new EventChangePoller(eventRepository, tombstoneRepository, archiveRepository, publisher, true);
+
+        Instant now = Instant.now();
+        LocalDateTime start = LocalDateTime.of(2025, 7, 10, 9, 0);
+        Event renamed = new Event(4L, "Dinner", "Dinner with Anna", start, start.plusHours(1), false, 1L, null, null, now, CALENDAR);
+        when(eventRepository.findAllModifiedAfter(any(), any(), any())).thenReturn(List.of(renamed));
+        when(tombstoneRepository.findAllDeletedAfter(any(), any(), any())).thenReturn(List.of());
+        when(archiveRepository.findArchivedAfter(any(), any(), any()))
+                .thenReturn(List.of(ArchivedEvent.of(event(1L, "Team Meeting", "Weekly sync with the whole team"), now)));
+
+        poller.poll();
+
+        assertTrue(index.search(CALENDAR, "lunch", 10).isEmpty());
+        assertEquals(List.of(4L), index.search(CALENDAR, "dinner", 10));
+        assertEquals(List.of(2L), index.search(CALENDAR, "meeting", 10));
+        assertTrue(index.search(CALENDAR, "weekly", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should detect single edits between terms")
+    void shouldDetectSingleEdits() {
+        assertTrue(EventSearchIndex.withinOneEdit("meeting", "meetnig"));
+        assertTrue(EventSearchIndex.withinOneEdit("lunch", "lnch"));
+        assertTrue(EventSearchIndex.withinOneEdit("lunch", "lunches".substring(0, 6)));
+        assertTrue(EventSearchIndex.withinOneEdit("lunch", "punch"));
+        assertFalse(EventSearchIndex.withinOneEdit("lunch", "pinch"));
+        assertFalse(EventSearchIndex.withinOneEdit("lunch", "lunches"));
+    }
+
+    private static Event event(Long id, String title, String description) {
+        LocalDateTime start = LocalDateTime.of(2025, 7, 10, 9, 0);
+        return new Event(id, title, description, start, start.plusHours(1), false);
+    }
+}
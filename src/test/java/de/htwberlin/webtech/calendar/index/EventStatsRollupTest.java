@@ -0,0 +1,87 @@
+package de.htwberlin.webtech.calendar.index;
+
+import de.htwberlin.webtech.calendar.model.DailyEventStats;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.Recurrence;
+import de.htwberlin.webtech.calendar.model.RecurrenceFrequency;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("EventStatsRollup Unit Tests")
+public class EventStatsRollupTest {
+
+    private static final String CALENDAR = Event.DEFAULT_CALENDAR;
+    private static final LocalDate DAY = LocalDate.of(2025, 7, 10);
+
+    private EventStatsRollup rollup;
+
+    @BeforeEach
+    void setUp() {
+        rollup = new EventStatsRollup(mock(EventRepository.class), mock(PlatformTransactionManager.class), true);
+    }
+
+    @Test
+    @DisplayName("Should keep daily totals up to date when events are added, moved and removed")
+    void shouldMaintainDailyTotals() {
+        rollup.put(event(1L, DAY, 60, false));
+        rollup.put(event(2L, DAY, 30, true));
+        rollup.put(event(3L, DAY.plusDays(1), 90, false));
+
+        assertEquals(List.of(
+                new DailyEventStats(DAY, 2, 1, 5400),
+                new DailyEventStats(DAY.plusDays(1), 1, 0, 5400)), rollup.getDailyStats(CALENDAR, DAY, DAY.plusDays(1)));
+
+        // Event 1 auf den nächsten Tag verschieben und als erledigt markieren, Event 2 löschen
+        rollup.put(event(1L, DAY.plusDays(1), 15, true));
+        rollup.remove(2L);
+
+        assertEquals(List.of(new DailyEventStats(DAY.plusDays(1), 2, 1, 6300)), rollup.getDailyStats(CALENDAR, DAY, DAY.plusDays(5)));
+        assertEquals(List.of(), rollup.getDailyStats(CALENDAR, DAY.plusDays(2), DAY.plusDays(5)));
+    }
+
+    @Test
+    @DisplayName("Should keep series apart from the daily totals")
+    void shouldTrackSeriesSeparately() {
+        Event series = event(4L, DAY, 60, false);
+        series.setRecurrence(new Recurrence(RecurrenceFrequency.DAILY, null, null, null, null));
+        rollup.put(series);
+
+        assertEquals(List.of(), rollup.getDailyStats(CALENDAR, DAY, DAY.plusDays(30)));
+        assertEquals(List.of(4L), rollup.getSeries(CALENDAR).stream().map(Event::getId).toList());
+
+        rollup.remove(4L);
+        assertTrue(rollup.getSeries(CALENDAR).isEmpty());
+        assertEquals(0, rollup.size());
+    }
+
+    @Test
+    @DisplayName("Should keep separate totals per calendar")
+    void shouldSeparateCalendars() {
+        Event other = event(2L, DAY, 30, true);
+        other.setCalendarId("team");
+        rollup.put(event(1L, DAY, 60, false));
+        rollup.put(other);
+
+        assertEquals(List.of(new DailyEventStats(DAY, 1, 0, 3600)), rollup.getDailyStats(CALENDAR, DAY, DAY));
+        assertEquals(List.of(new DailyEventStats(DAY, 1, 1, 1800)), rollup.getDailyStats("team", DAY, DAY));
+
+        rollup.remove(2L);
+        assertEquals(List.of(), rollup.getDailyStats("team", DAY, DAY));
+        assertEquals(1, rollup.size());
+    }
+
+    private static Event event(Long id, LocalDate day, int minutes, boolean completed) {
+        LocalDateTime start = day.atTime(9, 0);
+        return new Event(id, "Event " + id, null, start, start.plusMinutes(minutes), completed);
+    }
+}
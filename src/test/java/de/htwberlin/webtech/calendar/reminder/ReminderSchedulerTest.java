@@ -0,0 +1,174 @@
+package de.htwberlin.webtech.calendar.reminder;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.Recurrence;
+import de.htwberlin.webtech.calendar.model.RecurrenceFrequency;
+import de.htwberlin.webtech.calendar.model.SchedulerLease;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import de.htwberlin.webtech.calendar.repository.SchedulerLeaseRepository;
+import de.htwberlin.webtech.calendar.service.EventChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReminderScheduler Unit Tests")
+public class ReminderSchedulerTest {
+
+    private static final String CALENDAR = Event.DEFAULT_CALENDAR;
+    private static final Instant NOW = Instant.parse("2025-07-10T08:00:00Z");
+    private static final LocalDateTime LOCAL_NOW = LocalDateTime.ofInstant(NOW, ZoneId.systemDefault());
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private SchedulerLeaseRepository leaseRepository;
+
+    @Mock
+    private ReminderSink sink;
+
+    private ReminderScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new ReminderScheduler(eventRepository, leaseRepository, sink, true, Duration.ofMinutes(15),
+                Duration.ofSeconds(1), Duration.ofMinutes(10), Duration.ofSeconds(30), Duration.ofHours(1),
+                Duration.ofSeconds(30), "node-1");
+    }
+
+    @Test
+    @DisplayName("Should send a reminder lead-time before the start of an upcoming event")
+    void shouldSendReminderBeforeStart() {
+        becomeLeader(null);
+        Event event = event(1L, LOCAL_NOW.plusMinutes(20));
+        when(eventRepository.findOpenStartingAfter(any(), any(), any(), any())).thenReturn(List.of(event));
+        when(eventRepository.findByCalendarIdAndIdIn(eq(CALENDAR), any())).thenReturn(List.of(event));
+
+        scheduler.tick(NOW);
+        assertEquals(1, scheduler.pendingCount());
+        tickUntil(NOW.plus(Duration.ofMinutes(5)).minusSeconds(1));
+        verifyNoInteractions(sink);
+        scheduler.tick(NOW.plus(Duration.ofMinutes(5)));
+
+        verify(sink).deliver(new Reminder(1L, CALENDAR, "Event 1", LOCAL_NOW.plusMinutes(20),
+                LOCAL_NOW.plusMinutes(80), LOCAL_NOW.plusMinutes(5)));
+        assertEquals(0, scheduler.pendingCount());
+        // Mit der Verlängerung wird gespeichert, bis wann alles versendet ist
+        verify(leaseRepository, atLeastOnce()).renew(eq(ReminderScheduler.LEASE_NAME), eq("node-1"), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should neither load nor send reminders while another instance holds the lease")
+    void shouldStayIdleAsFollower() {
+        when(leaseRepository.takeOver(any(), any(), any(), any())).thenReturn(0);
+        when(leaseRepository.existsById(ReminderScheduler.LEASE_NAME)).thenReturn(true);
+
+        scheduler.tick(NOW);
+        scheduler.tick(NOW.plus(Duration.ofMinutes(5)));
+
+        verifyNoInteractions(eventRepository, sink);
+        assertEquals(0, scheduler.pendingCount());
+        verify(leaseRepository, times(2)).takeOver(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should move and cancel reminders when events of this instance change")
+    void shouldFollowLocalChanges() {
+        becomeLeader(null);
+        Event event = event(1L, LOCAL_NOW.plusMinutes(20));
+        when(eventRepository.findOpenStartingAfter(any(), any(), any(), any())).thenReturn(List.of(event));
+        scheduler.tick(NOW);
+
+        scheduler.onEventChange(EventChange.updated(event(1L, LOCAL_NOW.plusHours(2)))); // Außerhalb des Fensters
+        assertEquals(0, scheduler.pendingCount());
+        scheduler.onEventChange(EventChange.updated(event(1L, LOCAL_NOW.plusMinutes(22))));
+        assertEquals(1, scheduler.pendingCount());
+        Event completed = event(1L, LOCAL_NOW.plusMinutes(22));
+        completed.setIsCompleted(true);
+        scheduler.onEventChange(EventChange.updated(completed));
+        assertEquals(0, scheduler.pendingCount());
+        scheduler.onEventChange(EventChange.created(event(2L, LOCAL_NOW.plusMinutes(21))));
+        scheduler.onEventChange(EventChange.deleted(2L, CALENDAR));
+        assertEquals(0, scheduler.pendingCount());
+    }
+
+    @Test
+    @DisplayName("Should skip reminders of events that were deleted or moved on another instance")
+    void shouldVerifyEventsBeforeSending() {
+        becomeLeader(null);
+        Event deleted = event(1L, LOCAL_NOW.plusMinutes(20));
+        Event moved = event(2L, LOCAL_NOW.plusMinutes(20));
+        when(eventRepository.findOpenStartingAfter(any(), any(), any(), any())).thenReturn(List.of(deleted, moved));
+        when(eventRepository.findByCalendarIdAndIdIn(eq(CALENDAR), any()))
+                .thenReturn(List.of(event(2L, LOCAL_NOW.plusHours(3))));
+
+        tickUntil(NOW.plus(Duration.ofMinutes(6)));
+
+        verifyNoInteractions(sink);
+    }
+
+    @Test
+    @DisplayName("Should remind of each occurrence of a series")
+    void shouldRemindOfSeriesOccurrences() {
+        becomeLeader(null);
+        Event series = event(1L, LOCAL_NOW.minusDays(3).plusMinutes(20));
+        series.setRecurrence(new Recurrence(RecurrenceFrequency.DAILY, 1, null, null, null));
+        when(eventRepository.findOpenSeriesBetween(any(), any())).thenReturn(List.of(series));
+        when(eventRepository.findByCalendarIdAndIdIn(eq(CALENDAR), any())).thenReturn(List.of(series));
+
+        tickUntil(NOW.plus(Duration.ofMinutes(6)));
+
+        verify(sink).deliver(new Reminder(1L, CALENDAR, "Event 1", LOCAL_NOW.plusMinutes(20),
+                LOCAL_NOW.plusMinutes(80), LOCAL_NOW.plusMinutes(5)));
+    }
+
+    @Test
+    @DisplayName("Should catch up on reminders missed since the checkpoint of the previous leader")
+    void shouldResumeFromCheckpoint() {
+        becomeLeader(NOW.minus(Duration.ofMinutes(10)));
+        Event missed = event(1L, LOCAL_NOW.plusMinutes(10)); // Erinnerung war vor fünf Minuten fällig
+        Event tooOld = event(2L, LOCAL_NOW.minusMinutes(10)); // Erinnerung lag vor dem Checkpoint
+        when(eventRepository.findOpenStartingAfter(any(), any(), any(), any())).thenReturn(List.of(missed, tooOld));
+        when(eventRepository.findByCalendarIdAndIdIn(eq(CALENDAR), any())).thenReturn(List.of(missed));
+
+        scheduler.tick(NOW);
+
+        verify(sink).deliver(new Reminder(1L, CALENDAR, "Event 1", LOCAL_NOW.plusMinutes(10),
+                LOCAL_NOW.plusMinutes(70), LOCAL_NOW.minusMinutes(5)));
+        verify(sink, times(1)).deliver(any());
+    }
+
+    // Dreht wie der Scheduler im Betrieb jede Sekunde weiter
+    private void tickUntil(Instant end) {
+        for (Instant now = NOW; !now.isAfter(end); now = now.plusSeconds(1)) {
+            scheduler.tick(now);
+        }
+    }
+
+    private void becomeLeader(Instant checkpoint) {
+        SchedulerLease lease = new SchedulerLease(ReminderScheduler.LEASE_NAME, "node-0", NOW);
+        ReflectionTestUtils.setField(lease, "checkpoint", checkpoint);
+        when(leaseRepository.takeOver(any(), any(), any(), any())).thenReturn(1);
+        when(leaseRepository.findById(ReminderScheduler.LEASE_NAME)).thenReturn(Optional.of(lease));
+        lenient().when(leaseRepository.renew(any(), any(), any(), any())).thenReturn(1);
+    }
+
+    private static Event event(Long id, LocalDateTime start) {
+        return new Event(id, "Event " + id, null, start, start.plusHours(1), false);
+    }
+}
@@ -0,0 +1,87 @@
+package de.htwberlin.webtech.calendar.reminder;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TimingWheel Unit Tests")
+public class TimingWheelTest {
+
+    @Test
+    @DisplayName("Should fire every timer exactly at its deadline across all levels")
+    void shouldFireAtDeadline() {
+        Random random = new Random(42);
+        long start = 1_000_003; // Nicht auf einer Fachgrenze, damit auch angebrochene Umläufe vorkommen
+        TimingWheel<Long> wheel = new TimingWheel<>(start);
+        Map<Long, TimingWheel.Timer<Long>> scheduled = new HashMap<>();
+        for (long id = 0; id < 5000; id++) {
+            // Fristen von wenigen Ticks bis über drei Ebenen hinweg
+            long deadline = start + (long) Math.pow(random.nextDouble(), 3) * 300_000;
+            scheduled.put(id, wheel.schedule(deadline, id));
+        }
+        // Ein Teil wird wieder abgebrochen
+        for (long id = 0; id < 5000; id += 7) {
+            assertTrue(wheel.cancel(scheduled.remove(id)));
+        }
+        assertEquals(scheduled.size(), wheel.size());
+
+        List<Long> fired = new ArrayList<>();
+        long tick = start;
+        while (wheel.size() > 0) {
+            tick += 1 + random.nextInt(500); // Mal einzelne Ticks, mal größere Sprünge
+            long now = tick;
+            wheel.advanceTo(now, id -> {
+                assertTrue(scheduled.get(id).deadline() <= now, "fired too early");
+                assertTrue(scheduled.get(id).deadline() > now - 501, "fired too late");
+                fired.add(id);
+            });
+        }
+        assertEquals(scheduled.size(), fired.size());
+        assertTrue(fired.containsAll(scheduled.keySet()));
+    }
+
+    @Test
+    @DisplayName("Should fire overdue timers with the next advance and jump over empty stretches")
+    void shouldFireOverdueTimers() {
+        TimingWheel<String> wheel = new TimingWheel<>(100);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advanceTo(1_000_000, fired::add); // Leeres Rad: springt direkt zum Ziel
+        assertEquals(1_000_001, wheel.currentTick());
+        wheel.schedule(5, "overdue");
+        wheel.schedule(1_000_002, "next");
+        wheel.advanceTo(1_000_001, fired::add);
+
+        assertEquals(List.of("overdue"), fired);
+        wheel.advanceTo(1_000_002, fired::add);
+        assertEquals(List.of("overdue", "next"), fired);
+    }
+
+    @Test
+    @DisplayName("Should allow timers to be scheduled and cancelled from within the expiry callback")
+    void shouldAllowReentrantScheduling() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(0);
+        TimingWheel.Timer<Integer> cancelled = wheel.schedule(18, 99);
+        wheel.schedule(10, 1);
+        List<Integer> fired = new ArrayList<>();
+
+        wheel.advanceTo(20, value -> {
+            fired.add(value);
+            if (value < 3) {
+                wheel.schedule(15 + value, value + 1);
+            }
+            wheel.cancel(cancelled);
+        });
+
+        assertEquals(List.of(1, 2, 3), fired);
+        assertFalse(cancelled.isPending());
+        assertThrows(IllegalArgumentException.class, () -> wheel.schedule(21 + TimingWheel.MAX_DELAY_TICKS, 0));
+    }
+}
@@ -0,0 +1,220 @@
+package de.htwberlin.webtech.calendar.service;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CompletionWriteBehind Unit Tests")
+public class CompletionWriteBehindTest {
+
+    private static final String CALENDAR = Event.DEFAULT_CALENDAR;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path directory;
+
+    private CompletionWriteBehind writeBehind;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should coalesce toggles per event and flush them with one UPDATE per status")
+    void shouldCoalesceAndFlushInBatches() throws IOException {
+        writeBehind = create(100);
+        writeBehind.enqueue(CALENDAR, 1L, true);
+        writeBehind.enqueue(CALENDAR, 2L, false);
+        writeBehind.enqueue(CALENDAR, 3L, true);
+        writeBehind.enqueue(CALENDAR, 2L, true); // Ersetzt die vorige Änderung von Event 2
+        Event event = event(1L, 4L);
+        when(eventRepository.findByCalendarIdAndIdIn(eq(CALENDAR), any())).thenReturn(List.of(event));
+
+        writeBehind.flush();
+
+        verify(eventRepository, times(1)).updateCompletionStatusByIds(eq(CALENDAR),
+                argThat(ids -> ids.size() == 3 && ids.containsAll(List.of(1L, 2L, 3L))), eq(true), any());
+        verify(eventRepository, never()).updateCompletionStatusByIds(any(), any(), eq(false), any());
+        verify(eventPublisher).publishEvent(EventChange.updated(event));
+        assertSame(event, writeBehind.applyTo(event));
+        assertEquals("", Files.readString(directory.resolve("journal.log")));
+    }
+
+    @Test
+    @DisplayName("Should recover acknowledged toggles from the journal after a crash")
+    void shouldRecoverFromJournal() {
+        CompletionWriteBehind crashed = create(100);
+        crashed.enqueue(CALENDAR, 1L, true);
+        crashed.enqueue(CALENDAR, 2L, true);
+        crashed.enqueue(CALENDAR, 1L, false);
+        // Kein close(): Der Prozess endet, ohne zu flushen
+
+        writeBehind = create(100);
+        writeBehind.flush();
+
+        verify(eventRepository).updateCompletionStatusByIds(eq(CALENDAR), eq(List.of(1L)), eq(false), any());
+        verify(eventRepository).updateCompletionStatusByIds(eq(CALENDAR), eq(List.of(2L)), eq(true), any());
+    }
+
+    @Test
+    @DisplayName("Should keep toggles pending and in the journal when the flush fails")
+    void shouldKeepTogglesWhenFlushFails() {
+        writeBehind = create(100);
+        writeBehind.enqueue(CALENDAR, 1L, true);
+        when(eventRepository.updateCompletionStatusByIds(any(), any(), any(), any()))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(1);
+
+        assertThrows(IllegalStateException.class, () -> writeBehind.flush());
+        assertTrue(writeBehind.applyTo(event(1L, 0L)).getIsCompleted());
+        writeBehind.flush();
+
+        verify(eventRepository, times(2)).updateCompletionStatusByIds(eq(CALENDAR), eq(List.of(1L)), eq(true), any());
+        assertFalse(writeBehind.applyTo(event(1L, 0L)).getIsCompleted());
+    }
+
+    @Test
+    @DisplayName("Should write a pending toggle inside a later update and restore it if that update rolls back")
+    void shouldApplyPendingToggleBeforeUpdate() {
+        writeBehind = create(100);
+        writeBehind.enqueue(CALENDAR, 1L, true);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            writeBehind.applyPending(List.of(1L, 2L));
+
+            verify(eventRepository).updateCompletionStatusByIds(eq(CALENDAR), eq(List.of(1L)), eq(true), any());
+            writeBehind.flush(); // Nichts mehr ausstehend, solange die Transaktion läuft
+            verify(eventRepository, times(1)).updateCompletionStatusByIds(any(), any(), any(), any());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertTrue(writeBehind.applyTo(event(1L, 0L)).getIsCompleted());
+    }
+
+    @Test
+    @DisplayName("Should reject new events with 503 when the queue is full but still coalesce pending ones")
+    void shouldApplyBackpressure() {
+        writeBehind = create(1);
+        writeBehind.enqueue(CALENDAR, 1L, true);
+
+        writeBehind.enqueue(CALENDAR, 1L, false);
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> writeBehind.enqueue(CALENDAR, 2L, true));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should show pending toggles with the version they will have after the flush")
+    void shouldOverlayPendingToggle() {
+        writeBehind = create(100);
+        writeBehind.enqueue(CALENDAR, 1L, true);
+        Event stored = event(1L, 4L);
+
+        Event overlaid = writeBehind.applyTo(stored);
+
+        assertTrue(overlaid.getIsCompleted());
+        assertEquals(5L, overlaid.getVersion());
+        assertFalse(stored.getIsCompleted()); // Das gecachte Event bleibt unverändert
+        assertEquals(5L, writeBehind.applyToVersion(CALENDAR, 1L, 4L));
+        assertEquals(4L, writeBehind.applyToVersion("other", 1L, 4L));
+        assertEquals(4L, writeBehind.applyToVersion(CALENDAR, 2L, 4L));
+    }
+
+    @Test
+    @DisplayName("Should persist every acknowledged toggle when concurrent toggles share fsyncs and race with flushes")
+    void shouldGroupCommitConcurrentToggles() throws Exception {
+        writeBehind = create(100_000);
+        Set<Long> written = ConcurrentHashMap.newKeySet();
+        when(eventRepository.updateCompletionStatusByIds(any(), any(), any(), any())).thenAnswer(invocation -> {
+            written.addAll(invocation.getArgument(1));
+            return 1;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        AtomicBoolean done = new AtomicBoolean();
+        try {
+            // Ein Thread flusht laufend, damit Kompaktierung und fsync einander überholen
+            Future<?> flusher = executor.submit(() -> {
+                while (!done.get()) {
+                    writeBehind.flush();
+                }
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                long first = thread * 500L;
+                writers.add(executor.submit(() -> {
+                    for (long id = first; id < first + 500; id++) {
+                        writeBehind.enqueue(CALENDAR, id, true);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            done.set(true);
+            flusher.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        // Kein close(): Was nicht geflusht wurde, muss aus dem Journal wiederkommen
+        writeBehind = create(100_000);
+        writeBehind.flush();
+
+        assertEquals(2000, written.size());
+    }
+
+    private CompletionWriteBehind create(int maxPending) {
+        return new CompletionWriteBehind(eventRepository, eventPublisher, transactionManager, true, maxPending,
+                Duration.ZERO, directory.resolve("journal.log"));
+    }
+
+    private static Event event(Long id, Long version) {
+        return new Event(id, "Event " + id, null,
+                LocalDateTime.of(2025, 7, 10, 9, 0), LocalDateTime.of(2025, 7, 10, 10, 0), false, version);
+    }
+}
@@ -0,0 +1,167 @@
+package de.htwberlin.webtech.calendar.service;
+
+import de.htwberlin.webtech.calendar.model.ArchivedEvent;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventFilter;
+import de.htwberlin.webtech.calendar.model.RangeMode;
+import de.htwberlin.webtech.calendar.repository.ArchivedEventRepository;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import de.htwberlin.webtech.calendar.repository.SchedulerLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EventArchiveService Unit Tests")
+public class EventArchiveServiceTest {
+
+    private static final String CALENDAR = Event.DEFAULT_CALENDAR;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private ArchivedEventRepository archiveRepository;
+
+    @Mock
+    private SchedulerLeaseRepository leaseRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EventArchiveService archiveService;
+
+    @BeforeEach
+    void setUp() {
+        archiveService = new EventArchiveService(eventRepository, archiveRepository, leaseRepository, eventPublisher,
+                transactionManager, true, Duration.ofDays(365), 2, Duration.ZERO, Duration.ofMinutes(1),
+                Duration.ofMinutes(5), "instance-a");
+    }
+
+    @Test
+    @DisplayName("Should move full batches until no candidates remain and advance the horizon")
+    @SuppressWarnings("unchecked")
+    void shouldArchiveInBatches() {
+        Event first = completed(1L, LocalDateTime.of(2023, 5, 1, 9, 0));
+        Event second = completed(2L, LocalDateTime.of(2023, 6, 1, 9, 0));
+        Event third = completed(3L, LocalDateTime.of(2023, 7, 1, 9, 0));
+        when(eventRepository.findArchivable(any(), eq(Limit.of(2))))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+        when(leaseRepository.takeOver(eq(EventArchiveService.LEASE_NAME), eq("instance-a"), any(), any())).thenReturn(1);
+        when(leaseRepository.renew(eq(EventArchiveService.LEASE_NAME), eq("instance-a"), any(), any())).thenReturn(1);
+
+        archiveService.archiveCompleted();
+
+        ArgumentCaptor<List<ArchivedEvent>> archived = ArgumentCaptor.forClass(List.class);
+        verify(archiveRepository, times(2)).saveAll(archived.capture());
+        assertEquals(List.of(1L, 2L, 3L), archived.getAllValues().stream().flatMap(List::stream).map(ArchivedEvent::getId).toList());
+        verify(eventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(eventRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(eventPublisher).publishEvent(EventChange.archived(3L, CALENDAR));
+        verify(transactionManager, times(2)).commit(any());
+        // Ein Batch kleiner als batch-size beendet den Durchlauf ohne weitere Abfrage
+        verify(eventRepository, times(2)).findArchivable(any(), any());
+        assertTrue(archiveService.reachesInto(LocalDate.of(2023, 7, 1)));
+        assertFalse(archiveService.reachesInto(LocalDate.of(2023, 7, 2)));
+        // Verlängert vor dem zweiten Batch und gibt die Leitung am Ende frei
+        verify(leaseRepository, times(2)).renew(eq(EventArchiveService.LEASE_NAME), eq("instance-a"), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should skip the run while another instance holds the archive lease")
+    void shouldSkipRunWithoutLease() {
+        when(leaseRepository.takeOver(eq(EventArchiveService.LEASE_NAME), eq("instance-a"), any(), any())).thenReturn(0);
+        when(leaseRepository.existsById(EventArchiveService.LEASE_NAME)).thenReturn(true);
+
+        archiveService.archiveCompleted();
+
+        verify(eventRepository, never()).findArchivable(any(), any());
+        verify(leaseRepository, never()).renew(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should read the archive only for ranges starting before the horizon and not for open events")
+    void shouldReachIntoArchiveOnlyBeforeHorizon() {
+        when(archiveRepository.findMaxEndDateTime()).thenReturn(LocalDateTime.of(2024, 6, 30, 18, 0));
+
+        assertTrue(archiveService.reachesInto(filter(LocalDate.of(2024, 6, 1), null)));
+        assertTrue(archiveService.reachesInto(filter(null, null)));
+        assertFalse(archiveService.reachesInto(filter(LocalDate.of(2024, 7, 1), null)));
+        assertFalse(archiveService.reachesInto(filter(LocalDate.of(2024, 6, 1), false)));
+        // Der Horizont wird nur einmal aus der Datenbank gelesen
+        verify(archiveRepository, times(1)).findMaxEndDateTime();
+    }
+
+    @Test
+    @DisplayName("Should re-read the horizon after its TTL to see batches archived by other instances")
+    void shouldRereadHorizonAfterTtl() {
+        EventArchiveService expiring = new EventArchiveService(eventRepository, archiveRepository, leaseRepository,
+                eventPublisher, transactionManager, true, Duration.ofDays(365), 2, Duration.ZERO, Duration.ZERO,
+                Duration.ofMinutes(5), "instance-a");
+        when(archiveRepository.findMaxEndDateTime())
+                .thenReturn(null)
+                .thenReturn(LocalDateTime.of(2024, 6, 30, 18, 0));
+
+        assertFalse(expiring.reachesInto(LocalDate.of(2024, 6, 1)));
+        assertTrue(expiring.reachesInto(LocalDate.of(2024, 6, 1)));
+        verify(archiveRepository, times(2)).findMaxEndDateTime();
+    }
+
+    @Test
+    @DisplayName("Should never read an empty archive")
+    void shouldSkipEmptyArchive() {
+        when(archiveRepository.findMaxEndDateTime()).thenReturn(null);
+
+        assertFalse(archiveService.reachesInto(filter(null, null)));
+        assertTrue(archiveService.findById(CALENDAR, 1L).isEmpty());
+        assertEquals(List.of(), archiveService.sumByDay(CALENDAR, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)));
+        verify(archiveRepository, never()).findByIdAndCalendarId(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should return archived events as completed events matching the filter")
+    void shouldFilterArchivedEvents() {
+        Event meeting = completed(1L, LocalDateTime.of(2024, 3, 1, 9, 0));
+        meeting.setTitle("Meeting");
+        Event review = completed(2L, LocalDateTime.of(2024, 3, 2, 9, 0));
+        review.setTitle("Review");
+        Instant archivedAt = Instant.parse("2025-03-02T00:00:00Z");
+        when(archiveRepository.findBetween(CALENDAR, LocalDate.of(2024, 3, 1).atStartOfDay(), null))
+                .thenReturn(List.of(ArchivedEvent.of(meeting, archivedAt), ArchivedEvent.of(review, archivedAt)));
+
+        List<Event> events = archiveService.findArchived(
+                new EventFilter(CALENDAR, LocalDate.of(2024, 3, 1), null, "meet", null, null, RangeMode.CONTAINED));
+
+        assertEquals(List.of(1L), events.stream().map(Event::getId).toList());
+        assertTrue(events.get(0).getIsCompleted());
+        assertEquals(CALENDAR, events.get(0).getCalendarId());
+    }
+
+    private static Event completed(Long id, LocalDateTime start) {
+        return new Event(id, "Event " + id, null, start, start.plusHours(1), true);
+    }
+
+    private static EventFilter filter(LocalDate startDate, Boolean isCompleted) {
+        return new EventFilter(CALENDAR, startDate, null, null, null, isCompleted, RangeMode.OVERLAPS);
+    }
+}
@@ -0,0 +1,40 @@
+package de.htwberlin.webtech.calendar.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EventRevision Unit Tests")
+public class EventRevisionTest {
+
+    private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+
+    @Test
+    @DisplayName("Should change the revision with every write")
+    void shouldChangeOnWrite() {
+        EventRevision revision = new EventRevision(Duration.ofMinutes(10));
+        String before = revision.current(0);
+
+        revision.onEventChange(EventChange.deleted(1L, "default"));
+
+        assertNotEquals(before, revision.current(0));
+    }
+
+    @Test
+    @DisplayName("Should expire the revision like the caches even without writes")
+    void shouldExpireWithoutWrites() {
+        EventRevision revision = new EventRevision(Duration.ofMinutes(10));
+
+        assertEquals(revision.current(0), revision.current(9 * MINUTE));
+        assertNotEquals(revision.current(9 * MINUTE), revision.current(10 * MINUTE));
+    }
+
+    @Test
+    @DisplayName("Should never match the revision of another instance")
+    void shouldSeparateInstances() {
+        assertNotEquals(new EventRevision(Duration.ofMinutes(10)).current(0), new EventRevision(Duration.ofMinutes(10)).current(0));
+    }
+}
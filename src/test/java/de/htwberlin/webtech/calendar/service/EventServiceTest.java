@@ -1,8 +1,20 @@
 
 package de.htwberlin.webtech.calendar.service;
 
+import de.htwberlin.webtech.calendar.cache.EventCache;
+import de.htwberlin.webtech.calendar.index.EventIntervalIndex;
+import de.htwberlin.webtech.calendar.index.EventSearchIndex;
+import de.htwberlin.webtech.calendar.model.BatchItemResult;
 import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventCursor;
+import de.htwberlin.webtech.calendar.model.EventFilter;
+import de.htwberlin.webtech.calendar.model.RangeMode;
+import de.htwberlin.webtech.calendar.model.Recurrence;
+import de.htwberlin.webtech.calendar.model.RecurrenceFrequency;
+import de.htwberlin.webtech.calendar.model.SparseEvent;
 import de.htwberlin.webtech.calendar.repository.EventRepository;
+import de.htwberlin.webtech.calendar.repository.EventTombstoneRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,15 +22,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -27,9 +49,41 @@ import static org.mockito.Mockito.*;
 @DisplayName("EventService Unit Tests")
 public class EventServiceTest {
 
+    private static final String CALENDAR = Event.DEFAULT_CALENDAR;
+
     @Mock
     private EventRepository eventRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EventIntervalIndex eventIntervalIndex;
+
+    @Mock
+    private EventSearchIndex eventSearchIndex;
+
+    @Mock
+    private EventRevision eventRevision;
+
+    @Mock
+    private EventCache eventCache;
+
+    @Mock
+    private EventTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private EventArchiveService eventArchiveService;
+
+    @Mock
+    private CompletionWriteBehind completionWriteBehind;
+
+    @Mock
+    private EventQueryMetrics eventQueryMetrics;
+
     @InjectMocks
     private EventService eventService;
 
@@ -38,6 +92,16 @@ public class EventServiceTest {
 
     @BeforeEach
     void setUp() {
+        // Der Cache reicht in diesen Tests alle Zugriffe an den Loader (also das Repository) durch
+        lenient().when(eventCache.getById(any(), any())).thenAnswer(invocation -> {
+            Function<Long, Optional<Event>> loader = invocation.getArgument(1);
+            return loader.apply(invocation.getArgument(0));
+        });
+        lenient().when(eventCache.getFiltered(any(), any())).thenAnswer(invocation -> {
+            Supplier<List<Event>> loader = invocation.getArgument(1);
+            return loader.get();
+        });
+
         event1 = new Event(1L, "Meeting", "Team Meeting",
                 LocalDateTime.of(2025, 7, 10, 9, 0),
                 LocalDateTime.of(2025, 7, 10, 10, 0),
@@ -52,22 +116,61 @@ public class EventServiceTest {
     @Test
     @DisplayName("Should retrieve all events with no filters")
     void shouldGetAllEventsNoFilters() {
-        // Hier wird Ihre getAllEvents() Methode im Service getestet, die findAll() aufruft
-        when(eventRepository.findAll()).thenReturn(Arrays.asList(event1, event2));
+        // Hier wird Ihre getAllEvents() Methode im Service getestet, die alle Events des Kalenders lädt
+        when(eventRepository.findByCalendarId(CALENDAR)).thenReturn(Arrays.asList(event1, event2));
 
-        List<Event> events = eventService.getAllEvents();
+        List<Event> events = eventService.getAllEvents(CALENDAR);
 
         assertNotNull(events);
         assertEquals(2, events.size());
         assertTrue(events.contains(event1));
         assertTrue(events.contains(event2));
 
-        // Überprüfe, dass die findAll Methode auf dem Mock genau einmal aufgerufen wurde
-        verify(eventRepository, times(1)).findAll();
+        // Überprüfe, dass die Abfrage auf dem Mock genau einmal aufgerufen wurde
+        verify(eventRepository, times(1)).findByCalendarId(CALENDAR);
         // Stellen Sie sicher, dass getFilteredEvents nicht aufgerufen wurde, da getAllEvents verwendet wird
         verify(eventRepository, never()).findAll(any(Specification.class));
     }
 
+    @Test
+    @DisplayName("Should retrieve the first page without a cursor")
+    void shouldGetFirstPage() {
+        when(eventRepository.findFirstPage(CALENDAR, Limit.of(2))).thenReturn(List.of(event1, event2));
+
+        List<Event> page = eventService.getEventsPage(CALENDAR, null, 2);
+
+        assertEquals(List.of(event1, event2), page);
+        verify(eventRepository, times(1)).findFirstPage(CALENDAR, Limit.of(2));
+        verify(eventRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Should retrieve the page after the cursor and cap the page size")
+    void shouldGetPageAfterCursor() {
+        EventCursor cursor = EventCursor.of(event1);
+        when(eventRepository.findPageAfter(CALENDAR, event1.getStartDateTime(), 1L, Limit.of(EventService.MAX_PAGE_SIZE)))
+                .thenReturn(List.of(event2));
+
+        List<Event> page = eventService.getEventsPage(CALENDAR, cursor, EventService.MAX_PAGE_SIZE + 1);
+
+        assertEquals(List.of(event2), page);
+        verify(eventRepository, never()).findFirstPage(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should stream all events to the consumer and detach them")
+    void shouldExportEvents() {
+        when(eventRepository.streamByCalendarOrdered(CALENDAR)).thenReturn(Stream.of(event1, event2));
+        List<Event> exported = new ArrayList<>();
+
+        eventService.exportEvents(CALENDAR, exported::add);
+
+        assertEquals(List.of(event1, event2), exported);
+        verify(entityManager, times(1)).detach(event1);
+        verify(entityManager, times(1)).detach(event2);
+        verify(eventRepository, never()).findAll();
+    }
+
     @Test
     @DisplayName("Should retrieve events filtered by title and completion status")
     void shouldGetFilteredEventsByTitleAndCompletion() {
@@ -81,7 +184,7 @@ public class EventServiceTest {
                 .thenReturn(List.of(event1));
 
         List<Event> events = eventService.getFilteredEvents(
-                null, null, titleFilter, null, isCompletedFilter);
+                CALENDAR, null, null, titleFilter, null, isCompletedFilter, null);
 
         assertNotNull(events);
         assertEquals(1, events.size());
@@ -92,27 +195,152 @@ public class EventServiceTest {
         verify(eventRepository, times(1)).findAll(any(Specification.class));
     }
 
+    @Test
+    @DisplayName("Should answer date range filters from the interval index when it is ready")
+    void shouldGetFilteredEventsFromIntervalIndex() {
+        LocalDate startDate = LocalDate.of(2025, 7, 1);
+        LocalDate endDate = LocalDate.of(2025, 7, 31);
+        when(eventIntervalIndex.isReady()).thenReturn(true);
+        when(eventIntervalIndex.findContained(CALENDAR, startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX)))
+                .thenReturn(List.of(event1, event2));
+
+        List<Event> events = eventService.getFilteredEvents(CALENDAR, startDate, endDate, null, null, true, RangeMode.CONTAINED);
+
+        assertEquals(List.of(event2), events);
+        verify(eventRepository, never()).findAll(any(Specification.class));
+    }
+
+    @Test
+    @DisplayName("Should answer overlap queries from the interval index with an exclusive range end")
+    void shouldGetOverlappingEventsFromIntervalIndex() {
+        LocalDate startDate = LocalDate.of(2025, 7, 1);
+        LocalDate endDate = LocalDate.of(2025, 7, 31);
+        when(eventIntervalIndex.isReady()).thenReturn(true);
+        when(eventIntervalIndex.findOverlapping(CALENDAR, startDate.atStartOfDay(), LocalDate.of(2025, 8, 1).atStartOfDay()))
+                .thenReturn(List.of(event1));
+
+        List<Event> events = eventService.getFilteredEvents(CALENDAR, startDate, endDate, null, null, null, RangeMode.OVERLAPS);
+
+        assertEquals(List.of(event1), events);
+        verify(eventIntervalIndex, never()).findContained(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should merge archived events in start order when the range reaches into the archive")
+    void shouldIncludeArchivedEventsWhenRangeReachesArchive() {
+        LocalDate startDate = LocalDate.of(2024, 1, 1);
+        LocalDate endDate = LocalDate.of(2025, 7, 31);
+        Event archived = new Event(9L, "Altes Meeting", null,
+                LocalDateTime.of(2024, 3, 1, 10, 0), LocalDateTime.of(2024, 3, 1, 11, 0), true);
+        when(eventIntervalIndex.isReady()).thenReturn(true);
+        when(eventIntervalIndex.findContained(CALENDAR, startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX)))
+                .thenReturn(List.of(event1, event2));
+        when(eventArchiveService.reachesInto(any(EventFilter.class))).thenReturn(true);
+        // Event 2 ist gerade archiviert worden, steht aber noch im Index: es darf nur einmal erscheinen
+        when(eventArchiveService.findArchived(any(EventFilter.class))).thenReturn(List.of(archived, event2));
+
+        List<Event> events = eventService.getFilteredEvents(CALENDAR, startDate, endDate, null, null, null, RangeMode.CONTAINED);
+
+        assertEquals(List.of(archived, event1, event2), events);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the database for text filters even if the index is ready")
+    void shouldGetTextFilteredEventsFromDatabase() {
+        when(eventIntervalIndex.isReady()).thenReturn(true);
+        when(eventRepository.findAll(any(Specification.class))).thenReturn(List.of(event1));
+
+        List<Event> events = eventService.getFilteredEvents(CALENDAR, LocalDate.of(2025, 7, 1), null, "Meeting", null, null, null);
+
+        assertEquals(List.of(event1), events);
+        verify(eventIntervalIndex, never()).findContained(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should read only the selected columns from the database and project series occurrences")
+    void shouldGetEventFieldsFromDatabase() {
+        List<String> fields = SparseEvent.parseFields("title");
+        when(eventRepository.findFields(any(Specification.class), eq(fields)))
+                .thenReturn(List.of(new SparseEvent(fields, new Object[]{1L, "Meeting"})));
+        Event series = new Event(3L, "Meeting Serie", "Lange Beschreibung",
+                LocalDateTime.of(2025, 7, 7, 9, 0), LocalDateTime.of(2025, 7, 7, 9, 30), false);
+        Recurrence weekly = new Recurrence();
+        weekly.setFrequency(RecurrenceFrequency.WEEKLY);
+        series.setRecurrence(weekly);
+        when(eventRepository.findSeriesBetween(CALENDAR, LocalDate.of(2025, 7, 1).atStartOfDay(), LocalDate.of(2025, 7, 15).atStartOfDay()))
+                .thenReturn(List.of(series));
+
+        List<SparseEvent> events = eventService.getEventFields(CALENDAR, LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 14),
+                "Meeting", null, null, null, fields);
+
+        assertEquals(List.of(1L, 3L, 3L), events.stream().map(event -> event.get("id")).toList());
+        assertEquals("Meeting Serie", events.get(2).get("title"));
+        assertNull(events.get(2).get("description"));
+        verify(eventRepository, never()).findAll(any(Specification.class));
+    }
+
+    @Test
+    @DisplayName("Should project events from the interval index without a database query")
+    void shouldGetEventFieldsFromIntervalIndex() {
+        LocalDate startDate = LocalDate.of(2025, 7, 1);
+        LocalDate endDate = LocalDate.of(2025, 7, 31);
+        when(eventIntervalIndex.isReady()).thenReturn(true);
+        when(eventIntervalIndex.findContained(CALENDAR, startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX)))
+                .thenReturn(List.of(event1, event2));
+
+        List<SparseEvent> events = eventService.getEventFields(CALENDAR, startDate, endDate, null, null, null, null,
+                SparseEvent.parseFields("startDateTime"));
+
+        assertEquals(List.of("id", "startDateTime"), events.get(0).fields());
+        assertEquals(event2.getStartDateTime(), events.get(1).get("startDateTime"));
+        verify(eventRepository, never()).findFields(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should return search results from the index in ranked order")
+    void shouldSearchEventsWithIndex() {
+        when(eventSearchIndex.isReady()).thenReturn(true);
+        when(eventSearchIndex.search(CALENDAR, "meeting", 10)).thenReturn(List.of(2L, 1L));
+        // Die Datenbank liefert in beliebiger Reihenfolge
+        when(eventRepository.findByCalendarIdAndIdIn(CALENDAR, List.of(2L, 1L))).thenReturn(List.of(event1, event2));
+
+        List<Event> events = eventService.searchEvents(CALENDAR, "meeting", 10);
+
+        assertEquals(List.of(event2, event1), events);
+        verify(eventRepository, never()).findAll(any(Specification.class));
+    }
+
+    @Test
+    @DisplayName("Should not touch the database when the search index finds nothing")
+    void shouldSearchEventsWithoutHits() {
+        when(eventSearchIndex.isReady()).thenReturn(true);
+        when(eventSearchIndex.search(CALENDAR, "nothing", EventService.MAX_SEARCH_RESULTS)).thenReturn(List.of());
+
+        assertTrue(eventService.searchEvents(CALENDAR, "nothing", 1000).isEmpty());
+        verifyNoInteractions(eventRepository);
+    }
+
     @Test
     @DisplayName("Should retrieve event by ID")
     void shouldGetEventById() {
-        when(eventRepository.findById(1L)).thenReturn(Optional.of(event1));
+        when(eventRepository.findByIdAndCalendarId(1L, CALENDAR)).thenReturn(Optional.of(event1));
 
-        Optional<Event> foundEvent = eventService.getEventById(1L);
+        Optional<Event> foundEvent = eventService.getEventById(CALENDAR, 1L);
 
         assertTrue(foundEvent.isPresent());
         assertEquals(event1.getTitle(), foundEvent.get().getTitle());
-        verify(eventRepository, times(1)).findById(1L);
+        verify(eventRepository, times(1)).findByIdAndCalendarId(1L, CALENDAR);
     }
 
     @Test
     @DisplayName("Should return empty optional if event not found by ID")
     void shouldReturnEmptyOptionalWhenEventNotFoundById() {
-        when(eventRepository.findById(99L)).thenReturn(Optional.empty());
+        when(eventRepository.findByIdAndCalendarId(99L, CALENDAR)).thenReturn(Optional.empty());
 
-        Optional<Event> foundEvent = eventService.getEventById(99L);
+        Optional<Event> foundEvent = eventService.getEventById(CALENDAR, 99L);
 
         assertFalse(foundEvent.isPresent());
-        verify(eventRepository, times(1)).findById(99L);
+        verify(eventRepository, times(1)).findByIdAndCalendarId(99L, CALENDAR);
     }
 
     @Test
@@ -129,32 +357,116 @@ public class EventServiceTest {
             return savedEvent;
         });
 
-        Event createdEvent = eventService.createEvent(newEvent);
+        Event createdEvent = eventService.createEvent(CALENDAR, newEvent);
 
         assertNotNull(createdEvent);
         assertEquals(newEvent.getTitle(), createdEvent.getTitle());
         assertNotNull(createdEvent.getId()); // ID sollte gesetzt sein
         verify(eventRepository, times(1)).save(any(Event.class));
+        verify(eventPublisher, times(1)).publishEvent(EventChange.created(createdEvent));
     }
 
     @Test
-    @DisplayName("Should update an existing event successfully")
+    @DisplayName("Should update an uncached event with an UPDATE and a read of the new version")
     void shouldUpdateEvent() {
         Event updatedDetails = new Event(1L, "Updated Meeting", "Updated Description",
                 LocalDateTime.of(2025, 7, 10, 9, 30),
                 LocalDateTime.of(2025, 7, 10, 10, 30),
                 true);
 
-        when(eventRepository.existsById(1L)).thenReturn(true); // Simulieren, dass Event existiert
-        when(eventRepository.save(any(Event.class))).thenReturn(updatedDetails); // Simulieren des Speicherns
+        when(eventRepository.updateById(eq(CALENDAR), eq(1L), eq("Updated Meeting"), eq("Updated Description"),
+                eq(updatedDetails.getStartDateTime()), eq(updatedDetails.getEndDateTime()), eq(true), isNull(), isNull(),
+                any(Instant.class))).thenReturn(1);
+        when(eventRepository.findVersionById(CALENDAR, 1L)).thenReturn(Optional.of(4L));
 
-        Event result = eventService.updateEvent(1L, updatedDetails);
+        Event result = eventService.updateEvent(CALENDAR, 1L, updatedDetails);
 
         assertNotNull(result);
         assertEquals("Updated Meeting", result.getTitle());
         assertTrue(result.getIsCompleted());
-        verify(eventRepository, times(1)).existsById(1L);
-        verify(eventRepository, times(1)).save(any(Event.class));
+        assertEquals(4L, result.getVersion());
+        // Nicht im Cache: UPDATE plus Lesen der neuen Version (kein existsById, kein merge-SELECT)
+        verify(eventRepository, times(1)).updateById(eq(CALENDAR), eq(1L), any(), any(), any(), any(), any(), any(), any(), any());
+        verify(eventRepository, times(1)).findVersionById(CALENDAR, 1L);
+        verifyNoMoreInteractions(eventRepository);
+        verify(eventPublisher, times(1)).publishEvent(EventChange.updated(result));
+    }
+
+    @Test
+    @DisplayName("Should update a cached event without If-Match using a single UPDATE")
+    void shouldUpdateCachedEventWithSingleStatement() {
+        Event updatedDetails = new Event(1L, "Updated Meeting", null,
+                LocalDateTime.of(2025, 7, 10, 9, 30), LocalDateTime.of(2025, 7, 10, 10, 30), false);
+        when(eventCache.getCachedVersion(1L)).thenReturn(Optional.of(3L));
+        when(eventRepository.updateByIdAndVersion(eq(CALENDAR), eq(1L), eq(3L), any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        Event result = eventService.updateEvent(CALENDAR, 1L, updatedDetails);
+
+        assertEquals(4L, result.getVersion());
+        verify(eventRepository, times(1)).updateByIdAndVersion(eq(CALENDAR), eq(1L), eq(3L), any(), any(), any(), any(), any(), any(), any(), any());
+        verifyNoMoreInteractions(eventRepository);
+        verify(eventPublisher, times(1)).publishEvent(EventChange.updated(result));
+    }
+
+    @Test
+    @DisplayName("Should overwrite an event without If-Match even if its cached version is stale")
+    void shouldFallBackOnStaleCachedVersion() {
+        Event updatedDetails = new Event(1L, "Updated Meeting", null,
+                LocalDateTime.of(2025, 7, 10, 9, 30), LocalDateTime.of(2025, 7, 10, 10, 30), false);
+        when(eventCache.getCachedVersion(1L)).thenReturn(Optional.of(3L));
+        when(eventRepository.updateByIdAndVersion(eq(CALENDAR), eq(1L), eq(3L), any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(0);
+        when(eventRepository.updateById(eq(CALENDAR), eq(1L), any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(1);
+        when(eventRepository.findVersionById(CALENDAR, 1L)).thenReturn(Optional.of(6L));
+
+        Event result = eventService.updateEvent(CALENDAR, 1L, updatedDetails);
+
+        assertEquals(6L, result.getVersion());
+        verify(eventRepository, never()).existsByIdAndCalendarId(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should update an event with the expected version using a single UPDATE")
+    void shouldUpdateEventWithExpectedVersion() {
+        Event updatedDetails = new Event(1L, "Updated Meeting", null,
+                LocalDateTime.of(2025, 7, 10, 9, 30), LocalDateTime.of(2025, 7, 10, 10, 30), false);
+        when(eventRepository.updateByIdAndVersion(eq(CALENDAR), eq(1L), eq(3L), any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        Event result = eventService.updateEvent(CALENDAR, 1L, updatedDetails, 3L);
+
+        assertEquals(4L, result.getVersion());
+        verify(eventRepository, times(1)).updateByIdAndVersion(eq(CALENDAR), eq(1L), eq(3L), any(), any(), any(), any(), any(), any(), any(), any());
+        verifyNoMoreInteractions(eventRepository);
+    }
+
+    @Test
+    @DisplayName("Should throw 412 if the event was modified since the expected version")
+    void shouldThrowPreconditionFailedOnVersionConflict() {
+        Event updatedDetails = new Event(1L, "Updated Meeting", null,
+                LocalDateTime.of(2025, 7, 10, 9, 30), LocalDateTime.of(2025, 7, 10, 10, 30), false);
+        when(eventRepository.updateByIdAndVersion(eq(CALENDAR), eq(1L), eq(3L), any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(0);
+        when(eventRepository.existsByIdAndCalendarId(1L, CALENDAR)).thenReturn(true);
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
+            eventService.updateEvent(CALENDAR, 1L, updatedDetails, 3L);
+        });
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatusCode());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should throw 404 if the event with an expected version does not exist")
+    void shouldThrowNotFoundOnVersionedUpdateOfMissingEvent() {
+        Event updatedDetails = new Event(99L, "Ghost", null,
+                LocalDateTime.of(2025, 7, 10, 9, 30), LocalDateTime.of(2025, 7, 10, 10, 30), false);
+        when(eventRepository.updateByIdAndVersion(eq(CALENDAR), eq(99L), eq(0L), any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(0);
+        when(eventRepository.existsByIdAndCalendarId(99L, CALENDAR)).thenReturn(false);
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
+            eventService.updateEvent(CALENDAR, 99L, updatedDetails, 0L);
+        });
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
     }
 
     @Test
@@ -162,75 +474,161 @@ public class EventServiceTest {
     void shouldThrowExceptionWhenUpdatingNonExistentEvent() {
         Event updatedDetails = new Event(99L, "Non Existent", "Details",
                 LocalDateTime.now(), LocalDateTime.now().plusHours(1), false);
-        when(eventRepository.existsById(99L)).thenReturn(false);
+        when(eventRepository.updateById(eq(CALENDAR), eq(99L), any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(0);
 
         ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
-            eventService.updateEvent(99L, updatedDetails);
+            eventService.updateEvent(CALENDAR, 99L, updatedDetails);
         });
 
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
         assertEquals("Event not found with ID: 99", exception.getReason());
-        verify(eventRepository, times(1)).existsById(99L);
-        verify(eventRepository, never()).save(any(Event.class));
+        verify(eventRepository, times(1)).updateById(eq(CALENDAR), eq(99L), any(), any(), any(), any(), any(), any(), any(), any());
+        verifyNoMoreInteractions(eventRepository);
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
-    @DisplayName("Should delete an existing event")
+    @DisplayName("Should delete an existing event with a single DELETE")
     void shouldDeleteEvent() {
-        when(eventRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(eventRepository).deleteById(1L);
+        when(eventRepository.deleteByIdReturningCount(CALENDAR, 1L)).thenReturn(1);
 
-        eventService.deleteEvent(1L);
+        eventService.deleteEvent(CALENDAR, 1L);
 
-        verify(eventRepository, times(1)).existsById(1L);
-        verify(eventRepository, times(1)).deleteById(1L);
+        // Genau ein Repository-Aufruf = eine SQL-Anweisung (kein existsById, kein findById vor dem remove)
+        verify(eventRepository, times(1)).deleteByIdReturningCount(CALENDAR, 1L);
+        verifyNoMoreInteractions(eventRepository);
+        // Der Grabstein meldet die Löschung an GET /events/sync
+        verify(tombstoneRepository, times(1)).save(argThat(tombstone -> tombstone.getEventId() == 1L));
+        verify(eventPublisher, times(1)).publishEvent(EventChange.deleted(1L, CALENDAR));
     }
 
     @Test
     @DisplayName("Should throw ResponseStatusException if event not found for delete")
     void shouldThrowExceptionWhenDeletingNonExistentEvent() {
-        when(eventRepository.existsById(99L)).thenReturn(false);
+        when(eventRepository.deleteByIdReturningCount(CALENDAR, 99L)).thenReturn(0);
 
         ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
-            eventService.deleteEvent(99L);
+            eventService.deleteEvent(CALENDAR, 99L);
         });
 
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
         assertEquals("Event not found with ID: 99", exception.getReason());
-        verify(eventRepository, times(1)).existsById(99L);
+        verify(eventRepository, times(1)).deleteByIdReturningCount(CALENDAR, 99L);
+        verifyNoMoreInteractions(eventRepository);
+        verifyNoInteractions(tombstoneRepository);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should create several events with one saveAll call")
+    void shouldCreateEvents() {
+        Event newEvent1 = new Event(5L, "Lunch", null, event1.getStartDateTime(), event1.getEndDateTime(), false);
+        Event newEvent2 = new Event(null, "Review", null, event2.getStartDateTime(), event2.getEndDateTime(), false);
+        when(eventRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Event> events = invocation.getArgument(0);
+            long id = 10;
+            for (Event event : events) {
+                event.setId(id++);
+            }
+            return events;
+        });
+
+        List<Event> created = eventService.createEvents(CALENDAR, List.of(newEvent1, newEvent2));
+
+        assertEquals(List.of(10L, 11L), created.stream().map(Event::getId).toList());
+        verify(eventRepository, times(1)).saveAll(anyList());
+        verify(eventRepository, never()).save(any(Event.class));
+        verify(eventPublisher, times(2)).publishEvent(any(EventChange.class));
+    }
+
+    @Test
+    @DisplayName("Should update existing events and report missing ones as not found")
+    void shouldUpdateEventsAndReportMissing() {
+        Event changed = new Event(1L, "Renamed", "Team Meeting",
+                event1.getStartDateTime(), event1.getEndDateTime(), true);
+        Event missing = new Event(99L, "Ghost", null,
+                event1.getStartDateTime(), event1.getEndDateTime(), false);
+        when(eventRepository.findByCalendarIdAndIdIn(CALENDAR, List.of(1L, 99L))).thenReturn(List.of(event1));
+
+        List<BatchItemResult> results = eventService.updateEvents(CALENDAR, List.of(changed, missing));
+
+        assertEquals(200, results.get(0).status());
+        assertEquals("Renamed", results.get(0).event().getTitle());
+        assertTrue(event1.getIsCompleted());
+        assertEquals(1, results.get(1).index());
+        assertEquals(404, results.get(1).status());
+        assertEquals(99L, results.get(1).id());
+        // Ein SELECT für alle IDs, keine einzelnen save()-Aufrufe
+        verify(eventRepository, times(1)).findByCalendarIdAndIdIn(eq(CALENDAR), anyList());
+        verify(eventRepository, never()).save(any(Event.class));
+        verify(eventPublisher, times(1)).publishEvent(any(EventChange.class));
+    }
+
+    @Test
+    @DisplayName("Should delete existing events in one batch and report missing ones as not found")
+    void shouldDeleteEventsAndReportMissing() {
+        when(eventRepository.findExistingIds(CALENDAR, List.of(1L, 99L, 2L))).thenReturn(new HashSet<>(Set.of(1L, 2L)));
+
+        List<BatchItemResult> results = eventService.deleteEvents(CALENDAR, List.of(1L, 99L, 2L));
+
+        assertEquals(List.of(204, 404, 204), results.stream().map(BatchItemResult::status).toList());
+        verify(eventRepository, times(1)).deleteAllByIdInBatch(Set.of(1L, 2L));
         verify(eventRepository, never()).deleteById(anyLong());
+        verify(tombstoneRepository, times(1)).saveAll(anyList());
+        verify(eventPublisher, times(1)).publishEvent(EventChange.deleted(1L, CALENDAR));
+        verify(eventPublisher, times(1)).publishEvent(EventChange.deleted(2L, CALENDAR));
     }
 
     @Test
     @DisplayName("Should update completion status of an event")
     void shouldUpdateEventCompletionStatus() {
-        when(eventRepository.findById(1L)).thenReturn(Optional.of(event1));
-        when(eventRepository.save(any(Event.class))).thenAnswer(invocation -> {
-            Event savedEvent = invocation.getArgument(0);
-            return savedEvent;
-        });
+        Event completedEvent = new Event(1L, "Meeting", "Team Meeting",
+                event1.getStartDateTime(), event1.getEndDateTime(), true);
+        when(eventRepository.updateCompletionStatusById(eq(CALENDAR), eq(1L), eq(true), any())).thenReturn(1);
+        when(eventRepository.findByIdAndCalendarId(1L, CALENDAR)).thenReturn(Optional.of(completedEvent));
 
-        Event updatedEvent = eventService.updateEventCompletionStatus(1L, true);
+        Event updatedEvent = eventService.updateEventCompletionStatus(CALENDAR, 1L, true);
 
         assertNotNull(updatedEvent);
         assertEquals(1L, updatedEvent.getId());
         assertTrue(updatedEvent.getIsCompleted()); // Verwenden Sie getIsCompleted() wegen Lombok
-        verify(eventRepository, times(1)).findById(1L);
-        verify(eventRepository, times(1)).save(any(Event.class));
+        // UPDATE plus ein SELECT für die Antwort, kein save()/merge
+        verify(eventRepository, times(1)).updateCompletionStatusById(eq(CALENDAR), eq(1L), eq(true), any());
+        verify(eventRepository, times(1)).findByIdAndCalendarId(1L, CALENDAR);
+        verifyNoMoreInteractions(eventRepository);
+    }
+
+    @Test
+    @DisplayName("Should only enqueue the completion status in write-behind mode and answer with the pending state")
+    void shouldEnqueueCompletionStatusInWriteBehindMode() {
+        Event pendingState = new Event(1L, "Meeting", "Team Meeting",
+                event1.getStartDateTime(), event1.getEndDateTime(), true, 1L);
+        when(completionWriteBehind.isEnabled()).thenReturn(true);
+        when(eventRepository.findByIdAndCalendarId(1L, CALENDAR)).thenReturn(Optional.of(event1));
+        when(completionWriteBehind.applyTo(event1)).thenReturn(pendingState);
+
+        Event updatedEvent = eventService.updateEventCompletionStatus(CALENDAR, 1L, true);
+
+        assertSame(pendingState, updatedEvent);
+        verify(completionWriteBehind).enqueue(CALENDAR, 1L, true);
+        verify(eventRepository, never()).updateCompletionStatusById(any(), any(), any(), any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     @DisplayName("Should throw ResponseStatusException if event not found for completion status update")
     void shouldThrowExceptionWhenUpdatingCompletionStatusForNonExistentEvent() {
-        when(eventRepository.findById(99L)).thenReturn(Optional.empty());
+        when(eventRepository.updateCompletionStatusById(eq(CALENDAR), eq(99L), eq(true), any())).thenReturn(0);
 
         ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
-            eventService.updateEventCompletionStatus(99L, true);
+            eventService.updateEventCompletionStatus(CALENDAR, 99L, true);
         });
 
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
         assertEquals("Event not found with ID: 99", exception.getReason());
-        verify(eventRepository, times(1)).findById(99L);
-        verify(eventRepository, never()).save(any(Event.class));
+        // Nicht gefundene Events kosten nur die eine UPDATE-Anweisung
+        verify(eventRepository, times(1)).updateCompletionStatusById(eq(CALENDAR), eq(99L), eq(true), any());
+        verifyNoMoreInteractions(eventRepository);
+        verifyNoInteractions(eventPublisher);
     }
-}
\ No newline at end of file
+}
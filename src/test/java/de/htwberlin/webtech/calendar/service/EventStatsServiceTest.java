@@ -0,0 +1,100 @@
+package de.htwberlin.webtech.calendar.service;
+
+import de.htwberlin.webtech.calendar.index.EventStatsRollup;
+import de.htwberlin.webtech.calendar.model.DailyEventStats;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventStats;
+import de.htwberlin.webtech.calendar.model.Recurrence;
+import de.htwberlin.webtech.calendar.model.RecurrenceFrequency;
+import de.htwberlin.webtech.calendar.model.StatsBucket;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EventStatsService Unit Tests")
+public class EventStatsServiceTest {
+
+    // Mittwoch; die ISO-Woche beginnt am Montag, 7. Juli
+    private static final LocalDate FROM = LocalDate.of(2025, 7, 9);
+    private static final LocalDate TO = LocalDate.of(2025, 7, 15);
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private EventStatsRollup rollup;
+
+    @Mock
+    private EventArchiveService eventArchiveService;
+
+    private EventStatsService statsService;
+
+    @BeforeEach
+    void setUp() {
+        statsService = new EventStatsService(eventRepository, rollup, eventArchiveService);
+    }
+
+    @Test
+    @DisplayName("Should sum database totals and series occurrences into weekly buckets")
+    void shouldBuildWeeklyStatsFromDatabase() {
+        when(rollup.isReady()).thenReturn(false);
+        when(eventRepository.sumByDay(Event.DEFAULT_CALENDAR, FROM.atStartOfDay(), TO.plusDays(1).atStartOfDay())).thenReturn(List.of(
+                new DailyEventStats(LocalDate.of(2025, 7, 10), 3, 2, 3 * 3600),
+                new DailyEventStats(LocalDate.of(2025, 7, 14), 1, 0, 1800)));
+        Event daily = new Event(7L, "Standup", null,
+                LocalDateTime.of(2025, 7, 1, 9, 0), LocalDateTime.of(2025, 7, 1, 9, 15), true);
+        daily.setRecurrence(new Recurrence(RecurrenceFrequency.DAILY, null, null, null, null));
+        when(eventRepository.findSeriesBetween(eq(Event.DEFAULT_CALENDAR), any(), any())).thenReturn(List.of(daily));
+
+        List<EventStats> stats = statsService.getStats(Event.DEFAULT_CALENDAR, FROM, TO, StatsBucket.WEEK);
+
+        // Woche 1: 9.-13. Juli im Bereich (5 Vorkommen), Woche 2: 14.-15. Juli (2 Vorkommen)
+        assertEquals(List.of(
+                EventStats.of(LocalDate.of(2025, 7, 7), LocalDate.of(2025, 7, 13), 8, 7, 3 * 3600 + 5 * 900),
+                EventStats.of(LocalDate.of(2025, 7, 14), LocalDate.of(2025, 7, 20), 3, 2, 1800 + 2 * 900)), stats);
+        assertEquals(0.875, stats.get(0).completionRate());
+        assertEquals(1, stats.get(1).open());
+    }
+
+    @Test
+    @DisplayName("Should answer from the rollup without querying the database and include empty buckets")
+    void shouldUseRollupWhenReady() {
+        when(rollup.isReady()).thenReturn(true);
+        when(rollup.getDailyStats(Event.DEFAULT_CALENDAR, FROM, TO)).thenReturn(List.of(new DailyEventStats(FROM, 2, 1, 7200)));
+        when(rollup.getSeries(Event.DEFAULT_CALENDAR)).thenReturn(List.of());
+
+        List<EventStats> stats = statsService.getStats(Event.DEFAULT_CALENDAR, FROM, TO, StatsBucket.DAY);
+
+        assertEquals(7, stats.size());
+        assertEquals(EventStats.of(FROM, FROM, 2, 1, 7200), stats.get(0));
+        assertEquals(EventStats.of(TO, TO, 0, 0, 0), stats.get(6));
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject reversed and too large ranges with 400")
+    void shouldRejectInvalidRanges() {
+        ResponseStatusException reversed = assertThrows(ResponseStatusException.class,
+                () -> statsService.getStats(Event.DEFAULT_CALENDAR, TO, FROM, StatsBucket.DAY));
+        ResponseStatusException tooLarge = assertThrows(ResponseStatusException.class,
+                () -> statsService.getStats(Event.DEFAULT_CALENDAR, FROM, FROM.plusDays(EventStatsService.MAX_STATS_DAYS), StatsBucket.MONTH));
+
+        assertEquals(HttpStatus.BAD_REQUEST, reversed.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, tooLarge.getStatusCode());
+    }
+}
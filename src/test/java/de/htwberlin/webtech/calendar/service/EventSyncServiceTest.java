@@ -0,0 +1,108 @@
+package de.htwberlin.webtech.calendar.service;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventTombstone;
+import de.htwberlin.webtech.calendar.model.SyncResult;
+import de.htwberlin.webtech.calendar.model.SyncToken;
+import de.htwberlin.webtech.calendar.repository.EventRepository;
+import de.htwberlin.webtech.calendar.repository.EventTombstoneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EventSyncService Unit Tests")
+public class EventSyncServiceTest {
+
+    private static final Duration SAFETY_MARGIN = Duration.ofSeconds(5);
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private EventTombstoneRepository tombstoneRepository;
+
+    private EventSyncService syncService;
+
+    @BeforeEach
+    void setUp() {
+        syncService = new EventSyncService(eventRepository, tombstoneRepository, SAFETY_MARGIN, Duration.ofDays(30));
+    }
+
+    @Test
+    @DisplayName("Should merge changed and deleted events by time and continue after the last one when limited")
+    void shouldMergeChangesUpToLimit() {
+        Instant base = Instant.parse("2025-07-10T09:00:00Z");
+        when(eventRepository.findModifiedAfter(Event.DEFAULT_CALENDAR, Instant.EPOCH, 0L, Limit.of(4)))
+                .thenReturn(List.of(event(3L, base), event(1L, base.plusSeconds(2)), event(2L, base.plusSeconds(3))));
+        when(tombstoneRepository.findDeletedAfter(Event.DEFAULT_CALENDAR, Instant.EPOCH, 0L, Limit.of(4)))
+                .thenReturn(List.of(new EventTombstone(7L, Event.DEFAULT_CALENDAR, base.plusSeconds(1))));
+
+        SyncResult result = syncService.getChangesSince(Event.DEFAULT_CALENDAR, null, 3);
+
+        assertEquals(List.of(3L, 1L), result.changed().stream().map(Event::getId).toList());
+        assertEquals(List.of(7L), result.deleted());
+        assertTrue(result.hasMore());
+        SyncToken next = SyncToken.decode(result.token());
+        assertEquals(base.plusSeconds(2), next.modifiedAt());
+        assertEquals(1L, next.id());
+    }
+
+    @Test
+    @DisplayName("Should hold the token back by the safety margin once all changes are read")
+    void shouldSettleTokenBehindSafetyMargin() {
+        Instant lastSync = Instant.now().minus(Duration.ofMinutes(10));
+        SyncToken since = new SyncToken(lastSync, 4L, lastSync);
+        when(eventRepository.findModifiedAfter(Event.DEFAULT_CALENDAR, lastSync, 4L, Limit.of(101))).thenReturn(List.of(event(5L, Instant.now())));
+        when(tombstoneRepository.findDeletedAfter(Event.DEFAULT_CALENDAR, lastSync, 4L, Limit.of(101))).thenReturn(List.of());
+
+        SyncResult result = syncService.getChangesSince(Event.DEFAULT_CALENDAR, since, 100);
+
+        assertFalse(result.hasMore());
+        SyncToken next = SyncToken.decode(result.token());
+        // Änderungen der letzten Sekunden (evtl. noch nicht committete Transaktionen) werden erneut gelesen
+        assertTrue(next.modifiedAt().isBefore(Instant.now().minus(SAFETY_MARGIN).plusMillis(1)));
+        assertTrue(next.modifiedAt().isAfter(lastSync));
+
+        // Eine erneute Synchronisation direkt danach fällt nicht hinter das alte Token zurück
+        SyncToken recent = new SyncToken(Instant.now(), 5L, Instant.now());
+        when(eventRepository.findModifiedAfter(Event.DEFAULT_CALENDAR, recent.modifiedAt(), 5L, Limit.of(101))).thenReturn(List.of());
+        when(tombstoneRepository.findDeletedAfter(Event.DEFAULT_CALENDAR, recent.modifiedAt(), 5L, Limit.of(101))).thenReturn(List.of());
+        SyncToken unchanged = SyncToken.decode(syncService.getChangesSince(Event.DEFAULT_CALENDAR, recent, 100).token());
+        assertEquals(recent.modifiedAt(), unchanged.modifiedAt());
+        assertEquals(5L, unchanged.id());
+    }
+
+    @Test
+    @DisplayName("Should reject tokens older than the tombstone retention with 410")
+    void shouldRejectExpiredToken() {
+        Instant old = Instant.now().minus(Duration.ofDays(31));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> syncService.getChangesSince(Event.DEFAULT_CALENDAR, new SyncToken(old, 1L, old), 100));
+
+        assertEquals(HttpStatus.GONE, exception.getStatusCode());
+        verifyNoInteractions(eventRepository, tombstoneRepository);
+    }
+
+    private static Event event(Long id, Instant lastModified) {
+        Event event = new Event(id, "Event " + id, null,
+                LocalDateTime.of(2025, 7, 10, 9, 0), LocalDateTime.of(2025, 7, 10, 10, 0), false);
+        event.setLastModified(lastModified);
+        return event;
+    }
+}
@@ -0,0 +1,95 @@
+package de.htwberlin.webtech.calendar.service;
+
+import de.htwberlin.webtech.calendar.model.BusyBlock;
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventConflict;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IntervalSweep Unit Tests")
+public class IntervalSweepTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 7, 10, 0, 0);
+
+    @Test
+    @DisplayName("Should merge overlapping, nested and adjacent events and clip them to the range")
+    void shouldMergeBusyBlocks() {
+        List<Event> events = List.of(
+                event(1L, 9, 0, 10, 0),
+                event(2L, 13, 0, 14, 0),
+                event(3L, 9, 30, 9, 45), // liegt in Event 1
+                event(4L, 10, 0, 11, 0), // schließt direkt an Event 1 an
+                event(5L, 7, 0, 8, 30)); // beginnt vor dem Bereich
+
+        List<BusyBlock> blocks = IntervalSweep.mergeBusy(events, DAY.withHour(8), DAY.withHour(18), null);
+
+        assertEquals(List.of(
+                new BusyBlock(DAY.withHour(8), DAY.withHour(8).withMinute(30)),
+                new BusyBlock(DAY.withHour(9), DAY.withHour(11)),
+                new BusyBlock(DAY.withHour(13), DAY.withHour(14))), blocks);
+    }
+
+    @Test
+    @DisplayName("Should widen blocks to the granularity before merging them")
+    void shouldRoundToGranularity() {
+        List<Event> events = List.of(event(1L, 9, 10, 9, 20), event(2L, 9, 50, 9, 55));
+
+        assertEquals(List.of(
+                        new BusyBlock(DAY.withHour(9), DAY.withHour(9).withMinute(30)),
+                        new BusyBlock(DAY.withHour(9).withMinute(45), DAY.withHour(10))),
+                IntervalSweep.mergeBusy(events, DAY, DAY.plusDays(1), Duration.ofMinutes(15)));
+        // Im 30-Minuten-Raster stoßen beide Blöcke aneinander und werden zusammengefasst
+        assertEquals(List.of(new BusyBlock(DAY.withHour(9), DAY.withHour(10))),
+                IntervalSweep.mergeBusy(events, DAY, DAY.plusDays(1), Duration.ofMinutes(30)));
+    }
+
+    @Test
+    @DisplayName("Should report every overlapping pair once, but not touching events or occurrences of the same series")
+    void shouldFindConflicts() {
+        List<Event> events = List.of(
+                event(3L, 9, 30, 10, 30),
+                event(1L, 9, 0, 12, 0),
+                event(2L, 10, 0, 11, 0),
+                event(4L, 12, 0, 13, 0), // beginnt genau, wenn Event 1 endet
+                event(5L, 12, 30, 12, 45),
+                event(5L, 12, 40, 12, 50)); // weiteres Vorkommen derselben Serie
+
+        List<EventConflict> conflicts = IntervalSweep.findConflicts(events, DAY, DAY.plusDays(1), FreeBusyService.MAX_CONFLICTS);
+
+        assertEquals(5, conflicts.size());
+        assertTrue(conflicts.contains(new EventConflict(1L, 3L, DAY.withHour(9).withMinute(30), DAY.withHour(10).withMinute(30))));
+        assertTrue(conflicts.contains(new EventConflict(1L, 2L, DAY.withHour(10), DAY.withHour(11))));
+        assertTrue(conflicts.contains(new EventConflict(3L, 2L, DAY.withHour(10), DAY.withHour(10).withMinute(30))));
+        assertTrue(conflicts.contains(new EventConflict(4L, 5L, DAY.withHour(12).withMinute(30), DAY.withHour(12).withMinute(45))));
+        assertTrue(conflicts.contains(new EventConflict(4L, 5L, DAY.withHour(12).withMinute(40), DAY.withHour(12).withMinute(50))));
+        assertEquals(2, IntervalSweep.findConflicts(events, DAY, DAY.plusDays(1), 2).size());
+    }
+
+    @Test
+    @DisplayName("Should clip conflicts to the range, even for events centuries away")
+    void shouldClipConflictsToRange() {
+        Event ancient = new Event(1L, "Event 1", null, LocalDateTime.of(1700, 1, 1, 0, 0), DAY.withHour(10), false);
+        Event distant = new Event(2L, "Event 2", null, DAY.withHour(16), LocalDateTime.of(2400, 1, 1, 0, 0), false);
+        List<Event> events = List.of(
+                distant,
+                ancient,
+                event(3L, 9, 0, 11, 0),
+                event(4L, 7, 0, 8, 30)); // überschneidet sich mit Event 1 nur vor dem Bereich
+
+        List<EventConflict> conflicts = IntervalSweep.findConflicts(events, DAY.withHour(8).withMinute(30), DAY.withHour(18),
+                FreeBusyService.MAX_CONFLICTS);
+
+        assertEquals(List.of(new EventConflict(1L, 3L, DAY.withHour(9), DAY.withHour(10))), conflicts);
+    }
+
+    private static Event event(Long id, int startHour, int startMinute, int endHour, int endMinute) {
+        return new Event(id, "Event " + id, null,
+                DAY.withHour(startHour).withMinute(startMinute), DAY.withHour(endHour).withMinute(endMinute), false);
+    }
+}
@@ -0,0 +1,128 @@
+package de.htwberlin.webtech.calendar.service;
+
+import de.htwberlin.webtech.calendar.model.Event;
+import de.htwberlin.webtech.calendar.model.EventFilter;
+import de.htwberlin.webtech.calendar.model.RangeMode;
+import de.htwberlin.webtech.calendar.model.Recurrence;
+import de.htwberlin.webtech.calendar.model.RecurrenceFrequency;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RecurrenceExpander Unit Tests")
+public class RecurrenceExpanderTest {
+
+    @Test
+    @DisplayName("Should expand only the occurrences inside the window and skip exceptions")
+    void shouldExpandWeeklySeriesInWindow() {
+        Event series = series(LocalDateTime.of(2025, 1, 6, 9, 0), 60,
+                new Recurrence(RecurrenceFrequency.WEEKLY, null, null, null, List.of(LocalDate.of(2025, 7, 14))));
+
+        List<LocalDateTime> starts = expand(series, window(LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 31), null));
+
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 7, 7, 9, 0),
+                LocalDateTime.of(2025, 7, 21, 9, 0),
+                LocalDateTime.of(2025, 7, 28, 9, 0)), starts);
+    }
+
+    @Test
+    @DisplayName("Should stop after count or until and honour the interval")
+    void shouldRespectCountUntilAndInterval() {
+        LocalDateTime first = LocalDateTime.of(2025, 7, 1, 9, 0);
+        EventFilter july = window(LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 31), null);
+
+        assertEquals(3, expand(series(first, 30, new Recurrence(RecurrenceFrequency.DAILY, 2, null, 3, null)), july).size());
+        List<LocalDateTime> untilTenth = expand(
+                series(first, 30, new Recurrence(RecurrenceFrequency.DAILY, null, LocalDate.of(2025, 7, 10), null, null)), july);
+        assertEquals(10, untilTenth.size());
+        assertEquals(LocalDateTime.of(2025, 7, 10, 9, 0), untilTenth.get(9));
+    }
+
+    @Test
+    @DisplayName("Should keep the day of month and fall back to the last day in shorter months")
+    void shouldExpandMonthlySeries() {
+        Event series = series(LocalDateTime.of(2025, 1, 31, 18, 0), 60,
+                new Recurrence(RecurrenceFrequency.MONTHLY, null, null, null, null));
+
+        List<LocalDateTime> starts = expand(series, window(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 4, 30), null));
+
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 2, 28, 18, 0),
+                LocalDateTime.of(2025, 3, 31, 18, 0),
+                LocalDateTime.of(2025, 4, 30, 18, 0)), starts);
+    }
+
+    @Test
+    @DisplayName("Should find occurrences of long-running series without walking through the past")
+    void shouldJumpToTheWindow() {
+        // Täglich seit 1970: der Einstieg in den Bereich wird berechnet, nicht durch ~20.000 Vorkommen gesucht
+        Event series = series(LocalDateTime.of(1970, 1, 1, 8, 0), 30,
+                new Recurrence(RecurrenceFrequency.DAILY, null, null, null, null));
+
+        List<LocalDateTime> starts = expand(series, window(LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 7), null));
+
+        assertEquals(7, starts.size());
+        assertEquals(LocalDateTime.of(2025, 7, 1, 8, 0), starts.get(0));
+    }
+
+    @Test
+    @DisplayName("Should apply contained and overlaps semantics to each occurrence")
+    void shouldApplyRangeModePerOccurrence() {
+        // Jedes Vorkommen dauert von 22 Uhr bis 2 Uhr am Folgetag
+        Event series = series(LocalDateTime.of(2025, 6, 1, 22, 0), 240,
+                new Recurrence(RecurrenceFrequency.DAILY, null, null, null, null));
+        LocalDate day = LocalDate.of(2025, 7, 10);
+
+        assertEquals(List.of(LocalDateTime.of(2025, 7, 9, 22, 0), LocalDateTime.of(2025, 7, 10, 22, 0)),
+                expand(series, window(day, day, RangeMode.OVERLAPS)));
+        assertTrue(expand(series, window(day, day, RangeMode.CONTAINED)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should return an unbounded series itself when the query has no end date")
+    void shouldNotExpandUnboundedSeriesWithoutEndDate() {
+        Event series = series(LocalDateTime.of(2025, 1, 6, 9, 0), 60,
+                new Recurrence(RecurrenceFrequency.WEEKLY, null, null, null, null));
+        List<Event> result = new ArrayList<>();
+
+        RecurrenceExpander.expand(series, window(LocalDate.of(2025, 7, 1), null, null), 100, result);
+
+        assertEquals(List.of(series), result);
+    }
+
+    @Test
+    @DisplayName("Should compute the end of the last occurrence as series end")
+    void shouldComputeSeriesEnd() {
+        Event series = series(LocalDateTime.of(2025, 7, 1, 9, 0), 60,
+                new Recurrence(RecurrenceFrequency.WEEKLY, 2, null, 3, null));
+
+        series.updateSeriesEnd();
+
+        assertEquals(LocalDateTime.of(2025, 7, 29, 10, 0), series.getSeriesEnd());
+    }
+
+    private static List<LocalDateTime> expand(Event series, EventFilter filter) {
+        List<Event> result = new ArrayList<>();
+        RecurrenceExpander.expand(series, filter, EventService.MAX_OCCURRENCES_PER_SERIES, result);
+        result.forEach(occurrence -> assertEquals(series.getId(), occurrence.getId()));
+        return result.stream().map(Event::getStartDateTime).toList();
+    }
+
+    private static EventFilter window(LocalDate startDate, LocalDate endDate, RangeMode rangeMode) {
+        return new EventFilter(Event.DEFAULT_CALENDAR, startDate, endDate, null, null, null, rangeMode);
+    }
+
+    private static Event series(LocalDateTime start, int minutes, Recurrence recurrence) {
+        Event event = new Event(1L, "Series", null, start, start.plusMinutes(minutes), false);
+        event.setRecurrence(recurrence);
+        event.updateSeriesEnd();
+        return event;
+    }
+}